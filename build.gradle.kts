@@ -47,6 +47,7 @@ dependencies {
     testImplementation("org.junit.jupiter:junit-jupiter")
     testImplementation("com.google.testing.compile:compile-testing:0.21.0")
     testImplementation("org.ow2.asm:asm:9.7.1")
+    testImplementation(gradleTestKit())
 }
 
 tasks.test {
@@ -69,6 +70,13 @@ tasks.withType<JavaCompile>().configureEach {
 tasks.test {
     // Needed to load com.sun.tools.javac.* during compile-testing runs.
     jvmArgs(javacAddExports.map { "--add-exports=$it" })
+
+    // IncrementalCompilationTest puts fmapper (classes + META-INF) on a TestKit build's processor path.
+    val processorClasspath = sourceSets.main.get().runtimeClasspath
+    inputs.files(processorClasspath)
+    jvmArgumentProviders.add(CommandLineArgumentProvider {
+        listOf("-Dfmapper.testkit.classpath=${processorClasspath.asPath}")
+    })
 }
 
 tasks.withType<Javadoc>().configureEach {
@@ -0,0 +1,105 @@
+plugins {
+    java
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+repositories {
+    mavenCentral()
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
+}
+
+// Entity widths to generate and benchmark (comma separated), e.g. `-PentityWidths=5,50,300`.
+val entityWidths = providers.gradleProperty("entityWidths").orElse("5,50,300")
+
+// Small generator that writes BenchEntityN + BenchEntityNBenchmark sources for every width.
+val generator by sourceSets.creating
+
+val generatedBenchmarkSources = layout.buildDirectory.dir("generated/sources/benchmarks/java")
+
+val generateBenchmarkSources by tasks.registering(JavaExec::class) {
+    description = "Generates wide @Entity classes and their JMH benchmarks."
+    classpath = generator.runtimeClasspath
+    mainClass.set("dev.w0fv1.jmh.BenchmarkSourceGenerator")
+    inputs.property("entityWidths", entityWidths)
+    outputs.dir(generatedBenchmarkSources)
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf(generatedBenchmarkSources.get().asFile.absolutePath, entityWidths.get())
+    })
+}
+
+sourceSets.named("jmh") {
+    java.srcDir(generateBenchmarkSources)
+}
+
+// The processor plus everything the generated entities compile against, for compileTimeBenchmark.
+val compileBenchmarkClasspath by configurations.creating
+
+dependencies {
+    compileBenchmarkClasspath("dev.w0fv1:fmapper:0.0.4")
+    compileBenchmarkClasspath("jakarta.persistence:jakarta.persistence-api:3.2.0")
+
+    // This will be substituted by includeBuild("..") to the parent sources.
+    jmhImplementation("dev.w0fv1:fmapper:0.0.4")
+    jmhAnnotationProcessor("dev.w0fv1:fmapper:0.0.4")
+
+    // Only for @Entity annotations on the generated entities.
+    jmhImplementation("jakarta.persistence:jakarta.persistence-api:3.2.0")
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    // Allocation rate (gc.alloc.rate.norm) next to throughput.
+    profilers.add("gc")
+    benchmarkMode.add("thrpt")
+    timeUnit.set("us")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+}
+
+val javacAddExports = listOf(
+    "jdk.compiler/com.sun.tools.javac.api=ALL-UNNAMED",
+    "jdk.compiler/com.sun.tools.javac.code=ALL-UNNAMED",
+    "jdk.compiler/com.sun.tools.javac.processing=ALL-UNNAMED",
+    "jdk.compiler/com.sun.tools.javac.tree=ALL-UNNAMED",
+    "jdk.compiler/com.sun.tools.javac.util=ALL-UNNAMED",
+)
+
+tasks.withType<JavaCompile>().configureEach {
+    options.compilerArgs.addAll(listOf("-Afmapper.inline=true", "-Afmapper.accessors=true"))
+
+    // Processor uses javac internals: run javac in a forked JVM with required exports.
+    options.isFork = true
+    options.forkOptions.jvmArgs = mutableListOf<String>().apply {
+        addAll(javacAddExports.map { "--add-exports=$it" })
+    }
+}
+
+// Compile-time scaling: N entities x M fields, javac with and without the processor, e.g.
+// `-PcompileEntities=100 -PcompileFields=50,100,200 -PcompileBudgetMicros=1200`.
+val compileTimeBenchmark by tasks.registering(JavaExec::class) {
+    description = "Times javac on generated entities with and without the fmapper processor."
+    classpath = generator.runtimeClasspath
+    mainClass.set("dev.w0fv1.jmh.CompileTimeBenchmark")
+    jvmArgs(javacAddExports.map { "--add-exports=$it" })
+    inputs.files(compileBenchmarkClasspath)
+    val workDir = layout.buildDirectory.dir("compile-time-benchmark")
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf(
+            workDir.get().asFile.absolutePath,
+            compileBenchmarkClasspath.asPath,
+            providers.gradleProperty("compileEntities").getOrElse("100"),
+            providers.gradleProperty("compileFields").getOrElse("50,100,200"),
+            providers.gradleProperty("compileIterations").getOrElse("5"),
+            providers.gradleProperty("compileBudgetMicros").getOrElse("1200"),
+        )
+    })
+}
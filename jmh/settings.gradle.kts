@@ -0,0 +1,4 @@
+rootProject.name = "fmapper-jmh"
+
+// Use parent build as a composite build so benchmarks always measure local fmapper sources.
+includeBuild("..")
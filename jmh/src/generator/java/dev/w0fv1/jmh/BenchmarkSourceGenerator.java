@@ -0,0 +1,241 @@
+package dev.w0fv1.jmh;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes {@code BenchEntityN} (an {@code @Entity} with N {@code long} fields) and {@code BenchEntityNBenchmark}
+ * for every requested width.
+ * <p>
+ * Usage: {@code BenchmarkSourceGenerator <outputDir> <width,width,...>}
+ */
+public final class BenchmarkSourceGenerator {
+
+    private static final String PACKAGE = "dev.w0fv1.jmh.generated";
+
+    private BenchmarkSourceGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("usage: BenchmarkSourceGenerator <outputDir> <width,width,...>");
+        }
+
+        Path packageDir = Path.of(args[0]).resolve(PACKAGE.replace('.', '/'));
+        Files.createDirectories(packageDir);
+
+        for (String width : args[1].split(",")) {
+            int fieldCount = Integer.parseInt(width.trim());
+            if (fieldCount < 1) {
+                throw new IllegalArgumentException("Entity width must be positive: " + fieldCount);
+            }
+            write(packageDir.resolve("BenchEntity" + fieldCount + ".java"), entitySource(fieldCount));
+            write(packageDir.resolve("BenchEntity" + fieldCount + "Benchmark.java"), benchmarkSource(fieldCount));
+        }
+    }
+
+    private static void write(Path file, String source) throws IOException {
+        Files.writeString(file, source, StandardCharsets.UTF_8);
+    }
+
+    private static String entitySource(int fieldCount) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(PACKAGE).append(";\n\n");
+        sb.append("import jakarta.persistence.Entity;\n\n");
+        sb.append("@Entity\n");
+        sb.append("public class BenchEntity").append(fieldCount).append(" {\n");
+        for (int i = 0; i < fieldCount; i++) {
+            sb.append("    private long f").append(i).append(";\n");
+        }
+        for (int i = 0; i < fieldCount; i++) {
+            sb.append("\n");
+            sb.append("    public long getF").append(i).append("() { return f").append(i).append("; }\n");
+            sb.append("    public void setF").append(i).append("(long f").append(i).append(") { this.f")
+                    .append(i).append(" = f").append(i).append("; }\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static String benchmarkSource(int fieldCount) {
+        String entity = "BenchEntity" + fieldCount;
+        int middle = fieldCount / 2;
+        int last = fieldCount - 1;
+
+        return """
+                package %1$s;
+
+                import dev.w0fv1.mapper.FieldAccessor;
+                import org.openjdk.jmh.annotations.Benchmark;
+                import org.openjdk.jmh.annotations.Scope;
+                import org.openjdk.jmh.annotations.Setup;
+                import org.openjdk.jmh.annotations.State;
+
+                import java.lang.invoke.MethodHandle;
+                import java.lang.invoke.MethodHandles;
+                import java.lang.invoke.MethodType;
+                import java.lang.invoke.VarHandle;
+                import java.lang.reflect.Field;
+
+                @State(Scope.Thread)
+                public class %2$sBenchmark {
+
+                    private static final Field FIELD;
+                    private static final MethodHandle GETTER;
+                    private static final MethodHandle SETTER;
+                    private static final VarHandle VAR_HANDLE;
+
+                    static {
+                        try {
+                            FIELD = %2$s.class.getDeclaredField("f%4$d");
+                            FIELD.setAccessible(true);
+                            MethodHandles.Lookup lookup = MethodHandles.lookup();
+                            GETTER = lookup.findVirtual(%2$s.class, "getF%4$d", MethodType.methodType(long.class));
+                            SETTER = lookup.findVirtual(%2$s.class, "setF%4$d", MethodType.methodType(void.class, long.class));
+                            VAR_HANDLE = MethodHandles.privateLookupIn(%2$s.class, lookup)
+                                    .findVarHandle(%2$s.class, "f%4$d", long.class);
+                        } catch (ReflectiveOperationException e) {
+                            throw new ExceptionInInitializerError(e);
+                        }
+                    }
+
+                    // Non-final so the JIT cannot constant-fold the field-name dispatch.
+                    private String firstName = "f0";
+                    private String middleName = "f%4$d";
+                    private String lastName = "f%5$d";
+                    private int middleOrdinal;
+                    private FieldAccessor<%2$s> middleAccessor;
+
+                    private %2$s entity;
+                    private long value;
+                    private Long boxed;
+
+                    @Setup
+                    public void setup() {
+                        entity = new %2$s();
+                        value = 1234L;
+                        boxed = value;
+                        middleOrdinal = %2$s.FieldMapper.indexOf(middleName);
+                        middleAccessor = %2$s.FieldMapper.accessor(middleName);
+                    }
+
+                    @Benchmark
+                    public void dynamicSetFirst() {
+                        %2$s.FieldMapper.set(entity, firstName, boxed);
+                    }
+
+                    @Benchmark
+                    public void dynamicSetMiddle() {
+                        %2$s.FieldMapper.set(entity, middleName, boxed);
+                    }
+
+                    @Benchmark
+                    public void dynamicSetLast() {
+                        %2$s.FieldMapper.set(entity, lastName, boxed);
+                    }
+
+                    @Benchmark
+                    public Object dynamicGetFirst() {
+                        return %2$s.FieldMapper.get(entity, firstName);
+                    }
+
+                    @Benchmark
+                    public Object dynamicGetMiddle() {
+                        return %2$s.FieldMapper.get(entity, middleName);
+                    }
+
+                    @Benchmark
+                    public Object dynamicGetLast() {
+                        return %2$s.FieldMapper.get(entity, lastName);
+                    }
+
+                    @Benchmark
+                    public void dynamicSetLong() {
+                        %2$s.FieldMapper.setLong(entity, middleName, value);
+                    }
+
+                    @Benchmark
+                    public long dynamicGetLong() {
+                        return %2$s.FieldMapper.getLong(entity, middleName);
+                    }
+
+                    @Benchmark
+                    public void ordinalSet() {
+                        %2$s.FieldMapper.set(entity, middleOrdinal, boxed);
+                    }
+
+                    @Benchmark
+                    public Object ordinalGet() {
+                        return %2$s.FieldMapper.get(entity, middleOrdinal);
+                    }
+
+                    @Benchmark
+                    public void typedSet() {
+                        %2$s.FieldMapper.setF%4$d(entity, value);
+                    }
+
+                    @Benchmark
+                    public long typedGet() {
+                        return %2$s.FieldMapper.getF%4$d(entity);
+                    }
+
+                    @Benchmark
+                    public void accessorSetLong() {
+                        middleAccessor.setLong(entity, value);
+                    }
+
+                    @Benchmark
+                    public long accessorGetLong() {
+                        return middleAccessor.getLong(entity);
+                    }
+
+                    @Benchmark
+                    public void accessorSet() {
+                        middleAccessor.set(entity, boxed);
+                    }
+
+                    @Benchmark
+                    public void reflectionSet() throws IllegalAccessException {
+                        FIELD.setLong(entity, value);
+                    }
+
+                    @Benchmark
+                    public long reflectionGet() throws IllegalAccessException {
+                        return FIELD.getLong(entity);
+                    }
+
+                    @Benchmark
+                    public void methodHandleSet() throws Throwable {
+                        SETTER.invokeExact(entity, value);
+                    }
+
+                    @Benchmark
+                    public long methodHandleGet() throws Throwable {
+                        return (long) GETTER.invokeExact(entity);
+                    }
+
+                    @Benchmark
+                    public void varHandleSet() {
+                        VAR_HANDLE.set(entity, value);
+                    }
+
+                    @Benchmark
+                    public long varHandleGet() {
+                        return (long) VAR_HANDLE.get(entity);
+                    }
+
+                    @Benchmark
+                    public void directSet() {
+                        entity.setF%4$d(value);
+                    }
+
+                    @Benchmark
+                    public long directGet() {
+                        return entity.getF%4$d();
+                    }
+                }
+                """.formatted(PACKAGE, entity, fieldCount, middle, last);
+    }
+}
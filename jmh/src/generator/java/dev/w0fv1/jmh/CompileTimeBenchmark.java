@@ -0,0 +1,191 @@
+package dev.w0fv1.jmh;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Times javac on {@code N} generated {@code @Entity} classes with {@code M} fields each, once with annotation
+ * processing off and once with the fmapper processor injecting {@code FieldMapper}.
+ * <p>
+ * What a build pays for fmapper is the whole difference between the two wall-clock totals: the processor itself,
+ * and javac entering, attributing and generating the injected methods, which is usually most of it. That
+ * difference divided by the number of fields must stay under the budget at every width. The marginal overhead per
+ * field between consecutive widths must also not grow by more than {@link #MAX_SLOPE_GROWTH}x from the narrowest
+ * to the widest step (that would mean superlinear scaling).
+ * <p>
+ * javac runs in-process, so the JVM needs the same {@code --add-exports} as a forked compile.
+ * <p>
+ * Usage: {@code CompileTimeBenchmark <workDir> <processorPath> <entities> <fields,fields,...> <iterations>
+ * <budgetMicrosPerField>}
+ */
+public final class CompileTimeBenchmark {
+
+    private static final String PACKAGE = "dev.w0fv1.jmh.compile";
+
+    private static final double MAX_SLOPE_GROWTH = 2.0;
+
+    private static final String[] FIELD_TYPES = {"long", "String", "int", "java.util.List<String>", "double"};
+
+    private CompileTimeBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 6) {
+            throw new IllegalArgumentException("usage: CompileTimeBenchmark <workDir> <processorPath> <entities> "
+                    + "<fields,fields,...> <iterations> <budgetMicrosPerField>");
+        }
+        Path workDir = Path.of(args[0]);
+        String processorPath = args[1];
+        int entityCount = Integer.parseInt(args[2]);
+        int iterations = Integer.parseInt(args[4]);
+        double budgetMicrosPerField = Double.parseDouble(args[5]);
+
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        if (javac == null) {
+            throw new IllegalStateException("No system Java compiler; run on a JDK");
+        }
+
+        boolean withinBudget = true;
+        int previousFields = 0;
+        long previousOverheadNanos = 0;
+        double firstSlope = Double.NaN;
+        double lastSlope = Double.NaN;
+        System.out.printf("%8s %8s %12s %12s %12s %14s %18s%n",
+                "entities", "fields", "plain ms", "fmapper ms", "overhead ms", "us/field", "marginal us/field");
+        try (StandardJavaFileManager fileManager = javac.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            for (String width : args[3].split(",")) {
+                int fieldCount = Integer.parseInt(width.trim());
+                if (fieldCount <= previousFields) {
+                    throw new IllegalArgumentException("Field counts must be positive and ascending: " + args[3]);
+                }
+                Path sources = workDir.resolve("src-" + entityCount + "x" + fieldCount);
+                List<Path> files = writeEntities(sources, entityCount, fieldCount);
+                Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromPaths(files);
+
+                List<String> plain = options(workDir.resolve("out-plain"), processorPath, "-proc:none");
+                List<String> processed = options(workDir.resolve("out-fmapper"), processorPath, "-Afmapper.inline=true");
+
+                // Warm up javac (and the processor) before measuring.
+                for (int i = 0; i < iterations; i++) {
+                    compile(javac, fileManager, plain, units);
+                    compile(javac, fileManager, processed, units);
+                }
+                long plainNanos = Long.MAX_VALUE;
+                long processedNanos = Long.MAX_VALUE;
+                for (int i = 0; i < iterations; i++) {
+                    plainNanos = Math.min(plainNanos, compile(javac, fileManager, plain, units));
+                    processedNanos = Math.min(processedNanos, compile(javac, fileManager, processed, units));
+                }
+
+                long overheadNanos = processedNanos - plainNanos;
+                long totalFields = (long) entityCount * fieldCount;
+                double perField = overheadNanos / 1_000.0 / totalFields;
+                withinBudget &= perField <= budgetMicrosPerField;
+                String marginal = "-";
+                if (previousFields > 0) {
+                    double slope = (overheadNanos - previousOverheadNanos) / 1_000.0
+                            / ((long) entityCount * (fieldCount - previousFields));
+                    if (Double.isNaN(firstSlope)) firstSlope = slope;
+                    lastSlope = slope;
+                    marginal = "%.2f".formatted(slope);
+                }
+                previousFields = fieldCount;
+                previousOverheadNanos = overheadNanos;
+                System.out.printf("%8d %8d %12.1f %12.1f %12.1f %14.2f %18s%n", entityCount, fieldCount,
+                        plainNanos / 1e6, processedNanos / 1e6, overheadNanos / 1e6, perField, marginal);
+            }
+        }
+
+        boolean linear = Double.isNaN(firstSlope) || lastSlope <= MAX_SLOPE_GROWTH * Math.max(firstSlope, 1.0);
+        System.out.printf("budget: %.2f us of javac time added per field -> %s; scaling -> %s%n",
+                budgetMicrosPerField, withinBudget ? "OK" : "EXCEEDED", linear ? "linear" : "SUPERLINEAR");
+        withinBudget &= linear;
+        if (!withinBudget) {
+            System.exit(1);
+        }
+    }
+
+    private static List<String> options(Path out, String processorPath, String extra) throws IOException {
+        deleteRecursively(out);
+        Files.createDirectories(out);
+        return List.of(
+                "-d", out.toString(),
+                "-classpath", processorPath,
+                "-processorpath", processorPath,
+                "-implicit:none",
+                extra
+        );
+    }
+
+    /** Wall-clock nanoseconds of one whole javac task: parse, process, attribute and generate. */
+    private static long compile(JavaCompiler javac, StandardJavaFileManager fileManager, List<String> options,
+                                Iterable<? extends JavaFileObject> units) {
+        StringWriter diagnostics = new StringWriter();
+        JavaCompiler.CompilationTask task = javac.getTask(diagnostics, fileManager, null, options, null, units);
+
+        long start = System.nanoTime();
+        boolean success = task.call();
+        long elapsed = System.nanoTime() - start;
+        if (!success) {
+            throw new IllegalStateException("javac failed:\n" + diagnostics);
+        }
+        return elapsed;
+    }
+
+    private static List<Path> writeEntities(Path sources, int entityCount, int fieldCount) throws IOException {
+        Path packageDir = sources.resolve(PACKAGE.replace('.', '/'));
+        deleteRecursively(sources);
+        Files.createDirectories(packageDir);
+
+        List<Path> files = new ArrayList<>();
+        for (int e = 0; e < entityCount; e++) {
+            String name = "CompileEntity" + e;
+            Path file = packageDir.resolve(name + ".java");
+            Files.writeString(file, entitySource(name, fieldCount), StandardCharsets.UTF_8);
+            files.add(file);
+        }
+        return files;
+    }
+
+    private static String entitySource(String name, int fieldCount) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(PACKAGE).append(";\n\n");
+        sb.append("import jakarta.persistence.Entity;\n\n");
+        sb.append("@Entity\n");
+        sb.append("public class ").append(name).append(" {\n");
+        for (int i = 0; i < fieldCount; i++) {
+            String type = FIELD_TYPES[i % FIELD_TYPES.length];
+            sb.append("    private ").append(type).append(" f").append(i).append(";\n");
+            sb.append("    public ").append(type).append(" getF").append(i).append("() { return f").append(i).append("; }\n");
+            sb.append("    public void setF").append(i).append("(").append(type).append(" v) { this.f").append(i)
+                    .append(" = v; }\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        if (!Files.exists(root)) return;
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package dev.w0fv1.mapper;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Encodings shared by the generated {@code FieldMapper.writeTo/readFrom/serializedSize}. The generated code lays
+ * an entity out in declaration order: a null bitmap with one bit per reference field, then each field, primitives
+ * and wrappers at their fixed width in the buffer's byte order and everything else through the methods here, which
+ * write straight into the buffer.
+ * <ul>
+ *     <li>Lengths and counts are unsigned LEB128 varints.</li>
+ *     <li>Strings are a varint byte length and UTF-8 (an unpaired surrogate becomes {@code '?'}, as with
+ *     {@link String#getBytes}); {@code byte[]} a varint length and the bytes.</li>
+ *     <li>{@code BigDecimal}, {@code java.time} types and the other {@link Coercions} targets are their
+ *     {@code toString()} text, read back with {@code Coercions}.</li>
+ *     <li>Lists of entities or embeddables are a varint count and, per element, a presence byte and the element's
+ *     fields; lists of enums a varint count and {@code ordinal + 1} per element, {@code 0} for {@code null}.</li>
+ *     <li>Values of any other type are tagged ({@link #writeValue}): a tag byte, then the value.</li>
+ * </ul>
+ * Buffers must be read with the byte order they were written with. Running out of room or data throws
+ * {@link java.nio.BufferOverflowException} or {@link java.nio.BufferUnderflowException}; malformed data throws
+ * {@link IllegalArgumentException}.
+ */
+public final class BinaryCodec {
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte BYTE = 3;
+    private static final byte SHORT = 4;
+    private static final byte CHAR = 5;
+    private static final byte INT = 6;
+    private static final byte LONG = 7;
+    private static final byte FLOAT = 8;
+    private static final byte DOUBLE = 9;
+    private static final byte STRING = 10;
+    private static final byte BYTES = 11;
+    private static final byte LIST = 12;
+    private static final byte MAP = 13;
+    private static final byte BIG_DECIMAL = 14;
+    private static final byte BIG_INTEGER = 15;
+    private static final byte UUID_VALUE = 16;
+    private static final byte INSTANT = 17;
+    private static final byte LOCAL_DATE = 18;
+    private static final byte LOCAL_DATE_TIME = 19;
+    private static final byte LOCAL_TIME = 20;
+    private static final byte OFFSET_DATE_TIME = 21;
+    private static final byte ZONED_DATE_TIME = 22;
+    private static final byte DURATION = 23;
+
+    private BinaryCodec() {
+    }
+
+    /**
+     * Reads the header {@code writeTo} wrote and checks it against the reading entity's layout.
+     *
+     * @throws IllegalArgumentException if the buffer was written with a different field layout
+     */
+    public static void checkSchema(ByteBuffer in, int schema, Class<?> entity) {
+        int written = in.getInt();
+        if (written != schema) {
+            in.position(in.position() - Integer.BYTES);
+            throw new IllegalArgumentException(String.format(Locale.ROOT,
+                    "Buffer was written with a different field layout of %s (schema %08x, expected %08x)",
+                    entity.getSimpleName(), written, schema));
+        }
+    }
+
+    /** Zeroes {@code bytes} bytes for the null bitmap and returns where they start. */
+    public static int reserveNullBitmap(ByteBuffer out, int bytes) {
+        int start = out.position();
+        for (int i = 0; i < bytes; i++) out.put((byte) 0);
+        return start;
+    }
+
+    /** Sets bit {@code index} of the null bitmap starting at {@code bitmap}. */
+    public static void markNull(ByteBuffer out, int bitmap, int index) {
+        int at = bitmap + (index >>> 3);
+        out.put(at, (byte) (out.get(at) | 1 << (index & 7)));
+    }
+
+    public static boolean isNull(ByteBuffer in, int bitmap, int index) {
+        return (in.get(bitmap + (index >>> 3)) & 1 << (index & 7)) != 0;
+    }
+
+    public static void writeBoolean(ByteBuffer out, boolean value) {
+        out.put(value ? (byte) 1 : (byte) 0);
+    }
+
+    public static boolean readBoolean(ByteBuffer in) {
+        return in.get() != 0;
+    }
+
+    /** {@code value} must not be negative. */
+    public static void writeVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.put((byte) (value & 0x7f | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    public static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                if (value < 0) break;
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint at " + in.position());
+    }
+
+    public static int varintSize(int value) {
+        return (38 - Integer.numberOfLeadingZeros(value | 1)) / 7;
+    }
+
+    public static void writeString(ByteBuffer out, String value) {
+        int length = value.length();
+        writeVarint(out, utf8Length(value));
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xc0 | c >> 6));
+                out.put((byte) (0x80 | c & 0x3f));
+            } else if (!Character.isSurrogate(c)) {
+                out.put((byte) (0xe0 | c >> 12));
+                out.put((byte) (0x80 | c >> 6 & 0x3f));
+                out.put((byte) (0x80 | c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                out.put((byte) (0xf0 | cp >> 18));
+                out.put((byte) (0x80 | cp >> 12 & 0x3f));
+                out.put((byte) (0x80 | cp >> 6 & 0x3f));
+                out.put((byte) (0x80 | cp & 0x3f));
+            } else {
+                out.put((byte) '?');
+            }
+        }
+    }
+
+    public static String readString(ByteBuffer in) {
+        int length = readVarint(in);
+        if (in.hasArray()) {
+            // Heap buffers decode in place; only direct ones need a copy of the bytes.
+            String value = new String(in.array(), in.arrayOffset() + in.position(), checkLength(in, length), StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[checkLength(in, length)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static int stringSize(String value) {
+        int length = utf8Length(value);
+        return varintSize(length) + length;
+    }
+
+    public static void writeBytes(ByteBuffer out, byte[] value) {
+        writeVarint(out, value.length);
+        out.put(value);
+    }
+
+    public static byte[] readBytes(ByteBuffer in) {
+        byte[] value = new byte[checkLength(in, readVarint(in))];
+        in.get(value);
+        return value;
+    }
+
+    public static int bytesSize(byte[] value) {
+        return varintSize(value.length) + value.length;
+    }
+
+    /** A new entity or embeddable from {@code newInstance()}, filled with {@code readFieldsFrom}. */
+    public static <E> E readObject(ByteBuffer in, EntityAccessor<E> accessor) {
+        E value = accessor.newInstance();
+        accessor.readFieldsFrom(in, value);
+        return value;
+    }
+
+    /** A list of entities or embeddables, each written with {@code writeFieldsTo}. */
+    public static <E> void writeList(ByteBuffer out, List<? extends E> list, EntityAccessor<E> accessor) {
+        writeVarint(out, list.size());
+        for (E element : list) {
+            writeBoolean(out, element != null);
+            if (element != null) accessor.writeFieldsTo(element, out);
+        }
+    }
+
+    public static <E> List<E> readList(ByteBuffer in, EntityAccessor<E> accessor) {
+        int size = checkLength(in, readVarint(in));
+        List<E> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(readBoolean(in) ? readObject(in, accessor) : null);
+        }
+        return list;
+    }
+
+    public static <E> int listSize(List<? extends E> list, EntityAccessor<E> accessor) {
+        int size = varintSize(list.size()) + list.size();
+        for (E element : list) {
+            if (element != null) size += accessor.serializedFieldsSize(element);
+        }
+        return size;
+    }
+
+    public static void writeEnumList(ByteBuffer out, List<? extends Enum<?>> list) {
+        writeVarint(out, list.size());
+        for (Enum<?> element : list) {
+            writeVarint(out, element == null ? 0 : element.ordinal() + 1);
+        }
+    }
+
+    /** Reads what {@link #writeEnumList} wrote, {@code constants} being the enum's {@code values()}. */
+    public static <T extends Enum<T>> List<T> readEnumList(ByteBuffer in, T[] constants) {
+        int size = checkLength(in, readVarint(in));
+        List<T> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int ordinal = readVarint(in);
+            list.add(ordinal == 0 ? null : readEnum(in, constants, ordinal - 1));
+        }
+        return list;
+    }
+
+    public static int enumListSize(List<? extends Enum<?>> list) {
+        int size = varintSize(list.size());
+        for (Enum<?> element : list) {
+            size += varintSize(element == null ? 0 : element.ordinal() + 1);
+        }
+        return size;
+    }
+
+    /** {@code constants[ordinal]}, or an {@link IllegalArgumentException} for an ordinal the enum does not have. */
+    public static <T extends Enum<T>> T readEnum(ByteBuffer in, T[] constants, int ordinal) {
+        if (ordinal >= constants.length) {
+            throw new IllegalArgumentException("Unknown " + constants.getClass().getComponentType().getSimpleName()
+                    + " ordinal " + ordinal + " at " + in.position());
+        }
+        return constants[ordinal];
+    }
+
+    /**
+     * A tagged value: {@code null}, booleans, numbers and characters (boxed), {@code String}, {@code byte[]},
+     * {@code BigDecimal}, {@code BigInteger}, {@code UUID}, the {@code java.time} types {@link Coercions} handles,
+     * and {@code List}s and {@code Map}s of these (read back as {@link ArrayList} and {@link LinkedHashMap}).
+     *
+     * @throws IllegalArgumentException for values of any other type
+     */
+    public static void writeValue(ByteBuffer out, Object value) {
+        if (value == null) {
+            out.put(NULL);
+        } else if (value instanceof String s) {
+            out.put(STRING);
+            writeString(out, s);
+        } else if (value instanceof Integer i) {
+            out.put(INT).putInt(i);
+        } else if (value instanceof Long l) {
+            out.put(LONG).putLong(l);
+        } else if (value instanceof Boolean b) {
+            out.put(b ? TRUE : FALSE);
+        } else if (value instanceof Double d) {
+            out.put(DOUBLE).putDouble(d);
+        } else if (value instanceof Float f) {
+            out.put(FLOAT).putFloat(f);
+        } else if (value instanceof Short s) {
+            out.put(SHORT).putShort(s);
+        } else if (value instanceof Byte b) {
+            out.put(BYTE).put(b);
+        } else if (value instanceof Character c) {
+            out.put(CHAR).putChar(c);
+        } else if (value instanceof byte[] bytes) {
+            out.put(BYTES);
+            writeBytes(out, bytes);
+        } else if (value instanceof UUID uuid) {
+            out.put(UUID_VALUE).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        } else if (value instanceof List<?> list) {
+            out.put(LIST);
+            writeVarint(out, list.size());
+            for (Object element : list) writeValue(out, element);
+        } else if (value instanceof Map<?, ?> map) {
+            out.put(MAP);
+            writeVarint(out, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else {
+            byte tag = textTag(value);
+            out.put(tag);
+            writeString(out, value.toString());
+        }
+    }
+
+    public static Object readValue(ByteBuffer in) {
+        int at = in.position();
+        byte tag = in.get();
+        return switch (tag) {
+            case NULL -> null;
+            case TRUE -> Boolean.TRUE;
+            case FALSE -> Boolean.FALSE;
+            case BYTE -> in.get();
+            case SHORT -> in.getShort();
+            case CHAR -> in.getChar();
+            case INT -> in.getInt();
+            case LONG -> in.getLong();
+            case FLOAT -> in.getFloat();
+            case DOUBLE -> in.getDouble();
+            case STRING -> readString(in);
+            case BYTES -> readBytes(in);
+            case UUID_VALUE -> new UUID(in.getLong(), in.getLong());
+            case LIST -> {
+                int size = checkLength(in, readVarint(in));
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) list.add(readValue(in));
+                yield list;
+            }
+            case MAP -> {
+                int size = checkLength(in, readVarint(in));
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) map.put(readValue(in), readValue(in));
+                yield map;
+            }
+            case BIG_DECIMAL -> Coercions.asBigDecimal(readString(in));
+            case BIG_INTEGER -> Coercions.asBigInteger(readString(in));
+            case INSTANT -> Coercions.asInstant(readString(in));
+            case LOCAL_DATE -> Coercions.asLocalDate(readString(in));
+            case LOCAL_DATE_TIME -> Coercions.asLocalDateTime(readString(in));
+            case LOCAL_TIME -> Coercions.asLocalTime(readString(in));
+            case OFFSET_DATE_TIME -> Coercions.asOffsetDateTime(readString(in));
+            case ZONED_DATE_TIME -> Coercions.asZonedDateTime(readString(in));
+            case DURATION -> Coercions.asDuration(readString(in));
+            default -> throw new IllegalArgumentException("Unknown value tag " + tag + " at " + at);
+        };
+    }
+
+    public static int valueSize(Object value) {
+        if (value == null || value instanceof Boolean) return 1;
+        if (value instanceof String s) return 1 + stringSize(s);
+        if (value instanceof Integer || value instanceof Float) return 5;
+        if (value instanceof Long || value instanceof Double) return 9;
+        if (value instanceof Short || value instanceof Character) return 3;
+        if (value instanceof Byte) return 2;
+        if (value instanceof byte[] bytes) return 1 + bytesSize(bytes);
+        if (value instanceof UUID) return 17;
+        if (value instanceof List<?> list) {
+            int size = 1 + varintSize(list.size());
+            for (Object element : list) size += valueSize(element);
+            return size;
+        }
+        if (value instanceof Map<?, ?> map) {
+            int size = 1 + varintSize(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) size += valueSize(entry.getKey()) + valueSize(entry.getValue());
+            return size;
+        }
+        textTag(value);
+        return 1 + stringSize(value.toString());
+    }
+
+    private static byte textTag(Object value) {
+        if (value instanceof BigDecimal) return BIG_DECIMAL;
+        if (value instanceof BigInteger) return BIG_INTEGER;
+        if (value instanceof Instant) return INSTANT;
+        if (value instanceof LocalDate) return LOCAL_DATE;
+        if (value instanceof LocalDateTime) return LOCAL_DATE_TIME;
+        if (value instanceof LocalTime) return LOCAL_TIME;
+        if (value instanceof OffsetDateTime) return OFFSET_DATE_TIME;
+        if (value instanceof ZonedDateTime) return ZONED_DATE_TIME;
+        if (value instanceof Duration) return DURATION;
+        throw new IllegalArgumentException("Cannot encode a " + value.getClass().getName());
+    }
+
+    /** Rejects a length larger than what is left, before anything is allocated for it. */
+    private static int checkLength(ByteBuffer in, int length) {
+        if (length > in.remaining()) {
+            throw new IllegalArgumentException("Length " + length + " at " + in.position() + " runs past the buffer");
+        }
+        return length;
+    }
+
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) continue;
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,239 @@
+package dev.w0fv1.mapper;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Slow paths of the value coercion that {@code -Afmapper.coerce=true} compiles into {@code FieldMapper.set}. Each
+ * field's arm first checks {@code value instanceof FieldType} and stores it as before; only other values reach the
+ * method for that field type here, so there is no per-call type lookup or reflection.
+ * <p>
+ * Integral targets take any {@link Number} whose value fits exactly ({@code 1.0} but not {@code 1.5} into a
+ * {@code long}, {@code 300} but not {@code 3000000000L} into an {@code int}) and decimal strings; {@code float} and
+ * {@code double} take any {@code Number} and decimal strings; {@code java.time} types, {@link UUID} and
+ * {@link Duration} parse their ISO text forms. Anything else throws {@link IllegalArgumentException}.
+ * The reference methods map {@code null} to {@code null}; the primitive ones throw {@link NullPointerException}, as
+ * unboxing {@code null} did.
+ */
+public final class Coercions {
+
+    private Coercions() {
+    }
+
+    public static boolean asBoolean(Object value) {
+        if (value instanceof Boolean b) return b;
+        if (value instanceof CharSequence text) {
+            String s = text.toString();
+            if (s.equalsIgnoreCase("true")) return true;
+            if (s.equalsIgnoreCase("false")) return false;
+        }
+        throw cannotConvert(value, "boolean");
+    }
+
+    public static byte asByte(Object value) {
+        return (byte) integral(value, Byte.MIN_VALUE, Byte.MAX_VALUE, "byte");
+    }
+
+    public static short asShort(Object value) {
+        return (short) integral(value, Short.MIN_VALUE, Short.MAX_VALUE, "short");
+    }
+
+    public static char asChar(Object value) {
+        if (value instanceof Character c) return c;
+        if (value instanceof CharSequence text && text.length() == 1) return text.charAt(0);
+        throw cannotConvert(value, "char");
+    }
+
+    public static int asInt(Object value) {
+        return (int) integral(value, Integer.MIN_VALUE, Integer.MAX_VALUE, "int");
+    }
+
+    public static long asLong(Object value) {
+        return integral(value, Long.MIN_VALUE, Long.MAX_VALUE, "long");
+    }
+
+    public static float asFloat(Object value) {
+        if (value instanceof Number number) return number.floatValue();
+        if (value instanceof CharSequence text) {
+            try {
+                return Float.parseFloat(text.toString());
+            } catch (NumberFormatException e) {
+                throw cannotConvert(value, "float", e);
+            }
+        }
+        throw cannotConvert(value, "float");
+    }
+
+    public static double asDouble(Object value) {
+        if (value instanceof Number number) return number.doubleValue();
+        if (value instanceof CharSequence text) {
+            try {
+                return Double.parseDouble(text.toString());
+            } catch (NumberFormatException e) {
+                throw cannotConvert(value, "double", e);
+            }
+        }
+        throw cannotConvert(value, "double");
+    }
+
+    /** Text, numbers, booleans and characters by {@code toString()}, enums by {@code name()}. */
+    public static String asString(Object value) {
+        if (value == null) return null;
+        if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return value.toString();
+        }
+        if (value instanceof Enum<?> constant) return constant.name();
+        throw cannotConvert(value, "String");
+    }
+
+    public static BigDecimal asBigDecimal(Object value) {
+        if (value == null || value instanceof BigDecimal) return (BigDecimal) value;
+        if (value instanceof BigInteger integer) return new BigDecimal(integer);
+        if (isIntegralBox(value)) return BigDecimal.valueOf(((Number) value).longValue());
+        try {
+            if (value instanceof Double || value instanceof Float) return new BigDecimal(value.toString());
+            if (value instanceof CharSequence text) return new BigDecimal(text.toString());
+        } catch (NumberFormatException e) {
+            throw cannotConvert(value, "BigDecimal", e);
+        }
+        throw cannotConvert(value, "BigDecimal");
+    }
+
+    public static BigInteger asBigInteger(Object value) {
+        if (value == null || value instanceof BigInteger) return (BigInteger) value;
+        if (value instanceof BigDecimal decimal) {
+            try {
+                return decimal.toBigIntegerExact();
+            } catch (ArithmeticException e) {
+                throw cannotConvert(value, "BigInteger", e);
+            }
+        }
+        if (value instanceof CharSequence text) {
+            try {
+                return new BigInteger(text.toString());
+            } catch (NumberFormatException e) {
+                throw cannotConvert(value, "BigInteger", e);
+            }
+        }
+        return BigInteger.valueOf(integral(value, Long.MIN_VALUE, Long.MAX_VALUE, "BigInteger"));
+    }
+
+    public static Instant asInstant(Object value) {
+        if (value == null || value instanceof Instant) return (Instant) value;
+        if (value instanceof java.sql.Timestamp timestamp) return timestamp.toInstant();
+        // java.sql.Date and Time do not support toInstant(); their millis are still an instant.
+        if (value instanceof Date date) return Instant.ofEpochMilli(date.getTime());
+        if (value instanceof OffsetDateTime dateTime) return dateTime.toInstant();
+        if (value instanceof ZonedDateTime dateTime) return dateTime.toInstant();
+        if (value instanceof CharSequence text) return parse(text, "Instant", Instant::parse);
+        throw cannotConvert(value, "Instant");
+    }
+
+    public static LocalDate asLocalDate(Object value) {
+        if (value == null || value instanceof LocalDate) return (LocalDate) value;
+        if (value instanceof java.sql.Date date) return date.toLocalDate();
+        if (value instanceof CharSequence text) return parse(text, "LocalDate", LocalDate::parse);
+        throw cannotConvert(value, "LocalDate");
+    }
+
+    public static LocalDateTime asLocalDateTime(Object value) {
+        if (value == null || value instanceof LocalDateTime) return (LocalDateTime) value;
+        if (value instanceof java.sql.Timestamp timestamp) return timestamp.toLocalDateTime();
+        if (value instanceof CharSequence text) return parse(text, "LocalDateTime", LocalDateTime::parse);
+        throw cannotConvert(value, "LocalDateTime");
+    }
+
+    public static LocalTime asLocalTime(Object value) {
+        if (value == null || value instanceof LocalTime) return (LocalTime) value;
+        if (value instanceof java.sql.Time time) return time.toLocalTime();
+        if (value instanceof CharSequence text) return parse(text, "LocalTime", LocalTime::parse);
+        throw cannotConvert(value, "LocalTime");
+    }
+
+    public static OffsetDateTime asOffsetDateTime(Object value) {
+        if (value == null || value instanceof OffsetDateTime) return (OffsetDateTime) value;
+        if (value instanceof CharSequence text) return parse(text, "OffsetDateTime", OffsetDateTime::parse);
+        throw cannotConvert(value, "OffsetDateTime");
+    }
+
+    public static ZonedDateTime asZonedDateTime(Object value) {
+        if (value == null || value instanceof ZonedDateTime) return (ZonedDateTime) value;
+        if (value instanceof CharSequence text) return parse(text, "ZonedDateTime", ZonedDateTime::parse);
+        throw cannotConvert(value, "ZonedDateTime");
+    }
+
+    public static Duration asDuration(Object value) {
+        if (value == null || value instanceof Duration) return (Duration) value;
+        if (value instanceof CharSequence text) return parse(text, "Duration", Duration::parse);
+        throw cannotConvert(value, "Duration");
+    }
+
+    public static UUID asUuid(Object value) {
+        if (value == null || value instanceof UUID) return (UUID) value;
+        if (value instanceof CharSequence text) return parse(text, "UUID", UUID::fromString);
+        throw cannotConvert(value, "UUID");
+    }
+
+    private static long integral(Object value, long min, long max, String type) {
+        long result;
+        if (isIntegralBox(value)) {
+            result = ((Number) value).longValue();
+        } else if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            // 0x1p63 itself is one past Long.MAX_VALUE, and (long) would saturate rather than fail.
+            if (d != Math.rint(d) || d < -0x1p63 || d >= 0x1p63) throw cannotConvert(value, type);
+            result = (long) d;
+        } else if (value instanceof BigInteger || value instanceof BigDecimal) {
+            try {
+                result = value instanceof BigInteger integer ? integer.longValueExact() : ((BigDecimal) value).longValueExact();
+            } catch (ArithmeticException e) {
+                throw cannotConvert(value, type, e);
+            }
+        } else if (value instanceof CharSequence text) {
+            try {
+                result = Long.parseLong(text.toString());
+            } catch (NumberFormatException e) {
+                throw cannotConvert(value, type, e);
+            }
+        } else {
+            throw cannotConvert(value, type);
+        }
+        if (result < min || result > max) throw cannotConvert(value, type);
+        return result;
+    }
+
+    private static boolean isIntegralBox(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    private static <T> T parse(CharSequence text, String type, Function<String, T> parser) {
+        try {
+            return parser.apply(text.toString());
+        } catch (RuntimeException e) {
+            throw cannotConvert(text, type, e);
+        }
+    }
+
+    private static RuntimeException cannotConvert(Object value, String type) {
+        return cannotConvert(value, type, null);
+    }
+
+    private static RuntimeException cannotConvert(Object value, String type, Throwable cause) {
+        if (value == null) {
+            return new NullPointerException("Cannot convert null to " + type);
+        }
+        return new IllegalArgumentException(String.format(Locale.ROOT, "Cannot convert %s %s to %s",
+                value.getClass().getSimpleName(), value, type), cause);
+    }
+}
@@ -0,0 +1,181 @@
+package dev.w0fv1.mapper;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Instance view of an entity's injected {@code FieldMapper}, for generic code (serializers, mappers, caches) that
+ * only knows the entity {@link Class}. Every {@code FieldMapper.INSTANCE} implements it by delegating to the
+ * static methods, so a call site that only ever sees one entity type costs the same as calling them directly.
+ * Look one up with {@link FieldMappers#of}.
+ * <p>
+ * Ordinals are declaration order, the same as {@code FieldMapper}'s ordinal constants and {@code FIELD_NAMES}.
+ *
+ * @param <E> entity type
+ */
+public interface EntityAccessor<E> {
+
+    /**
+     * Returned by {@link #tryGet}, and by {@code get} under {@code -Afmapper.unknownField=return}, for a name that
+     * is not a field; compare with {@code ==}. Distinct from {@code null}, which is a field's value.
+     */
+    Object UNKNOWN_FIELD = new Object() {
+        @Override
+        public String toString() {
+            return "UNKNOWN_FIELD";
+        }
+    };
+
+    Class<E> entityType();
+
+    /** Same as {@code FieldMapper.FIELD_COUNT}. */
+    int fieldCount();
+
+    /**
+     * A new entity from its no-arg constructor.
+     *
+     * @throws UnsupportedOperationException if the entity is abstract, an inner class or has no no-arg constructor
+     */
+    E newInstance();
+
+    /** Same as {@code FieldMapper.set(instance, field, value)}. */
+    void set(E instance, String field, Object value);
+
+    /** Same as {@code FieldMapper.get(instance, field)}. */
+    Object get(E instance, String field);
+
+    /** Same as {@code FieldMapper.set(instance, ordinal, value)}. */
+    void set(E instance, int ordinal, Object value);
+
+    /** Same as {@code FieldMapper.get(instance, ordinal)}. */
+    Object get(E instance, int ordinal);
+
+    /** Same as {@code FieldMapper.trySet(instance, field, value)}: {@code false}, without throwing, for an unknown field. */
+    boolean trySet(E instance, String field, Object value);
+
+    /** Same as {@code FieldMapper.tryGet(instance, field)}: {@link #UNKNOWN_FIELD}, without throwing, for an unknown field. */
+    Object tryGet(E instance, String field);
+
+    /** Same as {@code FieldMapper.indexOf(field)}: the field's ordinal, or -1. */
+    int indexOf(String field);
+
+    /**
+     * Same as {@code FieldMapper.nested(ordinal)}: the accessor of the field's type when that is an {@code @Entity}
+     * or {@code @Embeddable} with a {@code FieldMapper}, otherwise {@code null}.
+     */
+    EntityAccessor<?> nested(int ordinal);
+
+    /**
+     * Same as {@code FieldMapper.writeJson(instance, out)}: the entity as one JSON object.
+     *
+     * @throws UnsupportedOperationException if the entity was compiled without {@code -Afmapper.json=true}
+     */
+    default void writeJson(E instance, JsonWriter out) {
+        throw notGenerated("json");
+    }
+
+    /**
+     * Same as {@code FieldMapper.readJson(in, instance)}: reads one JSON object into the entity.
+     *
+     * @throws UnsupportedOperationException if the entity was compiled without {@code -Afmapper.json=true}
+     */
+    default void readJson(JsonReader in, E instance) {
+        throw notGenerated("json");
+    }
+
+    /**
+     * Same as {@code FieldMapper.writeTo(instance, out)}: the binary form, schema header first.
+     *
+     * @throws UnsupportedOperationException if the entity was compiled without {@code -Afmapper.binary=true}
+     */
+    default void writeTo(E instance, ByteBuffer out) {
+        throw notGenerated("binary");
+    }
+
+    /**
+     * Same as {@code FieldMapper.readFrom(in, instance)}; rejects data written with a different field layout.
+     *
+     * @throws UnsupportedOperationException if the entity was compiled without {@code -Afmapper.binary=true}
+     */
+    default void readFrom(ByteBuffer in, E instance) {
+        throw notGenerated("binary");
+    }
+
+    /**
+     * Same as {@code FieldMapper.serializedSize(instance)}: the bytes {@link #writeTo} will write.
+     *
+     * @throws UnsupportedOperationException if the entity was compiled without {@code -Afmapper.binary=true}
+     */
+    default int serializedSize(E instance) {
+        throw notGenerated("binary");
+    }
+
+    /**
+     * Same as {@code FieldMapper.writeFieldsTo(instance, out)}: {@link #writeTo} without the header.
+     *
+     * @throws UnsupportedOperationException if the entity was compiled without {@code -Afmapper.binary=true}
+     */
+    default void writeFieldsTo(E instance, ByteBuffer out) {
+        throw notGenerated("binary");
+    }
+
+    /**
+     * Same as {@code FieldMapper.readFieldsFrom(in, instance)}: {@link #readFrom} without the header.
+     *
+     * @throws UnsupportedOperationException if the entity was compiled without {@code -Afmapper.binary=true}
+     */
+    default void readFieldsFrom(ByteBuffer in, E instance) {
+        throw notGenerated("binary");
+    }
+
+    /**
+     * Same as {@code FieldMapper.serializedFieldsSize(instance)}: {@link #serializedSize} without the header.
+     *
+     * @throws UnsupportedOperationException if the entity was compiled without {@code -Afmapper.binary=true}
+     */
+    default int serializedFieldsSize(E instance) {
+        throw notGenerated("binary");
+    }
+
+    /** Same as {@code FieldMapper.contentHash(instance)}: a hash of the field values, {@code 0} for {@code null}. */
+    int contentHash(E instance);
+
+    /** Same as {@code FieldMapper.contentEquals(a, b)}: whether every field holds an equal value. */
+    boolean contentEquals(E a, E b);
+
+    /**
+     * {@link List#hashCode()} with {@link #contentHash} for the elements, {@code 0} for a {@code null} list; the
+     * generated {@code contentHash} uses it for {@code List} fields of entities or embeddables.
+     */
+    default int listContentHash(List<? extends E> list) {
+        if (list == null) return 0;
+        int hash = 1;
+        for (E element : list) {
+            hash = 31 * hash + contentHash(element);
+        }
+        return hash;
+    }
+
+    /** Whether both lists are {@code null}, or have the same size and {@link #contentEquals} elements in order. */
+    default boolean listContentEquals(List<? extends E> a, List<? extends E> b) {
+        if (a == b) return true;
+        if (a == null || b == null || a.size() != b.size()) return false;
+        Iterator<? extends E> left = a.iterator();
+        Iterator<? extends E> right = b.iterator();
+        while (left.hasNext()) {
+            if (!contentEquals(left.next(), right.next())) return false;
+        }
+        return true;
+    }
+
+    /** Same as {@code FieldMapper.path(path)}. */
+    default PropertyPath<E> path(String path) {
+        return PropertyPath.of(this, path);
+    }
+
+    /** Thrown by the methods whose {@code FieldMapper} side is behind the processor option {@code fmapper.<option>}. */
+    private UnsupportedOperationException notGenerated(String option) {
+        return new UnsupportedOperationException(entityType().getName() + " was compiled without -Afmapper." + option + "=true");
+    }
+}
@@ -0,0 +1,21 @@
+package dev.w0fv1.mapper;
+
+import java.lang.annotation.*;
+
+/**
+ * Chooses how the generated {@code FieldMapper} reads and writes a field: through its getter/setter
+ * ({@link Mode#PROPERTY}, the default) or directly on the field ({@link Mode#FIELD}).
+ * <p>
+ * On a field it overrides the entity class; on the class it overrides the {@code fmapper.access} option.
+ */
+@Documented
+@Target({ElementType.FIELD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface FieldAccess {
+    Mode value();
+
+    enum Mode {
+        FIELD,
+        PROPERTY
+    }
+}
@@ -0,0 +1,199 @@
+package dev.w0fv1.mapper;
+
+/**
+ * One field of an entity, resolved ahead of time: with {@code -Afmapper.accessors=true},
+ * {@code FieldMapper.accessor("name")} hands out the same instance every time, so code that picks a field once and
+ * applies it to many entities skips the per-call name dispatch of {@code FieldMapper.set/get}.
+ * <p>
+ * Every field gets its own generated final subclass, which overrides {@link #get}, {@link #set} and, for a
+ * primitive field, the primitive pair of its own type. The other primitive methods accept the same types as
+ * {@code FieldMapper.getLong/setLong} and friends (lossless widening, handled here) and throw
+ * {@link IllegalArgumentException} otherwise.
+ *
+ * @param <E> entity type
+ */
+public abstract class FieldAccessor<E> {
+
+    private final String name;
+    private final int ordinal;
+    private final Class<?> type;
+
+    protected FieldAccessor(String name, int ordinal, Class<?> type) {
+        this.name = name;
+        this.ordinal = ordinal;
+        this.type = type;
+    }
+
+    public final String name() {
+        return name;
+    }
+
+    /** Declaration order, as in {@code FIELD_NAMES}. */
+    public final int ordinal() {
+        return ordinal;
+    }
+
+    /** Erased declared type; {@code long.class} etc. for primitive fields. */
+    public final Class<?> type() {
+        return type;
+    }
+
+    /** Same as {@code FieldMapper.get(instance, name())}. */
+    public abstract Object get(E instance);
+
+    /** Same as {@code FieldMapper.set(instance, name(), value)}. */
+    public abstract void set(E instance, Object value);
+
+    public boolean getBoolean(E instance) {
+        throw mismatch(" cannot be read as boolean");
+    }
+
+    public byte getByte(E instance) {
+        throw mismatch(" cannot be read as byte");
+    }
+
+    public short getShort(E instance) {
+        if (type == byte.class) return getByte(instance);
+        throw mismatch(" cannot be read as short");
+    }
+
+    public char getChar(E instance) {
+        throw mismatch(" cannot be read as char");
+    }
+
+    public int getInt(E instance) {
+        if (type == byte.class) return getByte(instance);
+        if (type == short.class) return getShort(instance);
+        if (type == char.class) return getChar(instance);
+        throw mismatch(" cannot be read as int");
+    }
+
+    public long getLong(E instance) {
+        if (type == byte.class) return getByte(instance);
+        if (type == short.class) return getShort(instance);
+        if (type == char.class) return getChar(instance);
+        if (type == int.class) return getInt(instance);
+        throw mismatch(" cannot be read as long");
+    }
+
+    public float getFloat(E instance) {
+        if (type == byte.class) return getByte(instance);
+        if (type == short.class) return getShort(instance);
+        if (type == char.class) return getChar(instance);
+        throw mismatch(" cannot be read as float");
+    }
+
+    public double getDouble(E instance) {
+        if (type == byte.class) return getByte(instance);
+        if (type == short.class) return getShort(instance);
+        if (type == char.class) return getChar(instance);
+        if (type == int.class) return getInt(instance);
+        if (type == float.class) return getFloat(instance);
+        throw mismatch(" cannot be read as double");
+    }
+
+    public void setBoolean(E instance, boolean value) {
+        throw mismatch(" cannot be set from boolean");
+    }
+
+    public void setByte(E instance, byte value) {
+        if (type == short.class) {
+            setShort(instance, value);
+            return;
+        }
+        if (type == int.class) {
+            setInt(instance, value);
+            return;
+        }
+        if (type == long.class) {
+            setLong(instance, value);
+            return;
+        }
+        if (type == float.class) {
+            setFloat(instance, value);
+            return;
+        }
+        if (type == double.class) {
+            setDouble(instance, value);
+            return;
+        }
+        throw mismatch(" cannot be set from byte");
+    }
+
+    public void setShort(E instance, short value) {
+        if (type == int.class) {
+            setInt(instance, value);
+            return;
+        }
+        if (type == long.class) {
+            setLong(instance, value);
+            return;
+        }
+        if (type == float.class) {
+            setFloat(instance, value);
+            return;
+        }
+        if (type == double.class) {
+            setDouble(instance, value);
+            return;
+        }
+        throw mismatch(" cannot be set from short");
+    }
+
+    public void setChar(E instance, char value) {
+        if (type == int.class) {
+            setInt(instance, value);
+            return;
+        }
+        if (type == long.class) {
+            setLong(instance, value);
+            return;
+        }
+        if (type == float.class) {
+            setFloat(instance, value);
+            return;
+        }
+        if (type == double.class) {
+            setDouble(instance, value);
+            return;
+        }
+        throw mismatch(" cannot be set from char");
+    }
+
+    public void setInt(E instance, int value) {
+        if (type == long.class) {
+            setLong(instance, value);
+            return;
+        }
+        if (type == double.class) {
+            setDouble(instance, value);
+            return;
+        }
+        throw mismatch(" cannot be set from int");
+    }
+
+    public void setLong(E instance, long value) {
+        throw mismatch(" cannot be set from long");
+    }
+
+    public void setFloat(E instance, float value) {
+        if (type == double.class) {
+            setDouble(instance, value);
+            return;
+        }
+        throw mismatch(" cannot be set from float");
+    }
+
+    public void setDouble(E instance, double value) {
+        throw mismatch(" cannot be set from double");
+    }
+
+    @Override
+    public String toString() {
+        return "FieldAccessor[" + name + "]";
+    }
+
+    private IllegalArgumentException mismatch(String messageSuffix) {
+        return new IllegalArgumentException("Field " + name + messageSuffix);
+    }
+}
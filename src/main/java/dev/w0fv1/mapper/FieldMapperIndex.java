@@ -0,0 +1,14 @@
+package dev.w0fv1.mapper;
+
+import java.util.Map;
+
+/**
+ * Service provider generated by {@code -Afmapper.registry=true}: one per package and compilation, listed in
+ * {@code META-INF/services/dev.w0fv1.mapper.FieldMapperIndex}. {@link FieldMappers} merges every index on the
+ * class path.
+ */
+public interface FieldMapperIndex {
+
+    /** Puts each of this index's entity classes with its {@code FieldMapper.INSTANCE}. */
+    void registerAll(Map<Class<?>, EntityAccessor<?>> registry);
+}
@@ -0,0 +1,141 @@
+package dev.w0fv1.mapper;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Writes the {@code fmapper.registry} output: a {@link FieldMapperIndex} source per package of injected entities,
+ * and at the end of processing the {@code META-INF/services} file that lists them.
+ * <p>
+ * Each index lives in its entities' package (so package-private entities can be referenced) and is named after a
+ * hash of their qualified names, so two modules, or two rounds, that share a package never emit the same class.
+ */
+final class FieldMapperIndexWriter {
+
+    static final String SERVICE_FILE = "META-INF/services/" + FieldMapperIndex.class.getName();
+
+    private final Filer filer;
+    private final Messager messager;
+    private final TreeSet<String> indexNames = new TreeSet<>();
+
+    FieldMapperIndexWriter(Filer filer, Messager messager) {
+        this.filer = filer;
+        this.messager = messager;
+    }
+
+    /** Writes one index per package for the entities injected in this round. */
+    void writeIndexes(List<TypeElement> entities) {
+        Map<String, List<TypeElement>> byPackage = new TreeMap<>();
+        for (TypeElement entity : entities) {
+            if (!isReachableFromPackage(entity)) {
+                messager.printMessage(
+                        Diagnostic.Kind.WARNING,
+                        "fmapper: " + entity.getSimpleName() + " is not registered in FieldMappers (it is nested in, "
+                                + "or is, a private class)",
+                        entity
+                );
+                continue;
+            }
+            byPackage.computeIfAbsent(packageOf(entity), p -> new ArrayList<>()).add(entity);
+        }
+        for (Map.Entry<String, List<TypeElement>> entry : byPackage.entrySet()) {
+            List<TypeElement> members = entry.getValue();
+            members.sort(Comparator.comparing(e -> e.getQualifiedName().toString()));
+            writeIndex(entry.getKey(), members);
+        }
+    }
+
+    /** Writes the service file naming every index generated during this compilation. */
+    void writeServiceFile() {
+        if (indexNames.isEmpty()) return;
+        try (Writer writer = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE).openWriter()) {
+            for (String indexName : indexNames) {
+                writer.write(indexName);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "fmapper: cannot write " + SERVICE_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private void writeIndex(String packageName, List<TypeElement> entities) {
+        StringBuilder key = new StringBuilder();
+        for (TypeElement entity : entities) {
+            key.append(entity.getQualifiedName()).append('\n');
+        }
+        String simpleName = "FieldMapperIndex_" + hash(key.toString());
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("@javax.annotation.processing.Generated(\"").append(FieldMapperProcessor.class.getName()).append("\")\n")
+                .append("public final class ").append(simpleName).append(" implements ")
+                .append(FieldMapperIndex.class.getName()).append(" {\n\n")
+                .append("    @Override\n")
+                .append("    public void registerAll(java.util.Map<java.lang.Class<?>, ")
+                .append(EntityAccessor.class.getName()).append("<?>> registry) {\n");
+        for (TypeElement entity : entities) {
+            String entityName = entity.getQualifiedName().toString();
+            source.append("        registry.put(").append(entityName).append(".class, ")
+                    .append(entityName).append(".FieldMapper.INSTANCE);\n");
+        }
+        source.append("    }\n}\n");
+
+        try (Writer writer = filer.createSourceFile(qualifiedName, entities.toArray(new Element[0])).openWriter()) {
+            writer.write(source.toString());
+            indexNames.add(qualifiedName);
+        } catch (IOException e) {
+            messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "fmapper: cannot write " + qualifiedName + ": " + e.getMessage(),
+                    entities.get(0)
+            );
+        }
+    }
+
+    private static boolean isReachableFromPackage(TypeElement entity) {
+        for (Element e = entity; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) return false;
+        }
+        return true;
+    }
+
+    private static String packageOf(Element element) {
+        Element e = element;
+        while (!(e instanceof PackageElement)) {
+            e = e.getEnclosingElement();
+        }
+        return ((PackageElement) e).getQualifiedName().toString();
+    }
+
+    /** First 8 bytes of the SHA-256 of {@code key} as hex. */
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
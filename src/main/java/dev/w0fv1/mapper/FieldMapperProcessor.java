@@ -1,44 +1,91 @@
 package dev.w0fv1.mapper;
 
 import com.google.auto.service.AutoService;
+import jakarta.persistence.Embeddable;
 import jakarta.persistence.Entity;
 
 import javax.annotation.processing.*;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.*;
-import javax.lang.model.util.Elements;
-import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
 @AutoService(Processor.class)
-@SupportedAnnotationTypes("jakarta.persistence.Entity")
-@SupportedOptions("fmapper.inline")
+@SupportedAnnotationTypes({"jakarta.persistence.Entity", "jakarta.persistence.Embeddable"})
+@SupportedOptions({"fmapper.inline", "fmapper.access", "fmapper.dirtyTracking", "fmapper.sizeReport", "fmapper.registry",
+        "fmapper.accessors", "fmapper.columns", "fmapper.jdbc", "fmapper.json",
+        "fmapper.binary", "fmapper.coerce", "fmapper.unknownField"})
 @SupportedSourceVersion(SourceVersion.RELEASE_21)
 public class FieldMapperProcessor extends AbstractProcessor {
 
     private Messager messager;
-    private Elements elementUtils;
-    private Types typeUtils;
 
     private boolean inlineEnabled;
+    private boolean registryEnabled;
+    private boolean reportedUnreachableJavac;
+    private dev.w0fv1.mapper.javac.InjectorOptions injectorOptions;
+    private FieldMapperIndexWriter indexWriter;
 
     @Override
     public synchronized void init(ProcessingEnvironment env) {
         super.init(env);
         messager = env.getMessager();
-        elementUtils = env.getElementUtils();
-        typeUtils = env.getTypeUtils();
         inlineEnabled = Boolean.parseBoolean(env.getOptions().getOrDefault("fmapper.inline", "false"));
+        injectorOptions = new dev.w0fv1.mapper.javac.InjectorOptions(
+                parseAccessMode(env.getOptions().get("fmapper.access")),
+                Boolean.parseBoolean(env.getOptions().getOrDefault("fmapper.dirtyTracking", "false")),
+                Boolean.parseBoolean(env.getOptions().getOrDefault("fmapper.sizeReport", "false")),
+                Boolean.parseBoolean(env.getOptions().getOrDefault("fmapper.accessors", "false")),
+                Boolean.parseBoolean(env.getOptions().getOrDefault("fmapper.columns", "false")),
+                Boolean.parseBoolean(env.getOptions().getOrDefault("fmapper.jdbc", "false")),
+                Boolean.parseBoolean(env.getOptions().getOrDefault("fmapper.json", "false")),
+                Boolean.parseBoolean(env.getOptions().getOrDefault("fmapper.binary", "false")),
+                Boolean.parseBoolean(env.getOptions().getOrDefault("fmapper.coerce", "false")),
+                parseUnknownField(env.getOptions().get("fmapper.unknownField"))
+        );
+        registryEnabled = Boolean.parseBoolean(env.getOptions().getOrDefault("fmapper.registry", "false"));
+        if (registryEnabled && !inlineEnabled) {
+            messager.printMessage(
+                    Diagnostic.Kind.WARNING,
+                    "fmapper: fmapper.registry needs fmapper.inline=true; no FieldMappers registry is generated"
+            );
+            registryEnabled = false;
+        }
+        indexWriter = new FieldMapperIndexWriter(env.getFiler(), messager);
+    }
+
+    /**
+     * Declares the Gradle incremental category for the "dynamic" registration in
+     * {@code META-INF/gradle/incremental.annotation.processors}: injection alone is isolating, but the registry
+     * index covers every entity and so is aggregating. Gradle asks after {@link #init}.
+     */
+    @Override
+    public Set<String> getSupportedOptions() {
+        Set<String> options = new HashSet<>(super.getSupportedOptions());
+        options.add(registryEnabled
+                ? "org.gradle.annotation.processing.aggregating"
+                : "org.gradle.annotation.processing.isolating");
+        return options;
     }
 
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
-        for (Element element : roundEnv.getElementsAnnotatedWith(Entity.class)) {
+        // Type lookups and interned names are shared by every entity of this round.
+        dev.w0fv1.mapper.javac.InjectionRound round = inlineEnabled
+                ? dev.w0fv1.mapper.javac.InjectionRound.of(processingEnv, injectorOptions)
+                : null;
+        List<TypeElement> injected = new ArrayList<>();
+        // Embeddables get a FieldMapper too, so that property paths can walk into them.
+        Set<Element> annotated = new LinkedHashSet<>(roundEnv.getElementsAnnotatedWith(Entity.class));
+        annotated.addAll(roundEnv.getElementsAnnotatedWith(Embeddable.class));
+        for (Element element : annotated) {
             if (element.getKind() != ElementKind.CLASS) {
-                messager.printMessage(Diagnostic.Kind.ERROR, "@Entity can only be applied to classes", element);
+                String annotation = element.getAnnotation(Entity.class) != null ? "@Entity" : "@Embeddable";
+                messager.printMessage(Diagnostic.Kind.ERROR, annotation + " can only be applied to classes", element);
                 continue;
             }
 
@@ -53,23 +100,39 @@ public class FieldMapperProcessor extends AbstractProcessor {
 
             if (fields.isEmpty()) continue;
 
-            if (inlineEnabled) {
-                tryInjectFieldMapper(classElement, fields);
+            if (round != null) {
+                if (tryInjectFieldMapper(round, classElement, fields) || hasCompiledFieldMapper(classElement)) {
+                    injected.add(classElement);
+                }
+            } else if (inlineEnabled && !reportedUnreachableJavac) {
+                reportedUnreachableJavac = true;
+                messager.printMessage(
+                        Diagnostic.Kind.WARNING,
+                        "fmapper: javac's ProcessingEnvironment is not reachable from "
+                                + processingEnv.getClass().getName() + "; FieldMapper is not injected",
+                        classElement
+                );
+            }
+        }
+        if (registryEnabled) {
+            if (!injected.isEmpty()) {
+                indexWriter.writeIndexes(injected);
+            }
+            if (roundEnv.processingOver()) {
+                indexWriter.writeServiceFile();
             }
         }
-        return true;
+        // Not claimed: metamodel generators and other processors after this one still need @Entity and @Embeddable.
+        return false;
     }
 
-    private void tryInjectFieldMapper(TypeElement classElement, List<VariableElement> fields) {
+    private boolean tryInjectFieldMapper(
+            dev.w0fv1.mapper.javac.InjectionRound round,
+            TypeElement classElement,
+            List<VariableElement> fields
+    ) {
         try {
-            dev.w0fv1.mapper.javac.JavacFieldMapperInjector.inject(
-                    processingEnv,
-                    messager,
-                    elementUtils,
-                    typeUtils,
-                    classElement,
-                    fields
-            );
+            return dev.w0fv1.mapper.javac.JavacFieldMapperInjector.inject(round, messager, classElement, fields);
         } catch (Throwable t) {
             messager.printMessage(
                     Diagnostic.Kind.WARNING,
@@ -77,6 +140,57 @@ public class FieldMapperProcessor extends AbstractProcessor {
                             + " (" + t.getClass().getSimpleName() + ": " + t.getMessage() + ")",
                     classElement
             );
+            return false;
+        }
+    }
+
+    /**
+     * Gradle hands an aggregating processor the unchanged entities as class files, which have no tree to inject
+     * into but already carry their {@code FieldMapper.INSTANCE}; the registry must still list them.
+     */
+    private static boolean hasCompiledFieldMapper(TypeElement classElement) {
+        for (Element member : classElement.getEnclosedElements()) {
+            if (member.getKind() != ElementKind.CLASS || !member.getSimpleName().contentEquals("FieldMapper")) continue;
+            for (Element mapperMember : member.getEnclosedElements()) {
+                if (mapperMember.getKind() == ElementKind.FIELD && mapperMember.getSimpleName().contentEquals("INSTANCE")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private FieldAccess.Mode parseAccessMode(String value) {
+        if (value == null) return FieldAccess.Mode.PROPERTY;
+        switch (value.trim().toLowerCase(java.util.Locale.ROOT)) {
+            case "field":
+                return FieldAccess.Mode.FIELD;
+            case "property":
+                return FieldAccess.Mode.PROPERTY;
+            default:
+                messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "fmapper: invalid fmapper.access value '" + value + "' (expected 'field' or 'property')"
+                );
+                return FieldAccess.Mode.PROPERTY;
+        }
+    }
+
+    private dev.w0fv1.mapper.javac.InjectorOptions.UnknownField parseUnknownField(String value) {
+        if (value == null) return dev.w0fv1.mapper.javac.InjectorOptions.UnknownField.THROW;
+        switch (value.trim().toLowerCase(java.util.Locale.ROOT)) {
+            case "throw":
+                return dev.w0fv1.mapper.javac.InjectorOptions.UnknownField.THROW;
+            case "ignore":
+                return dev.w0fv1.mapper.javac.InjectorOptions.UnknownField.IGNORE;
+            case "return":
+                return dev.w0fv1.mapper.javac.InjectorOptions.UnknownField.RETURN;
+            default:
+                messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "fmapper: invalid fmapper.unknownField value '" + value + "' (expected 'throw', 'ignore' or 'return')"
+                );
+                return dev.w0fv1.mapper.javac.InjectorOptions.UnknownField.THROW;
         }
     }
 
@@ -0,0 +1,51 @@
+package dev.w0fv1.mapper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+/**
+ * Looks up the injected {@code FieldMapper} of an entity by its {@link Class}, without reflection.
+ * <p>
+ * The registry is built once, on first use, from every {@link FieldMapperIndex} that {@link ServiceLoader} finds
+ * through the thread context class loader; after that a lookup is a single map read. Entities are only registered
+ * when their module is compiled with {@code -Afmapper.registry=true}.
+ */
+public final class FieldMappers {
+
+    private FieldMappers() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code entityType} is not a registered entity (note that subclasses,
+     *                                  such as ORM proxies, are not registered under their own class)
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> EntityAccessor<E> of(Class<E> entityType) {
+        EntityAccessor<?> accessor = Registry.ACCESSORS.get(entityType);
+        if (accessor == null) {
+            throw new IllegalArgumentException("No FieldMapper registered for " + entityType.getName()
+                    + " (is it an @Entity or @Embeddable compiled with -Afmapper.registry=true?)");
+        }
+        return (EntityAccessor<E>) accessor;
+    }
+
+    /** Every registered entity class. */
+    public static Set<Class<?>> registeredTypes() {
+        return Registry.ACCESSORS.keySet();
+    }
+
+    /** Holder so the service lookup runs on first use instead of when {@code FieldMappers} is loaded. */
+    private static final class Registry {
+        static final Map<Class<?>, EntityAccessor<?>> ACCESSORS = load();
+
+        private static Map<Class<?>, EntityAccessor<?>> load() {
+            Map<Class<?>, EntityAccessor<?>> accessors = new HashMap<>();
+            for (FieldMapperIndex index : ServiceLoader.load(FieldMapperIndex.class)) {
+                index.registerAll(accessors);
+            }
+            return Map.copyOf(accessors);
+        }
+    }
+}
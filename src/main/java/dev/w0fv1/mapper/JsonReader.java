@@ -0,0 +1,520 @@
+package dev.w0fv1.mapper;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Streaming JSON input for the generated {@code FieldMapper.readJson}: a pull parser over a {@link CharSequence}
+ * whose typed {@code nextXxx()} methods the generated code calls for each member, chosen at compile time from the
+ * field's type, after resolving the member name with {@code indexOf}. Values are parsed straight into the field
+ * type; nothing is looked up or introspected at run time.
+ * <p>
+ * The input is RFC 8259 JSON. Numbers read into a {@code float} or {@code double} may also be the strings
+ * {@code "NaN"}, {@code "Infinity"} and {@code "-Infinity"} that {@link JsonWriter} writes; integral reads take
+ * only integers that fit. Malformed input, or a value of the wrong kind for its field, throws
+ * {@link IllegalArgumentException} with the offending offset. Nesting is limited to {@value #MAX_DEPTH} levels.
+ * Not thread-safe.
+ */
+public final class JsonReader {
+
+    /** Deepest nesting of objects and arrays accepted, which also bounds recursion into nested entities. */
+    public static final int MAX_DEPTH = 512;
+
+    private final CharSequence in;
+    private int pos;
+    private int depth;
+    /** Whether a value was just completed, so another member or element must be preceded by a comma. */
+    private boolean needsComma;
+
+    public JsonReader(CharSequence json) {
+        this.in = json;
+    }
+
+    public void beginObject() {
+        expect('{');
+        enter();
+    }
+
+    public void endObject() {
+        expect('}');
+        exit();
+    }
+
+    public void beginArray() {
+        expect('[');
+        enter();
+    }
+
+    public void endArray() {
+        expect(']');
+        exit();
+    }
+
+    /**
+     * Whether the current object or array has another member or element; consumes the comma before it. Call
+     * {@link #endObject()} or {@link #endArray()} once this returns {@code false}.
+     */
+    public boolean hasNext() {
+        char c = peek();
+        if (c == '}' || c == ']') return false;
+        if (needsComma) {
+            expect(',');
+            needsComma = false;
+        }
+        return true;
+    }
+
+    /** The next member name, consuming the {@code ':'} after it. */
+    public String nextName() {
+        if (peek() != '"') throw error("expected a member name");
+        String name = string();
+        expect(':');
+        return name;
+    }
+
+    /** Consumes a {@code null} and returns {@code true}, or returns {@code false} without consuming anything. */
+    public boolean nextNull() {
+        if (peek() != 'n') return false;
+        literal("null");
+        needsComma = true;
+        return true;
+    }
+
+    public String nextString() {
+        if (nextNull()) return null;
+        if (peek() != '"') throw error("expected a string");
+        String value = string();
+        needsComma = true;
+        return value;
+    }
+
+    public boolean nextBoolean() {
+        char c = peek();
+        boolean value;
+        if (c == 't') {
+            literal("true");
+            value = true;
+        } else if (c == 'f') {
+            literal("false");
+            value = false;
+        } else {
+            throw error("expected a boolean");
+        }
+        needsComma = true;
+        return value;
+    }
+
+    /** A one-character string. */
+    public char nextChar() {
+        int start = pos;
+        String value = nextString();
+        if (value == null || value.length() != 1) {
+            pos = start;
+            throw error("expected a one-character string");
+        }
+        return value.charAt(0);
+    }
+
+    public byte nextByte() {
+        return (byte) integral(Byte.MIN_VALUE, Byte.MAX_VALUE, "byte");
+    }
+
+    public short nextShort() {
+        return (short) integral(Short.MIN_VALUE, Short.MAX_VALUE, "short");
+    }
+
+    public int nextInt() {
+        return (int) integral(Integer.MIN_VALUE, Integer.MAX_VALUE, "int");
+    }
+
+    public long nextLong() {
+        return integral(Long.MIN_VALUE, Long.MAX_VALUE, "long");
+    }
+
+    public float nextFloat() {
+        float value = peek() == '"' ? Float.parseFloat(nonFinite()) : Float.parseFloat(number());
+        needsComma = true;
+        return value;
+    }
+
+    public double nextDouble() {
+        double value = peek() == '"' ? Double.parseDouble(nonFinite()) : Double.parseDouble(number());
+        needsComma = true;
+        return value;
+    }
+
+    /** An enum constant by name, or {@code null}. */
+    public <T extends Enum<T>> T nextEnum(Class<T> type) {
+        int start = pos;
+        String name = nextString();
+        if (name == null) return null;
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            pos = start;
+            throw error("no " + type.getSimpleName() + " constant '" + name + "'");
+        }
+    }
+
+    /**
+     * A scalar for a {@link Coercions} method: {@code null}, a {@link Boolean}, or a {@link String} holding either a
+     * JSON string or the literal text of a number (so that {@code BigDecimal} keeps every digit).
+     */
+    public Object nextScalar() {
+        char c = peek();
+        Object value;
+        if (c == '"') {
+            value = string();
+        } else if (c == 'n') {
+            literal("null");
+            value = null;
+        } else if (c == 't' || c == 'f') {
+            return nextBoolean();
+        } else {
+            value = number();
+        }
+        needsComma = true;
+        return value;
+    }
+
+    /**
+     * Any value as plain Java objects: {@code null}, {@link Boolean}, {@link String}, {@link Long} (or
+     * {@link BigInteger} past its range) for integers, {@link Double} for other numbers, {@link ArrayList} for arrays
+     * and {@link LinkedHashMap} for objects.
+     */
+    public Object nextValue() {
+        char c = peek();
+        if (c == '{') {
+            Map<String, Object> map = new LinkedHashMap<>();
+            beginObject();
+            while (hasNext()) {
+                String name = nextName();
+                map.put(name, nextValue());
+            }
+            endObject();
+            return map;
+        }
+        if (c == '[') {
+            List<Object> list = new ArrayList<>();
+            beginArray();
+            while (hasNext()) list.add(nextValue());
+            endArray();
+            return list;
+        }
+        Object scalar = nextScalar();
+        if (c == '"' || !(scalar instanceof String number)) return scalar;
+        if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+            // Up to 18 digits always fit a long.
+            return number.length() < 19 ? Long.valueOf(number) : bigOrLong(number);
+        }
+        return Double.valueOf(number);
+    }
+
+    /**
+     * Skips the next value without building it. Strings and nesting are tracked; the contents of skipped
+     * objects and arrays are not otherwise validated.
+     */
+    public void skipValue() {
+        int start = depth;
+        do {
+            char c = peek();
+            if (c == '"') {
+                skipString();
+            } else if (c == '{' || c == '[') {
+                pos++;
+                enter();
+            } else if (c == '}' || c == ']') {
+                if (depth == start) throw error("unexpected '" + c + "'");
+                pos++;
+                depth--;
+            } else if (c == ',' || c == ':') {
+                if (depth == start) throw error("unexpected '" + c + "'");
+                pos++;
+            } else {
+                int from = pos;
+                while (pos < in.length() && isLiteralChar(in.charAt(pos))) pos++;
+                if (pos == from) throw error("unexpected '" + c + "'");
+            }
+        } while (depth > start);
+        needsComma = true;
+    }
+
+    /** An entity or embeddable through its {@code FieldMapper}, created with {@code newInstance()}, or {@code null}. */
+    public <T> T nextObject(EntityAccessor<T> accessor) {
+        if (nextNull()) return null;
+        T value = accessor.newInstance();
+        accessor.readJson(this, value);
+        return value;
+    }
+
+    /** A list of entities or embeddables through their {@code FieldMapper}, or {@code null}. */
+    public <T> List<T> nextList(EntityAccessor<T> accessor) {
+        if (nextNull()) return null;
+        List<T> list = new ArrayList<>();
+        beginArray();
+        while (hasNext()) list.add(nextObject(accessor));
+        endArray();
+        return list;
+    }
+
+    /**
+     * A list whose elements are read as {@code elementType}: wrappers, {@code String}, enums, the types
+     * {@link Coercions} converts to, or {@code Object} for {@link #nextValue()}'s plain objects. {@code null}
+     * elements are kept.
+     */
+    public <T> List<T> nextList(Class<T> elementType) {
+        if (nextNull()) return null;
+        List<T> list = new ArrayList<>();
+        beginArray();
+        while (hasNext()) list.add(elementType.cast(element(elementType)));
+        endArray();
+        return list;
+    }
+
+    /** Base64 text, as {@link JsonWriter} writes a {@code byte[]}, or {@code null}. */
+    public byte[] nextBytes() {
+        int start = pos;
+        String text = nextString();
+        if (text == null) return null;
+        try {
+            return Base64.getDecoder().decode(text);
+        } catch (IllegalArgumentException e) {
+            pos = start;
+            throw error("expected Base64 text");
+        }
+    }
+
+    /** Checks that only whitespace is left, so that {@code {"a":1} x} is not accepted as {@code {"a":1}}. */
+    public void end() {
+        skipWhitespace();
+        if (pos < in.length()) throw error("unexpected '" + in.charAt(pos) + "' after the value");
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object element(Class<?> type) {
+        if (type == String.class) return nextString();
+        if (type == Object.class) return nextValue();
+        if (nextNull()) return null;
+        if (type == Integer.class) return nextInt();
+        if (type == Long.class) return nextLong();
+        if (type == Double.class) return nextDouble();
+        if (type == Boolean.class) return nextBoolean();
+        if (type == Float.class) return nextFloat();
+        if (type == Short.class) return nextShort();
+        if (type == Byte.class) return nextByte();
+        if (type == Character.class) return nextChar();
+        if (type.isEnum()) return nextEnum((Class) type);
+        int start = pos;
+        Object scalar = nextScalar();
+        try {
+            if (type == BigDecimal.class) return Coercions.asBigDecimal(scalar);
+            if (type == BigInteger.class) return Coercions.asBigInteger(scalar);
+            if (type == Instant.class) return Coercions.asInstant(scalar);
+            if (type == LocalDate.class) return Coercions.asLocalDate(scalar);
+            if (type == LocalDateTime.class) return Coercions.asLocalDateTime(scalar);
+            if (type == LocalTime.class) return Coercions.asLocalTime(scalar);
+            if (type == OffsetDateTime.class) return Coercions.asOffsetDateTime(scalar);
+            if (type == ZonedDateTime.class) return Coercions.asZonedDateTime(scalar);
+            if (type == Duration.class) return Coercions.asDuration(scalar);
+            if (type == UUID.class) return Coercions.asUuid(scalar);
+        } catch (IllegalArgumentException e) {
+            pos = start;
+            throw error(e.getMessage());
+        }
+        pos = start;
+        throw error("cannot read a " + type.getSimpleName() + " list element");
+    }
+
+    private long integral(long min, long max, String type) {
+        int start = pos;
+        String number = number();
+        long value;
+        try {
+            value = Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            // 1.0 and 1e3 are integers too; 1.5 and out-of-range values are not.
+            try {
+                value = new BigDecimal(number).longValueExact();
+            } catch (ArithmeticException | NumberFormatException e2) {
+                pos = start;
+                throw error("expected a " + type + ", got " + number);
+            }
+        }
+        if (value < min || value > max) {
+            pos = start;
+            throw error("expected a " + type + ", got " + number);
+        }
+        needsComma = true;
+        return value;
+    }
+
+    private static Object bigOrLong(String number) {
+        BigInteger value = new BigInteger(number);
+        return value.bitLength() < 64 ? (Object) value.longValue() : value;
+    }
+
+    /** Text of the number at the current position, checked against the JSON grammar. */
+    private String number() {
+        int start = pos;
+        int length = in.length();
+        if (pos < length && in.charAt(pos) == '-') pos++;
+        if (pos < length && in.charAt(pos) == '0') {
+            pos++;
+        } else if (!digits()) {
+            pos = start;
+            throw error("expected a number");
+        }
+        if (pos < length && in.charAt(pos) == '.') {
+            pos++;
+            if (!digits()) throw error("expected a digit");
+        }
+        if (pos < length && (in.charAt(pos) == 'e' || in.charAt(pos) == 'E')) {
+            pos++;
+            if (pos < length && (in.charAt(pos) == '+' || in.charAt(pos) == '-')) pos++;
+            if (!digits()) throw error("expected a digit");
+        }
+        return in.subSequence(start, pos).toString();
+    }
+
+    private boolean digits() {
+        int start = pos;
+        while (pos < in.length() && in.charAt(pos) >= '0' && in.charAt(pos) <= '9') pos++;
+        return pos > start;
+    }
+
+    /** The quoted {@code NaN}, {@code Infinity} or {@code -Infinity} that stands for a non-finite number. */
+    private String nonFinite() {
+        int start = pos;
+        String text = string();
+        if (!text.equals("NaN") && !text.equals("Infinity") && !text.equals("-Infinity")) {
+            pos = start;
+            throw error("expected a number");
+        }
+        return text;
+    }
+
+    /** The string at {@code pos}, which is its opening quote. */
+    private String string() {
+        int start = ++pos;
+        int length = in.length();
+        // Fast path: no escapes, so the value is a plain slice of the input.
+        while (pos < length) {
+            char c = in.charAt(pos);
+            if (c == '"') return in.subSequence(start, pos++).toString();
+            if (c == '\\') break;
+            if (c < 0x20) throw error("unescaped control character in string");
+            pos++;
+        }
+        StringBuilder sb = new StringBuilder(pos - start + 16).append(in, start, pos);
+        while (pos < length) {
+            char c = in.charAt(pos++);
+            if (c == '"') return sb.toString();
+            if (c < 0x20) {
+                pos--;
+                throw error("unescaped control character in string");
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos >= length) break;
+            char escaped = in.charAt(pos++);
+            switch (escaped) {
+                case '"', '\\', '/' -> sb.append(escaped);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> sb.append(unicodeEscape());
+                default -> {
+                    pos--;
+                    throw error("invalid escape '\\" + escaped + "'");
+                }
+            }
+        }
+        throw error("unterminated string");
+    }
+
+    private char unicodeEscape() {
+        if (pos + 4 > in.length()) throw error("unterminated string");
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(in.charAt(pos), 16);
+            if (digit < 0) throw error("invalid \\u escape");
+            value = value << 4 | digit;
+            pos++;
+        }
+        return (char) value;
+    }
+
+    private void skipString() {
+        int length = in.length();
+        pos++;
+        while (pos < length) {
+            char c = in.charAt(pos++);
+            if (c == '"') return;
+            if (c == '\\') pos++;
+        }
+        throw error("unterminated string");
+    }
+
+    private static boolean isLiteralChar(char c) {
+        return c >= '0' && c <= '9' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '-' || c == '+' || c == '.';
+    }
+
+    private void literal(String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (pos + i >= in.length() || in.charAt(pos + i) != literal.charAt(i)) throw error("expected " + literal);
+        }
+        pos += literal.length();
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) throw error("nesting deeper than " + MAX_DEPTH);
+        needsComma = false;
+    }
+
+    private void exit() {
+        depth--;
+        needsComma = true;
+    }
+
+    private void expect(char c) {
+        if (peek() != c) throw error("expected '" + c + "'");
+        pos++;
+    }
+
+    /** The next non-whitespace character, without consuming it. */
+    private char peek() {
+        skipWhitespace();
+        if (pos >= in.length()) throw error("unexpected end of input");
+        return in.charAt(pos);
+    }
+
+    private void skipWhitespace() {
+        int length = in.length();
+        while (pos < length) {
+            char c = in.charAt(pos);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return;
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Malformed JSON at " + pos + ": " + message);
+    }
+}
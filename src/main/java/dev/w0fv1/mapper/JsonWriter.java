@@ -0,0 +1,357 @@
+package dev.w0fv1.mapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming JSON output for the generated {@code FieldMapper.writeJson}: the generated code writes each field with the
+ * overload of its static type ({@code value(long)} for an {@code int} field, and so on) after a pre-escaped name from
+ * {@link Names}, so nothing is looked up or introspected at run time.
+ * <p>
+ * A writer appends either text to an {@link Appendable} ({@link #of(Appendable)}) or UTF-8 bytes to a
+ * {@link ByteBuffer} ({@link #of(ByteBuffer)}, throwing {@link java.nio.BufferOverflowException} when it is full) or
+ * to an internal array ({@link #bytes()}). {@code IOException}s of the {@code Appendable} are rethrown as
+ * {@link UncheckedIOException}. Doubles and floats that are not finite are written as the strings {@code "NaN"},
+ * {@code "Infinity"} and {@code "-Infinity"}, which {@link JsonReader} reads back. Not thread-safe.
+ */
+public final class JsonWriter {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The member names of one entity, quoted, escaped and followed by {@code ':'}, as text and as UTF-8. Each
+     * {@code FieldMapper} builds one from {@code FIELD_NAMES} when it is initialized.
+     */
+    public static final class Names {
+        private final String[] text;
+        private final byte[][] utf8;
+
+        public Names(String[] fieldNames) {
+            text = new String[fieldNames.length];
+            utf8 = new byte[fieldNames.length][];
+            for (int i = 0; i < fieldNames.length; i++) {
+                JsonWriter name = JsonWriter.bytes();
+                name.value(fieldNames[i]);
+                name.ascii(':');
+                utf8[i] = name.toByteArray();
+                text[i] = new String(utf8[i], StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    private final Appendable text;
+    private final ByteBuffer buffer;
+    private byte[] bytes;
+    private int count;
+    /** Whether a value was just completed, so the next name or array element needs a comma. */
+    private boolean needsComma;
+
+    private JsonWriter(Appendable text, ByteBuffer buffer, byte[] bytes) {
+        this.text = text;
+        this.buffer = buffer;
+        this.bytes = bytes;
+    }
+
+    public static JsonWriter of(Appendable out) {
+        return new JsonWriter(out, null, null);
+    }
+
+    /** Writes UTF-8 at the buffer's position, advancing it. */
+    public static JsonWriter of(ByteBuffer out) {
+        return new JsonWriter(null, out, null);
+    }
+
+    /** Writes UTF-8 into a growing array; see {@link #toByteArray()}. */
+    public static JsonWriter bytes() {
+        return new JsonWriter(null, null, new byte[256]);
+    }
+
+    /** What a {@link #bytes()} writer has written so far. */
+    public byte[] toByteArray() {
+        if (bytes == null) throw new IllegalStateException("Not a bytes() writer");
+        return Arrays.copyOf(bytes, count);
+    }
+
+    public void beginObject() {
+        separate();
+        ascii('{');
+        needsComma = false;
+    }
+
+    public void endObject() {
+        ascii('}');
+        needsComma = true;
+    }
+
+    public void beginArray() {
+        separate();
+        ascii('[');
+        needsComma = false;
+    }
+
+    public void endArray() {
+        ascii(']');
+        needsComma = true;
+    }
+
+    /** Writes the pre-escaped name {@code index} of {@code names}; the member's value must follow. */
+    public void name(Names names, int index) {
+        separate();
+        if (text != null) {
+            append(names.text[index]);
+        } else {
+            byte[] name = names.utf8[index];
+            if (buffer != null) {
+                buffer.put(name);
+            } else {
+                ensureCapacity(name.length);
+                System.arraycopy(name, 0, bytes, count, name.length);
+                count += name.length;
+            }
+        }
+        needsComma = false;
+    }
+
+    public void value(boolean value) {
+        separate();
+        ascii(value ? "true" : "false");
+        needsComma = true;
+    }
+
+    public void value(char value) {
+        value(String.valueOf(value));
+    }
+
+    public void value(long value) {
+        separate();
+        ascii(Long.toString(value));
+        needsComma = true;
+    }
+
+    public void value(float value) {
+        if (!Float.isFinite(value)) {
+            value(Float.toString(value));
+            return;
+        }
+        separate();
+        ascii(Float.toString(value));
+        needsComma = true;
+    }
+
+    public void value(double value) {
+        if (!Double.isFinite(value)) {
+            value(Double.toString(value));
+            return;
+        }
+        separate();
+        ascii(Double.toString(value));
+        needsComma = true;
+    }
+
+    public void value(String value) {
+        separate();
+        if (value == null) {
+            ascii("null");
+        } else {
+            string(value);
+        }
+        needsComma = true;
+    }
+
+    /**
+     * A value whose type is only known at run time: {@code null}, numbers, booleans, text, characters, enums (by
+     * name), collections and arrays of objects (as arrays), maps (as objects, keys by {@code toString()}),
+     * {@code byte[]} as Base64 text; anything else as the string of its {@code toString()}, which is the ISO form for
+     * {@code java.time} types.
+     */
+    public void value(Object value) {
+        if (value == null || value instanceof String) {
+            value((String) value);
+        } else if (value instanceof Boolean b) {
+            value((boolean) b);
+        } else if (value instanceof Double d) {
+            value((double) d);
+        } else if (value instanceof Float f) {
+            value((float) f);
+        } else if (value instanceof Number) {
+            separate();
+            ascii(value.toString());
+            needsComma = true;
+        } else if (value instanceof Enum<?> constant) {
+            value(constant.name());
+        } else if (value instanceof Collection<?> collection) {
+            beginArray();
+            for (Object element : collection) value(element);
+            endArray();
+        } else if (value instanceof byte[] data) {
+            value(Base64.getEncoder().encodeToString(data));
+        } else if (value instanceof Object[] array) {
+            beginArray();
+            for (Object element : array) value(element);
+            endArray();
+        } else if (value instanceof Map<?, ?> map) {
+            beginObject();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                value(String.valueOf(entry.getKey()));
+                ascii(':');
+                needsComma = false;
+                value(entry.getValue());
+            }
+            endObject();
+        } else {
+            value(value.toString());
+        }
+    }
+
+    /** An entity or embeddable through its {@code FieldMapper}, or {@code null}. */
+    public <E> void object(E value, EntityAccessor<E> accessor) {
+        if (value == null) {
+            value((String) null);
+        } else {
+            accessor.writeJson(value, this);
+        }
+    }
+
+    /** A list of entities or embeddables through their {@code FieldMapper}, or {@code null}. */
+    public <E> void list(List<? extends E> values, EntityAccessor<E> accessor) {
+        if (values == null) {
+            value((String) null);
+            return;
+        }
+        beginArray();
+        for (E value : values) object(value, accessor);
+        endArray();
+    }
+
+    private void separate() {
+        if (needsComma) ascii(',');
+    }
+
+    private void string(String s) {
+        ascii('"');
+        int length = s.length();
+        int run = 0;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            // Text output takes any other char as is; byte output encodes non-ASCII below.
+            if (c >= 0x20 && c != '"' && c != '\\' && (c < 0x80 || text != null)) continue;
+            flush(s, run, i);
+            run = i + 1;
+            if (c == '"' || c == '\\') {
+                ascii('\\');
+                ascii(c);
+            } else if (c < 0x20) {
+                escapeControl(c);
+            } else if (c < 0x800) {
+                put((byte) (0xc0 | c >> 6));
+                put((byte) (0x80 | c & 0x3f));
+            } else if (!Character.isSurrogate(c)) {
+                put((byte) (0xe0 | c >> 12));
+                put((byte) (0x80 | c >> 6 & 0x3f));
+                put((byte) (0x80 | c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                run = i + 1;
+                put((byte) (0xf0 | cp >> 18));
+                put((byte) (0x80 | cp >> 12 & 0x3f));
+                put((byte) (0x80 | cp >> 6 & 0x3f));
+                put((byte) (0x80 | cp & 0x3f));
+            } else {
+                // An unpaired surrogate has no UTF-8 form; the escape keeps it.
+                unicodeEscape(c);
+            }
+        }
+        flush(s, run, length);
+        ascii('"');
+    }
+
+    private void escapeControl(char c) {
+        switch (c) {
+            case '\n' -> ascii("\\n");
+            case '\r' -> ascii("\\r");
+            case '\t' -> ascii("\\t");
+            case '\b' -> ascii("\\b");
+            case '\f' -> ascii("\\f");
+            default -> unicodeEscape(c);
+        }
+    }
+
+    private void unicodeEscape(char c) {
+        ascii("\\u");
+        for (int shift = 12; shift >= 0; shift -= 4) {
+            ascii((char) HEX[c >> shift & 0xf]);
+        }
+    }
+
+    /** Writes {@code s[from, to)}, which needs no escaping (and is ASCII for byte output). */
+    private void flush(String s, int from, int to) {
+        if (from >= to) return;
+        if (text != null) {
+            try {
+                text.append(s, from, to);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            ascii(s.charAt(i));
+        }
+    }
+
+    private void ascii(String s) {
+        if (text != null) {
+            append(s);
+            return;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            put((byte) s.charAt(i));
+        }
+    }
+
+    private void ascii(char c) {
+        if (text != null) {
+            append(c);
+        } else {
+            put((byte) c);
+        }
+    }
+
+    private void put(byte b) {
+        if (buffer != null) {
+            buffer.put(b);
+            return;
+        }
+        ensureCapacity(1);
+        bytes[count++] = b;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (count + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, count + extra));
+        }
+    }
+
+    private void append(CharSequence s) {
+        try {
+            text.append(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void append(char c) {
+        try {
+            text.append(c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
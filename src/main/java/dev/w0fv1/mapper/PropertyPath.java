@@ -0,0 +1,136 @@
+package dev.w0fv1.mapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A dotted property path such as {@code "customer.address.city"}, resolved once against the generated
+ * {@code FieldMapper}s: every segment but the last must name a field whose type is an {@code @Entity} or
+ * {@code @Embeddable}, and each hop is then an ordinal {@code get}/{@code set} on that type's
+ * {@link EntityAccessor} instead of a name lookup or reflection.
+ * <p>
+ * {@code FieldMapper.path(...)} and {@link #of} cache compiled paths per entity class, so repeated lookups of the
+ * same string return the same instance. Paths are immutable and may be shared between threads.
+ *
+ * @param <E> root entity type
+ */
+public final class PropertyPath<E> {
+
+    private static final ClassValue<Map<String, PropertyPath<?>>> CACHE = new ClassValue<>() {
+        @Override
+        protected Map<String, PropertyPath<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final String path;
+    /** Accessor of the object each hop reads from; {@code owners[0]} is the root's. */
+    private final EntityAccessor<Object>[] owners;
+    private final int[] ordinals;
+
+    private PropertyPath(String path, EntityAccessor<Object>[] owners, int[] ordinals) {
+        this.path = path;
+        this.owners = owners;
+        this.ordinals = ordinals;
+    }
+
+    /**
+     * The compiled form of {@code path}, from the cache of {@code root}'s entity type.
+     *
+     * @throws IllegalArgumentException if a segment names no field, or an inner segment's type has no
+     *                                  {@code FieldMapper}
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PropertyPath<E> of(EntityAccessor<E> root, String path) {
+        Map<String, PropertyPath<?>> paths = CACHE.get(root.entityType());
+        PropertyPath<?> cached = paths.get(path);
+        if (cached == null) {
+            cached = paths.computeIfAbsent(path, p -> compile(root, p));
+        }
+        return (PropertyPath<E>) cached;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> PropertyPath<E> compile(EntityAccessor<E> root, String path) {
+        String[] segments = path.split("\\.", -1);
+        EntityAccessor<Object>[] owners = (EntityAccessor<Object>[]) new EntityAccessor<?>[segments.length];
+        int[] ordinals = new int[segments.length];
+        EntityAccessor<?> owner = root;
+        for (int i = 0; i < segments.length; i++) {
+            int ordinal = owner.indexOf(segments[i]);
+            if (ordinal < 0) {
+                throw new IllegalArgumentException("Unknown field " + segments[i] + " of "
+                        + owner.entityType().getSimpleName() + " in path " + path);
+            }
+            owners[i] = (EntityAccessor<Object>) owner;
+            ordinals[i] = ordinal;
+            if (i < segments.length - 1) {
+                owner = owner.nested(ordinal);
+                if (owner == null) {
+                    throw new IllegalArgumentException("Field " + segments[i] + " in path " + path
+                            + " is not an @Entity or @Embeddable with a FieldMapper");
+                }
+            }
+        }
+        return new PropertyPath<>(path, owners, ordinals);
+    }
+
+    /** The value at the end of the path, or {@code null} if any object along the way is {@code null}. */
+    public Object get(E root) {
+        Object current = root;
+        for (int i = 0; i < ordinals.length; i++) {
+            if (current == null) return null;
+            current = owners[i].get(current, ordinals[i]);
+        }
+        return current;
+    }
+
+    /**
+     * Sets the last field of the path, with {@code set}'s semantics.
+     *
+     * @throws NullPointerException if {@code root} or an object along the way is {@code null}
+     */
+    public void set(E root, Object value) {
+        owners[ordinals.length - 1].set(parentOf(root, false), ordinals[ordinals.length - 1], value);
+    }
+
+    /**
+     * Like {@link #set}, but first fills each {@code null} object along the way with a new instance from its
+     * {@link EntityAccessor#newInstance()}.
+     *
+     * @throws UnsupportedOperationException if a missing object's type cannot be instantiated
+     */
+    public void setCreating(E root, Object value) {
+        owners[ordinals.length - 1].set(parentOf(root, true), ordinals[ordinals.length - 1], value);
+    }
+
+    private Object parentOf(E root, boolean create) {
+        if (root == null) throw new NullPointerException("Root of path " + path + " is null");
+        Object current = root;
+        for (int i = 0; i < ordinals.length - 1; i++) {
+            Object next = owners[i].get(current, ordinals[i]);
+            if (next == null) {
+                if (!create) {
+                    throw new NullPointerException(prefix(i) + " is null in path " + path);
+                }
+                next = owners[i + 1].newInstance();
+                owners[i].set(current, ordinals[i], next);
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    private String prefix(int segment) {
+        int end = -1;
+        for (int i = 0; i <= segment; i++) {
+            end = path.indexOf('.', end + 1);
+        }
+        return path.substring(0, end);
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -0,0 +1,77 @@
+package dev.w0fv1.mapper;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Copies rows of one query into entities: {@code FieldMapper.rowReader(metaData)} matches the column labels to
+ * fields once, then {@link #read} only walks the matched columns, reading each with the {@code ResultSet} getter of
+ * the field's type ({@code getInt} for an {@code int} field, and so on) and storing it through the typed setter.
+ * <p>
+ * A label matches the field of the same name, or failing that the field whose name equals it ignoring case and
+ * underscores ({@code DISPLAY_NAME} and {@code display_name} both match {@code displayName}). Columns that match
+ * no field are skipped; see {@link #unmappedColumns()}.
+ * <p>
+ * A reader belongs to the result set shape it was created for; it is immutable and may be shared between threads.
+ *
+ * @param <E> entity type
+ */
+public abstract class RowReader<E> {
+
+    /** Field ordinal of each matched column, parallel to {@link #columns}. */
+    protected final int[] ordinals;
+    /** 1-based {@code ResultSet} index of each matched column. */
+    protected final int[] columns;
+
+    private final List<String> unmapped;
+
+    protected RowReader(ResultSetMetaData metaData, String[] fieldNames) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        int[] ordinals = new int[columnCount];
+        int[] columns = new int[columnCount];
+        List<String> unmapped = new ArrayList<>();
+        int mapped = 0;
+        for (int column = 1; column <= columnCount; column++) {
+            String label = metaData.getColumnLabel(column);
+            int ordinal = match(label, fieldNames);
+            if (ordinal < 0) {
+                unmapped.add(label);
+                continue;
+            }
+            ordinals[mapped] = ordinal;
+            columns[mapped] = column;
+            mapped++;
+        }
+        this.ordinals = Arrays.copyOf(ordinals, mapped);
+        this.columns = Arrays.copyOf(columns, mapped);
+        this.unmapped = List.copyOf(unmapped);
+    }
+
+    /** Copies the current row of {@code rs} into {@code target}; the cursor is not moved. */
+    public abstract void read(ResultSet rs, E target) throws SQLException;
+
+    /** Labels of the columns that matched no field, in column order. */
+    public final List<String> unmappedColumns() {
+        return unmapped;
+    }
+
+    private static int match(String label, String[] fieldNames) {
+        for (int i = 0; i < fieldNames.length; i++) {
+            if (fieldNames[i].equals(label)) return i;
+        }
+        String key = normalize(label);
+        for (int i = 0; i < fieldNames.length; i++) {
+            if (normalize(fieldNames[i]).equals(key)) return i;
+        }
+        return -1;
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+}
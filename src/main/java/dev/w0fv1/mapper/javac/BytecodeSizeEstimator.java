@@ -0,0 +1,303 @@
+package dev.w0fv1.mapper.javac;
+
+import com.sun.tools.javac.code.TypeTag;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.TreeScanner;
+
+/**
+ * Upper estimate of the bytecode javac emits for an injected method body, taken before attribution.
+ * <p>
+ * Only the tree shapes the injector builds are costed; each node is charged the instructions javac emits for it,
+ * taking the longer form where attribution would decide (e.g. {@code invokeinterface} for instance calls), and
+ * String switches include the {@code hashCode()/equals} lowering javac adds. Checked against {@code javap} on wide
+ * entities, it is never below the real size and at most about twice it. The estimate decides when a method gets
+ * split, how many fields each helper takes, and which methods are reported against HotSpot's size limits.
+ */
+final class BytecodeSizeEstimator extends TreeScanner {
+
+    private int size;
+
+    private BytecodeSizeEstimator() {
+    }
+
+    static int estimate(JCTree.JCMethodDecl method) {
+        BytecodeSizeEstimator estimator = new BytecodeSizeEstimator();
+        estimator.scan(method.body);
+        // Implicit trailing return of void methods.
+        return estimator.size + 1;
+    }
+
+    /** The size of a run of statements, as they would add to an enclosing method body. */
+    static int estimate(com.sun.tools.javac.util.List<? extends JCTree> trees) {
+        BytecodeSizeEstimator estimator = new BytecodeSizeEstimator();
+        estimator.scan(trees);
+        return estimator.size;
+    }
+
+    @Override
+    public void visitIdent(JCTree.JCIdent tree) {
+        // A local load is aload_0..3 or aload n (1 or 2 bytes); injected constants (FIELD_NAMES, fmapper$x$values) are getstatic.
+        size += isConstantName(tree) ? 3 : 2;
+    }
+
+    @Override
+    public void visitSelect(JCTree.JCFieldAccess tree) {
+        if (isQualifiedName(tree)) return;
+        size += 3;
+        // A static field (Type.FIELD) is a lone getstatic.
+        if (!isQualifiedName(tree.selected)) scan(tree.selected);
+    }
+
+    @Override
+    public void visitApply(JCTree.JCMethodInvocation tree) {
+        // invokestatic for FieldMapper helpers and qualified names, invokeinterface (the longer form) otherwise.
+        size += tree.meth instanceof JCTree.JCIdent
+                || tree.meth instanceof JCTree.JCFieldAccess select && isQualifiedName(select.selected) ? 3 : 5;
+        if (tree.meth instanceof JCTree.JCFieldAccess select && !isQualifiedName(select.selected)) {
+            scan(select.selected);
+        }
+        scan(tree.args);
+    }
+
+    @Override
+    public void visitLiteral(JCTree.JCLiteral tree) {
+        if (tree.typetag == TypeTag.INT && tree.value instanceof Integer i) {
+            size += i >= -1 && i <= 5 ? 1 : i >= Byte.MIN_VALUE && i <= Byte.MAX_VALUE ? 2 : 3;
+        } else if (tree.typetag == TypeTag.BOT || tree.typetag == TypeTag.BOOLEAN) {
+            size += 1;
+        } else {
+            size += 3;
+        }
+    }
+
+    @Override
+    public void visitTypeCast(JCTree.JCTypeCast tree) {
+        // checkcast, plus an unboxing call for primitive targets.
+        size += tree.clazz instanceof JCTree.JCPrimitiveTypeTree ? 6 : 3;
+        scan(tree.expr);
+    }
+
+    @Override
+    public void visitBinary(JCTree.JCBinary tree) {
+        switch (tree.getTag()) {
+            case EQ, NE, LT, GT, LE, GE -> {
+                // A conditional branch, after lcmp/dcmpl for wide operands; x == null is ifnull with no push.
+                size += 4;
+                scan(tree.lhs);
+                if (!isNull(tree.rhs)) scan(tree.rhs);
+                return;
+            }
+            // One branch per operand; the comparisons among them are charged their own.
+            case AND, OR -> size += 3;
+            // String concatenation is a single invokedynamic.
+            case PLUS -> size += isString(tree.lhs) || isString(tree.rhs) ? 5 : 1;
+            default -> size += 1;
+        }
+        scan(tree.lhs);
+        scan(tree.rhs);
+    }
+
+    @Override
+    public void visitUnary(JCTree.JCUnary tree) {
+        // Negation is a branch (or is folded into one); ++/-- is iinc or a load/add/store.
+        size += tree.getTag() == JCTree.Tag.NEG || tree.getTag() == JCTree.Tag.COMPL ? 2 : 4;
+        scan(tree.arg);
+    }
+
+    @Override
+    public void visitConditional(JCTree.JCConditional tree) {
+        // Branch on the condition, goto over the false part.
+        size += 6;
+        scan(tree.cond);
+        scan(tree.truepart);
+        scan(tree.falsepart);
+    }
+
+    @Override
+    public void visitTypeTest(JCTree.JCInstanceOf tree) {
+        // instanceof and the branch on its result; the type is a constant pool entry, not code.
+        size += 6;
+        scan(tree.expr);
+    }
+
+    @Override
+    public void visitParens(JCTree.JCParens tree) {
+        scan(tree.expr);
+    }
+
+    @Override
+    public void visitIndexed(JCTree.JCArrayAccess tree) {
+        size += 1;
+        scan(tree.indexed);
+        scan(tree.index);
+    }
+
+    @Override
+    public void visitAssign(JCTree.JCAssign tree) {
+        // Only the receiver (and index) of the target is loaded; then the store itself.
+        if (tree.lhs instanceof JCTree.JCFieldAccess select) {
+            size += 3;
+            scan(select.selected);
+        } else if (tree.lhs instanceof JCTree.JCArrayAccess indexed) {
+            size += 1;
+            scan(indexed.indexed);
+            scan(indexed.index);
+        } else {
+            size += 2;
+        }
+        scan(tree.rhs);
+    }
+
+    @Override
+    public void visitAssignop(JCTree.JCAssignOp tree) {
+        // The target is read as usual; then dup (dup2 for arrays), the op, and the store: putfield for fields.
+        size += tree.lhs instanceof JCTree.JCFieldAccess ? 5 : 3;
+        scan(tree.lhs);
+        scan(tree.rhs);
+    }
+
+    @Override
+    public void visitNewClass(JCTree.JCNewClass tree) {
+        size += 7;
+        scan(tree.args);
+    }
+
+    @Override
+    public void visitNewArray(JCTree.JCNewArray tree) {
+        size += 4;
+        scan(tree.dims);
+        if (tree.elems != null) {
+            // dup, index, value, store per element.
+            size += 5 * tree.elems.size();
+            scan(tree.elems);
+        }
+    }
+
+    @Override
+    public void visitVarDef(JCTree.JCVariableDecl tree) {
+        if (tree.init != null) {
+            size += 2;
+            scan(tree.init);
+        }
+    }
+
+    @Override
+    public void visitExec(JCTree.JCExpressionStatement tree) {
+        // pop of a discarded call result.
+        if (tree.expr instanceof JCTree.JCMethodInvocation) size += 1;
+        scan(tree.expr);
+    }
+
+    @Override
+    public void visitIf(JCTree.JCIf tree) {
+        // Comparisons charge their own branch; any other condition is tested with ifeq. goto over the else part.
+        size += (isBranch(tree.cond) ? 0 : 3) + (tree.elsepart == null ? 0 : 3);
+        scan(tree.cond);
+        scan(tree.thenpart);
+        scan(tree.elsepart);
+    }
+
+    @Override
+    public void visitSwitch(JCTree.JCSwitch tree) {
+        int labels = 0;
+        boolean stringLabels = false;
+        for (JCTree.JCCase c : tree.cases) {
+            for (JCTree.JCCaseLabel label : c.labels) {
+                labels++;
+                if (label instanceof JCTree.JCConstantCaseLabel constant
+                        && constant.expr instanceof JCTree.JCLiteral literal
+                        && literal.value instanceof String) {
+                    stringLabels = true;
+                }
+            }
+        }
+        if (stringLabels) {
+            // hashCode() lookupswitch with an equals() test per label, then a tableswitch on the matched index.
+            size += 32 + labels * 32;
+        } else {
+            size += 16 + labels * 8;
+        }
+        scan(tree.selector);
+        for (JCTree.JCCase c : tree.cases) {
+            size += 3;
+            scan(c.stats);
+        }
+    }
+
+    @Override
+    public void visitForLoop(JCTree.JCForLoop tree) {
+        // goto to the condition at the bottom, and its branch back.
+        size += 6;
+        super.visitForLoop(tree);
+    }
+
+    @Override
+    public void visitWhileLoop(JCTree.JCWhileLoop tree) {
+        size += 6;
+        super.visitWhileLoop(tree);
+    }
+
+    @Override
+    public void visitForeachLoop(JCTree.JCEnhancedForLoop tree) {
+        size += 24;
+        scan(tree.expr);
+        scan(tree.body);
+    }
+
+    @Override
+    public void visitReturn(JCTree.JCReturn tree) {
+        size += 1;
+        scan(tree.expr);
+    }
+
+    @Override
+    public void visitThrow(JCTree.JCThrow tree) {
+        size += 1;
+        scan(tree.expr);
+    }
+
+    private static boolean isConstantName(JCTree.JCIdent tree) {
+        String name = tree.name.toString();
+        return name.equals(name.toUpperCase()) || name.endsWith("$values") || name.equals("fmapper$jsonNames");
+    }
+
+    private static boolean isNull(JCTree.JCExpression tree) {
+        return tree instanceof JCTree.JCLiteral literal && literal.typetag == TypeTag.BOT;
+    }
+
+    private static boolean isString(JCTree.JCExpression tree) {
+        return tree instanceof JCTree.JCLiteral literal && literal.value instanceof String
+                || tree instanceof JCTree.JCBinary binary && binary.getTag() == JCTree.Tag.PLUS
+                && (isString(binary.lhs) || isString(binary.rhs));
+    }
+
+    /** Conditions that compile to their own branch instruction rather than a value tested with ifeq. */
+    private static boolean isBranch(JCTree.JCExpression tree) {
+        JCTree.JCExpression current = tree;
+        while (current instanceof JCTree.JCParens parens) {
+            current = parens.expr;
+        }
+        return switch (current.getTag()) {
+            case EQ, NE, LT, GT, LE, GE, AND, OR, NOT, TYPETEST -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * {@code java.util.Objects}, {@code Parcel.FieldMapper} and the like: a type name, not a value, so it costs
+     * nothing. Injected trees name types by their capitalized simple or qualified name and values in lower case.
+     */
+    private static boolean isQualifiedName(JCTree.JCExpression tree) {
+        if (tree instanceof JCTree.JCIdent ident) return isTypeSegment(ident.name.toString());
+        if (!(tree instanceof JCTree.JCFieldAccess select) || !isTypeSegment(select.name.toString())) return false;
+        JCTree.JCExpression current = select.selected;
+        while (current instanceof JCTree.JCFieldAccess outer && !isTypeSegment(outer.name.toString())) {
+            current = outer.selected;
+        }
+        return current instanceof JCTree.JCIdent || isQualifiedName(current);
+    }
+
+    private static boolean isTypeSegment(String name) {
+        return Character.isUpperCase(name.charAt(0)) && !name.equals(name.toUpperCase());
+    }
+}
@@ -0,0 +1,46 @@
+package dev.w0fv1.mapper.javac;
+
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * What the injector needs to know about one entity field, resolved once per round by {@link InjectionRound#field}.
+ *
+ * @param element the field itself
+ * @param name simple name
+ * @param getterName {@code getXxx}
+ * @param setterName {@code setXxx}
+ * @param type declared type
+ * @param list whether the erased type is a {@code java.util.List}
+ * @param erasedType erased declared type
+ * @param erasedTypeName erased declared type, as a qualified name
+ * @param castTypeName type an {@code Object} value is cast to before it is stored (boxed for primitives)
+ * @param fieldAccess whether the field is read and written directly instead of through its accessors
+ * @param isFinal whether the field is {@code final}
+ * @param mapper the field's {@code @FieldMapper(setter = ...)} hook, or {@code null}
+ */
+record FieldModel(
+        VariableElement element,
+        String name,
+        String getterName,
+        String setterName,
+        TypeMirror type,
+        boolean list,
+        TypeMirror erasedType,
+        String erasedTypeName,
+        String castTypeName,
+        boolean fieldAccess,
+        boolean isFinal,
+        MapperHook mapper
+) {
+
+    TypeKind kind() {
+        return type.getKind();
+    }
+
+    /** Whether values written through {@code set} and the typed setter go through a {@code Mapper}. */
+    boolean mapped() {
+        return mapper != null;
+    }
+}
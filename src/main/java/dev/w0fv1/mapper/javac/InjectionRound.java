@@ -0,0 +1,333 @@
+package dev.w0fv1.mapper.javac;
+
+import com.sun.tools.javac.api.JavacTrees;
+import com.sun.tools.javac.code.TypeTag;
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.TreeMaker;
+import com.sun.tools.javac.util.Name;
+import com.sun.tools.javac.util.Names;
+import dev.w0fv1.mapper.FieldAccess;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.Entity;
+
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lookups shared by every entity injected in one annotation-processing round: the javac services, interned
+ * {@link Name}s, split qualified type names, per-field {@link FieldModel}s and which field types have a
+ * {@code FieldMapper}.
+ * <p>
+ * Build one in {@code process()} with {@link #of} and drop it when the round ends; elements and names are not
+ * reused across rounds.
+ */
+public final class InjectionRound {
+
+    private static final String FIELD_MAPPER_ANNOTATION = "dev.w0fv1.mapper.FieldMapper";
+    private static final String MAPPER_INTERFACE = "dev.w0fv1.mapper.Mapper";
+
+    private static final Map<String, TypeTag> PRIMITIVE_TAGS = Map.of(
+            "boolean", TypeTag.BOOLEAN, "byte", TypeTag.BYTE, "short", TypeTag.SHORT, "char", TypeTag.CHAR,
+            "int", TypeTag.INT, "long", TypeTag.LONG, "float", TypeTag.FLOAT, "double", TypeTag.DOUBLE
+    );
+
+    /** How many wrappers deep {@link #unwrap} looks for javac's own environment. */
+    private static final int MAX_UNWRAP_DEPTH = 8;
+
+    private final JavacTrees trees;
+    private final TreeMaker treeMaker;
+    private final Names names;
+    private final Types typeUtils;
+    private final InjectorOptions options;
+    private final TypeMirror erasedList;
+
+    private final Map<String, Name> nameCache = new HashMap<>();
+    private final Map<String, Name[]> qualifiedNameCache = new HashMap<>();
+    private final Map<VariableElement, FieldModel> fieldCache = new HashMap<>();
+    private final Map<Element, Boolean> mappedTypeCache = new HashMap<>();
+
+    private InjectionRound(JavacProcessingEnvironment env, InjectorOptions options) {
+        this.trees = JavacTrees.instance(env);
+        this.treeMaker = TreeMaker.instance(env.getContext());
+        this.names = Names.instance(env.getContext());
+        this.typeUtils = env.getTypeUtils();
+        this.options = options;
+        Elements elementUtils = env.getElementUtils();
+        this.erasedList = typeUtils.erasure(elementUtils.getTypeElement("java.util.List").asType());
+    }
+
+    /**
+     * Returns {@code null} when javac's environment cannot be reached (not running inside javac, or behind a
+     * wrapper {@link #unwrap} does not understand), in which case there are no trees to inject into.
+     */
+    public static InjectionRound of(ProcessingEnvironment processingEnv, InjectorOptions options) {
+        JavacProcessingEnvironment javacEnv = unwrap(processingEnv);
+        if (javacEnv == null) return null;
+        return new InjectionRound(javacEnv, options);
+    }
+
+    /**
+     * Gradle's incremental processing (and some IDEs) hand processors a wrapper that delegates to javac's
+     * environment. Follows {@link ProcessingEnvironment}-typed fields, looking through proxy handlers, until the
+     * javac one is found.
+     */
+    static JavacProcessingEnvironment unwrap(ProcessingEnvironment processingEnv) {
+        Object current = processingEnv;
+        for (int depth = 0; depth < MAX_UNWRAP_DEPTH && current != null; depth++) {
+            if (current instanceof JavacProcessingEnvironment javacEnv) return javacEnv;
+            Object wrapper = Proxy.isProxyClass(current.getClass()) ? Proxy.getInvocationHandler(current) : current;
+            current = delegateOf(wrapper);
+        }
+        return null;
+    }
+
+    private static Object delegateOf(Object wrapper) {
+        for (Class<?> type = wrapper.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (java.lang.reflect.Modifier.isStatic(field.getModifiers())) continue;
+                if (!ProcessingEnvironment.class.isAssignableFrom(field.getType())) continue;
+                try {
+                    field.setAccessible(true);
+                    return field.get(wrapper);
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    // Not accessible (e.g. a non-open module): try the next candidate.
+                }
+            }
+        }
+        return null;
+    }
+
+    JavacTrees trees() {
+        return trees;
+    }
+
+    TreeMaker treeMaker() {
+        return treeMaker;
+    }
+
+    InjectorOptions options() {
+        return options;
+    }
+
+    Name name(String name) {
+        return nameCache.computeIfAbsent(name, names::fromString);
+    }
+
+    /**
+     * {@code a.b.C} as an {@code Ident}/{@code Select} chain; a fresh tree on every call. Erased array names such as
+     * {@code byte[]} become array types.
+     */
+    JCTree.JCExpression qualifiedType(String qualifiedName) {
+        if (qualifiedName.endsWith("[]")) {
+            return treeMaker.TypeArray(qualifiedType(qualifiedName.substring(0, qualifiedName.length() - 2)));
+        }
+        TypeTag primitive = PRIMITIVE_TAGS.get(qualifiedName);
+        if (primitive != null) return treeMaker.TypeIdent(primitive);
+        Name[] parts = qualifiedNameCache.computeIfAbsent(qualifiedName, this::splitQualifiedName);
+        JCTree.JCExpression expr = treeMaker.Ident(parts[0]);
+        for (int i = 1; i < parts.length; i++) {
+            expr = treeMaker.Select(expr, parts[i]);
+        }
+        return expr;
+    }
+
+    FieldModel field(VariableElement field) {
+        return fieldCache.computeIfAbsent(field, this::modelOf);
+    }
+
+    /**
+     * Whether {@code type} is an {@code @Entity} or {@code @Embeddable} whose {@code FieldMapper.INSTANCE} generated
+     * code can refer to: compiled with one already, or a source class with fields that is injected this round.
+     */
+    boolean hasFieldMapper(TypeMirror type) {
+        if (!(type instanceof DeclaredType declared)) return false;
+        return mappedTypeCache.computeIfAbsent(declared.asElement(), this::isMappedType);
+    }
+
+    private boolean isMappedType(Element type) {
+        if (type.getAnnotation(Entity.class) == null && type.getAnnotation(Embeddable.class) == null) return false;
+        boolean hasFields = false;
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.FIELD) {
+                hasFields = true;
+            } else if (member.getKind() == ElementKind.CLASS && member.getSimpleName().contentEquals("FieldMapper")) {
+                // Compiled with one, or hand-written (then never injected): only the generated one has INSTANCE.
+                for (Element mapperMember : member.getEnclosedElements()) {
+                    if (mapperMember.getKind() == ElementKind.FIELD && mapperMember.getSimpleName().contentEquals("INSTANCE")) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+        return hasFields && trees.getTree(type) != null;
+    }
+
+    private Name[] splitQualifiedName(String qualifiedName) {
+        String[] parts = qualifiedName.split("\\.");
+        Name[] result = new Name[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = name(parts[i]);
+        }
+        return result;
+    }
+
+    private FieldModel modelOf(VariableElement field) {
+        String name = field.getSimpleName().toString();
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        TypeMirror type = field.asType();
+        TypeMirror erased = typeUtils.erasure(type);
+        String erasedTypeName = erased.toString();
+        String castTypeName = switch (type.getKind()) {
+            case BOOLEAN -> "java.lang.Boolean";
+            case BYTE -> "java.lang.Byte";
+            case SHORT -> "java.lang.Short";
+            case INT -> "java.lang.Integer";
+            case LONG -> "java.lang.Long";
+            case CHAR -> "java.lang.Character";
+            case FLOAT -> "java.lang.Float";
+            case DOUBLE -> "java.lang.Double";
+            default -> erasedTypeName;
+        };
+        return new FieldModel(
+                field,
+                name,
+                "get" + capitalized,
+                "set" + capitalized,
+                type,
+                typeUtils.isAssignable(erased, erasedList),
+                erased,
+                erasedTypeName,
+                castTypeName,
+                usesFieldAccess(field),
+                field.getModifiers().contains(Modifier.FINAL),
+                mapperOf(field)
+        );
+    }
+
+    /** The hook named by {@code @dev.w0fv1.mapper.FieldMapper(setter = ...)}, read from the annotation mirror. */
+    private MapperHook mapperOf(VariableElement field) {
+        for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+            Element annotationType = annotation.getAnnotationType().asElement();
+            if (!((TypeElement) annotationType).getQualifiedName().contentEquals(FIELD_MAPPER_ANNOTATION)) continue;
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+                if (!entry.getKey().getSimpleName().contentEquals("setter")) continue;
+                if (!(entry.getValue().getValue() instanceof DeclaredType mapperType)) return null;
+                DeclaredType mapperInterface = findMapperSupertype(mapperType);
+                List<? extends TypeMirror> args = mapperInterface == null ? List.of() : mapperInterface.getTypeArguments();
+                TypeMirror target = args.size() == 2 ? args.get(0) : null;
+                TypeMirror input = args.size() == 2 ? args.get(1) : null;
+                return new MapperHook(
+                        (TypeElement) mapperType.asElement(),
+                        mapperType,
+                        target,
+                        input,
+                        input == null ? null : typeUtils.erasure(input)
+                );
+            }
+        }
+        return null;
+    }
+
+    /** {@code Mapper<V, T>} as seen from {@code type}, with its arguments substituted; {@code null} if absent. */
+    private DeclaredType findMapperSupertype(TypeMirror type) {
+        for (TypeMirror supertype : typeUtils.directSupertypes(type)) {
+            if (supertype instanceof DeclaredType declared
+                    && ((TypeElement) declared.asElement()).getQualifiedName().contentEquals(MAPPER_INTERFACE)) {
+                return declared;
+            }
+            DeclaredType found = findMapperSupertype(supertype);
+            if (found != null) return found;
+        }
+        return null;
+    }
+
+    /**
+     * Reports, as errors on the field, a {@code Mapper} that generated code cannot instantiate once and call with
+     * {@code (entity, value)}. Returns whether every hook of {@code fields} is usable.
+     */
+    boolean validate(Messager messager, TypeElement entity, List<FieldModel> fields) {
+        boolean valid = true;
+        for (FieldModel field : fields) {
+            MapperHook mapper = field.mapper();
+            if (mapper == null) continue;
+            String problem = mapperProblem(entity, mapper);
+            if (problem != null) {
+                messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "fmapper: @FieldMapper(setter = " + mapper.element().getSimpleName() + ".class) on "
+                                + field.name() + ": " + problem,
+                        field.element()
+                );
+                valid = false;
+            }
+        }
+        return valid;
+    }
+
+    private String mapperProblem(TypeElement entity, MapperHook mapper) {
+        TypeElement type = mapper.element();
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return "the mapper must be a concrete class";
+        }
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL && !type.getModifiers().contains(Modifier.STATIC)) {
+            return "the mapper must be a top-level or static nested class";
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            return "the mapper must not be generic";
+        }
+        boolean hasConstructor = false;
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                hasConstructor = true;
+            }
+        }
+        if (!hasConstructor) {
+            return "the mapper needs a non-private no-arg constructor";
+        }
+        if (mapper.input() == null) {
+            return "the mapper must implement Mapper<V, T> with type arguments";
+        }
+        if (!typeUtils.isAssignable(typeUtils.erasure(entity.asType()), typeUtils.erasure(mapper.target()))) {
+            return "the mapper writes into " + mapper.target() + ", which " + entity.getSimpleName() + " is not";
+        }
+        if (mapper.input().getKind() != TypeKind.DECLARED && mapper.input().getKind() != TypeKind.ARRAY) {
+            return "the mapper's value type " + mapper.input() + " must be a class or array type";
+        }
+        return null;
+    }
+
+    /**
+     * Field access mode for one field: {@code @FieldAccess} on the field, then on the entity class, then the
+     * {@code fmapper.access} processor option.
+     */
+    private boolean usesFieldAccess(VariableElement field) {
+        FieldAccess fieldLevel = field.getAnnotation(FieldAccess.class);
+        if (fieldLevel != null) return fieldLevel.value() == FieldAccess.Mode.FIELD;
+        FieldAccess classLevel = field.getEnclosingElement().getAnnotation(FieldAccess.class);
+        if (classLevel != null) return classLevel.value() == FieldAccess.Mode.FIELD;
+        return options.access() == FieldAccess.Mode.FIELD;
+    }
+}
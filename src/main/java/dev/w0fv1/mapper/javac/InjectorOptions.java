@@ -0,0 +1,42 @@
+package dev.w0fv1.mapper.javac;
+
+import dev.w0fv1.mapper.FieldAccess;
+
+/**
+ * Processor options that shape the injected {@code FieldMapper}.
+ *
+ * @param access default access mode for fields without a {@link FieldAccess} override
+ * @param dirtyTracking whether to inject per-entity dirty bits that the generated setters mark
+ * @param sizeReport whether to note generated methods too large for HotSpot to inline
+ * @param accessors whether to generate a {@code FieldAccessor} class per field behind {@code FieldMapper.accessor}
+ * @param columns whether to generate the {@code setColumn/getColumn} batch methods and their primitive variants
+ * @param jdbc whether to generate {@code readColumn} and {@code rowReader}, which need the {@code java.sql} module
+ * @param json whether to generate the {@code writeJson/readJson} methods and {@code EntityAccessor}'s JSON forwarders
+ * @param binary whether to generate the {@code ByteBuffer} codec, {@code BINARY_SCHEMA} and {@code EntityAccessor}'s
+ *               binary forwarders
+ * @param coerce whether {@code set} converts values of another type through {@code dev.w0fv1.mapper.Coercions}
+ * @param unknownField what by-name {@code set/get} do with a name that is not a field
+ */
+public record InjectorOptions(
+        FieldAccess.Mode access,
+        boolean dirtyTracking,
+        boolean sizeReport,
+        boolean accessors,
+        boolean columns,
+        boolean jdbc,
+        boolean json,
+        boolean binary,
+        boolean coerce,
+        UnknownField unknownField
+) {
+
+    /** Values of {@code fmapper.unknownField}. */
+    public enum UnknownField {
+        /** Throw {@code IllegalArgumentException("Unknown field: ...")}, the default. */
+        THROW,
+        /** Skip writes; {@code get} returns {@code null}. */
+        IGNORE,
+        /** Skip writes; {@code get} returns {@code EntityAccessor.UNKNOWN_FIELD}. */
+        RETURN
+    }
+}
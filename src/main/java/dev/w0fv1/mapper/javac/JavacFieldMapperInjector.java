@@ -1,54 +1,207 @@
 package dev.w0fv1.mapper.javac;
 
-import com.sun.tools.javac.api.JavacTrees;
+import com.sun.tools.javac.code.BoundKind;
 import com.sun.tools.javac.code.Flags;
 import com.sun.tools.javac.code.Type;
 import com.sun.tools.javac.code.TypeTag;
-import com.sun.tools.javac.processing.JavacProcessingEnvironment;
 import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.TreeCopier;
 import com.sun.tools.javac.tree.TreeMaker;
-import com.sun.tools.javac.util.Context;
-import com.sun.tools.javac.util.Names;
+import com.sun.tools.javac.tree.TreeScanner;
+import com.sun.tools.javac.util.ListBuffer;
+import com.sun.tools.javac.util.Name;
 
 import javax.annotation.processing.Messager;
-import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
-import javax.lang.model.util.Elements;
-import javax.lang.model.util.Types;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
 
 public final class JavacFieldMapperInjector {
 
+    /** Names of generated members that an ordinal constant must not shadow. */
+    private static final Set<String> RESERVED_CONSTANT_NAMES = Set.of("FIELD_COUNT", "FIELD_NAMES", "INSTANCE", "BINARY_SCHEMA");
+
+    /** Lazily initialized holder of the per-field {@code FieldAccessor}s, nested in {@code FieldMapper}. */
+    private static final String ACCESSORS_HOLDER = "fmapper$Accessors";
+
+    /** Prefix of the {@code long} words injected into the entity by {@code fmapper.dirtyTracking}. */
+    private static final String DIRTY_FIELD_PREFIX = "fmapper$dirty";
+
+    /** Field names pre-escaped for {@code JsonWriter}, shared by the {@code writeJson} methods. */
+    private static final String JSON_NAMES = "fmapper$jsonNames";
+
+    /** HotSpot's {@code HugeMethodLimit}: larger methods are never JIT-compiled (see {@code DontCompileHugeMethods}). */
+    private static final int HUGE_METHOD_LIMIT = 8000;
+
+    /** HotSpot's {@code FreqInlineSize} on x86_64: hot callees above it are not inlined. */
+    private static final int FREQ_INLINE_SIZE = 325;
+
+    /** HotSpot's {@code MaxInlineSize}: callees above it are inlined only at hot call sites. */
+    private static final int MAX_INLINE_SIZE = 35;
+
+    /**
+     * Estimated size above which a dispatch or straight-line method is split into helpers. Half of
+     * {@link #HUGE_METHOD_LIMIT} leaves room for estimation error.
+     */
+    private static final int SPLIT_THRESHOLD = HUGE_METHOD_LIMIT / 2;
+
+    /**
+     * Most fields per helper once a method is split; fewer when their estimated size calls for it (see
+     * {@link #chunkSize}). Chunks are powers of two so ordinal dispatch selects a range with a shift.
+     */
+    private static final int MAX_CHUNK_SIZE = 64;
+
+    /** Primitive kinds that get a specialized {@code setXxx/getXxx(instance, field, ...)} pair. */
+    private static final List<TypeKind> PRIMITIVE_KINDS = List.of(
+            TypeKind.BOOLEAN,
+            TypeKind.BYTE,
+            TypeKind.SHORT,
+            TypeKind.CHAR,
+            TypeKind.INT,
+            TypeKind.LONG,
+            TypeKind.FLOAT,
+            TypeKind.DOUBLE
+    );
+
+    /** {@code ResultSet} getter for each primitive kind but {@code char}, which is read as a string. */
+    private static final Map<TypeKind, String> RESULT_SET_PRIMITIVE_GETTERS = Map.of(
+            TypeKind.BOOLEAN, "getBoolean",
+            TypeKind.BYTE, "getByte",
+            TypeKind.SHORT, "getShort",
+            TypeKind.INT, "getInt",
+            TypeKind.LONG, "getLong",
+            TypeKind.FLOAT, "getFloat",
+            TypeKind.DOUBLE, "getDouble"
+    );
+
+    /** Primitive kind of each wrapper type, read with the primitive getter and {@code wasNull()}. */
+    private static final Map<String, TypeKind> BOXED_KINDS = Map.of(
+            "java.lang.Boolean", TypeKind.BOOLEAN,
+            "java.lang.Byte", TypeKind.BYTE,
+            "java.lang.Short", TypeKind.SHORT,
+            "java.lang.Character", TypeKind.CHAR,
+            "java.lang.Integer", TypeKind.INT,
+            "java.lang.Long", TypeKind.LONG,
+            "java.lang.Float", TypeKind.FLOAT,
+            "java.lang.Double", TypeKind.DOUBLE
+    );
+
+    /** Reference types {@code fmapper.coerce} converts other values to, with their {@code Coercions} method. */
+    private static final Map<String, String> COERCIONS = Map.ofEntries(
+            Map.entry("java.lang.String", "asString"),
+            Map.entry("java.math.BigDecimal", "asBigDecimal"),
+            Map.entry("java.math.BigInteger", "asBigInteger"),
+            Map.entry("java.time.Instant", "asInstant"),
+            Map.entry("java.time.LocalDate", "asLocalDate"),
+            Map.entry("java.time.LocalDateTime", "asLocalDateTime"),
+            Map.entry("java.time.LocalTime", "asLocalTime"),
+            Map.entry("java.time.OffsetDateTime", "asOffsetDateTime"),
+            Map.entry("java.time.ZonedDateTime", "asZonedDateTime"),
+            Map.entry("java.time.Duration", "asDuration"),
+            Map.entry("java.util.UUID", "asUuid")
+    );
+
+    /** Reference types with a dedicated {@code ResultSet} getter. */
+    private static final Map<String, String> RESULT_SET_REFERENCE_GETTERS = Map.of(
+            "java.lang.String", "getString",
+            "java.math.BigDecimal", "getBigDecimal",
+            "byte[]", "getBytes",
+            "java.sql.Date", "getDate",
+            "java.sql.Time", "getTime",
+            "java.sql.Timestamp", "getTimestamp"
+    );
+
     private JavacFieldMapperInjector() {
     }
 
-    public static void inject(
-            ProcessingEnvironment processingEnv,
+    /**
+     * Returns whether a {@code FieldMapper} was injected; {@code false} if there is no tree, one already exists, or a
+     * field's {@code Mapper} hook is unusable (reported as an error).
+     */
+    public static boolean inject(
+            InjectionRound round,
             Messager messager,
-            Elements elementUtils,
-            Types typeUtils,
             TypeElement classElement,
-            List<VariableElement> fields
+            List<VariableElement> fieldElements
     ) {
-        if (!(processingEnv instanceof JavacProcessingEnvironment javacEnv)) return;
-        if (fields.isEmpty()) return;
+        if (fieldElements.isEmpty()) return false;
 
-        JavacTrees javacTrees = JavacTrees.instance(processingEnv);
-        Context context = javacEnv.getContext();
-        TreeMaker treeMaker = TreeMaker.instance(context);
-        Names names = Names.instance(context);
+        InjectorOptions options = round.options();
+        TreeMaker treeMaker = round.treeMaker();
 
-        JCTree tree = javacTrees.getTree(classElement);
-        if (!(tree instanceof JCTree.JCClassDecl outerClass)) return;
-        if (hasInnerClassNamed(outerClass, "FieldMapper")) return;
+        JCTree tree = round.trees().getTree(classElement);
+        if (!(tree instanceof JCTree.JCClassDecl outerClass)) return false;
+        if (hasInnerClassNamed(outerClass, "FieldMapper")) return false;
+
+        List<FieldModel> fields = new ArrayList<>(fieldElements.size());
+        for (VariableElement field : fieldElements) {
+            fields.add(round.field(field));
+        }
+        if (!round.validate(messager, classElement, fields)) return false;
 
         // Give injected nodes a reasonable source position to satisfy javac invariants.
         treeMaker.at(outerClass.pos);
 
-        JCTree.JCClassDecl injected = makeFieldMapperClass(treeMaker, names, elementUtils, typeUtils, outerClass, fields);
+        qualifyHookAnnotations(treeMaker, round, fields);
+        if (options.dirtyTracking()) {
+            outerClass.defs = outerClass.defs.appendList(makeDirtyFields(treeMaker, round, fields));
+        }
+        JCTree.JCClassDecl injected = makeFieldMapperClass(
+                treeMaker, round, options, messager, outerClass, fields, isInstantiable(classElement));
         outerClass.defs = outerClass.defs.append(injected);
+        return true;
+    }
+
+    /**
+     * Rewrites a simple {@code @FieldMapper(...)} on a hooked field to {@code @dev.w0fv1.mapper.FieldMapper(...)}:
+     * javac attributes field annotations again after processing, and by then the injected nested
+     * {@code FieldMapper} class would shadow the imported annotation.
+     */
+    private static void qualifyHookAnnotations(TreeMaker treeMaker, InjectionRound round, List<FieldModel> fields) {
+        for (FieldModel field : fields) {
+            if (!field.mapped() || !(round.trees().getTree(field.element()) instanceof JCTree.JCVariableDecl decl)) continue;
+            for (JCTree.JCAnnotation annotation : decl.mods.annotations) {
+                if (annotation.annotationType instanceof JCTree.JCIdent ident && ident.name.contentEquals("FieldMapper")) {
+                    annotation.annotationType = round.qualifiedType("dev.w0fv1.mapper.FieldMapper");
+                }
+            }
+        }
+    }
+
+    /** Whether {@code new Entity()} compiles from inside the entity: concrete, not inner, with a no-arg constructor. */
+    private static boolean isInstantiable(TypeElement classElement) {
+        if (classElement.getModifiers().contains(Modifier.ABSTRACT)) return false;
+        if (classElement.getNestingKind() != NestingKind.TOP_LEVEL && !classElement.getModifiers().contains(Modifier.STATIC)) {
+            return false;
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(classElement.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()) return true;
+        }
+        return false;
     }
 
     private static boolean hasInnerClassNamed(JCTree.JCClassDecl outerClass, String innerName) {
@@ -62,410 +215,4175 @@ public final class JavacFieldMapperInjector {
 
     private static JCTree.JCClassDecl makeFieldMapperClass(
             TreeMaker treeMaker,
-            Names names,
-            Elements elementUtils,
-            Types typeUtils,
+            InjectionRound round,
+            InjectorOptions options,
+            Messager messager,
             JCTree.JCClassDecl outerClass,
-            List<VariableElement> fields
+            List<FieldModel> fields,
+            boolean instantiable
     ) {
         long mods = Flags.PUBLIC | Flags.STATIC;
 
-        com.sun.tools.javac.util.List<JCTree> defs = com.sun.tools.javac.util.List.nil();
-        defs = defs.append(makeFieldMapperSetMethod(treeMaker, names, elementUtils, typeUtils, outerClass, fields));
-        defs = defs.append(makeFieldMapperGetMethod(treeMaker, names, outerClass, fields));
-        for (VariableElement field : fields) {
-            defs = defs.append(makeTypedFieldSetter(treeMaker, names, elementUtils, typeUtils, outerClass, field));
-            defs = defs.append(makeTypedFieldGetter(treeMaker, names, outerClass, field));
+        ListBuffer<JCTree> defs = new ListBuffer<>();
+        defs.appendList(makeOrdinalConstants(treeMaker, round, messager, fields));
+        defs.append(makeFieldNamesConstant(treeMaker, round, fields));
+        defs.append(makeInstanceConstant(treeMaker, round, options, outerClass, instantiable));
+        defs.appendList(makeMapperConstants(treeMaker, round, fields));
+        if (options.json()) {
+            defs.append(makeJsonNamesConstant(treeMaker, round));
+        }
+        if (options.binary()) {
+            defs.append(makeBinarySchemaConstant(treeMaker, round, fields));
+            defs.appendList(makeEnumValuesConstants(treeMaker, round, fields));
+        }
+        if (options.accessors()) {
+            defs.append(makeAccessorsHolder(treeMaker, round, options, outerClass, fields));
+            defs.append(makeAccessorByNameMethod(treeMaker, round, outerClass));
+            defs.append(makeAccessorByOrdinalMethod(treeMaker, round, outerClass));
+        }
+        defs.appendList(makeFieldMapperSetMethod(treeMaker, round, options, outerClass, fields));
+        defs.appendList(makeFieldMapperGetMethod(treeMaker, round, options, outerClass, fields));
+        defs.appendList(makeFieldMapperIndexOfMethod(treeMaker, round, fields));
+        defs.appendList(makeFieldMapperSetByOrdinalMethod(treeMaker, round, options, outerClass, fields));
+        defs.appendList(makeFieldMapperGetByOrdinalMethod(treeMaker, round, options, outerClass, fields));
+        defs.appendList(makeTryMethods(treeMaker, round, outerClass));
+        defs.appendList(makeNestedMethod(treeMaker, round, fields));
+        defs.append(makePathMethod(treeMaker, round, outerClass));
+        defs.append(makeFieldMapperSetAllMethod(treeMaker, round, outerClass));
+        defs.append(makeFieldMapperToMapMethod(treeMaker, round, outerClass));
+        defs.appendList(makeFieldMapperToMapIntoMethod(treeMaker, round, options, outerClass, fields));
+        defs.append(makeFieldMapperToArrayMethod(treeMaker, round, outerClass));
+        defs.appendList(makeFieldMapperToArrayIntoMethod(treeMaker, round, options, outerClass, fields));
+        defs.appendList(makeFieldMapperFromArrayMethod(treeMaker, round, options, outerClass, fields));
+        for (TypeKind kind : PRIMITIVE_KINDS) {
+            defs.appendList(makePrimitiveSetMethod(treeMaker, round, options, outerClass, fields, kind));
+            defs.appendList(makePrimitiveGetMethod(treeMaker, round, options, outerClass, fields, kind));
+        }
+        if (options.columns()) {
+            defs.appendList(makeSetColumnMethods(treeMaker, round, options, outerClass, fields, null));
+            defs.appendList(makeGetColumnMethods(treeMaker, round, options, outerClass, fields, null));
+            for (TypeKind kind : PRIMITIVE_KINDS) {
+                defs.appendList(makeSetColumnMethods(treeMaker, round, options, outerClass, fields, kind));
+                defs.appendList(makeGetColumnMethods(treeMaker, round, options, outerClass, fields, kind));
+            }
+        }
+        if (options.jdbc()) {
+            defs.appendList(makeReadColumnMethod(treeMaker, round, options, outerClass, fields));
+            defs.append(makeRowReaderMethod(treeMaker, round, outerClass));
+        }
+        if (options.json()) {
+            defs.appendList(makeJsonMethods(treeMaker, round, options, outerClass, fields));
+        }
+        if (options.binary()) {
+            defs.appendList(makeBinaryMethods(treeMaker, round, options, outerClass, fields));
+        }
+        Set<JCTree> typedAccessors = new HashSet<>();
+        for (int i = 0; i < fields.size(); i++) {
+            JCTree.JCMethodDecl setter = makeTypedFieldSetter(treeMaker, round, options, outerClass, fields.get(i), i);
+            JCTree.JCMethodDecl getter = makeTypedFieldGetter(treeMaker, round, options, outerClass, fields.get(i));
+            typedAccessors.add(setter);
+            typedAccessors.add(getter);
+            defs.append(setter).append(getter);
+        }
+        defs.appendList(makeFieldMapperCopyMethod(treeMaker, round, options, outerClass, fields));
+        defs.appendList(makeFieldMapperDiffMethod(treeMaker, round, outerClass, fields));
+        defs.appendList(makeFieldMapperCopyMaskedMethod(treeMaker, round, options, outerClass, fields));
+        defs.appendList(makeContentMethods(treeMaker, round, outerClass, fields));
+        if (options.dirtyTracking()) {
+            defs.append(makeDirtyMaskMethod(treeMaker, round, outerClass, fields));
+            defs.appendList(makeDirtyFieldsMethod(treeMaker, round, outerClass, fields));
+            defs.append(makeClearDirtyMethod(treeMaker, round, outerClass, fields));
         }
 
+        com.sun.tools.javac.util.List<JCTree> members = defs.toList();
+        reportMethodSizes(messager, options, fields.get(0).element().getEnclosingElement(), members, typedAccessors);
+        suppressUncheckedListStores(treeMaker, round, members);
+
         return treeMaker.ClassDef(
                 treeMaker.Modifiers(mods),
-                names.fromString("FieldMapper"),
+                round.name("FieldMapper"),
                 com.sun.tools.javac.util.List.nil(),
                 null,
                 com.sun.tools.javac.util.List.nil(),
-                defs
+                members
         );
     }
 
-    private static JCTree.JCMethodDecl makeTypedFieldSetter(
+    /**
+     * Warns about generated methods HotSpot will never JIT-compile and, with {@code fmapper.sizeReport}, notes the
+     * ones too large to inline: public methods over {@code FreqInlineSize} (not inlined even when hot) and typed
+     * per-field accessors over {@code MaxInlineSize} (inlined only at hot call sites).
+     */
+    private static void reportMethodSizes(
+            Messager messager,
+            InjectorOptions options,
+            Element entity,
+            com.sun.tools.javac.util.List<JCTree> defs,
+            Set<JCTree> typedAccessors
+    ) {
+        List<String> overFreqInline = new ArrayList<>();
+        List<String> overMaxInline = new ArrayList<>();
+        for (JCTree def : defs) {
+            if (!(def instanceof JCTree.JCMethodDecl method)) continue;
+            int size = BytecodeSizeEstimator.estimate(method);
+            String name = method.name.toString();
+            if (size > HUGE_METHOD_LIMIT) {
+                messager.printMessage(
+                        Diagnostic.Kind.WARNING,
+                        "fmapper: generated FieldMapper." + name + " is about " + size + " bytes of bytecode, over HotSpot's "
+                                + "HugeMethodLimit (" + HUGE_METHOD_LIMIT + "); it will run interpreted",
+                        entity
+                );
+            }
+            if ((method.mods.flags & Flags.PUBLIC) == 0) continue;
+            if (size > FREQ_INLINE_SIZE) {
+                overFreqInline.add(name + " (~" + size + ")");
+            } else if (size > MAX_INLINE_SIZE && typedAccessors.contains(method)) {
+                overMaxInline.add(name + " (~" + size + ")");
+            }
+        }
+        if (!options.sizeReport()) return;
+        if (!overFreqInline.isEmpty()) {
+            messager.printMessage(
+                    Diagnostic.Kind.NOTE,
+                    "fmapper: FieldMapper methods over FreqInlineSize (" + FREQ_INLINE_SIZE + " bytes), not inlined even "
+                            + "when hot: " + String.join(", ", overFreqInline),
+                    entity
+            );
+        }
+        if (!overMaxInline.isEmpty()) {
+            messager.printMessage(
+                    Diagnostic.Kind.NOTE,
+                    "fmapper: FieldMapper accessors over MaxInlineSize (" + MAX_INLINE_SIZE + " bytes), inlined only at "
+                            + "hot call sites: " + String.join(", ", overMaxInline),
+                    entity
+            );
+        }
+    }
+
+    /** One arm of a String dispatch switch; {@code stats} is called again for every tree the arm ends up in. */
+    private record NameCase(
+            List<String> labels,
+            Supplier<com.sun.tools.javac.util.List<JCTree.JCStatement>> stats
+    ) {
+    }
+
+    /**
+     * Builds a public {@code methodName(params)} that dispatches on its {@code String field} parameter.
+     * <p>
+     * Normally that is one {@link #makeFieldSwitch String switch}. When the estimated size passes
+     * {@link #SPLIT_THRESHOLD}, the labels are spread over a power-of-two number of private
+     * {@code methodName$bucketN} helpers by {@code field.hashCode()} (about {@link #MAX_CHUNK_SIZE} labels each,
+     * doubling the buckets while the largest one is still past the threshold), and the public method only switches
+     * on {@code field.hashCode() & (buckets - 1)} and delegates.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeNameDispatchMethods(
             TreeMaker treeMaker,
-            Names names,
-            Elements elementUtils,
-            Types typeUtils,
-            JCTree.JCClassDecl outerClass,
-            VariableElement field
+            InjectionRound round,
+            String methodName,
+            Supplier<JCTree.JCExpression> returnType,
+            Supplier<com.sun.tools.javac.util.List<JCTree.JCVariableDecl>> params,
+            List<NameCase> cases,
+            Supplier<JCTree.JCStatement> fallback
     ) {
-        long mods = Flags.PUBLIC | Flags.STATIC;
+        JCTree.JCMethodDecl single = makeStaticMethod(treeMaker, round, Flags.PUBLIC, methodName, returnType.get(), params.get(), makeFieldSwitch(
+                treeMaker,
+                treeMaker.Ident(round.name("field")),
+                makeStringCases(treeMaker, cases),
+                fallback.get()
+        ));
+        if (BytecodeSizeEstimator.estimate(single) <= SPLIT_THRESHOLD) {
+            return com.sun.tools.javac.util.List.of(single);
+        }
 
-        String fieldName = field.getSimpleName().toString();
-        String cap = capitalize(fieldName);
-        String methodName = "set" + cap;
+        int labelCount = cases.stream().mapToInt(c -> c.labels().size()).sum();
+        int bucketCount = nextPowerOfTwo((labelCount + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+        Map<Integer, List<NameCase>> buckets = bucketNameCases(cases, bucketCount);
+        while (bucketCount < labelCount && largestBucket(treeMaker, round, buckets) > SPLIT_THRESHOLD) {
+            bucketCount <<= 1;
+            buckets = bucketNameCases(cases, bucketCount);
+        }
 
-        JCTree.JCVariableDecl instanceParam = treeMaker.VarDef(
-                treeMaker.Modifiers(Flags.PARAMETER),
-                names.fromString("instance"),
-                treeMaker.Ident(outerClass.name),
-                null
-        );
+        ListBuffer<JCTree> helpers = new ListBuffer<>();
+        ListBuffer<JCTree.JCCase> bucketCases = new ListBuffer<>();
+        for (Map.Entry<Integer, List<NameCase>> bucket : buckets.entrySet()) {
+            String helperName = methodName + "$bucket" + bucket.getKey();
+            com.sun.tools.javac.util.List<JCTree.JCVariableDecl> helperParams = params.get();
+            helpers.append(makeStaticMethod(treeMaker, round, Flags.PRIVATE, helperName, returnType.get(), helperParams, com.sun.tools.javac.util.List.of(
+                    treeMaker.Switch(treeMaker.Ident(round.name("field")), makeStringCases(treeMaker, bucket.getValue())),
+                    fallback.get()
+            )));
+            bucketCases.append(makeIntCase(treeMaker, bucket.getKey(), makeDelegation(treeMaker, round, helperName, helperParams, returnType.get())));
+        }
 
-        JCTree.JCExpression valueType = treeMaker.Type((Type) field.asType());
-        JCTree.JCVariableDecl valueParam = treeMaker.VarDef(
-                treeMaker.Modifiers(Flags.PARAMETER),
-                names.fromString(fieldName),
-                valueType,
+        JCTree.JCExpression hash = treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Select(treeMaker.Ident(round.name("field")), round.name("hashCode")),
+                com.sun.tools.javac.util.List.nil()
+        );
+        JCTree.JCExpression bucketOf = treeMaker.Binary(JCTree.Tag.BITAND, hash, treeMaker.Literal(bucketCount - 1));
+        JCTree.JCExpression notNull = treeMaker.Binary(
+                JCTree.Tag.NE,
+                treeMaker.Ident(round.name("field")),
+                treeMaker.Literal(TypeTag.BOT, null)
+        );
+        JCTree.JCStatement guarded = treeMaker.If(
+                notNull,
+                treeMaker.Block(0, com.sun.tools.javac.util.List.of(treeMaker.Switch(bucketOf, bucketCases.toList()))),
                 null
         );
+        JCTree.JCMethodDecl dispatcher = makeStaticMethod(treeMaker, round, Flags.PUBLIC, methodName, returnType.get(), params.get(),
+                com.sun.tools.javac.util.List.of(guarded, fallback.get()));
+        return helpers.prepend(dispatcher).toList();
+    }
 
-        JCTree.JCExpression instanceIdent = treeMaker.Ident(names.fromString("instance"));
-        JCTree.JCExpression valueIdent = treeMaker.Ident(names.fromString(fieldName));
+    /** Groups the cases by {@code label.hashCode() & (bucketCount - 1)}; a case may end up in several buckets. */
+    private static Map<Integer, List<NameCase>> bucketNameCases(List<NameCase> cases, int bucketCount) {
+        Map<Integer, List<NameCase>> buckets = new TreeMap<>();
+        for (NameCase c : cases) {
+            Map<Integer, List<String>> labelsByBucket = new TreeMap<>();
+            for (String label : c.labels()) {
+                labelsByBucket.computeIfAbsent(label.hashCode() & (bucketCount - 1), k -> new ArrayList<>()).add(label);
+            }
+            labelsByBucket.forEach((bucket, labels) ->
+                    buckets.computeIfAbsent(bucket, k -> new ArrayList<>()).add(new NameCase(labels, c.stats())));
+        }
+        return buckets;
+    }
 
-        JCTree.JCStatement stmt;
-        if (isList(elementUtils, typeUtils, field)) {
-            stmt = makeTypedListSetStatement(treeMaker, names, instanceIdent, valueIdent, cap);
-        } else {
-            stmt = treeMaker.Exec(makeTypedSetterCall(treeMaker, names, instanceIdent, valueIdent, cap));
+    /** The estimated size of the largest bucket's switch; hashes rarely spread labels evenly. */
+    private static int largestBucket(TreeMaker treeMaker, InjectionRound round, Map<Integer, List<NameCase>> buckets) {
+        int largest = 0;
+        for (List<NameCase> bucket : buckets.values()) {
+            JCTree.JCStatement dispatch = treeMaker.Switch(treeMaker.Ident(round.name("field")), makeStringCases(treeMaker, bucket));
+            largest = Math.max(largest, BytecodeSizeEstimator.estimate(com.sun.tools.javac.util.List.of(dispatch)));
         }
+        return largest;
+    }
 
-        JCTree.JCBlock body = treeMaker.Block(0, com.sun.tools.javac.util.List.of(stmt));
+    /**
+     * Fields per helper once a method over {@code count} fields is split: the largest power of two up to
+     * {@link #MAX_CHUNK_SIZE} at which every helper's fields, costed by {@code fieldSize}, fit in
+     * {@link #SPLIT_THRESHOLD}. Costly fields (coercing or dirty-tracking setters, say) thus get smaller helpers.
+     */
+    private static int chunkSize(int count, IntUnaryOperator fieldSize) {
+        int[] sizes = new int[count];
+        for (int i = 0; i < count; i++) {
+            sizes[i] = fieldSize.applyAsInt(i);
+        }
+        int chunk = MAX_CHUNK_SIZE;
+        while (chunk > 1 && largestRange(sizes, chunk) > SPLIT_THRESHOLD) {
+            chunk >>>= 1;
+        }
+        return chunk;
+    }
 
-        return treeMaker.MethodDef(
-                treeMaker.Modifiers(mods),
-                names.fromString(methodName),
-                treeMaker.TypeIdent(TypeTag.VOID),
-                com.sun.tools.javac.util.List.nil(),
-                com.sun.tools.javac.util.List.of(instanceParam, valueParam),
-                com.sun.tools.javac.util.List.nil(),
-                body,
-                null
-        );
+    private static int largestRange(int[] sizes, int chunk) {
+        int largest = 0;
+        for (int from = 0; from < sizes.length; from += chunk) {
+            int size = 0;
+            for (int i = from; i < Math.min(sizes.length, from + chunk); i++) {
+                size += sizes[i];
+            }
+            largest = Math.max(largest, size);
+        }
+        return largest;
     }
 
-    private static JCTree.JCMethodDecl makeTypedFieldGetter(
+    /**
+     * Builds a public {@code methodName(params)} that dispatches on its {@code int ordinal} parameter through a
+     * tableswitch. Past {@link #SPLIT_THRESHOLD} the cases move into private {@code methodName$rangeN} helpers of
+     * {@link #chunkSize} ordinals each, selected by {@code ordinal >>> log2(chunk)} (negative ordinals match no
+     * range).
+     * Ordinals for which {@code caseStats} returns {@code null} get no case and end up at {@code fallback}.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeOrdinalDispatchMethods(
             TreeMaker treeMaker,
-            Names names,
-            JCTree.JCClassDecl outerClass,
-            VariableElement field
+            InjectionRound round,
+            String methodName,
+            Supplier<JCTree.JCExpression> returnType,
+            Supplier<com.sun.tools.javac.util.List<JCTree.JCVariableDecl>> params,
+            int count,
+            IntFunction<com.sun.tools.javac.util.List<JCTree.JCStatement>> caseStats,
+            Supplier<JCTree.JCStatement> fallback
     ) {
-        long mods = Flags.PUBLIC | Flags.STATIC;
+        JCTree.JCMethodDecl single = makeStaticMethod(treeMaker, round, Flags.PUBLIC, methodName, returnType.get(), params.get(), com.sun.tools.javac.util.List.of(
+                treeMaker.Switch(treeMaker.Ident(round.name("ordinal")), makeIntCases(treeMaker, 0, count, caseStats)),
+                fallback.get()
+        ));
+        if (BytecodeSizeEstimator.estimate(single) <= SPLIT_THRESHOLD) {
+            return com.sun.tools.javac.util.List.of(single);
+        }
 
-        String fieldName = field.getSimpleName().toString();
-        String cap = capitalize(fieldName);
-        String methodName = "get" + cap;
+        // Each case also costs its switch entry and the jump out of it.
+        int chunk = chunkSize(count, i -> {
+            com.sun.tools.javac.util.List<JCTree.JCStatement> stats = caseStats.apply(i);
+            return stats == null ? 0 : BytecodeSizeEstimator.estimate(stats) + 11;
+        });
+        ListBuffer<JCTree> helpers = new ListBuffer<>();
+        ListBuffer<JCTree.JCCase> rangeCases = new ListBuffer<>();
+        for (int range = 0; range * chunk < count; range++) {
+            String helperName = methodName + "$range" + range;
+            int from = range * chunk;
+            int to = Math.min(count, from + chunk);
+            com.sun.tools.javac.util.List<JCTree.JCVariableDecl> helperParams = params.get();
+            helpers.append(makeStaticMethod(treeMaker, round, Flags.PRIVATE, helperName, returnType.get(), helperParams, com.sun.tools.javac.util.List.of(
+                    treeMaker.Switch(treeMaker.Ident(round.name("ordinal")), makeIntCases(treeMaker, from, to, caseStats)),
+                    fallback.get()
+            )));
+            rangeCases.append(makeIntCase(treeMaker, range, makeDelegation(treeMaker, round, helperName, helperParams, returnType.get())));
+        }
 
-        JCTree.JCVariableDecl instanceParam = treeMaker.VarDef(
-                treeMaker.Modifiers(Flags.PARAMETER),
-                names.fromString("instance"),
-                treeMaker.Ident(outerClass.name),
-                null
+        JCTree.JCExpression rangeOf = treeMaker.Binary(
+                JCTree.Tag.USR,
+                treeMaker.Ident(round.name("ordinal")),
+                treeMaker.Literal(Integer.numberOfTrailingZeros(chunk))
         );
+        JCTree.JCMethodDecl dispatcher = makeStaticMethod(treeMaker, round, Flags.PUBLIC, methodName, returnType.get(), params.get(),
+                com.sun.tools.javac.util.List.of(treeMaker.Switch(rangeOf, rangeCases.toList()), fallback.get()));
+        return helpers.prepend(dispatcher).toList();
+    }
 
-        JCTree.JCExpression instanceIdent = treeMaker.Ident(names.fromString("instance"));
-        JCTree.JCExpression getterCall = makeGetterCall(treeMaker, names, instanceIdent, cap);
+    /**
+     * Builds a public straight-line {@code methodName(params)}: {@code prefix}, one statement group per field,
+     * {@code suffix}. Past {@link #SPLIT_THRESHOLD} the per-field groups move into private void
+     * {@code methodName$rangeN(helperParams)} helpers of {@link #chunkSize} fields each, called in order.
+     * {@code helperParams} may add locals of the public method (e.g. an accumulator); {@code null} means the
+     * method cannot be split.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeRangeSplitMethods(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            String methodName,
+            Supplier<JCTree.JCExpression> returnType,
+            Supplier<com.sun.tools.javac.util.List<JCTree.JCVariableDecl>> params,
+            Supplier<com.sun.tools.javac.util.List<JCTree.JCVariableDecl>> helperParams,
+            Supplier<com.sun.tools.javac.util.List<JCTree.JCStatement>> prefix,
+            int count,
+            IntFunction<com.sun.tools.javac.util.List<JCTree.JCStatement>> fieldStats,
+            Supplier<com.sun.tools.javac.util.List<JCTree.JCStatement>> suffix
+    ) {
+        ListBuffer<JCTree.JCStatement> stats = new ListBuffer<JCTree.JCStatement>().appendList(prefix.get());
+        for (int i = 0; i < count; i++) {
+            stats.appendList(fieldStats.apply(i));
+        }
+        JCTree.JCMethodDecl single = makeStaticMethod(treeMaker, round, Flags.PUBLIC, methodName, returnType.get(), params.get(),
+                stats.appendList(suffix.get()).toList());
+        if (helperParams == null || BytecodeSizeEstimator.estimate(single) <= SPLIT_THRESHOLD) {
+            return com.sun.tools.javac.util.List.of(single);
+        }
 
-        JCTree.JCBlock body = treeMaker.Block(0, com.sun.tools.javac.util.List.of(treeMaker.Return(getterCall)));
+        int chunk = chunkSize(count, i -> BytecodeSizeEstimator.estimate(fieldStats.apply(i)));
+        ListBuffer<JCTree> helpers = new ListBuffer<>();
+        ListBuffer<JCTree.JCStatement> dispatcherStats = new ListBuffer<JCTree.JCStatement>().appendList(prefix.get());
+        for (int range = 0; range * chunk < count; range++) {
+            String helperName = methodName + "$range" + range;
+            ListBuffer<JCTree.JCStatement> rangeStats = new ListBuffer<>();
+            for (int i = range * chunk; i < Math.min(count, (range + 1) * chunk); i++) {
+                rangeStats.appendList(fieldStats.apply(i));
+            }
+            com.sun.tools.javac.util.List<JCTree.JCVariableDecl> rangeParams = helperParams.get();
+            helpers.append(makeStaticMethod(treeMaker, round, Flags.PRIVATE, helperName, treeMaker.TypeIdent(TypeTag.VOID), rangeParams, rangeStats.toList()));
+            dispatcherStats.append(treeMaker.Exec(makeHelperCall(treeMaker, round, helperName, rangeParams)));
+        }
+        JCTree.JCMethodDecl dispatcher = makeStaticMethod(treeMaker, round, Flags.PUBLIC, methodName, returnType.get(), params.get(),
+                dispatcherStats.appendList(suffix.get()).toList());
+        return helpers.prepend(dispatcher).toList();
+    }
 
+    private static JCTree.JCMethodDecl makeStaticMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            long access,
+            String name,
+            JCTree.JCExpression returnType,
+            com.sun.tools.javac.util.List<JCTree.JCVariableDecl> params,
+            com.sun.tools.javac.util.List<JCTree.JCStatement> stats
+    ) {
         return treeMaker.MethodDef(
-                treeMaker.Modifiers(mods),
-                names.fromString(methodName),
-                treeMaker.Type((Type) field.asType()),
+                treeMaker.Modifiers(access | Flags.STATIC),
+                round.name(name),
+                returnType,
                 com.sun.tools.javac.util.List.nil(),
-                com.sun.tools.javac.util.List.of(instanceParam),
+                params,
                 com.sun.tools.javac.util.List.nil(),
-                body,
+                treeMaker.Block(0, stats),
                 null
         );
     }
 
-    private static JCTree.JCStatement makeTypedListSetStatement(
+    /** {@code helper(p1, p2, ...)}, passing each parameter through under its own name. */
+    private static JCTree.JCExpression makeHelperCall(
             TreeMaker treeMaker,
-            Names names,
-            JCTree.JCExpression instanceIdent,
-            JCTree.JCExpression valueIdent,
-            String cap
+            InjectionRound round,
+            String helperName,
+            com.sun.tools.javac.util.List<JCTree.JCVariableDecl> params
     ) {
-        JCTree.JCExpression getterCall1 = makeGetterCall(treeMaker, names, instanceIdent, cap);
-        JCTree.JCExpression notNull = treeMaker.Binary(
-                JCTree.Tag.NE,
-                getterCall1,
-                treeMaker.Literal(TypeTag.BOT, null)
-        );
-
-        JCTree.JCExpression getterCall2 = makeGetterCall(treeMaker, names, instanceIdent, cap);
-        JCTree.JCStatement clearStmt = treeMaker.Exec(treeMaker.Apply(
-                com.sun.tools.javac.util.List.nil(),
-                treeMaker.Select(getterCall2, names.fromString("clear")),
-                com.sun.tools.javac.util.List.nil()
-        ));
-
-        JCTree.JCExpression getterCall3 = makeGetterCall(treeMaker, names, instanceIdent, cap);
-        JCTree.JCStatement addAllStmt = treeMaker.Exec(treeMaker.Apply(
-                com.sun.tools.javac.util.List.nil(),
-                treeMaker.Select(getterCall3, names.fromString("addAll")),
-                com.sun.tools.javac.util.List.of(valueIdent)
-        ));
+        ListBuffer<JCTree.JCExpression> args = new ListBuffer<>();
+        for (JCTree.JCVariableDecl param : params) {
+            args.append(treeMaker.Ident(param.name));
+        }
+        return treeMaker.Apply(com.sun.tools.javac.util.List.nil(), treeMaker.Ident(round.name(helperName)), args.toList());
+    }
 
-        JCTree.JCStatement thenBlock = treeMaker.Block(0, com.sun.tools.javac.util.List.of(clearStmt, addAllStmt));
-        JCTree.JCStatement elseBlock = treeMaker.Block(0, com.sun.tools.javac.util.List.of(
-                treeMaker.Exec(makeTypedSetterCall(treeMaker, names, instanceIdent, valueIdent, cap))
-        ));
+    /** {@code return helper(...);}, or {@code helper(...); return;} for void methods. */
+    private static com.sun.tools.javac.util.List<JCTree.JCStatement> makeDelegation(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            String helperName,
+            com.sun.tools.javac.util.List<JCTree.JCVariableDecl> params,
+            JCTree.JCExpression returnType
+    ) {
+        JCTree.JCExpression call = makeHelperCall(treeMaker, round, helperName, params);
+        if (returnType instanceof JCTree.JCPrimitiveTypeTree primitive && primitive.typetag == TypeTag.VOID) {
+            return com.sun.tools.javac.util.List.of(treeMaker.Exec(call), treeMaker.Return(null));
+        }
+        return com.sun.tools.javac.util.List.of(treeMaker.Return(call));
+    }
 
-        return treeMaker.If(notNull, thenBlock, elseBlock);
+    private static com.sun.tools.javac.util.List<JCTree.JCCase> makeStringCases(TreeMaker treeMaker, List<NameCase> cases) {
+        ListBuffer<JCTree.JCCase> result = new ListBuffer<>();
+        for (NameCase c : cases) {
+            result.append(makeStringCase(treeMaker, c.labels(), c.stats().get()));
+        }
+        return result.toList();
     }
 
-    private static JCTree.JCExpression makeTypedSetterCall(
+    private static com.sun.tools.javac.util.List<JCTree.JCCase> makeIntCases(
             TreeMaker treeMaker,
-            Names names,
-            JCTree.JCExpression instanceIdent,
-            JCTree.JCExpression valueIdent,
-            String cap
+            int from,
+            int to,
+            IntFunction<com.sun.tools.javac.util.List<JCTree.JCStatement>> caseStats
     ) {
-        String setterName = "set" + cap;
-        return treeMaker.Apply(
-                com.sun.tools.javac.util.List.nil(),
-                treeMaker.Select(instanceIdent, names.fromString(setterName)),
-                com.sun.tools.javac.util.List.of(valueIdent)
+        ListBuffer<JCTree.JCCase> result = new ListBuffer<>();
+        for (int i = from; i < to; i++) {
+            com.sun.tools.javac.util.List<JCTree.JCStatement> stats = caseStats.apply(i);
+            if (stats != null) {
+                result.append(makeIntCase(treeMaker, i, stats));
+            }
+        }
+        return result.toList();
+    }
+
+    /**
+     * Adds {@code @SuppressWarnings("unchecked")} to each generated method, nested ones included, that stores a raw
+     * {@code (java.util.List) value} into a List field: those stores are unchecked by design, since {@code set} takes
+     * any Object. Other methods keep their unchecked warnings.
+     */
+    private static void suppressUncheckedListStores(TreeMaker treeMaker, InjectionRound round, com.sun.tools.javac.util.List<JCTree> defs) {
+        new TreeScanner() {
+            @Override
+            public void visitMethodDef(JCTree.JCMethodDecl method) {
+                if (hasRawListCast(method.body)) {
+                    method.mods.annotations = method.mods.annotations.append(makeSuppressWarnings(treeMaker, round, "unchecked"));
+                }
+                super.visitMethodDef(method);
+            }
+        }.scan(defs);
+    }
+
+    private static boolean hasRawListCast(JCTree body) {
+        boolean[] found = {false};
+        new TreeScanner() {
+            @Override
+            public void visitTypeCast(JCTree.JCTypeCast cast) {
+                found[0] |= cast.clazz instanceof JCTree.JCFieldAccess type && type.toString().equals("java.util.List");
+                super.visitTypeCast(cast);
+            }
+        }.scan(body);
+        return found[0];
+    }
+
+    /** {@code @SuppressWarnings({warnings})}. */
+    private static JCTree.JCAnnotation makeSuppressWarnings(TreeMaker treeMaker, InjectionRound round, String... warnings) {
+        ListBuffer<JCTree.JCExpression> literals = new ListBuffer<>();
+        for (String warning : warnings) {
+            literals.append(treeMaker.Literal(warning));
+        }
+        return treeMaker.Annotation(
+                round.qualifiedType("java.lang.SuppressWarnings"),
+                com.sun.tools.javac.util.List.of(treeMaker.NewArray(null, com.sun.tools.javac.util.List.nil(), literals.toList()))
         );
     }
 
-    private static JCTree.JCMethodDecl makeFieldMapperSetMethod(
+    private static int nextPowerOfTwo(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    private static JCTree.JCMethodDecl makeTypedFieldSetter(
             TreeMaker treeMaker,
-            Names names,
-            Elements elementUtils,
-            Types typeUtils,
+            InjectionRound round,
+            InjectorOptions options,
             JCTree.JCClassDecl outerClass,
-            List<VariableElement> fields
+            FieldModel field,
+            int ordinal
     ) {
         long mods = Flags.PUBLIC | Flags.STATIC;
 
+        String fieldName = field.name();
+        String methodName = field.setterName();
+
         JCTree.JCVariableDecl instanceParam = treeMaker.VarDef(
                 treeMaker.Modifiers(Flags.PARAMETER),
-                names.fromString("instance"),
+                round.name("instance"),
                 treeMaker.Ident(outerClass.name),
                 null
         );
-        JCTree.JCVariableDecl fieldParam = treeMaker.VarDef(
-                treeMaker.Modifiers(Flags.PARAMETER),
-                names.fromString("field"),
-                treeMaker.Ident(names.fromString("String")),
-                null
-        );
+
+        JCTree.JCExpression valueType = treeMaker.Type((Type) (field.mapped() ? field.mapper().input() : field.type()));
         JCTree.JCVariableDecl valueParam = treeMaker.VarDef(
                 treeMaker.Modifiers(Flags.PARAMETER),
-                names.fromString("value"),
-                treeMaker.Ident(names.fromString("Object")),
+                round.name(fieldName),
+                valueType,
                 null
         );
 
-        JCTree.JCExpression instanceIdent = treeMaker.Ident(names.fromString("instance"));
-        JCTree.JCExpression fieldIdent = treeMaker.Ident(names.fromString("field"));
-        JCTree.JCExpression valueIdent = treeMaker.Ident(names.fromString("value"));
+        JCTree.JCExpression instanceIdent = treeMaker.Ident(round.name("instance"));
+        JCTree.JCExpression valueIdent = treeMaker.Ident(round.name(fieldName));
 
-        JCTree.JCStatement elsePart = treeMaker.Block(0, com.sun.tools.javac.util.List.of(makeUnknownFieldThrow(treeMaker, names, fieldIdent)));
-
-        for (int i = fields.size() - 1; i >= 0; i--) {
-            VariableElement field = fields.get(i);
-            String fieldName = field.getSimpleName().toString();
-            String cap = capitalize(fieldName);
-
-            JCTree.JCExpression condition = makeStringEquals(treeMaker, names, fieldName, fieldIdent);
-            JCTree.JCStatement thenPart;
-
-            if (isList(elementUtils, typeUtils, field)) {
-                String castTypeName = typeUtils.erasure(field.asType()).toString();
-                thenPart = makeListSetStatement(treeMaker, names, instanceIdent, valueIdent, cap, castTypeName);
-            } else {
-                String castTypeName = castTypeNameForSet(typeUtils, field);
-                thenPart = treeMaker.Block(0, com.sun.tools.javac.util.List.of(
-                        treeMaker.Exec(makeSetterCall(treeMaker, names, instanceIdent, valueIdent, cap, castTypeName))
-                ));
-            }
-
-            elsePart = treeMaker.If(condition, thenPart, elsePart);
+        JCTree.JCStatement stmt;
+        if (field.mapped()) {
+            stmt = treeMaker.Exec(makeMapperAccept(treeMaker, round, instanceIdent, valueIdent, field));
+        } else if (field.list()) {
+            stmt = makeTypedListSetStatement(treeMaker, round, options, instanceIdent, valueIdent, field);
+        } else {
+            stmt = treeMaker.Exec(makeTypedSetterCall(treeMaker, round, options, instanceIdent, valueIdent, field));
         }
 
-        JCTree.JCBlock body = treeMaker.Block(0, com.sun.tools.javac.util.List.of(elsePart));
+        JCTree.JCBlock body = treeMaker.Block(0, withDirtyMark(treeMaker, round, options, instanceIdent, stmt, field, ordinal,
+                field.mapped() ? null : valueIdent));
 
         return treeMaker.MethodDef(
                 treeMaker.Modifiers(mods),
-                names.fromString("set"),
+                round.name(methodName),
                 treeMaker.TypeIdent(TypeTag.VOID),
                 com.sun.tools.javac.util.List.nil(),
-                com.sun.tools.javac.util.List.of(instanceParam, fieldParam, valueParam),
+                com.sun.tools.javac.util.List.of(instanceParam, valueParam),
                 com.sun.tools.javac.util.List.nil(),
                 body,
                 null
         );
     }
 
-    private static JCTree.JCMethodDecl makeFieldMapperGetMethod(
+    private static JCTree.JCMethodDecl makeTypedFieldGetter(
             TreeMaker treeMaker,
-            Names names,
+            InjectionRound round,
+            InjectorOptions options,
             JCTree.JCClassDecl outerClass,
-            List<VariableElement> fields
+            FieldModel field
     ) {
         long mods = Flags.PUBLIC | Flags.STATIC;
 
+        String methodName = field.getterName();
+
         JCTree.JCVariableDecl instanceParam = treeMaker.VarDef(
                 treeMaker.Modifiers(Flags.PARAMETER),
-                names.fromString("instance"),
+                round.name("instance"),
                 treeMaker.Ident(outerClass.name),
                 null
         );
-        JCTree.JCVariableDecl fieldParam = treeMaker.VarDef(
-                treeMaker.Modifiers(Flags.PARAMETER),
-                names.fromString("field"),
-                treeMaker.Ident(names.fromString("String")),
-                null
-        );
-
-        JCTree.JCExpression instanceIdent = treeMaker.Ident(names.fromString("instance"));
-        JCTree.JCExpression fieldIdent = treeMaker.Ident(names.fromString("field"));
-
-        JCTree.JCStatement elsePart = treeMaker.Block(0, com.sun.tools.javac.util.List.of(makeUnknownFieldThrow(treeMaker, names, fieldIdent)));
 
-        for (int i = fields.size() - 1; i >= 0; i--) {
-            VariableElement field = fields.get(i);
-            String fieldName = field.getSimpleName().toString();
-            String cap = capitalize(fieldName);
+        JCTree.JCExpression instanceIdent = treeMaker.Ident(round.name("instance"));
+        JCTree.JCExpression getterCall = makeGetterCall(treeMaker, round, options, instanceIdent, field);
 
-            JCTree.JCExpression condition = makeStringEquals(treeMaker, names, fieldName, fieldIdent);
-            JCTree.JCExpression getterCall = makeGetterCall(treeMaker, names, instanceIdent, cap);
-            JCTree.JCStatement thenPart = treeMaker.Block(0, com.sun.tools.javac.util.List.of(treeMaker.Return(getterCall)));
-
-            elsePart = treeMaker.If(condition, thenPart, elsePart);
-        }
-
-        JCTree.JCBlock body = treeMaker.Block(0, com.sun.tools.javac.util.List.of(elsePart));
+        JCTree.JCBlock body = treeMaker.Block(0, com.sun.tools.javac.util.List.of(treeMaker.Return(getterCall)));
 
         return treeMaker.MethodDef(
                 treeMaker.Modifiers(mods),
-                names.fromString("get"),
-                typeExprFrom(treeMaker, names, "java.lang.Object"),
+                round.name(methodName),
+                treeMaker.Type((Type) field.type()),
                 com.sun.tools.javac.util.List.nil(),
-                com.sun.tools.javac.util.List.of(instanceParam, fieldParam),
+                com.sun.tools.javac.util.List.of(instanceParam),
                 com.sun.tools.javac.util.List.nil(),
                 body,
                 null
         );
     }
 
-    private static JCTree.JCStatement makeListSetStatement(
+    /**
+     * Builds {@code copy(src, dst)} as one straight-line {@code setXxx(dst, getXxx(src))} per field.
+     * Going through the typed statics keeps the List {@code clear + addAll} semantics; copying an
+     * instance onto itself is a no-op so those lists are not cleared out from under themselves.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeFieldMapperCopyMethod(
             TreeMaker treeMaker,
-            Names names,
-            JCTree.JCExpression instanceIdent,
-            JCTree.JCExpression valueIdent,
-            String cap,
-            String castTypeName
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
     ) {
-        JCTree.JCExpression getterCall1 = makeGetterCall(treeMaker, names, instanceIdent, cap);
-        JCTree.JCExpression notNull = treeMaker.Binary(
-                JCTree.Tag.NE,
-                getterCall1,
-                treeMaker.Literal(TypeTag.BOT, null)
+        Supplier<com.sun.tools.javac.util.List<JCTree.JCVariableDecl>> params = () -> com.sun.tools.javac.util.List.of(
+                makeParam(treeMaker, round, "src", treeMaker.Ident(outerClass.name)),
+                makeParam(treeMaker, round, "dst", treeMaker.Ident(outerClass.name))
         );
 
-        JCTree.JCExpression getterCall2 = makeGetterCall(treeMaker, names, instanceIdent, cap);
-        JCTree.JCStatement clearStmt = treeMaker.Exec(treeMaker.Apply(
-                com.sun.tools.javac.util.List.nil(),
-                treeMaker.Select(getterCall2, names.fromString("clear")),
-                com.sun.tools.javac.util.List.nil()
-        ));
-
-        JCTree.JCExpression getterCall3 = makeGetterCall(treeMaker, names, instanceIdent, cap);
-        JCTree.JCExpression castValue = treeMaker.TypeCast(typeExprFrom(treeMaker, names, castTypeName), valueIdent);
-        JCTree.JCStatement addAllStmt = treeMaker.Exec(treeMaker.Apply(
-                com.sun.tools.javac.util.List.nil(),
-                treeMaker.Select(getterCall3, names.fromString("addAll")),
-                com.sun.tools.javac.util.List.of(castValue)
-        ));
+        return makeRangeSplitMethods(
+                treeMaker,
+                round,
+                "copy",
+                () -> treeMaker.TypeIdent(TypeTag.VOID),
+                params,
+                params,
+                () -> com.sun.tools.javac.util.List.of(makeSameInstanceReturn(treeMaker, round, "src", "dst", null)),
+                fields.size(),
+                i -> com.sun.tools.javac.util.List.of(makeTypedCopyStatement(treeMaker, round, options, fields.get(i), i)),
+                com.sun.tools.javac.util.List::nil
+        );
+    }
 
-        JCTree.JCStatement thenBlock = treeMaker.Block(0, com.sun.tools.javac.util.List.of(clearStmt, addAllStmt));
-        JCTree.JCStatement elseBlock = treeMaker.Block(0, com.sun.tools.javac.util.List.of(
-                treeMaker.Exec(makeSetterCall(treeMaker, names, instanceIdent, valueIdent, cap, castTypeName))
-        ));
+    /**
+     * Builds {@code diff(a, b)}: bit {@code i} is set when field {@code i} (declaration order) differs.
+     * Up to 64 fields the mask is a {@code long}; wider entities get a {@code long[]} of
+     * {@code (FIELD_COUNT + 63) / 64} words, field {@code i} living in word {@code i >>> 6}.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeFieldMapperDiffMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
+    ) {
+        boolean wide = fields.size() > 64;
 
-        return treeMaker.If(notNull, thenBlock, elseBlock);
-    }
+        JCTree.JCExpression maskInit = wide
+                ? treeMaker.NewArray(
+                        treeMaker.TypeIdent(TypeTag.LONG),
+                        com.sun.tools.javac.util.List.of(treeMaker.Literal((fields.size() + 63) / 64)),
+                        null
+                )
+                : treeMaker.Literal(TypeTag.LONG, 0L);
+        com.sun.tools.javac.util.List<JCTree.JCStatement> prefix = com.sun.tools.javac.util.List.of(
+                treeMaker.VarDef(treeMaker.Modifiers(0), round.name("mask"), makeMaskType(treeMaker, wide), maskInit),
+                makeSameInstanceReturn(treeMaker, round, "a", "b", treeMaker.Ident(round.name("mask")))
+        );
+        Supplier<com.sun.tools.javac.util.List<JCTree.JCVariableDecl>> params = () -> com.sun.tools.javac.util.List.of(
+                makeParam(treeMaker, round, "a", treeMaker.Ident(outerClass.name)),
+                makeParam(treeMaker, round, "b", treeMaker.Ident(outerClass.name))
+        );
+        // Only the long[] mask can be filled in by range helpers; up to 64 fields the method stays small anyway.
+        Supplier<com.sun.tools.javac.util.List<JCTree.JCVariableDecl>> helperParams = wide
+                ? () -> params.get().append(makeParam(treeMaker, round, "mask", makeMaskType(treeMaker, true)))
+                : null;
 
-    private static JCTree.JCExpression makeStringEquals(TreeMaker treeMaker, Names names, String fieldName, JCTree.JCExpression fieldIdent) {
-        JCTree.JCExpression lit = treeMaker.Literal(fieldName);
-        return treeMaker.Apply(
-                com.sun.tools.javac.util.List.nil(),
-                treeMaker.Select(lit, names.fromString("equals")),
-                com.sun.tools.javac.util.List.of(fieldIdent)
+        return makeRangeSplitMethods(
+                treeMaker,
+                round,
+                "diff",
+                () -> makeMaskType(treeMaker, wide),
+                params,
+                helperParams,
+                () -> prefix,
+                fields.size(),
+                i -> {
+                    FieldModel field = fields.get(i);
+                    String getterName = field.getterName();
+                    JCTree.JCExpression left = treeMaker.Apply(
+                            com.sun.tools.javac.util.List.nil(),
+                            treeMaker.Ident(round.name(getterName)),
+                            com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("a")))
+                    );
+                    JCTree.JCExpression right = treeMaker.Apply(
+                            com.sun.tools.javac.util.List.nil(),
+                            treeMaker.Ident(round.name(getterName)),
+                            com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("b")))
+                    );
+                    JCTree.JCStatement markBit = treeMaker.Exec(treeMaker.Assignop(
+                            JCTree.Tag.BITOR_ASG,
+                            makeMaskWord(treeMaker, round, wide, i),
+                            makeMaskBit(treeMaker, i)
+                    ));
+                    return com.sun.tools.javac.util.List.of(
+                            treeMaker.If(makeDiffers(treeMaker, round, field.kind(), left, right), markBit, null)
+                    );
+                },
+                () -> com.sun.tools.javac.util.List.of(treeMaker.Return(treeMaker.Ident(round.name("mask"))))
         );
     }
 
-    private static JCTree.JCStatement makeUnknownFieldThrow(TreeMaker treeMaker, Names names, JCTree.JCExpression fieldIdent) {
-        JCTree.JCExpression message = treeMaker.Binary(
-                JCTree.Tag.PLUS,
-                treeMaker.Literal("Unknown field: "),
-                fieldIdent
+    /**
+     * Builds {@code copyMasked(src, dst, mask)}: {@link #makeFieldMapperCopyMethod copy} restricted to the
+     * fields whose bit is set in a mask shaped like the one {@code diff} returns.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeFieldMapperCopyMaskedMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
+    ) {
+        boolean wide = fields.size() > 64;
+
+        Supplier<com.sun.tools.javac.util.List<JCTree.JCVariableDecl>> params = () -> com.sun.tools.javac.util.List.of(
+                makeParam(treeMaker, round, "src", treeMaker.Ident(outerClass.name)),
+                makeParam(treeMaker, round, "dst", treeMaker.Ident(outerClass.name)),
+                makeParam(treeMaker, round, "mask", makeMaskType(treeMaker, wide))
         );
-        JCTree.JCExpression exType = typeExprFrom(treeMaker, names, "java.lang.IllegalArgumentException");
-        JCTree.JCExpression newEx = treeMaker.NewClass(
-                null,
-                com.sun.tools.javac.util.List.nil(),
-                exType,
-                com.sun.tools.javac.util.List.of(message),
-                null
+
+        return makeRangeSplitMethods(
+                treeMaker,
+                round,
+                "copyMasked",
+                () -> treeMaker.TypeIdent(TypeTag.VOID),
+                params,
+                params,
+                () -> com.sun.tools.javac.util.List.of(makeSameInstanceReturn(treeMaker, round, "src", "dst", null)),
+                fields.size(),
+                i -> {
+                    JCTree.JCExpression selected = treeMaker.Binary(
+                            JCTree.Tag.NE,
+                            treeMaker.Parens(treeMaker.Binary(JCTree.Tag.BITAND, makeMaskWord(treeMaker, round, wide, i), makeMaskBit(treeMaker, i))),
+                            treeMaker.Literal(TypeTag.LONG, 0L)
+                    );
+                    return com.sun.tools.javac.util.List.of(treeMaker.If(selected, makeTypedCopyStatement(treeMaker, round, options, fields.get(i), i), null));
+                },
+                com.sun.tools.javac.util.List::nil
         );
-        return treeMaker.Throw(newEx);
     }
 
-    private static String castTypeNameForSet(Types typeUtils, VariableElement field) {
-        return switch (field.asType().getKind()) {
-            case BOOLEAN -> "java.lang.Boolean";
-            case BYTE -> "java.lang.Byte";
-            case SHORT -> "java.lang.Short";
-            case INT -> "java.lang.Integer";
-            case LONG -> "java.lang.Long";
-            case CHAR -> "java.lang.Character";
-            case FLOAT -> "java.lang.Float";
-            case DOUBLE -> "java.lang.Double";
-            default -> typeUtils.erasure(field.asType()).toString();
-        };
+    /**
+     * Builds the content methods, for caches keyed by what an entity holds rather than by its identity:
+     * <pre>
+     * public static int contentHash(Entity instance)             // 0 for null
+     * public static int contentHash(Entity instance, long mask)  // long[] past 64 fields, like diff
+     * public static boolean contentEquals(Entity a, Entity b)
+     * </pre>
+     * The hash is {@code h = 31 * h + hash(field)} over the fields in declaration order (the masked form over the
+     * selected ones only), each primitive hashed unboxed with its wrapper's static {@code hashCode}. Fields are
+     * compared like {@code diff} does, except that arrays compare by content and nested {@code @Entity} and
+     * {@code @Embeddable} values (and {@code List}s of them) through their own {@code contentHash}/{@code contentEquals},
+     * since entities do not override {@code equals}. Like {@code writeTo}, reference cycles are not detected.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeContentMethods(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
+    ) {
+        boolean wide = fields.size() > 64;
+        ListBuffer<JCTree> defs = new ListBuffer<>();
+        Supplier<JCTree.JCVariableDecl> instanceParam = () -> makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name));
+        Supplier<JCTree.JCVariableDecl> hashParam = () -> makeParam(treeMaker, round, "h", treeMaker.TypeIdent(TypeTag.INT));
+        Supplier<JCTree.JCVariableDecl> maskParam = () -> makeParam(treeMaker, round, "mask", makeMaskType(treeMaker, wide));
+        // if (instance == null) return 0; int h = 1;
+        Supplier<com.sun.tools.javac.util.List<JCTree.JCStatement>> hashPrefix = () -> com.sun.tools.javac.util.List.of(
+                treeMaker.If(
+                        treeMaker.Binary(JCTree.Tag.EQ, treeMaker.Ident(round.name("instance")), treeMaker.Literal(TypeTag.BOT, null)),
+                        treeMaker.Return(treeMaker.Literal(0)),
+                        null
+                ),
+                treeMaker.VarDef(treeMaker.Modifiers(0), round.name("h"), treeMaker.TypeIdent(TypeTag.INT), treeMaker.Literal(1))
+        );
+        IntFunction<JCTree.JCStatement> mix = i -> treeMaker.Exec(treeMaker.Assign(
+                treeMaker.Ident(round.name("h")),
+                treeMaker.Binary(
+                        JCTree.Tag.PLUS,
+                        treeMaker.Binary(JCTree.Tag.MUL, treeMaker.Literal(31), treeMaker.Ident(round.name("h"))),
+                        makeContentHash(treeMaker, round, fields.get(i), makeTypedGetterCall(treeMaker, round, fields.get(i), "instance"))
+                )
+        ));
+        // h = contentHash$rangeN(instance, h);
+        Function<JCTree.JCExpression, JCTree.JCStatement> chainHash = call -> treeMaker.Exec(treeMaker.Assign(treeMaker.Ident(round.name("h")), call));
+
+        defs.appendList(makeReturningRangeMethods(
+                treeMaker,
+                round,
+                "contentHash",
+                () -> treeMaker.TypeIdent(TypeTag.INT),
+                () -> com.sun.tools.javac.util.List.of(instanceParam.get()),
+                () -> com.sun.tools.javac.util.List.of(instanceParam.get(), hashParam.get()),
+                hashPrefix,
+                fields.size(),
+                i -> com.sun.tools.javac.util.List.of(mix.apply(i)),
+                () -> treeMaker.Ident(round.name("h")),
+                chainHash
+        ));
+        defs.appendList(makeReturningRangeMethods(
+                treeMaker,
+                round,
+                "contentHash",
+                () -> treeMaker.TypeIdent(TypeTag.INT),
+                () -> com.sun.tools.javac.util.List.of(instanceParam.get(), maskParam.get()),
+                () -> com.sun.tools.javac.util.List.of(instanceParam.get(), maskParam.get(), hashParam.get()),
+                hashPrefix,
+                fields.size(),
+                i -> {
+                    JCTree.JCExpression selected = treeMaker.Binary(
+                            JCTree.Tag.NE,
+                            treeMaker.Parens(treeMaker.Binary(JCTree.Tag.BITAND, makeMaskWord(treeMaker, round, wide, i), makeMaskBit(treeMaker, i))),
+                            treeMaker.Literal(TypeTag.LONG, 0L)
+                    );
+                    return com.sun.tools.javac.util.List.of(treeMaker.If(selected, mix.apply(i), null));
+                },
+                () -> treeMaker.Ident(round.name("h")),
+                chainHash
+        ));
+
+        Supplier<com.sun.tools.javac.util.List<JCTree.JCVariableDecl>> pairParams = () -> com.sun.tools.javac.util.List.of(
+                makeParam(treeMaker, round, "a", treeMaker.Ident(outerClass.name)),
+                makeParam(treeMaker, round, "b", treeMaker.Ident(outerClass.name))
+        );
+        defs.appendList(makeReturningRangeMethods(
+                treeMaker,
+                round,
+                "contentEquals",
+                () -> treeMaker.TypeIdent(TypeTag.BOOLEAN),
+                pairParams,
+                pairParams,
+                // if (a == b) return true; if (a == null || b == null) return false;
+                () -> com.sun.tools.javac.util.List.of(
+                        makeSameInstanceReturn(treeMaker, round, "a", "b", treeMaker.Literal(true)),
+                        treeMaker.If(
+                                treeMaker.Binary(
+                                        JCTree.Tag.OR,
+                                        treeMaker.Binary(JCTree.Tag.EQ, treeMaker.Ident(round.name("a")), treeMaker.Literal(TypeTag.BOT, null)),
+                                        treeMaker.Binary(JCTree.Tag.EQ, treeMaker.Ident(round.name("b")), treeMaker.Literal(TypeTag.BOT, null))
+                                ),
+                                treeMaker.Return(treeMaker.Literal(false)),
+                                null
+                        )
+                ),
+                fields.size(),
+                i -> {
+                    FieldModel field = fields.get(i);
+                    JCTree.JCExpression differs = makeContentDiffers(treeMaker, round, field,
+                            makeTypedGetterCall(treeMaker, round, field, "a"), makeTypedGetterCall(treeMaker, round, field, "b"));
+                    return com.sun.tools.javac.util.List.of(treeMaker.If(differs, treeMaker.Return(treeMaker.Literal(false)), null));
+                },
+                () -> treeMaker.Literal(true),
+                // if (!contentEquals$rangeN(a, b)) return false;
+                call -> treeMaker.If(treeMaker.Unary(JCTree.Tag.NOT, call), treeMaker.Return(treeMaker.Literal(false)), null)
+        ));
+        return defs.toList();
     }
 
-    private static JCTree.JCExpression makeSetterCall(
+    /**
+     * Builds a public {@code methodName(params)}: {@code prefix}, one statement group per field, then
+     * {@code return result}. The groups may return early. Past {@link #SPLIT_THRESHOLD} they move into private
+     * {@code methodName$rangeN(helperParams)} helpers of {@link #chunkSize} fields that end with the same
+     * {@code return result}, and the public method runs {@code chain(call)} for each helper in order.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeReturningRangeMethods(
             TreeMaker treeMaker,
-            Names names,
-            JCTree.JCExpression instanceIdent,
-            JCTree.JCExpression valueIdent,
-            String cap,
-            String castTypeName
+            InjectionRound round,
+            String methodName,
+            Supplier<JCTree.JCExpression> returnType,
+            Supplier<com.sun.tools.javac.util.List<JCTree.JCVariableDecl>> params,
+            Supplier<com.sun.tools.javac.util.List<JCTree.JCVariableDecl>> helperParams,
+            Supplier<com.sun.tools.javac.util.List<JCTree.JCStatement>> prefix,
+            int count,
+            IntFunction<com.sun.tools.javac.util.List<JCTree.JCStatement>> fieldStats,
+            Supplier<JCTree.JCExpression> result,
+            Function<JCTree.JCExpression, JCTree.JCStatement> chain
     ) {
-        String setterName = "set" + cap;
-        JCTree.JCExpression castValue = treeMaker.TypeCast(typeExprFrom(treeMaker, names, castTypeName), valueIdent);
-        return treeMaker.Apply(
-                com.sun.tools.javac.util.List.nil(),
-                treeMaker.Select(instanceIdent, names.fromString(setterName)),
-                com.sun.tools.javac.util.List.of(castValue)
-        );
+        ListBuffer<JCTree.JCStatement> stats = new ListBuffer<JCTree.JCStatement>().appendList(prefix.get());
+        for (int i = 0; i < count; i++) {
+            stats.appendList(fieldStats.apply(i));
+        }
+        JCTree.JCMethodDecl single = makeStaticMethod(treeMaker, round, Flags.PUBLIC, methodName, returnType.get(), params.get(),
+                stats.append(treeMaker.Return(result.get())).toList());
+        if (BytecodeSizeEstimator.estimate(single) <= SPLIT_THRESHOLD) {
+            return com.sun.tools.javac.util.List.of(single);
+        }
+
+        int chunk = chunkSize(count, i -> BytecodeSizeEstimator.estimate(fieldStats.apply(i)));
+        ListBuffer<JCTree> helpers = new ListBuffer<>();
+        ListBuffer<JCTree.JCStatement> dispatcherStats = new ListBuffer<JCTree.JCStatement>().appendList(prefix.get());
+        for (int range = 0; range * chunk < count; range++) {
+            String helperName = methodName + "$range" + range;
+            ListBuffer<JCTree.JCStatement> rangeStats = new ListBuffer<>();
+            for (int i = range * chunk; i < Math.min(count, (range + 1) * chunk); i++) {
+                rangeStats.appendList(fieldStats.apply(i));
+            }
+            com.sun.tools.javac.util.List<JCTree.JCVariableDecl> rangeParams = helperParams.get();
+            helpers.append(makeStaticMethod(treeMaker, round, Flags.PRIVATE, helperName, returnType.get(), rangeParams,
+                    rangeStats.append(treeMaker.Return(result.get())).toList()));
+            dispatcherStats.append(chain.apply(makeHelperCall(treeMaker, round, helperName, rangeParams)));
+        }
+        JCTree.JCMethodDecl dispatcher = makeStaticMethod(treeMaker, round, Flags.PUBLIC, methodName, returnType.get(), params.get(),
+                dispatcherStats.append(treeMaker.Return(result.get())).toList());
+        return helpers.prepend(dispatcher).toList();
     }
 
-    private static JCTree.JCExpression makeGetterCall(TreeMaker treeMaker, Names names, JCTree.JCExpression instanceIdent, String cap) {
-        String getterName = "get" + cap;
+    /** {@code getX(instance)}: the typed static getter, as {@code diff} reads fields. */
+    private static JCTree.JCExpression makeTypedGetterCall(TreeMaker treeMaker, InjectionRound round, FieldModel field, String instance) {
         return treeMaker.Apply(
                 com.sun.tools.javac.util.List.nil(),
-                treeMaker.Select(instanceIdent, names.fromString(getterName)),
-                com.sun.tools.javac.util.List.nil()
+                treeMaker.Ident(round.name(field.getterName())),
+                com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name(instance)))
         );
     }
 
-    private static JCTree.JCExpression typeExprFrom(TreeMaker treeMaker, Names names, String typeName) {
-        String[] parts = typeName.split("\\.");
-        JCTree.JCExpression expr = treeMaker.Ident(names.fromString(parts[0]));
-        for (int i = 1; i < parts.length; i++) {
-            expr = treeMaker.Select(expr, names.fromString(parts[i]));
+    /** The content hash of one field value; every form is {@code null}-safe. */
+    private static JCTree.JCExpression makeContentHash(TreeMaker treeMaker, InjectionRound round, FieldModel field, JCTree.JCExpression value) {
+        if (field.kind().isPrimitive()) {
+            // Integer.hashCode(value) etc.: the boxed hashCode without boxing.
+            return treeMaker.Apply(
+                    com.sun.tools.javac.util.List.nil(),
+                    treeMaker.Select(round.qualifiedType(field.castTypeName()), round.name("hashCode")),
+                    com.sun.tools.javac.util.List.of(value)
+            );
         }
-        return expr;
-    }
-
-    private static boolean isList(Elements elementUtils, Types typeUtils, VariableElement field) {
-        TypeMirror listType = elementUtils.getTypeElement("java.util.List").asType();
-        return typeUtils.isAssignable(typeUtils.erasure(field.asType()), typeUtils.erasure(listType));
+        String nested = nestedContentType(round, field);
+        if (nested != null && field.list()) {
+            return treeMaker.Apply(
+                    com.sun.tools.javac.util.List.nil(),
+                    round.qualifiedType(nested + ".FieldMapper.INSTANCE.listContentHash"),
+                    com.sun.tools.javac.util.List.of(value)
+            );
+        }
+        String method;
+        if (nested != null) {
+            method = nested + ".FieldMapper.contentHash";
+        } else if (field.erasedType().getKind() == TypeKind.ARRAY) {
+            method = isObjectArray(field) ? "java.util.Arrays.deepHashCode" : "java.util.Arrays.hashCode";
+        } else {
+            method = "java.util.Objects.hashCode";
+        }
+        return treeMaker.Apply(com.sun.tools.javac.util.List.nil(), round.qualifiedType(method), com.sun.tools.javac.util.List.of(value));
+    }
+
+    /** Whether two values of the field differ by content: {@link #makeDiffers}, with arrays and nested types by content. */
+    private static JCTree.JCExpression makeContentDiffers(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            FieldModel field,
+            JCTree.JCExpression left,
+            JCTree.JCExpression right
+    ) {
+        String nested = field.kind().isPrimitive() ? null : nestedContentType(round, field);
+        JCTree.JCExpression equal;
+        if (nested != null && field.list()) {
+            equal = treeMaker.Apply(
+                    com.sun.tools.javac.util.List.nil(),
+                    round.qualifiedType(nested + ".FieldMapper.INSTANCE.listContentEquals"),
+                    com.sun.tools.javac.util.List.of(left, right)
+            );
+        } else if (nested != null) {
+            equal = treeMaker.Apply(
+                    com.sun.tools.javac.util.List.nil(),
+                    round.qualifiedType(nested + ".FieldMapper.contentEquals"),
+                    com.sun.tools.javac.util.List.of(left, right)
+            );
+        } else if (field.erasedType().getKind() == TypeKind.ARRAY) {
+            equal = treeMaker.Apply(
+                    com.sun.tools.javac.util.List.nil(),
+                    treeMaker.Select(round.qualifiedType("java.util.Arrays"), round.name(isObjectArray(field) ? "deepEquals" : "equals")),
+                    com.sun.tools.javac.util.List.of(left, right)
+            );
+        } else {
+            return makeDiffers(treeMaker, round, field.kind(), left, right);
+        }
+        return treeMaker.Unary(JCTree.Tag.NOT, equal);
+    }
+
+    /** The qualified name of the field's type, or of its List elements, when that has a {@code FieldMapper}. */
+    private static String nestedContentType(InjectionRound round, FieldModel field) {
+        DeclaredType type = field.list() ? listElementType(field)
+                : field.erasedType() instanceof DeclaredType declared ? declared : null;
+        return type != null && round.hasFieldMapper(type) ? qualifiedName(type) : null;
+    }
+
+    private static boolean isObjectArray(FieldModel field) {
+        return field.erasedType() instanceof ArrayType array && !array.getComponentType().getKind().isPrimitive();
+    }
+
+    /**
+     * {@code setX(dst, getX(src));} through the typed statics. A field with a {@code Mapper} hook already holds the
+     * mapped value, so it is stored as is: {@code { T value = getX(src); dst.setX(value); mark dirty }}.
+     */
+    private static JCTree.JCStatement makeTypedCopyStatement(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            FieldModel field,
+            int ordinal
+    ) {
+        JCTree.JCExpression value = treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Ident(round.name(field.getterName())),
+                com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("src")))
+        );
+        if (field.mapped()) {
+            JCTree.JCVariableDecl local = treeMaker.VarDef(
+                    treeMaker.Modifiers(0), round.name("value"), treeMaker.Type((Type) field.type()), value);
+            JCTree.JCExpression dst = treeMaker.Ident(round.name("dst"));
+            JCTree.JCExpression valueIdent = treeMaker.Ident(round.name("value"));
+            JCTree.JCStatement store = field.list()
+                    ? makeTypedListSetStatement(treeMaker, round, options, dst, valueIdent, field)
+                    : treeMaker.Exec(makeTypedSetterCall(treeMaker, round, options, dst, valueIdent, field));
+            return treeMaker.Block(0, withDirtyMark(treeMaker, round, options, treeMaker.Ident(round.name("dst")), store, field, ordinal, valueIdent)
+                    .prepend(local));
+        }
+        return treeMaker.Exec(treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Ident(round.name(field.setterName())),
+                com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("dst")), value)
+        ));
+    }
+
+    /** {@code if (left == right) return result;} */
+    private static JCTree.JCStatement makeSameInstanceReturn(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            String left,
+            String right,
+            JCTree.JCExpression result
+    ) {
+        JCTree.JCExpression sameInstance = treeMaker.Binary(
+                JCTree.Tag.EQ,
+                treeMaker.Ident(round.name(left)),
+                treeMaker.Ident(round.name(right))
+        );
+        return treeMaker.If(sameInstance, treeMaker.Return(result), null);
+    }
+
+    /**
+     * Injects one {@code private transient long fmapper$dirtyN} word per 64 fields. Plain {@code long} words
+     * rather than a {@code long[]} keep the entity allocation-free, and need no null check after Java
+     * deserialization, which brings them back as {@code 0} (all clean) where a transient array would come back
+     * {@code null}; {@code transient} also keeps JPA from mapping them.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeDirtyFields(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            List<FieldModel> fields
+    ) {
+        com.sun.tools.javac.util.List<JCTree> defs = com.sun.tools.javac.util.List.nil();
+        for (int word = 0; word < dirtyWordCount(fields); word++) {
+            defs = defs.append(treeMaker.VarDef(
+                    treeMaker.Modifiers(Flags.PRIVATE | Flags.TRANSIENT),
+                    round.name(DIRTY_FIELD_PREFIX + word),
+                    treeMaker.TypeIdent(TypeTag.LONG),
+                    null
+            ));
+        }
+        return defs;
+    }
+
+    /**
+     * With dirty tracking on, wraps a write so that {@code instance.fmapper$dirtyN |= bit} is set only when the
+     * write changed the field, compared the way {@code diff} compares; writing the value a field already holds
+     * leaves it clean:
+     * <pre>
+     * { T fmapper$old = getX(); write; if (differs(fmapper$old, getX())) instance.fmapper$dirtyN |= bit; }
+     * </pre>
+     * A List is refilled in place, so it ends up equal to the written {@code listValue}; the field is compared
+     * with that before the write instead, without copying it:
+     * {@code { boolean fmapper$changed = !Objects.equals(getX(), value); write; if (fmapper$changed) mark }}.
+     * Only when a mapper hook stores the List ({@code listValue == null}) is the old value a copy:
+     * {@code new ArrayList<Object>(getX())}.
+     */
+    private static com.sun.tools.javac.util.List<JCTree.JCStatement> withDirtyMark(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCExpression instanceIdent,
+            JCTree.JCStatement write,
+            FieldModel field,
+            int ordinal,
+            JCTree.JCExpression listValue
+    ) {
+        if (!options.dirtyTracking()) {
+            return com.sun.tools.javac.util.List.of(write);
+        }
+        TreeCopier<Void> copier = new TreeCopier<>(treeMaker);
+        JCTree.JCStatement mark = treeMaker.Exec(treeMaker.Assignop(
+                JCTree.Tag.BITOR_ASG,
+                makeDirtyWord(treeMaker, round, copier.copy(instanceIdent), ordinal >>> 6),
+                makeMaskBit(treeMaker, ordinal)
+        ));
+        if (field.list() && listValue != null) {
+            JCTree.JCExpression changed = makeDiffers(treeMaker, round, field.kind(),
+                    makeGetterCall(treeMaker, round, options, copier.copy(instanceIdent), field), copier.copy(listValue));
+            if (writesFinalListInPlace(field)) {
+                // A null value only clears the final List: value == null ? !getX().isEmpty() : changed
+                changed = treeMaker.Conditional(
+                        treeMaker.Binary(JCTree.Tag.EQ, copier.copy(listValue), treeMaker.Literal(TypeTag.BOT, null)),
+                        treeMaker.Unary(JCTree.Tag.NOT, makeNoArgCall(treeMaker, round,
+                                makeGetterCall(treeMaker, round, options, copier.copy(instanceIdent), field), "isEmpty")),
+                        changed
+                );
+            }
+            return com.sun.tools.javac.util.List.of(treeMaker.Block(0, com.sun.tools.javac.util.List.of(
+                    treeMaker.VarDef(treeMaker.Modifiers(0), round.name("fmapper$changed"), treeMaker.TypeIdent(TypeTag.BOOLEAN), changed),
+                    write,
+                    treeMaker.If(treeMaker.Ident(round.name("fmapper$changed")), mark, null)
+            )));
+        }
+        JCTree.JCExpression oldType;
+        JCTree.JCExpression oldValue;
+        if (field.list()) {
+            // getX() == null ? null : new ArrayList<Object>(getX())
+            oldType = treeMaker.TypeApply(round.qualifiedType("java.util.List"),
+                    com.sun.tools.javac.util.List.of(round.qualifiedType("java.lang.Object")));
+            oldValue = treeMaker.Conditional(
+                    treeMaker.Binary(JCTree.Tag.EQ, makeGetterCall(treeMaker, round, options, copier.copy(instanceIdent), field),
+                            treeMaker.Literal(TypeTag.BOT, null)),
+                    treeMaker.Literal(TypeTag.BOT, null),
+                    treeMaker.NewClass(
+                            null,
+                            com.sun.tools.javac.util.List.nil(),
+                            treeMaker.TypeApply(round.qualifiedType("java.util.ArrayList"),
+                                    com.sun.tools.javac.util.List.of(round.qualifiedType("java.lang.Object"))),
+                            com.sun.tools.javac.util.List.of(makeGetterCall(treeMaker, round, options, copier.copy(instanceIdent), field)),
+                            null
+                    )
+            );
+        } else {
+            oldType = treeMaker.Type((Type) field.type());
+            oldValue = makeGetterCall(treeMaker, round, options, copier.copy(instanceIdent), field);
+        }
+        JCTree.JCExpression changed = makeDiffers(treeMaker, round, field.kind(),
+                treeMaker.Ident(round.name("fmapper$old")),
+                makeGetterCall(treeMaker, round, options, copier.copy(instanceIdent), field));
+        return com.sun.tools.javac.util.List.of(treeMaker.Block(0, com.sun.tools.javac.util.List.of(
+                treeMaker.VarDef(treeMaker.Modifiers(0), round.name("fmapper$old"), oldType, oldValue),
+                write,
+                treeMaker.If(changed, mark, null)
+        )));
+    }
+
+    /**
+     * Builds {@code dirtyMask(instance)}, shaped like {@code diff}: a {@code long} up to 64 fields, otherwise
+     * a fresh {@code long[]} snapshot of the words.
+     */
+    private static JCTree.JCMethodDecl makeDirtyMaskMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
+    ) {
+        long mods = Flags.PUBLIC | Flags.STATIC;
+        boolean wide = fields.size() > 64;
+
+        JCTree.JCVariableDecl instanceParam = makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name));
+        JCTree.JCExpression instanceIdent = treeMaker.Ident(round.name("instance"));
+
+        JCTree.JCExpression result;
+        if (wide) {
+            ListBuffer<JCTree.JCExpression> words = new ListBuffer<>();
+            for (int word = 0; word < dirtyWordCount(fields); word++) {
+                words.append(makeDirtyWord(treeMaker, round, instanceIdent, word));
+            }
+            result = treeMaker.NewArray(treeMaker.TypeIdent(TypeTag.LONG), com.sun.tools.javac.util.List.nil(), words.toList());
+        } else {
+            result = makeDirtyWord(treeMaker, round, instanceIdent, 0);
+        }
+
+        return treeMaker.MethodDef(
+                treeMaker.Modifiers(mods),
+                round.name("dirtyMask"),
+                makeMaskType(treeMaker, wide),
+                com.sun.tools.javac.util.List.nil(),
+                com.sun.tools.javac.util.List.of(instanceParam),
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Block(0, com.sun.tools.javac.util.List.of(treeMaker.Return(result))),
+                null
+        );
+    }
+
+    /** Builds {@code dirtyFields(instance)}: the names of the dirty fields, in declaration order. */
+    private static com.sun.tools.javac.util.List<JCTree> makeDirtyFieldsMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
+    ) {
+        JCTree.JCExpression newList = treeMaker.NewClass(
+                null,
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.TypeApply(round.qualifiedType("java.util.ArrayList"), com.sun.tools.javac.util.List.nil()),
+                com.sun.tools.javac.util.List.nil(),
+                null
+        );
+        com.sun.tools.javac.util.List<JCTree.JCStatement> prefix = com.sun.tools.javac.util.List.of(
+                treeMaker.VarDef(treeMaker.Modifiers(0), round.name("dirty"), makeStringListType(treeMaker, round), newList)
+        );
+        Supplier<com.sun.tools.javac.util.List<JCTree.JCVariableDecl>> params = () -> com.sun.tools.javac.util.List.of(
+                makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name))
+        );
+
+        return makeRangeSplitMethods(
+                treeMaker,
+                round,
+                "dirtyFields",
+                () -> makeStringListType(treeMaker, round),
+                params,
+                () -> params.get().append(makeParam(treeMaker, round, "dirty", makeStringListType(treeMaker, round))),
+                () -> prefix,
+                fields.size(),
+                i -> {
+                    JCTree.JCExpression isDirty = treeMaker.Binary(
+                            JCTree.Tag.NE,
+                            treeMaker.Parens(treeMaker.Binary(
+                                    JCTree.Tag.BITAND,
+                                    makeDirtyWord(treeMaker, round, treeMaker.Ident(round.name("instance")), i >>> 6),
+                                    makeMaskBit(treeMaker, i)
+                            )),
+                            treeMaker.Literal(TypeTag.LONG, 0L)
+                    );
+                    JCTree.JCStatement add = treeMaker.Exec(treeMaker.Apply(
+                            com.sun.tools.javac.util.List.nil(),
+                            treeMaker.Select(treeMaker.Ident(round.name("dirty")), round.name("add")),
+                            com.sun.tools.javac.util.List.of(treeMaker.Literal(fields.get(i).name()))
+                    ));
+                    return com.sun.tools.javac.util.List.of(treeMaker.If(isDirty, add, null));
+                },
+                () -> com.sun.tools.javac.util.List.of(treeMaker.Return(treeMaker.Ident(round.name("dirty"))))
+        );
+    }
+
+    private static JCTree.JCExpression makeStringListType(TreeMaker treeMaker, InjectionRound round) {
+        return treeMaker.TypeApply(
+                round.qualifiedType("java.util.List"),
+                com.sun.tools.javac.util.List.of(round.qualifiedType("java.lang.String"))
+        );
+    }
+
+    private static JCTree.JCMethodDecl makeClearDirtyMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
+    ) {
+        long mods = Flags.PUBLIC | Flags.STATIC;
+
+        JCTree.JCVariableDecl instanceParam = makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name));
+        JCTree.JCExpression instanceIdent = treeMaker.Ident(round.name("instance"));
+
+        com.sun.tools.javac.util.List<JCTree.JCStatement> stats = com.sun.tools.javac.util.List.nil();
+        for (int word = 0; word < dirtyWordCount(fields); word++) {
+            stats = stats.append(treeMaker.Exec(treeMaker.Assign(
+                    makeDirtyWord(treeMaker, round, instanceIdent, word),
+                    treeMaker.Literal(TypeTag.LONG, 0L)
+            )));
+        }
+
+        return treeMaker.MethodDef(
+                treeMaker.Modifiers(mods),
+                round.name("clearDirty"),
+                treeMaker.TypeIdent(TypeTag.VOID),
+                com.sun.tools.javac.util.List.nil(),
+                com.sun.tools.javac.util.List.of(instanceParam),
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Block(0, stats),
+                null
+        );
+    }
+
+    private static int dirtyWordCount(List<FieldModel> fields) {
+        return (fields.size() + 63) / 64;
+    }
+
+    private static JCTree.JCExpression makeDirtyWord(TreeMaker treeMaker, InjectionRound round, JCTree.JCExpression instanceIdent, int word) {
+        return treeMaker.Select(instanceIdent, round.name(DIRTY_FIELD_PREFIX + word));
+    }
+
+    private static JCTree.JCExpression makeMaskType(TreeMaker treeMaker, boolean wide) {
+        JCTree.JCExpression longType = treeMaker.TypeIdent(TypeTag.LONG);
+        return wide ? treeMaker.TypeArray(longType) : longType;
+    }
+
+    /** The mask word holding field {@code i}: {@code mask} or {@code mask[i >>> 6]}. */
+    private static JCTree.JCExpression makeMaskWord(TreeMaker treeMaker, InjectionRound round, boolean wide, int i) {
+        JCTree.JCExpression maskIdent = treeMaker.Ident(round.name("mask"));
+        return wide ? treeMaker.Indexed(maskIdent, treeMaker.Literal(i >>> 6)) : maskIdent;
+    }
+
+    private static JCTree.JCExpression makeMaskBit(TreeMaker treeMaker, int i) {
+        return treeMaker.Literal(TypeTag.LONG, 1L << (i & 63));
+    }
+
+    /**
+     * {@code left != right} for primitives and {@code !Objects.equals(left, right)} for references.
+     * {@code float}/{@code double} use {@code Float.compare}/{@code Double.compare} so that NaN equals
+     * itself, matching what {@code Objects.equals} does for the boxed values.
+     */
+    private static JCTree.JCExpression makeDiffers(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            TypeKind kind,
+            JCTree.JCExpression left,
+            JCTree.JCExpression right
+    ) {
+        if (kind == TypeKind.FLOAT || kind == TypeKind.DOUBLE) {
+            String boxName = kind == TypeKind.FLOAT ? "java.lang.Float" : "java.lang.Double";
+            JCTree.JCExpression compare = treeMaker.Apply(
+                    com.sun.tools.javac.util.List.nil(),
+                    treeMaker.Select(round.qualifiedType(boxName), round.name("compare")),
+                    com.sun.tools.javac.util.List.of(left, right)
+            );
+            return treeMaker.Binary(JCTree.Tag.NE, compare, treeMaker.Literal(0));
+        }
+        if (kind.isPrimitive()) {
+            return treeMaker.Binary(JCTree.Tag.NE, left, right);
+        }
+        JCTree.JCExpression equalsCall = treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Select(round.qualifiedType("java.util.Objects"), round.name("equals")),
+                com.sun.tools.javac.util.List.of(left, right)
+        );
+        return treeMaker.Unary(JCTree.Tag.NOT, equalsCall);
+    }
+
+    private static JCTree.JCStatement makeTypedListSetStatement(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCExpression instanceIdent,
+            JCTree.JCExpression valueIdent,
+            FieldModel field
+    ) {
+        return makeListStore(treeMaker, round, options, instanceIdent, valueIdent, field, valueIdent,
+                () -> treeMaker.Exec(makeTypedSetterCall(treeMaker, round, options, instanceIdent, valueIdent, field)));
+    }
+
+    /**
+     * Refills the field's List in place from {@code value}, so a managed collection keeps its identity:
+     * <pre>
+     * if (value != null &amp;&amp; getX() != null) { getX().clear(); getX().addAll(elements); } else { assign }
+     * </pre>
+     * A final List in field access mode cannot be reassigned, so there a {@code null} value only clears it:
+     * {@code getX().clear(); if (value != null) getX().addAll(elements);}.
+     */
+    private static JCTree.JCStatement makeListStore(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCExpression instanceIdent,
+            JCTree.JCExpression valueIdent,
+            FieldModel field,
+            JCTree.JCExpression elements,
+            Supplier<JCTree.JCStatement> assign
+    ) {
+        TreeCopier<Void> copier = new TreeCopier<>(treeMaker);
+        JCTree.JCExpression valueNotNull = treeMaker.Binary(
+                JCTree.Tag.NE,
+                copier.copy(valueIdent),
+                treeMaker.Literal(TypeTag.BOT, null)
+        );
+        JCTree.JCStatement clearStmt = treeMaker.Exec(makeNoArgCall(treeMaker, round,
+                makeGetterCall(treeMaker, round, options, copier.copy(instanceIdent), field), "clear"));
+        JCTree.JCStatement addAllStmt = treeMaker.Exec(treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Select(makeGetterCall(treeMaker, round, options, copier.copy(instanceIdent), field), round.name("addAll")),
+                com.sun.tools.javac.util.List.of(copier.copy(elements))
+        ));
+
+        if (writesFinalListInPlace(field)) {
+            return treeMaker.Block(0, com.sun.tools.javac.util.List.of(clearStmt, treeMaker.If(valueNotNull, addAllStmt, null)));
+        }
+        JCTree.JCExpression listNotNull = treeMaker.Binary(
+                JCTree.Tag.NE,
+                makeGetterCall(treeMaker, round, options, copier.copy(instanceIdent), field),
+                treeMaker.Literal(TypeTag.BOT, null)
+        );
+        return treeMaker.If(
+                treeMaker.Binary(JCTree.Tag.AND, valueNotNull, listNotNull),
+                treeMaker.Block(0, com.sun.tools.javac.util.List.of(clearStmt, addAllStmt)),
+                treeMaker.Block(0, com.sun.tools.javac.util.List.of(assign.get()))
+        );
+    }
+
+    /**
+     * Writes {@code valueIdent} to the field: {@code instance.field = value} in field access mode (final fields
+     * excepted), otherwise {@code instance.setField(value)}.
+     */
+    private static JCTree.JCExpression makeTypedSetterCall(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCExpression instanceIdent,
+            JCTree.JCExpression valueIdent,
+            FieldModel field
+    ) {
+        if (field.fieldAccess() && !field.isFinal()) {
+            return treeMaker.Assign(treeMaker.Select(instanceIdent, round.name(field.name())), valueIdent);
+        }
+        return treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Select(instanceIdent, round.name(field.setterName())),
+                com.sun.tools.javac.util.List.of(valueIdent)
+        );
+    }
+
+    private static com.sun.tools.javac.util.List<JCTree> makeFieldMapperSetMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
+    ) {
+        List<NameCase> cases = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel field = fields.get(i);
+            int ordinal = i;
+            cases.add(new NameCase(List.of(field.name()), () -> {
+                JCTree.JCExpression instanceIdent = treeMaker.Ident(round.name("instance"));
+                JCTree.JCExpression valueIdent = treeMaker.Ident(round.name("value"));
+                JCTree.JCStatement setStmt = makeDynamicSetStatement(treeMaker, round, options, instanceIdent, valueIdent, field);
+                return withDirtyMark(treeMaker, round, options, instanceIdent, setStmt, field, ordinal, field.mapped() ? null : valueIdent)
+                        .append(treeMaker.Return(null));
+            }));
+        }
+
+        return makeNameDispatchMethods(
+                treeMaker,
+                round,
+                "set",
+                () -> treeMaker.TypeIdent(TypeTag.VOID),
+                () -> com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "field", treeMaker.Ident(round.name("String"))),
+                        makeParam(treeMaker, round, "value", treeMaker.Ident(round.name("Object")))
+                ),
+                cases,
+                () -> makeUnknownFieldWrite(treeMaker, round, options)
+        );
+    }
+
+    private static com.sun.tools.javac.util.List<JCTree> makeFieldMapperGetMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
+    ) {
+        List<NameCase> cases = new ArrayList<>();
+        for (FieldModel field : fields) {
+            cases.add(new NameCase(List.of(field.name()), () -> {
+                JCTree.JCExpression getterCall = makeGetterCall(treeMaker, round, options, treeMaker.Ident(round.name("instance")), field);
+                return com.sun.tools.javac.util.List.of(treeMaker.Return(getterCall));
+            }));
+        }
+
+        return makeNameDispatchMethods(
+                treeMaker,
+                round,
+                "get",
+                () -> round.qualifiedType("java.lang.Object"),
+                () -> com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "field", treeMaker.Ident(round.name("String")))
+                ),
+                cases,
+                () -> makeUnknownFieldRead(treeMaker, round, options)
+        );
+    }
+
+    /**
+     * Emits {@code FIELD_COUNT} plus one {@code UPPER_SNAKE} ordinal constant per field, in declaration order.
+     * Ordinals are compile-time constants, so callers can use them as switch labels.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeOrdinalConstants(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            Messager messager,
+            List<FieldModel> fields
+    ) {
+        long mods = Flags.PUBLIC | Flags.STATIC | Flags.FINAL;
+
+        Set<String> used = new HashSet<>(RESERVED_CONSTANT_NAMES);
+        ListBuffer<JCTree> defs = new ListBuffer<JCTree>().append(treeMaker.VarDef(
+                treeMaker.Modifiers(mods),
+                round.name("FIELD_COUNT"),
+                treeMaker.TypeIdent(TypeTag.INT),
+                treeMaker.Literal(fields.size())
+        ));
+
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel field = fields.get(i);
+            String constantName = constantName(field.name());
+            if (!used.add(constantName)) {
+                messager.printMessage(
+                        Diagnostic.Kind.WARNING,
+                        "fmapper: no ordinal constant generated for field " + field.name()
+                                + " (" + constantName + " is already taken)",
+                        field.element()
+                );
+                continue;
+            }
+            defs.append(treeMaker.VarDef(
+                    treeMaker.Modifiers(mods),
+                    round.name(constantName),
+                    treeMaker.TypeIdent(TypeTag.INT),
+                    treeMaker.Literal(i)
+            ));
+        }
+        return defs.toList();
+    }
+
+    /** Emits {@code FIELD_NAMES}: field names in declaration order, i.e. the {@code toArray/fromArray} layout. */
+    private static JCTree.JCVariableDecl makeFieldNamesConstant(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            List<FieldModel> fields
+    ) {
+        ListBuffer<JCTree.JCExpression> elems = new ListBuffer<>();
+        for (FieldModel field : fields) {
+            elems.append(treeMaker.Literal(field.name()));
+        }
+        return treeMaker.VarDef(
+                treeMaker.Modifiers(Flags.PUBLIC | Flags.STATIC | Flags.FINAL),
+                round.name("FIELD_NAMES"),
+                treeMaker.TypeArray(treeMaker.Ident(round.name("String"))),
+                treeMaker.NewArray(treeMaker.Ident(round.name("String")), com.sun.tools.javac.util.List.nil(), elems.toList())
+        );
+    }
+
+    /**
+     * One {@code private static final Mapper fmapper$pkg$Mapper = new Mapper();} per distinct hook class. A
+     * final static of the exact class lets the JIT bind and inline {@code accept} at every call site.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeMapperConstants(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            List<FieldModel> fields
+    ) {
+        Map<String, MapperHook> hooks = new LinkedHashMap<>();
+        for (FieldModel field : fields) {
+            if (field.mapped()) hooks.putIfAbsent(field.mapper().constantName(), field.mapper());
+        }
+        ListBuffer<JCTree> defs = new ListBuffer<>();
+        for (MapperHook hook : hooks.values()) {
+            defs.append(treeMaker.VarDef(
+                    treeMaker.Modifiers(Flags.PRIVATE | Flags.STATIC | Flags.FINAL),
+                    round.name(hook.constantName()),
+                    treeMaker.Type((Type) hook.type()),
+                    treeMaker.NewClass(
+                            null,
+                            com.sun.tools.javac.util.List.nil(),
+                            treeMaker.Type((Type) hook.type()),
+                            com.sun.tools.javac.util.List.nil(),
+                            null
+                    )
+            ));
+        }
+        return defs.toList();
+    }
+
+    /**
+     * Emits {@code INSTANCE}: an {@code EntityAccessor} whose methods call the static ones, so a call site that only
+     * ever sees one entity type devirtualizes and inlines down to the same dispatch as a direct static call. It is an
+     * anonymous class so that no name is added to the scope of the generated methods.
+     */
+    private static JCTree.JCVariableDecl makeInstanceConstant(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            boolean instantiable
+    ) {
+        JCTree.JCMethodDecl entityType = makeInstanceMethod(
+                treeMaker,
+                round,
+                "entityType",
+                treeMaker.TypeApply(
+                        round.qualifiedType("java.lang.Class"),
+                        com.sun.tools.javac.util.List.of(treeMaker.Ident(outerClass.name))
+                ),
+                com.sun.tools.javac.util.List.nil(),
+                com.sun.tools.javac.util.List.of(treeMaker.Return(
+                        treeMaker.Select(treeMaker.Ident(outerClass.name), round.name("class"))
+                ))
+        );
+        JCTree.JCMethodDecl set = makeForwardingMethod(
+                treeMaker,
+                round,
+                "set",
+                treeMaker.TypeIdent(TypeTag.VOID),
+                com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "field", treeMaker.Ident(round.name("String"))),
+                        makeParam(treeMaker, round, "value", round.qualifiedType("java.lang.Object"))
+                )
+        );
+        JCTree.JCMethodDecl get = makeForwardingMethod(
+                treeMaker,
+                round,
+                "get",
+                round.qualifiedType("java.lang.Object"),
+                com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "field", treeMaker.Ident(round.name("String")))
+                )
+        );
+        JCTree.JCMethodDecl setByOrdinal = makeForwardingMethod(
+                treeMaker,
+                round,
+                "set",
+                treeMaker.TypeIdent(TypeTag.VOID),
+                com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "ordinal", treeMaker.TypeIdent(TypeTag.INT)),
+                        makeParam(treeMaker, round, "value", round.qualifiedType("java.lang.Object"))
+                )
+        );
+        JCTree.JCMethodDecl getByOrdinal = makeForwardingMethod(
+                treeMaker,
+                round,
+                "get",
+                round.qualifiedType("java.lang.Object"),
+                com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "ordinal", treeMaker.TypeIdent(TypeTag.INT))
+                )
+        );
+        JCTree.JCMethodDecl fieldCount = makeInstanceMethod(
+                treeMaker,
+                round,
+                "fieldCount",
+                treeMaker.TypeIdent(TypeTag.INT),
+                com.sun.tools.javac.util.List.nil(),
+                com.sun.tools.javac.util.List.of(treeMaker.Return(
+                        treeMaker.Select(treeMaker.Ident(round.name("FieldMapper")), round.name("FIELD_COUNT"))
+                ))
+        );
+        JCTree.JCStatement create = instantiable
+                ? treeMaker.Return(treeMaker.NewClass(
+                        null,
+                        com.sun.tools.javac.util.List.nil(),
+                        treeMaker.Ident(outerClass.name),
+                        com.sun.tools.javac.util.List.nil(),
+                        null
+                ))
+                : treeMaker.Throw(treeMaker.NewClass(
+                        null,
+                        com.sun.tools.javac.util.List.nil(),
+                        round.qualifiedType("java.lang.UnsupportedOperationException"),
+                        com.sun.tools.javac.util.List.of(treeMaker.Literal(
+                                outerClass.name + " has no no-arg constructor FieldMapper can call"
+                        )),
+                        null
+                ));
+        JCTree.JCMethodDecl newInstance = makeInstanceMethod(
+                treeMaker,
+                round,
+                "newInstance",
+                treeMaker.Ident(outerClass.name),
+                com.sun.tools.javac.util.List.nil(),
+                com.sun.tools.javac.util.List.of(create)
+        );
+
+        Supplier<JCTree.JCExpression> accessorType = () -> treeMaker.TypeApply(
+                round.qualifiedType("dev.w0fv1.mapper.EntityAccessor"),
+                com.sun.tools.javac.util.List.of(treeMaker.Ident(outerClass.name))
+        );
+        JCTree.JCMethodDecl indexOf = makeForwardingMethod(
+                treeMaker,
+                round,
+                "indexOf",
+                treeMaker.TypeIdent(TypeTag.INT),
+                com.sun.tools.javac.util.List.of(makeParam(treeMaker, round, "field", treeMaker.Ident(round.name("String"))))
+        );
+        JCTree.JCMethodDecl nested = makeForwardingMethod(
+                treeMaker,
+                round,
+                "nested",
+                makeWildcardAccessorType(treeMaker, round),
+                com.sun.tools.javac.util.List.of(makeParam(treeMaker, round, "ordinal", treeMaker.TypeIdent(TypeTag.INT)))
+        );
+        JCTree.JCMethodDecl trySet = makeForwardingMethod(
+                treeMaker,
+                round,
+                "trySet",
+                treeMaker.TypeIdent(TypeTag.BOOLEAN),
+                com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "field", treeMaker.Ident(round.name("String"))),
+                        makeParam(treeMaker, round, "value", round.qualifiedType("java.lang.Object"))
+                )
+        );
+        JCTree.JCMethodDecl tryGet = makeForwardingMethod(
+                treeMaker,
+                round,
+                "tryGet",
+                round.qualifiedType("java.lang.Object"),
+                com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "field", treeMaker.Ident(round.name("String")))
+                )
+        );
+        JCTree.JCMethodDecl writeJson = makeForwardingMethod(
+                treeMaker,
+                round,
+                "writeJson",
+                treeMaker.TypeIdent(TypeTag.VOID),
+                com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "out", round.qualifiedType("dev.w0fv1.mapper.JsonWriter"))
+                )
+        );
+        JCTree.JCMethodDecl readJson = makeForwardingMethod(
+                treeMaker,
+                round,
+                "readJson",
+                treeMaker.TypeIdent(TypeTag.VOID),
+                com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "in", round.qualifiedType("dev.w0fv1.mapper.JsonReader")),
+                        makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name))
+                )
+        );
+        // writeTo/writeFieldsTo(instance, buffer), readFrom/readFieldsFrom(buffer, instance), serializedSize/serializedFieldsSize(instance)
+        Supplier<JCTree.JCVariableDecl> instanceParam = () -> makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name));
+        Supplier<JCTree.JCVariableDecl> bufferParam = () -> makeParam(treeMaker, round, "buffer", round.qualifiedType("java.nio.ByteBuffer"));
+        ListBuffer<JCTree> members = new ListBuffer<JCTree>().appendList(com.sun.tools.javac.util.List.of(
+                entityType, fieldCount, newInstance, set, get, setByOrdinal, getByOrdinal, trySet, tryGet, indexOf, nested));
+        if (options.json()) {
+            members.append(writeJson).append(readJson);
+        }
+        if (options.binary()) {
+            for (String name : List.of("writeTo", "writeFieldsTo")) {
+                members.append(makeForwardingMethod(treeMaker, round, name, treeMaker.TypeIdent(TypeTag.VOID),
+                        com.sun.tools.javac.util.List.of(instanceParam.get(), bufferParam.get())));
+            }
+            for (String name : List.of("readFrom", "readFieldsFrom")) {
+                members.append(makeForwardingMethod(treeMaker, round, name, treeMaker.TypeIdent(TypeTag.VOID),
+                        com.sun.tools.javac.util.List.of(bufferParam.get(), instanceParam.get())));
+            }
+            for (String name : List.of("serializedSize", "serializedFieldsSize")) {
+                members.append(makeForwardingMethod(treeMaker, round, name, treeMaker.TypeIdent(TypeTag.INT),
+                        com.sun.tools.javac.util.List.of(instanceParam.get())));
+            }
+        }
+        members.append(makeForwardingMethod(treeMaker, round, "contentHash", treeMaker.TypeIdent(TypeTag.INT),
+                com.sun.tools.javac.util.List.of(instanceParam.get())));
+        members.append(makeForwardingMethod(treeMaker, round, "contentEquals", treeMaker.TypeIdent(TypeTag.BOOLEAN),
+                com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "a", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "b", treeMaker.Ident(outerClass.name))
+                )));
+        JCTree.JCClassDecl body = treeMaker.AnonymousClassDef(treeMaker.Modifiers(0), members.toList());
+        return treeMaker.VarDef(
+                treeMaker.Modifiers(Flags.PUBLIC | Flags.STATIC | Flags.FINAL),
+                round.name("INSTANCE"),
+                accessorType.get(),
+                treeMaker.NewClass(
+                        null,
+                        com.sun.tools.javac.util.List.nil(),
+                        accessorType.get(),
+                        com.sun.tools.javac.util.List.nil(),
+                        body
+                )
+        );
+    }
+
+    /**
+     * Emits the private holder class with one final {@code FieldAccessor} subclass per field and the
+     * {@code ALL} array of their singletons, in declaration order. Being a separate class, none of it is loaded
+     * until the first {@code accessor(...)} call. Opt-in ({@code fmapper.accessors}): a class per field roughly
+     * doubles the compile time of the injected code.
+     */
+    private static JCTree.JCClassDecl makeAccessorsHolder(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
+    ) {
+        ListBuffer<JCTree> defs = new ListBuffer<>();
+        ListBuffer<JCTree.JCExpression> singletons = new ListBuffer<>();
+        for (int i = 0; i < fields.size(); i++) {
+            JCTree.JCClassDecl accessorClass = makeFieldAccessorClass(treeMaker, round, options, outerClass, fields.get(i), i);
+            defs.append(accessorClass);
+            singletons.append(treeMaker.NewClass(
+                    null,
+                    com.sun.tools.javac.util.List.nil(),
+                    treeMaker.Ident(accessorClass.name),
+                    com.sun.tools.javac.util.List.nil(),
+                    null
+            ));
+        }
+        // Generic arrays cannot be created: new FieldAccessor[] {...} is raw and stored as FieldAccessor<Entity>[].
+        defs.prepend(treeMaker.VarDef(
+                treeMaker.Modifiers(Flags.STATIC | Flags.FINAL, com.sun.tools.javac.util.List.of(
+                        makeSuppressWarnings(treeMaker, round, "unchecked", "rawtypes"))),
+                round.name("ALL"),
+                treeMaker.TypeArray(makeFieldAccessorType(treeMaker, round, outerClass)),
+                treeMaker.NewArray(
+                        round.qualifiedType("dev.w0fv1.mapper.FieldAccessor"),
+                        com.sun.tools.javac.util.List.nil(),
+                        singletons.toList()
+                )
+        ));
+        return treeMaker.ClassDef(
+                treeMaker.Modifiers(Flags.PRIVATE | Flags.STATIC | Flags.FINAL),
+                round.name(ACCESSORS_HOLDER),
+                com.sun.tools.javac.util.List.nil(),
+                null,
+                com.sun.tools.javac.util.List.nil(),
+                defs.toList()
+        );
+    }
+
+    /**
+     * {@code Field$name extends FieldAccessor<Entity>}: {@code get/set} with the same semantics as the dynamic
+     * {@code get/set} and, for a primitive field, the pair of its own kind through the typed {@code getXxx/setXxx}
+     * statics. Widening to and from other kinds is left to {@code FieldAccessor}, which keeps each class small.
+     */
+    private static JCTree.JCClassDecl makeFieldAccessorClass(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            FieldModel field,
+            int ordinal
+    ) {
+        ListBuffer<JCTree> defs = new ListBuffer<>();
+
+        JCTree.JCExpression superCall = treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Ident(round.name("super")),
+                com.sun.tools.javac.util.List.of(
+                        treeMaker.Literal(field.name()),
+                        treeMaker.Literal(ordinal),
+                        treeMaker.Select(treeMaker.Type((Type) field.erasedType()), round.name("class"))
+                )
+        );
+        defs.append(treeMaker.MethodDef(
+                treeMaker.Modifiers(0),
+                round.name("<init>"),
+                null,
+                com.sun.tools.javac.util.List.nil(),
+                com.sun.tools.javac.util.List.nil(),
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Block(0, com.sun.tools.javac.util.List.of(treeMaker.Exec(superCall))),
+                null
+        ));
+
+        defs.append(makeInstanceMethod(
+                treeMaker,
+                round,
+                "get",
+                round.qualifiedType("java.lang.Object"),
+                com.sun.tools.javac.util.List.of(makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name))),
+                com.sun.tools.javac.util.List.of(treeMaker.Return(
+                        makeGetterCall(treeMaker, round, options, treeMaker.Ident(round.name("instance")), field)
+                ))
+        ));
+        JCTree.JCExpression instanceIdent = treeMaker.Ident(round.name("instance"));
+        JCTree.JCStatement setStmt = makeDynamicSetStatement(
+                treeMaker, round, options, instanceIdent, treeMaker.Ident(round.name("value")), field);
+        defs.append(makeInstanceMethod(
+                treeMaker,
+                round,
+                "set",
+                treeMaker.TypeIdent(TypeTag.VOID),
+                com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "value", round.qualifiedType("java.lang.Object"))
+                ),
+                withDirtyMark(treeMaker, round, options, instanceIdent, setStmt, field, ordinal,
+                        field.mapped() ? null : treeMaker.Ident(round.name("value")))
+        ));
+
+        if (field.kind().isPrimitive()) {
+            TypeKind kind = field.kind();
+            String kindName = capitalize(kind.name().toLowerCase(Locale.ROOT));
+            defs.append(makeInstanceMethod(
+                    treeMaker,
+                    round,
+                    "get" + kindName,
+                    treeMaker.TypeIdent(TypeTag.valueOf(kind.name())),
+                    com.sun.tools.javac.util.List.of(makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name))),
+                    com.sun.tools.javac.util.List.of(treeMaker.Return(makeMapperCall(
+                            treeMaker,
+                            round,
+                            field.getterName(),
+                            com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("instance")))
+                    )))
+            ));
+            // A mapped field only takes values through its Mapper; the inherited setter reports the mismatch.
+            if (!field.mapped()) defs.append(makeInstanceMethod(
+                    treeMaker,
+                    round,
+                    "set" + kindName,
+                    treeMaker.TypeIdent(TypeTag.VOID),
+                    com.sun.tools.javac.util.List.of(
+                            makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                            makeParam(treeMaker, round, "value", treeMaker.TypeIdent(TypeTag.valueOf(kind.name())))
+                    ),
+                    com.sun.tools.javac.util.List.of(treeMaker.Exec(makeMapperCall(
+                            treeMaker,
+                            round,
+                            field.setterName(),
+                            com.sun.tools.javac.util.List.of(
+                                    treeMaker.Ident(round.name("instance")),
+                                    treeMaker.Ident(round.name("value"))
+                            )
+                    )))
+            ));
+        }
+
+        return treeMaker.ClassDef(
+                treeMaker.Modifiers(Flags.PRIVATE | Flags.STATIC | Flags.FINAL),
+                round.name("Field$" + field.name()),
+                com.sun.tools.javac.util.List.nil(),
+                makeFieldAccessorType(treeMaker, round, outerClass),
+                com.sun.tools.javac.util.List.nil(),
+                defs.toList()
+        );
+    }
+
+    /** {@code accessor(field)}: one {@code indexOf} dispatch, then a read from the holder's array. */
+    private static JCTree.JCMethodDecl makeAccessorByNameMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            JCTree.JCClassDecl outerClass
+    ) {
+        JCTree.JCVariableDecl ordinalVar = treeMaker.VarDef(
+                treeMaker.Modifiers(0),
+                round.name("ordinal"),
+                treeMaker.TypeIdent(TypeTag.INT),
+                treeMaker.Apply(
+                        com.sun.tools.javac.util.List.nil(),
+                        treeMaker.Ident(round.name("indexOf")),
+                        com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("field")))
+                )
+        );
+        JCTree.JCStatement unknown = treeMaker.If(
+                treeMaker.Binary(JCTree.Tag.LT, treeMaker.Ident(round.name("ordinal")), treeMaker.Literal(0)),
+                makeUnknownFieldThrow(treeMaker, round, treeMaker.Ident(round.name("field"))),
+                null
+        );
+        return makeStaticMethod(
+                treeMaker,
+                round,
+                Flags.PUBLIC,
+                "accessor",
+                makeFieldAccessorType(treeMaker, round, outerClass),
+                com.sun.tools.javac.util.List.of(makeParam(treeMaker, round, "field", treeMaker.Ident(round.name("String")))),
+                com.sun.tools.javac.util.List.of(ordinalVar, unknown, treeMaker.Return(makeAccessorsElement(treeMaker, round)))
+        );
+    }
+
+    /** {@code accessor(ordinal)}: a range check and a read from the holder's array. */
+    private static JCTree.JCMethodDecl makeAccessorByOrdinalMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            JCTree.JCClassDecl outerClass
+    ) {
+        JCTree.JCExpression outOfRange = treeMaker.Binary(
+                JCTree.Tag.OR,
+                treeMaker.Binary(JCTree.Tag.LT, treeMaker.Ident(round.name("ordinal")), treeMaker.Literal(0)),
+                treeMaker.Binary(JCTree.Tag.GE, treeMaker.Ident(round.name("ordinal")), treeMaker.Ident(round.name("FIELD_COUNT")))
+        );
+        JCTree.JCStatement unknown = treeMaker.If(
+                outOfRange,
+                makeUnknownOrdinalThrow(treeMaker, round, treeMaker.Ident(round.name("ordinal"))),
+                null
+        );
+        return makeStaticMethod(
+                treeMaker,
+                round,
+                Flags.PUBLIC,
+                "accessor",
+                makeFieldAccessorType(treeMaker, round, outerClass),
+                com.sun.tools.javac.util.List.of(makeParam(treeMaker, round, "ordinal", treeMaker.TypeIdent(TypeTag.INT))),
+                com.sun.tools.javac.util.List.of(unknown, treeMaker.Return(makeAccessorsElement(treeMaker, round)))
+        );
+    }
+
+    /** {@code fmapper$Accessors.ALL[ordinal]} */
+    private static JCTree.JCExpression makeAccessorsElement(TreeMaker treeMaker, InjectionRound round) {
+        return treeMaker.Indexed(
+                treeMaker.Select(treeMaker.Ident(round.name(ACCESSORS_HOLDER)), round.name("ALL")),
+                treeMaker.Ident(round.name("ordinal"))
+        );
+    }
+
+    private static JCTree.JCExpression makeFieldAccessorType(TreeMaker treeMaker, InjectionRound round, JCTree.JCClassDecl outerClass) {
+        return treeMaker.TypeApply(
+                round.qualifiedType("dev.w0fv1.mapper.FieldAccessor"),
+                com.sun.tools.javac.util.List.of(treeMaker.Ident(outerClass.name))
+        );
+    }
+
+    /** {@code FieldMapper.method(args)}, qualified so that members of an enclosing accessor class cannot capture it. */
+    private static JCTree.JCExpression makeMapperCall(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            String method,
+            com.sun.tools.javac.util.List<JCTree.JCExpression> args
+    ) {
+        return treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Select(treeMaker.Ident(round.name("FieldMapper")), round.name(method)),
+                args
+        );
+    }
+
+    /** Public instance method {@code name(params)} that returns (or just makes) {@code FieldMapper.name(params)}. */
+    private static JCTree.JCMethodDecl makeForwardingMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            String name,
+            JCTree.JCExpression returnType,
+            com.sun.tools.javac.util.List<JCTree.JCVariableDecl> params
+    ) {
+        ListBuffer<JCTree.JCExpression> args = new ListBuffer<>();
+        for (JCTree.JCVariableDecl param : params) {
+            args.append(treeMaker.Ident(param.name));
+        }
+        JCTree.JCExpression call = makeMapperCall(treeMaker, round, name, args.toList());
+        boolean isVoid = returnType instanceof JCTree.JCPrimitiveTypeTree primitive && primitive.typetag == TypeTag.VOID;
+        return makeInstanceMethod(
+                treeMaker,
+                round,
+                name,
+                returnType,
+                params,
+                com.sun.tools.javac.util.List.of(isVoid ? treeMaker.Exec(call) : treeMaker.Return(call))
+        );
+    }
+
+    private static JCTree.JCMethodDecl makeInstanceMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            String name,
+            JCTree.JCExpression returnType,
+            com.sun.tools.javac.util.List<JCTree.JCVariableDecl> params,
+            com.sun.tools.javac.util.List<JCTree.JCStatement> stats
+    ) {
+        return treeMaker.MethodDef(
+                treeMaker.Modifiers(Flags.PUBLIC),
+                round.name(name),
+                returnType,
+                com.sun.tools.javac.util.List.nil(),
+                params,
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Block(0, stats),
+                null
+        );
+    }
+
+    private static com.sun.tools.javac.util.List<JCTree> makeFieldMapperIndexOfMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            List<FieldModel> fields
+    ) {
+        List<NameCase> cases = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            int ordinal = i;
+            cases.add(new NameCase(
+                    List.of(fields.get(i).name()),
+                    () -> com.sun.tools.javac.util.List.of(treeMaker.Return(treeMaker.Literal(ordinal)))
+            ));
+        }
+
+        return makeNameDispatchMethods(
+                treeMaker,
+                round,
+                "indexOf",
+                () -> treeMaker.TypeIdent(TypeTag.INT),
+                () -> com.sun.tools.javac.util.List.of(makeParam(treeMaker, round, "field", treeMaker.Ident(round.name("String")))),
+                cases,
+                () -> treeMaker.Return(treeMaker.Literal(-1))
+        );
+    }
+
+    /**
+     * Builds the exception-free by-name pair, whatever {@code fmapper.unknownField} says:
+     * <pre>
+     * public static boolean trySet(Entity instance, String field, Object value) {
+     *     int ordinal = indexOf(field);
+     *     if (ordinal &lt; 0) return false;
+     *     set(instance, ordinal, value);
+     *     return true;
+     * }
+     * public static Object tryGet(Entity instance, String field) {
+     *     int ordinal = indexOf(field);
+     *     return ordinal &lt; 0 ? EntityAccessor.UNKNOWN_FIELD : get(instance, ordinal);
+     * }
+     * </pre>
+     * Resolving the name with {@code indexOf} and then dispatching by ordinal reuses the existing switches instead
+     * of compiling another copy of every field's arm.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeTryMethods(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            JCTree.JCClassDecl outerClass
+    ) {
+        Supplier<JCTree.JCVariableDecl> ordinal = () -> treeMaker.VarDef(
+                treeMaker.Modifiers(0),
+                round.name("ordinal"),
+                treeMaker.TypeIdent(TypeTag.INT),
+                treeMaker.Apply(
+                        com.sun.tools.javac.util.List.nil(),
+                        treeMaker.Ident(round.name("indexOf")),
+                        com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("field")))
+                )
+        );
+        Supplier<JCTree.JCExpression> unknown = () ->
+                treeMaker.Binary(JCTree.Tag.LT, treeMaker.Ident(round.name("ordinal")), treeMaker.Literal(0));
+
+        JCTree.JCMethodDecl trySet = makeStaticMethod(treeMaker, round, Flags.PUBLIC, "trySet", treeMaker.TypeIdent(TypeTag.BOOLEAN),
+                com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "field", treeMaker.Ident(round.name("String"))),
+                        makeParam(treeMaker, round, "value", round.qualifiedType("java.lang.Object"))
+                ),
+                com.sun.tools.javac.util.List.of(
+                        ordinal.get(),
+                        treeMaker.If(unknown.get(), treeMaker.Return(treeMaker.Literal(false)), null),
+                        treeMaker.Exec(treeMaker.Apply(
+                                com.sun.tools.javac.util.List.nil(),
+                                treeMaker.Ident(round.name("set")),
+                                com.sun.tools.javac.util.List.of(
+                                        treeMaker.Ident(round.name("instance")),
+                                        treeMaker.Ident(round.name("ordinal")),
+                                        treeMaker.Ident(round.name("value"))
+                                )
+                        )),
+                        treeMaker.Return(treeMaker.Literal(true))
+                )
+        );
+        JCTree.JCMethodDecl tryGet = makeStaticMethod(treeMaker, round, Flags.PUBLIC, "tryGet", round.qualifiedType("java.lang.Object"),
+                com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "field", treeMaker.Ident(round.name("String")))
+                ),
+                com.sun.tools.javac.util.List.of(
+                        ordinal.get(),
+                        treeMaker.Return(treeMaker.Conditional(
+                                unknown.get(),
+                                makeUnknownFieldSentinel(treeMaker, round),
+                                treeMaker.Apply(
+                                        com.sun.tools.javac.util.List.nil(),
+                                        treeMaker.Ident(round.name("get")),
+                                        com.sun.tools.javac.util.List.of(
+                                                treeMaker.Ident(round.name("instance")),
+                                                treeMaker.Ident(round.name("ordinal"))
+                                        )
+                                )
+                        ))
+                )
+        );
+        return com.sun.tools.javac.util.List.of(trySet, tryGet);
+    }
+
+    private static com.sun.tools.javac.util.List<JCTree> makeFieldMapperSetByOrdinalMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
+    ) {
+        return makeOrdinalDispatchMethods(
+                treeMaker,
+                round,
+                "set",
+                () -> treeMaker.TypeIdent(TypeTag.VOID),
+                () -> com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "ordinal", treeMaker.TypeIdent(TypeTag.INT)),
+                        makeParam(treeMaker, round, "value", treeMaker.Ident(round.name("Object")))
+                ),
+                fields.size(),
+                i -> {
+                    JCTree.JCExpression instanceIdent = treeMaker.Ident(round.name("instance"));
+                    JCTree.JCExpression valueIdent = treeMaker.Ident(round.name("value"));
+                    JCTree.JCStatement setStmt = makeDynamicSetStatement(treeMaker, round, options, instanceIdent, valueIdent, fields.get(i));
+                    return withDirtyMark(treeMaker, round, options, instanceIdent, setStmt, fields.get(i), i,
+                            fields.get(i).mapped() ? null : valueIdent).append(treeMaker.Return(null));
+                },
+                () -> makeUnknownOrdinalThrow(treeMaker, round, treeMaker.Ident(round.name("ordinal")))
+        );
+    }
+
+    private static com.sun.tools.javac.util.List<JCTree> makeFieldMapperGetByOrdinalMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
+    ) {
+        return makeOrdinalDispatchMethods(
+                treeMaker,
+                round,
+                "get",
+                () -> round.qualifiedType("java.lang.Object"),
+                () -> com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "ordinal", treeMaker.TypeIdent(TypeTag.INT))
+                ),
+                fields.size(),
+                i -> com.sun.tools.javac.util.List.of(treeMaker.Return(
+                        makeGetterCall(treeMaker, round, options, treeMaker.Ident(round.name("instance")), fields.get(i))
+                )),
+                () -> makeUnknownOrdinalThrow(treeMaker, round, treeMaker.Ident(round.name("ordinal")))
+        );
+    }
+
+    /**
+     * Builds {@code nested(ordinal)}: {@code Type.FieldMapper.INSTANCE} for fields whose type is an {@code @Entity} or
+     * {@code @Embeddable} with a {@code FieldMapper}, {@code null} for the other fields. This is the link
+     * {@code PropertyPath} follows from one type to the next.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeNestedMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            List<FieldModel> fields
+    ) {
+        return makeOrdinalDispatchMethods(
+                treeMaker,
+                round,
+                "nested",
+                () -> makeWildcardAccessorType(treeMaker, round),
+                () -> com.sun.tools.javac.util.List.of(makeParam(treeMaker, round, "ordinal", treeMaker.TypeIdent(TypeTag.INT))),
+                fields.size(),
+                i -> {
+                    FieldModel field = fields.get(i);
+                    if (field.list() || !round.hasFieldMapper(field.erasedType())) return null;
+                    return com.sun.tools.javac.util.List.of(treeMaker.Return(
+                            round.qualifiedType(field.erasedTypeName() + ".FieldMapper.INSTANCE")
+                    ));
+                },
+                () -> {
+                    // Known fields without a case are the ones with no nested FieldMapper.
+                    JCTree.JCExpression inRange = treeMaker.Binary(
+                            JCTree.Tag.AND,
+                            treeMaker.Binary(JCTree.Tag.GE, treeMaker.Ident(round.name("ordinal")), treeMaker.Literal(0)),
+                            treeMaker.Binary(JCTree.Tag.LT, treeMaker.Ident(round.name("ordinal")), treeMaker.Ident(round.name("FIELD_COUNT")))
+                    );
+                    return treeMaker.Block(0, com.sun.tools.javac.util.List.of(
+                            treeMaker.If(inRange, treeMaker.Return(treeMaker.Literal(TypeTag.BOT, null)), null),
+                            makeUnknownOrdinalThrow(treeMaker, round, treeMaker.Ident(round.name("ordinal")))
+                    ));
+                }
+        );
+    }
+
+    /** {@code path(path)}: {@code PropertyPath.of(INSTANCE, path)}, compiled once per distinct string. */
+    private static JCTree.JCMethodDecl makePathMethod(TreeMaker treeMaker, InjectionRound round, JCTree.JCClassDecl outerClass) {
+        return makeStaticMethod(
+                treeMaker,
+                round,
+                Flags.PUBLIC,
+                "path",
+                treeMaker.TypeApply(
+                        round.qualifiedType("dev.w0fv1.mapper.PropertyPath"),
+                        com.sun.tools.javac.util.List.of(treeMaker.Ident(outerClass.name))
+                ),
+                com.sun.tools.javac.util.List.of(makeParam(treeMaker, round, "path", treeMaker.Ident(round.name("String")))),
+                com.sun.tools.javac.util.List.of(treeMaker.Return(treeMaker.Apply(
+                        com.sun.tools.javac.util.List.nil(),
+                        treeMaker.Select(round.qualifiedType("dev.w0fv1.mapper.PropertyPath"), round.name("of")),
+                        com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("INSTANCE")), treeMaker.Ident(round.name("path")))
+                )))
+        );
+    }
+
+    /** {@code EntityAccessor<?>} */
+    private static JCTree.JCExpression makeWildcardAccessorType(TreeMaker treeMaker, InjectionRound round) {
+        return treeMaker.TypeApply(
+                round.qualifiedType("dev.w0fv1.mapper.EntityAccessor"),
+                com.sun.tools.javac.util.List.of(treeMaker.Wildcard(treeMaker.TypeBoundKind(BoundKind.UNBOUND), null))
+        );
+    }
+
+    /**
+     * Builds {@code setAll(instance, Map<String, ?> values)}: one pass over the entries, each dispatched
+     * through {@code set(instance, String, Object)} (so unknown keys still throw).
+     */
+    private static JCTree.JCMethodDecl makeFieldMapperSetAllMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            JCTree.JCClassDecl outerClass
+    ) {
+        long mods = Flags.PUBLIC | Flags.STATIC;
+
+        JCTree.JCExpression wildcard = treeMaker.Wildcard(treeMaker.TypeBoundKind(BoundKind.UNBOUND), null);
+        JCTree.JCVariableDecl instanceParam = makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name));
+        JCTree.JCVariableDecl valuesParam = makeParam(treeMaker, round, "values", treeMaker.TypeApply(
+                round.qualifiedType("java.util.Map"),
+                com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("String")), wildcard)
+        ));
+
+        JCTree.JCVariableDecl entryVar = treeMaker.VarDef(
+                treeMaker.Modifiers(0),
+                round.name("entry"),
+                treeMaker.TypeApply(
+                        round.qualifiedType("java.util.Map.Entry"),
+                        com.sun.tools.javac.util.List.of(
+                                treeMaker.Ident(round.name("String")),
+                                treeMaker.Wildcard(treeMaker.TypeBoundKind(BoundKind.UNBOUND), null)
+                        )
+                ),
+                null
+        );
+        JCTree.JCExpression entrySet = treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Select(treeMaker.Ident(round.name("values")), round.name("entrySet")),
+                com.sun.tools.javac.util.List.nil()
+        );
+        JCTree.JCExpression setCall = treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Ident(round.name("set")),
+                com.sun.tools.javac.util.List.of(
+                        treeMaker.Ident(round.name("instance")),
+                        makeNoArgCall(treeMaker, round, treeMaker.Ident(round.name("entry")), "getKey"),
+                        makeNoArgCall(treeMaker, round, treeMaker.Ident(round.name("entry")), "getValue")
+                )
+        );
+        JCTree.JCStatement loop = treeMaker.ForeachLoop(entryVar, entrySet, treeMaker.Exec(setCall));
+
+        return treeMaker.MethodDef(
+                treeMaker.Modifiers(mods),
+                round.name("setAll"),
+                treeMaker.TypeIdent(TypeTag.VOID),
+                com.sun.tools.javac.util.List.nil(),
+                com.sun.tools.javac.util.List.of(instanceParam, valuesParam),
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Block(0, com.sun.tools.javac.util.List.of(loop)),
+                null
+        );
+    }
+
+    /**
+     * Builds {@code toMap(instance)}: a LinkedHashMap pre-sized for {@code FIELD_COUNT} entries (no rehash),
+     * filled by {@code toMap(instance, target)}.
+     */
+    private static JCTree.JCMethodDecl makeFieldMapperToMapMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            JCTree.JCClassDecl outerClass
+    ) {
+        long mods = Flags.PUBLIC | Flags.STATIC;
+
+        JCTree.JCVariableDecl instanceParam = makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name));
+
+        JCTree.JCExpression newMap = treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Select(round.qualifiedType("java.util.LinkedHashMap"), round.name("newLinkedHashMap")),
+                com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("FIELD_COUNT")))
+        );
+        JCTree.JCExpression toMapCall = treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Ident(round.name("toMap")),
+                com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("instance")), newMap)
+        );
+
+        return treeMaker.MethodDef(
+                treeMaker.Modifiers(mods),
+                round.name("toMap"),
+                makeStringObjectMapType(treeMaker, round),
+                com.sun.tools.javac.util.List.nil(),
+                com.sun.tools.javac.util.List.of(instanceParam),
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Block(0, com.sun.tools.javac.util.List.of(treeMaker.Return(toMapCall))),
+                null
+        );
+    }
+
+    /**
+     * Builds {@code toMap(instance, target)}: one straight-line {@code target.put("x", instance.getX())} per
+     * field, returning {@code target} so callers can reuse a map across instances.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeFieldMapperToMapIntoMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
+    ) {
+        Supplier<com.sun.tools.javac.util.List<JCTree.JCVariableDecl>> params = () -> com.sun.tools.javac.util.List.of(
+                makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                makeParam(treeMaker, round, "target", makeStringObjectMapType(treeMaker, round))
+        );
+
+        return makeRangeSplitMethods(
+                treeMaker,
+                round,
+                "toMap",
+                () -> makeStringObjectMapType(treeMaker, round),
+                params,
+                params,
+                com.sun.tools.javac.util.List::nil,
+                fields.size(),
+                i -> {
+                    JCTree.JCExpression getterCall = makeGetterCall(treeMaker, round, options, treeMaker.Ident(round.name("instance")), fields.get(i));
+                    return com.sun.tools.javac.util.List.of(treeMaker.Exec(treeMaker.Apply(
+                            com.sun.tools.javac.util.List.nil(),
+                            treeMaker.Select(treeMaker.Ident(round.name("target")), round.name("put")),
+                            com.sun.tools.javac.util.List.of(treeMaker.Literal(fields.get(i).name()), getterCall)
+                    )));
+                },
+                () -> com.sun.tools.javac.util.List.of(treeMaker.Return(treeMaker.Ident(round.name("target"))))
+        );
+    }
+
+    /** Builds {@code toArray(instance)}: a fresh {@code Object[FIELD_COUNT]} in {@code FIELD_NAMES} order. */
+    private static JCTree.JCMethodDecl makeFieldMapperToArrayMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            JCTree.JCClassDecl outerClass
+    ) {
+        long mods = Flags.PUBLIC | Flags.STATIC;
+
+        JCTree.JCVariableDecl instanceParam = makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name));
+
+        JCTree.JCVariableDecl row = treeMaker.VarDef(
+                treeMaker.Modifiers(0),
+                round.name("row"),
+                makeObjectArrayType(treeMaker, round),
+                treeMaker.NewArray(
+                        round.qualifiedType("java.lang.Object"),
+                        com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("FIELD_COUNT"))),
+                        null
+                )
+        );
+        JCTree.JCStatement fill = treeMaker.Exec(treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Ident(round.name("toArray")),
+                com.sun.tools.javac.util.List.of(
+                        treeMaker.Ident(round.name("instance")),
+                        treeMaker.Ident(round.name("row")),
+                        treeMaker.Literal(0)
+                )
+        ));
+
+        return treeMaker.MethodDef(
+                treeMaker.Modifiers(mods),
+                round.name("toArray"),
+                makeObjectArrayType(treeMaker, round),
+                com.sun.tools.javac.util.List.nil(),
+                com.sun.tools.javac.util.List.of(instanceParam),
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Block(0, com.sun.tools.javac.util.List.of(row, fill, treeMaker.Return(treeMaker.Ident(round.name("row"))))),
+                null
+        );
+    }
+
+    /**
+     * Builds {@code toArray(instance, dst, offset)}: writes {@code FIELD_COUNT} slots starting at {@code offset}.
+     * The range is checked once up front, so a short array fails before anything is written.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeFieldMapperToArrayIntoMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
+    ) {
+        Supplier<com.sun.tools.javac.util.List<JCTree.JCVariableDecl>> params = () -> com.sun.tools.javac.util.List.of(
+                makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                makeParam(treeMaker, round, "dst", makeObjectArrayType(treeMaker, round)),
+                makeParam(treeMaker, round, "offset", treeMaker.TypeIdent(TypeTag.INT))
+        );
+
+        return makeRangeSplitMethods(
+                treeMaker,
+                round,
+                "toArray",
+                () -> treeMaker.TypeIdent(TypeTag.VOID),
+                params,
+                params,
+                () -> com.sun.tools.javac.util.List.of(makeArrayRangeCheck(treeMaker, round, "dst")),
+                fields.size(),
+                i -> {
+                    JCTree.JCExpression getterCall = makeGetterCall(treeMaker, round, options, treeMaker.Ident(round.name("instance")), fields.get(i));
+                    return com.sun.tools.javac.util.List.of(treeMaker.Exec(treeMaker.Assign(
+                            treeMaker.Indexed(treeMaker.Ident(round.name("dst")), makeOffsetIndex(treeMaker, round, i)),
+                            getterCall
+                    )));
+                },
+                com.sun.tools.javac.util.List::nil
+        );
+    }
+
+    /**
+     * Builds {@code fromArray(instance, src, offset)}: the inverse of {@code toArray}, applying each slot with the
+     * same cast and List semantics as {@code set(instance, String, Object)}. Slots are field values, so they bypass
+     * {@code Mapper} hooks.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeFieldMapperFromArrayMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
+    ) {
+        Supplier<com.sun.tools.javac.util.List<JCTree.JCVariableDecl>> params = () -> com.sun.tools.javac.util.List.of(
+                makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                makeParam(treeMaker, round, "src", makeObjectArrayType(treeMaker, round)),
+                makeParam(treeMaker, round, "offset", treeMaker.TypeIdent(TypeTag.INT))
+        );
+
+        return makeRangeSplitMethods(
+                treeMaker,
+                round,
+                "fromArray",
+                () -> treeMaker.TypeIdent(TypeTag.VOID),
+                params,
+                params,
+                () -> com.sun.tools.javac.util.List.of(makeArrayRangeCheck(treeMaker, round, "src")),
+                fields.size(),
+                i -> {
+                    // Scope each slot in its own block so every field can reuse the "value" local. The identifier
+                    // nodes must be fresh per block: javac stores the resolved symbol on the node itself.
+                    JCTree.JCExpression instanceIdent = treeMaker.Ident(round.name("instance"));
+                    JCTree.JCExpression valueIdent = treeMaker.Ident(round.name("value"));
+                    JCTree.JCVariableDecl value = treeMaker.VarDef(
+                            treeMaker.Modifiers(0),
+                            round.name("value"),
+                            round.qualifiedType("java.lang.Object"),
+                            treeMaker.Indexed(treeMaker.Ident(round.name("src")), makeOffsetIndex(treeMaker, round, i))
+                    );
+                    JCTree.JCStatement setStmt = makeStoreStatement(treeMaker, round, options, instanceIdent, valueIdent, fields.get(i));
+                    return com.sun.tools.javac.util.List.of(
+                            treeMaker.Block(0, withDirtyMark(treeMaker, round, options, instanceIdent, setStmt, fields.get(i), i,
+                                    fields.get(i).mapped() ? null : valueIdent).prepend(value))
+                    );
+                },
+                com.sun.tools.javac.util.List::nil
+        );
+    }
+
+    /** {@code java.util.Objects.checkFromIndexSize(offset, FIELD_COUNT, array.length);} */
+    private static JCTree.JCStatement makeArrayRangeCheck(TreeMaker treeMaker, InjectionRound round, String arrayName) {
+        return treeMaker.Exec(treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Select(round.qualifiedType("java.util.Objects"), round.name("checkFromIndexSize")),
+                com.sun.tools.javac.util.List.of(
+                        treeMaker.Ident(round.name("offset")),
+                        treeMaker.Ident(round.name("FIELD_COUNT")),
+                        treeMaker.Select(treeMaker.Ident(round.name(arrayName)), round.name("length"))
+                )
+        ));
+    }
+
+    private static JCTree.JCExpression makeOffsetIndex(TreeMaker treeMaker, InjectionRound round, int i) {
+        JCTree.JCExpression offsetIdent = treeMaker.Ident(round.name("offset"));
+        return i == 0 ? offsetIdent : treeMaker.Binary(JCTree.Tag.PLUS, offsetIdent, treeMaker.Literal(i));
+    }
+
+    /**
+     * Builds {@code setInt(instance, field, int value)} and friends: a String switch over the fields that can
+     * take the primitive without boxing (same type or lossless widening). Other known fields throw a type
+     * mismatch instead of "Unknown field", so callers can tell the two apart.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makePrimitiveSetMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields,
+            TypeKind kind
+    ) {
+        String kindName = kind.name().toLowerCase(Locale.ROOT);
+
+        List<NameCase> cases = new ArrayList<>();
+        List<String> mismatched = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel field = fields.get(i);
+            String fieldName = field.name();
+            if (field.mapped() || !widensLosslessly(kind, field.kind())) {
+                mismatched.add(fieldName);
+                continue;
+            }
+            int ordinal = i;
+            cases.add(new NameCase(List.of(fieldName), () -> {
+                JCTree.JCExpression instanceIdent = treeMaker.Ident(round.name("instance"));
+                JCTree.JCExpression valueIdent = treeMaker.Ident(round.name("value"));
+                JCTree.JCStatement setStmt = treeMaker.Exec(makeTypedSetterCall(treeMaker, round, options, instanceIdent, valueIdent, field));
+                return withDirtyMark(treeMaker, round, options, instanceIdent, setStmt, field, ordinal, null).append(treeMaker.Return(null));
+            }));
+        }
+        if (!mismatched.isEmpty()) {
+            cases.add(new NameCase(mismatched, () -> com.sun.tools.javac.util.List.of(
+                    makeTypeMismatchThrow(treeMaker, round, treeMaker.Ident(round.name("field")), " cannot be set from " + kindName)
+            )));
+        }
+
+        return makeNameDispatchMethods(
+                treeMaker,
+                round,
+                "set" + capitalize(kindName),
+                () -> treeMaker.TypeIdent(TypeTag.VOID),
+                () -> com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "field", treeMaker.Ident(round.name("String"))),
+                        makeParam(treeMaker, round, "value", treeMaker.TypeIdent(TypeTag.valueOf(kind.name())))
+                ),
+                cases,
+                () -> makeUnknownFieldWrite(treeMaker, round, options)
+        );
+    }
+
+    /**
+     * Builds {@code getInt(instance, field)} and friends: a String switch over the primitive fields whose type
+     * widens losslessly to the requested primitive, returning it without boxing.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makePrimitiveGetMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields,
+            TypeKind kind
+    ) {
+        String kindName = kind.name().toLowerCase(Locale.ROOT);
+
+        List<NameCase> cases = new ArrayList<>();
+        List<String> mismatched = new ArrayList<>();
+        for (FieldModel field : fields) {
+            String fieldName = field.name();
+            if (!widensLosslessly(field.kind(), kind)) {
+                mismatched.add(fieldName);
+                continue;
+            }
+            cases.add(new NameCase(List.of(fieldName), () -> com.sun.tools.javac.util.List.of(treeMaker.Return(
+                    makeGetterCall(treeMaker, round, options, treeMaker.Ident(round.name("instance")), field)
+            ))));
+        }
+        if (!mismatched.isEmpty()) {
+            cases.add(new NameCase(mismatched, () -> com.sun.tools.javac.util.List.of(
+                    makeTypeMismatchThrow(treeMaker, round, treeMaker.Ident(round.name("field")), " cannot be read as " + kindName)
+            )));
+        }
+
+        return makeNameDispatchMethods(
+                treeMaker,
+                round,
+                "get" + capitalize(kindName),
+                () -> treeMaker.TypeIdent(TypeTag.valueOf(kind.name())),
+                () -> com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "field", treeMaker.Ident(round.name("String")))
+                ),
+                cases,
+                () -> makeUnknownFieldThrow(treeMaker, round, treeMaker.Ident(round.name("field")))
+        );
+    }
+
+    /**
+     * Builds {@code setColumn(entities, ordinal, values)}, or {@code setLongColumn(entities, ordinal, long[] values)}
+     * and friends for a primitive {@code kind}, plus the by-name overloads that resolve {@code indexOf} once and
+     * forward. Each field's arm is a loop writing {@code values[i]} into the i-th entity: the Object version has the
+     * semantics of {@code set}, the primitive ones the widening rules of {@code setLong} and no boxing.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeSetColumnMethods(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields,
+            TypeKind kind
+    ) {
+        String methodName = "set" + (kind == null ? "" : capitalize(kind.name().toLowerCase(Locale.ROOT))) + "Column";
+        boolean[] accepted = new boolean[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            accepted[i] = kind == null || !fields.get(i).mapped() && widensLosslessly(kind, fields.get(i).kind());
+        }
+
+        IntFunction<com.sun.tools.javac.util.List<JCTree.JCStatement>> caseStats = i -> {
+            if (!accepted[i]) return null;
+            FieldModel field = fields.get(i);
+            return makeColumnLoop(treeMaker, round, outerClass, "values", () -> {
+                JCTree.JCExpression entityIdent = treeMaker.Ident(round.name("entity"));
+                JCTree.JCExpression element = treeMaker.Indexed(treeMaker.Ident(round.name("values")), treeMaker.Ident(round.name("i")));
+                if (kind != null) {
+                    JCTree.JCStatement setStmt = treeMaker.Exec(makeTypedSetterCall(treeMaker, round, options, entityIdent, element, field));
+                    return withDirtyMark(treeMaker, round, options, treeMaker.Ident(round.name("entity")), setStmt, field, i, null);
+                }
+                // The List arm reads the value more than once, so take it out of the array first.
+                JCTree.JCVariableDecl value = treeMaker.VarDef(
+                        treeMaker.Modifiers(0), round.name("value"), round.qualifiedType("java.lang.Object"), element);
+                JCTree.JCStatement setStmt = makeDynamicSetStatement(
+                        treeMaker, round, options, entityIdent, treeMaker.Ident(round.name("value")), field);
+                return withDirtyMark(treeMaker, round, options, treeMaker.Ident(round.name("entity")), setStmt, field, i,
+                        field.mapped() ? null : treeMaker.Ident(round.name("value"))).prepend(value);
+            });
+        };
+        String mismatch = kind == null ? null : " cannot be set from " + kind.name().toLowerCase(Locale.ROOT);
+        return makeColumnMethods(treeMaker, round, outerClass, methodName, "values", kind, fields.size(), caseStats, mismatch,
+                () -> makeUnknownFieldWrite(treeMaker, round, options));
+    }
+
+    /**
+     * Builds {@code getColumn(entities, ordinal, out)}, or {@code getLongColumn(entities, ordinal, long[] out)} and
+     * friends, plus their by-name overloads: each field's arm is a loop storing the i-th entity's value in
+     * {@code out[i]}.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeGetColumnMethods(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields,
+            TypeKind kind
+    ) {
+        String methodName = "get" + (kind == null ? "" : capitalize(kind.name().toLowerCase(Locale.ROOT))) + "Column";
+
+        IntFunction<com.sun.tools.javac.util.List<JCTree.JCStatement>> caseStats = i -> {
+            FieldModel field = fields.get(i);
+            if (kind != null && !widensLosslessly(field.kind(), kind)) return null;
+            return makeColumnLoop(treeMaker, round, outerClass, "out", () -> com.sun.tools.javac.util.List.of(treeMaker.Exec(treeMaker.Assign(
+                    treeMaker.Indexed(treeMaker.Ident(round.name("out")), treeMaker.Ident(round.name("i"))),
+                    makeGetterCall(treeMaker, round, options, treeMaker.Ident(round.name("entity")), field)
+            ))));
+        };
+        String mismatch = kind == null ? null : " cannot be read as " + kind.name().toLowerCase(Locale.ROOT);
+        return makeColumnMethods(treeMaker, round, outerClass, methodName, "out", kind, fields.size(), caseStats, mismatch,
+                () -> makeUnknownFieldThrow(treeMaker, round, treeMaker.Ident(round.name("field"))));
+    }
+
+    /**
+     * The ordinal-dispatched column method and its by-name overload:
+     * <pre>
+     * public static void methodName(List&lt;? extends Entity&gt; entities, String field, T[] array) {
+     *     int ordinal = indexOf(field);
+     *     if (ordinal &lt; 0) throw new IllegalArgumentException("Unknown field: " + field);
+     *     methodName(entities, ordinal, array);
+     * }
+     * </pre>
+     * Ordinals whose {@code caseStats} are {@code null} have no arm of their own; they reach the fallback, which
+     * reports them with {@code mismatchSuffix}. {@code unknownField} replaces the by-name overload's throw.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeColumnMethods(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            JCTree.JCClassDecl outerClass,
+            String methodName,
+            String arrayName,
+            TypeKind kind,
+            int count,
+            IntFunction<com.sun.tools.javac.util.List<JCTree.JCStatement>> caseStats,
+            String mismatchSuffix,
+            Supplier<JCTree.JCStatement> unknownField
+    ) {
+        com.sun.tools.javac.util.List<JCTree> byOrdinal = makeOrdinalDispatchMethods(
+                treeMaker,
+                round,
+                methodName,
+                () -> treeMaker.TypeIdent(TypeTag.VOID),
+                () -> com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "entities", makeEntityListType(treeMaker, round, outerClass)),
+                        makeParam(treeMaker, round, "ordinal", treeMaker.TypeIdent(TypeTag.INT)),
+                        makeParam(treeMaker, round, arrayName, makeColumnArrayType(treeMaker, round, kind))
+                ),
+                count,
+                caseStats,
+                () -> {
+                    JCTree.JCStatement unknown = makeUnknownOrdinalThrow(treeMaker, round, treeMaker.Ident(round.name("ordinal")));
+                    if (mismatchSuffix == null) return unknown;
+                    JCTree.JCExpression inRange = treeMaker.Binary(
+                            JCTree.Tag.AND,
+                            treeMaker.Binary(JCTree.Tag.GE, treeMaker.Ident(round.name("ordinal")), treeMaker.Literal(0)),
+                            treeMaker.Binary(JCTree.Tag.LT, treeMaker.Ident(round.name("ordinal")), treeMaker.Ident(round.name("FIELD_COUNT")))
+                    );
+                    JCTree.JCExpression fieldName = treeMaker.Indexed(treeMaker.Ident(round.name("FIELD_NAMES")), treeMaker.Ident(round.name("ordinal")));
+                    return treeMaker.Block(0, com.sun.tools.javac.util.List.of(
+                            treeMaker.If(inRange, makeTypeMismatchThrow(treeMaker, round, fieldName, mismatchSuffix), null),
+                            unknown
+                    ));
+                }
+        );
+
+        JCTree.JCVariableDecl ordinal = treeMaker.VarDef(
+                treeMaker.Modifiers(0),
+                round.name("ordinal"),
+                treeMaker.TypeIdent(TypeTag.INT),
+                treeMaker.Apply(
+                        com.sun.tools.javac.util.List.nil(),
+                        treeMaker.Ident(round.name("indexOf")),
+                        com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("field")))
+                )
+        );
+        JCTree.JCStatement unknownCheck = treeMaker.If(
+                treeMaker.Binary(JCTree.Tag.LT, treeMaker.Ident(round.name("ordinal")), treeMaker.Literal(0)),
+                unknownField.get(),
+                null
+        );
+        JCTree.JCStatement forward = treeMaker.Exec(treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Ident(round.name(methodName)),
+                com.sun.tools.javac.util.List.of(
+                        treeMaker.Ident(round.name("entities")),
+                        treeMaker.Ident(round.name("ordinal")),
+                        treeMaker.Ident(round.name(arrayName))
+                )
+        ));
+        JCTree.JCMethodDecl byName = makeStaticMethod(treeMaker, round, Flags.PUBLIC, methodName, treeMaker.TypeIdent(TypeTag.VOID),
+                com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "entities", makeEntityListType(treeMaker, round, outerClass)),
+                        makeParam(treeMaker, round, "field", treeMaker.Ident(round.name("String"))),
+                        makeParam(treeMaker, round, arrayName, makeColumnArrayType(treeMaker, round, kind))
+                ),
+                com.sun.tools.javac.util.List.of(ordinal, unknownCheck, forward)
+        );
+        return byOrdinal.prepend(byName);
+    }
+
+    /**
+     * <pre>
+     * {
+     *     Objects.checkFromIndexSize(0, entities.size(), array.length);
+     *     int i = 0;
+     *     for (Entity entity : entities) { body; ++i; }
+     * }
+     * return;
+     * </pre>
+     * Iterating (rather than {@code get(i)}) keeps linked lists linear.
+     */
+    private static com.sun.tools.javac.util.List<JCTree.JCStatement> makeColumnLoop(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            JCTree.JCClassDecl outerClass,
+            String arrayName,
+            Supplier<com.sun.tools.javac.util.List<JCTree.JCStatement>> body
+    ) {
+        JCTree.JCStatement rangeCheck = treeMaker.Exec(treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Select(round.qualifiedType("java.util.Objects"), round.name("checkFromIndexSize")),
+                com.sun.tools.javac.util.List.of(
+                        treeMaker.Literal(0),
+                        makeNoArgCall(treeMaker, round, treeMaker.Ident(round.name("entities")), "size"),
+                        treeMaker.Select(treeMaker.Ident(round.name(arrayName)), round.name("length"))
+                )
+        ));
+        JCTree.JCVariableDecl counter = treeMaker.VarDef(
+                treeMaker.Modifiers(0), round.name("i"), treeMaker.TypeIdent(TypeTag.INT), treeMaker.Literal(0));
+        JCTree.JCVariableDecl entityVar = treeMaker.VarDef(
+                treeMaker.Modifiers(0), round.name("entity"), treeMaker.Ident(outerClass.name), null);
+        JCTree.JCStatement increment = treeMaker.Exec(treeMaker.Unary(JCTree.Tag.PREINC, treeMaker.Ident(round.name("i"))));
+        JCTree.JCStatement loop = treeMaker.ForeachLoop(
+                entityVar,
+                treeMaker.Ident(round.name("entities")),
+                treeMaker.Block(0, body.get().append(increment))
+        );
+        // Braced, since switch arms share one scope and every arm declares i and entity.
+        return com.sun.tools.javac.util.List.of(
+                treeMaker.Block(0, com.sun.tools.javac.util.List.of(rangeCheck, counter, loop)),
+                treeMaker.Return(null)
+        );
+    }
+
+    /**
+     * Builds {@code readColumn(rs, target, ordinal, column)}: reads column {@code column} of the current row with the
+     * getter of field {@code ordinal}'s type and stores it through the typed setter. Primitives and wrappers use the
+     * primitive getters ({@code wasNull()} mapping SQL NULL to {@code null} for wrappers), enums are read by name,
+     * other declared types with {@code getObject(column, Type.class)}; {@code List} fields get {@code set}'s
+     * semantics. Does not mark fields dirty and bypasses {@code Mapper} hooks: the row is the persisted state.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeReadColumnMethod(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
+    ) {
+        com.sun.tools.javac.util.List<JCTree> methods = makeOrdinalDispatchMethods(
+                treeMaker,
+                round,
+                "readColumn",
+                () -> treeMaker.TypeIdent(TypeTag.VOID),
+                () -> com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "rs", round.qualifiedType("java.sql.ResultSet")),
+                        makeParam(treeMaker, round, "target", treeMaker.Ident(outerClass.name)),
+                        makeParam(treeMaker, round, "ordinal", treeMaker.TypeIdent(TypeTag.INT)),
+                        makeParam(treeMaker, round, "column", treeMaker.TypeIdent(TypeTag.INT))
+                ),
+                fields.size(),
+                i -> com.sun.tools.javac.util.List.of(
+                        // Braced, since switch arms share one scope and several declare locals.
+                        treeMaker.Block(0, makeReadColumnStatements(treeMaker, round, options, fields.get(i))),
+                        treeMaker.Return(null)
+                ),
+                () -> makeUnknownOrdinalThrow(treeMaker, round, treeMaker.Ident(round.name("ordinal")))
+        );
+        for (JCTree method : methods) {
+            ((JCTree.JCMethodDecl) method).thrown = com.sun.tools.javac.util.List.of(round.qualifiedType("java.sql.SQLException"));
+        }
+        return methods;
+    }
+
+    private static com.sun.tools.javac.util.List<JCTree.JCStatement> makeReadColumnStatements(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            FieldModel field
+    ) {
+        JCTree.JCExpression target = treeMaker.Ident(round.name("target"));
+        TypeKind kind = field.kind();
+        if (kind.isPrimitive() && kind != TypeKind.CHAR) {
+            JCTree.JCExpression value = makeResultSetCall(treeMaker, round, RESULT_SET_PRIMITIVE_GETTERS.get(kind));
+            return com.sun.tools.javac.util.List.of(treeMaker.Exec(makeTypedSetterCall(treeMaker, round, options, target, value, field)));
+        }
+        if (kind == TypeKind.CHAR || "java.lang.Character".equals(field.erasedTypeName())) {
+            // text == null || text.isEmpty() ? '\0' (null when boxed) : text.charAt(0)
+            JCTree.JCVariableDecl text = treeMaker.VarDef(
+                    treeMaker.Modifiers(0), round.name("text"), round.qualifiedType("java.lang.String"), makeResultSetCall(treeMaker, round, "getString"));
+            JCTree.JCExpression absent = treeMaker.Binary(
+                    JCTree.Tag.OR,
+                    treeMaker.Binary(JCTree.Tag.EQ, treeMaker.Ident(round.name("text")), treeMaker.Literal(TypeTag.BOT, null)),
+                    makeNoArgCall(treeMaker, round, treeMaker.Ident(round.name("text")), "isEmpty")
+            );
+            JCTree.JCExpression first = treeMaker.Apply(
+                    com.sun.tools.javac.util.List.nil(),
+                    treeMaker.Select(treeMaker.Ident(round.name("text")), round.name("charAt")),
+                    com.sun.tools.javac.util.List.of(treeMaker.Literal(0))
+            );
+            JCTree.JCExpression value = kind == TypeKind.CHAR
+                    ? treeMaker.Conditional(absent, treeMaker.Literal(TypeTag.CHAR, (int) '\0'), first)
+                    : treeMaker.Conditional(absent, treeMaker.Literal(TypeTag.BOT, null), makeBoxing(treeMaker, round, "java.lang.Character", first));
+            return com.sun.tools.javac.util.List.of(text, treeMaker.Exec(makeTypedSetterCall(treeMaker, round, options, target, value, field)));
+        }
+        TypeKind boxed = BOXED_KINDS.get(field.erasedTypeName());
+        if (boxed != null) {
+            // value = rs.getInt(column); set(rs.wasNull() ? null : Integer.valueOf(value))
+            JCTree.JCVariableDecl value = treeMaker.VarDef(
+                    treeMaker.Modifiers(0),
+                    round.name("value"),
+                    treeMaker.TypeIdent(TypeTag.valueOf(boxed.name())),
+                    makeResultSetCall(treeMaker, round, RESULT_SET_PRIMITIVE_GETTERS.get(boxed))
+            );
+            JCTree.JCExpression wasNull = treeMaker.Apply(
+                    com.sun.tools.javac.util.List.nil(),
+                    treeMaker.Select(treeMaker.Ident(round.name("rs")), round.name("wasNull")),
+                    com.sun.tools.javac.util.List.nil()
+            );
+            JCTree.JCExpression nullable = treeMaker.Conditional(
+                    wasNull,
+                    treeMaker.Literal(TypeTag.BOT, null),
+                    makeBoxing(treeMaker, round, field.erasedTypeName(), treeMaker.Ident(round.name("value")))
+            );
+            return com.sun.tools.javac.util.List.of(value, treeMaker.Exec(makeTypedSetterCall(treeMaker, round, options, target, nullable, field)));
+        }
+        String getter = RESULT_SET_REFERENCE_GETTERS.get(field.erasedTypeName());
+        if (getter != null) {
+            return com.sun.tools.javac.util.List.of(treeMaker.Exec(makeTypedSetterCall(
+                    treeMaker, round, options, target, makeResultSetCall(treeMaker, round, getter), field)));
+        }
+        if (!field.list() && field.erasedType() instanceof DeclaredType declared) {
+            JCTree.JCExpression value;
+            if (declared.asElement().getKind() == ElementKind.ENUM) {
+                // text == null ? null : Type.valueOf(text)
+                JCTree.JCVariableDecl text = treeMaker.VarDef(
+                        treeMaker.Modifiers(0), round.name("text"), round.qualifiedType("java.lang.String"), makeResultSetCall(treeMaker, round, "getString"));
+                value = treeMaker.Conditional(
+                        treeMaker.Binary(JCTree.Tag.EQ, treeMaker.Ident(round.name("text")), treeMaker.Literal(TypeTag.BOT, null)),
+                        treeMaker.Literal(TypeTag.BOT, null),
+                        treeMaker.Apply(
+                                com.sun.tools.javac.util.List.nil(),
+                                treeMaker.Select(round.qualifiedType(field.erasedTypeName()), round.name("valueOf")),
+                                com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("text")))
+                        )
+                );
+                return com.sun.tools.javac.util.List.of(text, treeMaker.Exec(makeTypedSetterCall(treeMaker, round, options, target, value, field)));
+            }
+            value = makeResultSetCall(treeMaker, round, "getObject",
+                    treeMaker.Select(round.qualifiedType(field.erasedTypeName()), round.name("class")));
+            return com.sun.tools.javac.util.List.of(treeMaker.Exec(makeTypedSetterCall(treeMaker, round, options, target, value, field)));
+        }
+        JCTree.JCVariableDecl value = treeMaker.VarDef(
+                treeMaker.Modifiers(0), round.name("value"), round.qualifiedType("java.lang.Object"), makeResultSetCall(treeMaker, round, "getObject"));
+        return com.sun.tools.javac.util.List.of(
+                value,
+                makeStoreStatement(treeMaker, round, options, target, treeMaker.Ident(round.name("value")), field)
+        );
+    }
+
+    /** {@code rs.getter(column, extraArgs...)} */
+    private static JCTree.JCExpression makeResultSetCall(TreeMaker treeMaker, InjectionRound round, String getter, JCTree.JCExpression... extraArgs) {
+        return treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Select(treeMaker.Ident(round.name("rs")), round.name(getter)),
+                com.sun.tools.javac.util.List.<JCTree.JCExpression>of(treeMaker.Ident(round.name("column"))).appendList(com.sun.tools.javac.util.List.from(extraArgs))
+        );
+    }
+
+    /** {@code Wrapper.valueOf(value)}, so that {@code cond ? null : value} never unboxes. */
+    private static JCTree.JCExpression makeBoxing(TreeMaker treeMaker, InjectionRound round, String wrapperName, JCTree.JCExpression value) {
+        return treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Select(round.qualifiedType(wrapperName), round.name("valueOf")),
+                com.sun.tools.javac.util.List.of(value)
+        );
+    }
+
+    /**
+     * <pre>
+     * public static RowReader&lt;Entity&gt; rowReader(ResultSetMetaData metaData) throws SQLException {
+     *     return new RowReader&lt;Entity&gt;(metaData, FIELD_NAMES) {
+     *         public void read(ResultSet rs, Entity target) throws SQLException {
+     *             for (int i = 0; i &lt; ordinals.length; i++) FieldMapper.readColumn(rs, target, ordinals[i], columns[i]);
+     *         }
+     *     };
+     * }
+     * </pre>
+     * Each entity gets its own subclass, so the {@code readColumn} call site stays monomorphic.
+     */
+    private static JCTree.JCMethodDecl makeRowReaderMethod(TreeMaker treeMaker, InjectionRound round, JCTree.JCClassDecl outerClass) {
+        Supplier<JCTree.JCExpression> readerType = () -> treeMaker.TypeApply(
+                round.qualifiedType("dev.w0fv1.mapper.RowReader"),
+                com.sun.tools.javac.util.List.of(treeMaker.Ident(outerClass.name))
+        );
+        JCTree.JCStatement readCall = treeMaker.Exec(makeMapperCall(treeMaker, round, "readColumn", com.sun.tools.javac.util.List.of(
+                treeMaker.Ident(round.name("rs")),
+                treeMaker.Ident(round.name("target")),
+                treeMaker.Indexed(treeMaker.Ident(round.name("ordinals")), treeMaker.Ident(round.name("i"))),
+                treeMaker.Indexed(treeMaker.Ident(round.name("columns")), treeMaker.Ident(round.name("i")))
+        )));
+        JCTree.JCStatement loop = treeMaker.ForLoop(
+                com.sun.tools.javac.util.List.of(treeMaker.VarDef(
+                        treeMaker.Modifiers(0), round.name("i"), treeMaker.TypeIdent(TypeTag.INT), treeMaker.Literal(0))),
+                treeMaker.Binary(
+                        JCTree.Tag.LT,
+                        treeMaker.Ident(round.name("i")),
+                        treeMaker.Select(treeMaker.Ident(round.name("ordinals")), round.name("length"))
+                ),
+                com.sun.tools.javac.util.List.of(treeMaker.Exec(treeMaker.Unary(JCTree.Tag.PREINC, treeMaker.Ident(round.name("i"))))),
+                readCall
+        );
+        JCTree.JCMethodDecl read = makeInstanceMethod(
+                treeMaker,
+                round,
+                "read",
+                treeMaker.TypeIdent(TypeTag.VOID),
+                com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "rs", round.qualifiedType("java.sql.ResultSet")),
+                        makeParam(treeMaker, round, "target", treeMaker.Ident(outerClass.name))
+                ),
+                com.sun.tools.javac.util.List.of(loop)
+        );
+        read.thrown = com.sun.tools.javac.util.List.of(round.qualifiedType("java.sql.SQLException"));
+
+        JCTree.JCExpression newReader = treeMaker.NewClass(
+                null,
+                com.sun.tools.javac.util.List.nil(),
+                readerType.get(),
+                com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("metaData")), treeMaker.Ident(round.name("FIELD_NAMES"))),
+                treeMaker.AnonymousClassDef(treeMaker.Modifiers(0), com.sun.tools.javac.util.List.of(read))
+        );
+        JCTree.JCMethodDecl method = makeStaticMethod(
+                treeMaker,
+                round,
+                Flags.PUBLIC,
+                "rowReader",
+                readerType.get(),
+                com.sun.tools.javac.util.List.of(makeParam(treeMaker, round, "metaData", round.qualifiedType("java.sql.ResultSetMetaData"))),
+                com.sun.tools.javac.util.List.of(treeMaker.Return(newReader))
+        );
+        method.thrown = com.sun.tools.javac.util.List.of(round.qualifiedType("java.sql.SQLException"));
+        return method;
+    }
+
+    /** {@code private static final JsonWriter.Names fmapper$jsonNames = new JsonWriter.Names(FIELD_NAMES);} */
+    private static JCTree.JCVariableDecl makeJsonNamesConstant(TreeMaker treeMaker, InjectionRound round) {
+        return treeMaker.VarDef(
+                treeMaker.Modifiers(Flags.PRIVATE | Flags.STATIC | Flags.FINAL),
+                round.name(JSON_NAMES),
+                round.qualifiedType("dev.w0fv1.mapper.JsonWriter.Names"),
+                treeMaker.NewClass(
+                        null,
+                        com.sun.tools.javac.util.List.nil(),
+                        round.qualifiedType("dev.w0fv1.mapper.JsonWriter.Names"),
+                        com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("FIELD_NAMES"))),
+                        null
+                )
+        );
+    }
+
+    /**
+     * Builds the JSON methods over {@code JsonWriter} and {@code JsonReader}:
+     * <pre>
+     * public static void writeJson(Entity instance, JsonWriter out)    // {"field":value,...}, declaration order
+     * public static void writeJson(Entity instance, Appendable out)
+     * public static void writeJson(Entity instance, ByteBuffer out)    // UTF-8
+     * public static byte[] toJsonBytes(Entity instance)                // UTF-8
+     * public static void readJson(CharSequence json, Entity instance)  // one object, nothing after it
+     * public static void readJson(JsonReader in, Entity instance)
+     * public static void readJson(JsonReader in, Entity instance, int ordinal)
+     * </pre>
+     * Each field is written with the {@code JsonWriter} overload of its static type after its pre-escaped name, and
+     * read with the {@code JsonReader.nextXxx} for its type straight into the typed setter; member names are resolved
+     * with {@code indexOf}, and members that are not fields are skipped. Like {@code fromArray}, reading stores field
+     * values, so it bypasses {@code Mapper} hooks and marks fields dirty.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeJsonMethods(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
+    ) {
+        ListBuffer<JCTree> defs = new ListBuffer<>();
+        Supplier<JCTree.JCVariableDecl> instanceParam = () -> makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name));
+        Supplier<JCTree.JCVariableDecl> inParam = () -> makeParam(treeMaker, round, "in", round.qualifiedType("dev.w0fv1.mapper.JsonReader"));
+        Supplier<com.sun.tools.javac.util.List<JCTree.JCVariableDecl>> writeParams = () -> com.sun.tools.javac.util.List.of(
+                instanceParam.get(),
+                makeParam(treeMaker, round, "out", round.qualifiedType("dev.w0fv1.mapper.JsonWriter"))
+        );
+
+        defs.appendList(makeRangeSplitMethods(
+                treeMaker,
+                round,
+                "writeJson",
+                () -> treeMaker.TypeIdent(TypeTag.VOID),
+                writeParams,
+                writeParams,
+                () -> com.sun.tools.javac.util.List.of(treeMaker.Exec(makeCall(treeMaker, round, "out", "beginObject"))),
+                fields.size(),
+                i -> com.sun.tools.javac.util.List.of(
+                        treeMaker.Exec(makeCall(treeMaker, round, "out", "name", treeMaker.Ident(round.name(JSON_NAMES)), treeMaker.Literal(i))),
+                        treeMaker.Exec(makeJsonWrite(treeMaker, round, options, fields.get(i)))
+                ),
+                () -> com.sun.tools.javac.util.List.of(treeMaker.Exec(makeCall(treeMaker, round, "out", "endObject")))
+        ));
+        for (String sink : List.of("java.lang.Appendable", "java.nio.ByteBuffer")) {
+            // writeJson(instance, JsonWriter.of(out))
+            JCTree.JCExpression writer = treeMaker.Apply(
+                    com.sun.tools.javac.util.List.nil(),
+                    treeMaker.Select(round.qualifiedType("dev.w0fv1.mapper.JsonWriter"), round.name("of")),
+                    com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("out")))
+            );
+            defs.append(makeStaticMethod(treeMaker, round, Flags.PUBLIC, "writeJson", treeMaker.TypeIdent(TypeTag.VOID),
+                    com.sun.tools.javac.util.List.of(instanceParam.get(), makeParam(treeMaker, round, "out", round.qualifiedType(sink))),
+                    com.sun.tools.javac.util.List.of(treeMaker.Exec(makeCall(treeMaker, round, null, "writeJson",
+                            treeMaker.Ident(round.name("instance")), writer)))
+            ));
+        }
+        // JsonWriter out = JsonWriter.bytes(); writeJson(instance, out); return out.toByteArray();
+        defs.append(makeStaticMethod(treeMaker, round, Flags.PUBLIC, "toJsonBytes", treeMaker.TypeArray(treeMaker.TypeIdent(TypeTag.BYTE)),
+                com.sun.tools.javac.util.List.of(instanceParam.get()),
+                com.sun.tools.javac.util.List.of(
+                        treeMaker.VarDef(
+                                treeMaker.Modifiers(0),
+                                round.name("out"),
+                                round.qualifiedType("dev.w0fv1.mapper.JsonWriter"),
+                                makeNoArgCall(treeMaker, round, round.qualifiedType("dev.w0fv1.mapper.JsonWriter"), "bytes")
+                        ),
+                        treeMaker.Exec(makeCall(treeMaker, round, null, "writeJson",
+                                treeMaker.Ident(round.name("instance")), treeMaker.Ident(round.name("out")))),
+                        treeMaker.Return(makeCall(treeMaker, round, "out", "toByteArray"))
+                )
+        ));
+
+        // JsonReader in = new JsonReader(json); readJson(in, instance); in.end();
+        defs.append(makeStaticMethod(treeMaker, round, Flags.PUBLIC, "readJson", treeMaker.TypeIdent(TypeTag.VOID),
+                com.sun.tools.javac.util.List.of(
+                        makeParam(treeMaker, round, "json", round.qualifiedType("java.lang.CharSequence")),
+                        instanceParam.get()
+                ),
+                com.sun.tools.javac.util.List.of(
+                        treeMaker.VarDef(
+                                treeMaker.Modifiers(0),
+                                round.name("in"),
+                                round.qualifiedType("dev.w0fv1.mapper.JsonReader"),
+                                treeMaker.NewClass(
+                                        null,
+                                        com.sun.tools.javac.util.List.nil(),
+                                        round.qualifiedType("dev.w0fv1.mapper.JsonReader"),
+                                        com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("json"))),
+                                        null
+                                )
+                        ),
+                        treeMaker.Exec(makeCall(treeMaker, round, null, "readJson",
+                                treeMaker.Ident(round.name("in")), treeMaker.Ident(round.name("instance")))),
+                        treeMaker.Exec(makeCall(treeMaker, round, "in", "end"))
+                )
+        ));
+
+        // in.beginObject();
+        // while (in.hasNext()) {
+        //     int ordinal = indexOf(in.nextName());
+        //     if (ordinal < 0) in.skipValue(); else readJson(in, instance, ordinal);
+        // }
+        // in.endObject();
+        JCTree.JCStatement member = treeMaker.Block(0, com.sun.tools.javac.util.List.of(
+                treeMaker.VarDef(
+                        treeMaker.Modifiers(0),
+                        round.name("ordinal"),
+                        treeMaker.TypeIdent(TypeTag.INT),
+                        makeCall(treeMaker, round, null, "indexOf", makeCall(treeMaker, round, "in", "nextName"))
+                ),
+                treeMaker.If(
+                        treeMaker.Binary(JCTree.Tag.LT, treeMaker.Ident(round.name("ordinal")), treeMaker.Literal(0)),
+                        treeMaker.Exec(makeCall(treeMaker, round, "in", "skipValue")),
+                        treeMaker.Exec(makeCall(treeMaker, round, null, "readJson",
+                                treeMaker.Ident(round.name("in")), treeMaker.Ident(round.name("instance")), treeMaker.Ident(round.name("ordinal"))))
+                )
+        ));
+        defs.append(makeStaticMethod(treeMaker, round, Flags.PUBLIC, "readJson", treeMaker.TypeIdent(TypeTag.VOID),
+                com.sun.tools.javac.util.List.of(inParam.get(), instanceParam.get()),
+                com.sun.tools.javac.util.List.of(
+                        treeMaker.Exec(makeCall(treeMaker, round, "in", "beginObject")),
+                        treeMaker.WhileLoop(makeCall(treeMaker, round, "in", "hasNext"), member),
+                        treeMaker.Exec(makeCall(treeMaker, round, "in", "endObject"))
+                )
+        ));
+
+        defs.appendList(makeOrdinalDispatchMethods(
+                treeMaker,
+                round,
+                "readJson",
+                () -> treeMaker.TypeIdent(TypeTag.VOID),
+                () -> com.sun.tools.javac.util.List.of(
+                        inParam.get(),
+                        instanceParam.get(),
+                        makeParam(treeMaker, round, "ordinal", treeMaker.TypeIdent(TypeTag.INT))
+                ),
+                fields.size(),
+                i -> com.sun.tools.javac.util.List.of(
+                        // Braced, since switch arms share one scope and some declare a local.
+                        treeMaker.Block(0, makeJsonReadStatements(treeMaker, round, options, fields.get(i), i)),
+                        treeMaker.Return(null)
+                ),
+                () -> makeUnknownOrdinalThrow(treeMaker, round, treeMaker.Ident(round.name("ordinal")))
+        ));
+        return defs.toList();
+    }
+
+    /**
+     * The write of one field's value after its name: {@code out.object(value, Type.FieldMapper.INSTANCE)} for a
+     * mapped type, {@code out.list(value, Element.FieldMapper.INSTANCE)} for a list of one, else
+     * {@code out.value(value)}, which javac binds to the overload of the field's static type.
+     */
+    private static JCTree.JCExpression makeJsonWrite(TreeMaker treeMaker, InjectionRound round, InjectorOptions options, FieldModel field) {
+        JCTree.JCExpression value = makeGetterCall(treeMaker, round, options, treeMaker.Ident(round.name("instance")), field);
+        if (!field.list() && round.hasFieldMapper(field.erasedType())) {
+            return makeCall(treeMaker, round, "out", "object", value,
+                    round.qualifiedType(field.erasedTypeName() + ".FieldMapper.INSTANCE"));
+        }
+        DeclaredType element = listElementType(field);
+        if (element != null && round.hasFieldMapper(element)) {
+            return makeCall(treeMaker, round, "out", "list", value,
+                    round.qualifiedType(qualifiedName(element) + ".FieldMapper.INSTANCE"));
+        }
+        return makeCall(treeMaker, round, "out", "value", value);
+    }
+
+    /**
+     * Reads one field's value and stores it, marking it dirty. Primitives use their
+     * {@code nextXxx()}, wrappers the same behind {@code nextNull()}, enums {@code nextEnum}, the types
+     * {@code Coercions} converts to its method over {@code nextScalar()}, mapped types {@code nextObject}. Lists of
+     * those element types use {@code nextList}; anything else is {@code nextValue()}'s plain objects, stored with
+     * {@code set}'s cast and List semantics. A JSON {@code null} goes through {@link #makeNullStore}, as in
+     * {@code readFrom}.
+     */
+    private static com.sun.tools.javac.util.List<JCTree.JCStatement> makeJsonReadStatements(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            FieldModel field,
+            int ordinal
+    ) {
+        JCTree.JCExpression instanceIdent = treeMaker.Ident(round.name("instance"));
+        String typeName = field.erasedTypeName();
+        TypeKind kind = field.kind();
+        TypeKind boxed = BOXED_KINDS.get(typeName);
+        JCTree.JCExpression value = null;
+        if (kind.isPrimitive()) {
+            value = makeCall(treeMaker, round, "in", "next" + capitalize(kind.name().toLowerCase(Locale.ROOT)));
+        } else if (boxed != null) {
+            // in.nextNull() ? null : Integer.valueOf(in.nextInt())
+            value = treeMaker.Conditional(
+                    makeCall(treeMaker, round, "in", "nextNull"),
+                    treeMaker.Literal(TypeTag.BOT, null),
+                    makeBoxing(treeMaker, round, typeName, makeCall(treeMaker, round, "in", "next" + capitalize(boxed.name().toLowerCase(Locale.ROOT))))
+            );
+        } else if (typeName.equals("java.lang.String")) {
+            value = makeCall(treeMaker, round, "in", "nextString");
+        } else if (typeName.equals("byte[]")) {
+            value = makeCall(treeMaker, round, "in", "nextBytes");
+        } else if (COERCIONS.containsKey(typeName)) {
+            value = treeMaker.Apply(
+                    com.sun.tools.javac.util.List.nil(),
+                    treeMaker.Select(round.qualifiedType("dev.w0fv1.mapper.Coercions"), round.name(COERCIONS.get(typeName))),
+                    com.sun.tools.javac.util.List.of(makeCall(treeMaker, round, "in", "nextScalar"))
+            );
+        } else if (!field.list() && isEnum(field.erasedType())) {
+            value = makeCall(treeMaker, round, "in", "nextEnum", treeMaker.Select(round.qualifiedType(typeName), round.name("class")));
+        } else if (!field.list() && round.hasFieldMapper(field.erasedType())) {
+            value = makeCall(treeMaker, round, "in", "nextObject", round.qualifiedType(typeName + ".FieldMapper.INSTANCE"));
+        }
+        if (value != null) {
+            JCTree.JCStatement store = treeMaker.Exec(makeTypedSetterCall(treeMaker, round, options, instanceIdent, value, field));
+            return withDirtyMark(treeMaker, round, options, treeMaker.Ident(round.name("instance")), store, field, ordinal, null);
+        }
+
+        DeclaredType element = listElementType(field);
+        JCTree.JCExpression read;
+        if (element != null && round.hasFieldMapper(element)) {
+            read = makeCall(treeMaker, round, "in", "nextList", round.qualifiedType(qualifiedName(element) + ".FieldMapper.INSTANCE"));
+        } else if (element != null && isJsonListElement(element)) {
+            read = makeCall(treeMaker, round, "in", "nextList", treeMaker.Select(round.qualifiedType(qualifiedName(element)), round.name("class")));
+        } else {
+            read = makeCall(treeMaker, round, "in", "nextValue");
+        }
+        // { Object value = in.nextNull() ? null : read; if (value == null) store null; else store value }
+        JCTree.JCVariableDecl local = treeMaker.VarDef(treeMaker.Modifiers(0), round.name("value"), round.qualifiedType("java.lang.Object"),
+                treeMaker.Conditional(makeCall(treeMaker, round, "in", "nextNull"), treeMaker.Literal(TypeTag.BOT, null), read));
+        JCTree.JCStatement store = treeMaker.If(
+                treeMaker.Binary(JCTree.Tag.EQ, treeMaker.Ident(round.name("value")), treeMaker.Literal(TypeTag.BOT, null)),
+                makeNullStore(treeMaker, round, options, field),
+                makeStoreStatement(treeMaker, round, options, instanceIdent, treeMaker.Ident(round.name("value")), field)
+        );
+        return com.sun.tools.javac.util.List.of(treeMaker.Block(0, withDirtyMark(treeMaker, round, options,
+                treeMaker.Ident(round.name("instance")), store, field, ordinal,
+                field.mapped() ? null : treeMaker.Ident(round.name("value"))).prepend(local)));
+    }
+
+    /** The element type of a {@code List<Element>} field whose argument is a plain class, otherwise {@code null}. */
+    private static DeclaredType listElementType(FieldModel field) {
+        if (!field.list() || !(field.type() instanceof DeclaredType list) || list.getTypeArguments().size() != 1) return null;
+        return list.getTypeArguments().get(0) instanceof DeclaredType element && element.getTypeArguments().isEmpty() ? element : null;
+    }
+
+    /** Whether {@code JsonReader.nextList(Class)} reads elements of this type. */
+    private static boolean isJsonListElement(DeclaredType element) {
+        String name = qualifiedName(element);
+        return isEnum(element) || BOXED_KINDS.containsKey(name) || COERCIONS.containsKey(name) || name.equals("java.lang.Object");
+    }
+
+    private static boolean isEnum(TypeMirror type) {
+        return type instanceof DeclaredType declared && declared.asElement().getKind() == ElementKind.ENUM;
+    }
+
+    private static String qualifiedName(DeclaredType type) {
+        return ((TypeElement) type.asElement()).getQualifiedName().toString();
+    }
+
+    /** {@code receiver.method(args)}, or {@code method(args)} on the generated class when {@code receiver} is {@code null}. */
+    private static JCTree.JCExpression makeCall(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            String receiver,
+            String method,
+            JCTree.JCExpression... args
+    ) {
+        JCTree.JCExpression target = receiver == null
+                ? treeMaker.Ident(round.name(method))
+                : treeMaker.Select(treeMaker.Ident(round.name(receiver)), round.name(method));
+        return treeMaker.Apply(com.sun.tools.javac.util.List.nil(), target, com.sun.tools.javac.util.List.from(args));
+    }
+
+    /**
+     * {@code public static final int BINARY_SCHEMA}: a hash of the binary layout, over each field's name and
+     * declared type, the constants of enum fields (stored by ordinal) and, recursively, the fields of nested
+     * {@code @Entity} and {@code @Embeddable} types (stored inline). {@code writeTo} puts it in the header and
+     * {@code readFrom} rejects any other value.
+     */
+    private static JCTree.JCVariableDecl makeBinarySchemaConstant(TreeMaker treeMaker, InjectionRound round, List<FieldModel> fields) {
+        Set<String> seen = new HashSet<>();
+        seen.add(((TypeElement) fields.get(0).element().getEnclosingElement()).getQualifiedName().toString());
+        StringBuilder layout = new StringBuilder();
+        appendBinaryLayout(round, fields, layout, seen);
+        return treeMaker.VarDef(
+                treeMaker.Modifiers(Flags.PUBLIC | Flags.STATIC | Flags.FINAL),
+                round.name("BINARY_SCHEMA"),
+                treeMaker.TypeIdent(TypeTag.INT),
+                treeMaker.Literal(layout.toString().hashCode())
+        );
+    }
+
+    private static void appendBinaryLayout(InjectionRound round, List<FieldModel> fields, StringBuilder layout, Set<String> seen) {
+        for (FieldModel field : fields) {
+            layout.append(field.name()).append(' ').append(field.type()).append(';');
+            DeclaredType nested = field.list() ? listElementType(field)
+                    : field.erasedType() instanceof DeclaredType declared ? declared : null;
+            if (nested == null) continue;
+            TypeElement type = (TypeElement) nested.asElement();
+            if (type.getKind() == ElementKind.ENUM) {
+                for (VariableElement constant : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                    if (constant.getKind() == ElementKind.ENUM_CONSTANT) layout.append(constant.getSimpleName()).append(',');
+                }
+            } else if (round.hasFieldMapper(nested) && seen.add(type.getQualifiedName().toString())) {
+                // Each type is expanded once, so self-references and cycles end.
+                List<FieldModel> nestedFields = new ArrayList<>();
+                for (VariableElement member : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                    if (member.getKind() == ElementKind.FIELD) nestedFields.add(round.field(member));
+                }
+                layout.append('{');
+                appendBinaryLayout(round, nestedFields, layout, seen);
+                layout.append('}');
+            }
+        }
+    }
+
+    /** {@code private static final Type[] fmapper$pkg$Type$values = Type.values();} per enum read by ordinal. */
+    private static com.sun.tools.javac.util.List<JCTree> makeEnumValuesConstants(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            List<FieldModel> fields
+    ) {
+        Set<String> enums = new LinkedHashSet<>();
+        for (FieldModel field : fields) {
+            DeclaredType type = field.list() ? listElementType(field) : null;
+            if (!field.list() && isEnum(field.erasedType())) {
+                enums.add(field.erasedTypeName());
+            } else if (type != null && isEnum(type)) {
+                enums.add(qualifiedName(type));
+            }
+        }
+        ListBuffer<JCTree> defs = new ListBuffer<>();
+        for (String name : enums) {
+            defs.append(treeMaker.VarDef(
+                    treeMaker.Modifiers(Flags.PRIVATE | Flags.STATIC | Flags.FINAL),
+                    round.name(enumValuesName(name)),
+                    treeMaker.TypeArray(round.qualifiedType(name)),
+                    makeNoArgCall(treeMaker, round, round.qualifiedType(name), "values")
+            ));
+        }
+        return defs.toList();
+    }
+
+    private static String enumValuesName(String enumName) {
+        return "fmapper$" + enumName.replace('.', '$') + "$values";
+    }
+
+    /**
+     * Builds the binary codec, laid out as {@code BinaryCodec} describes:
+     * <pre>
+     * public static void writeTo(Entity instance, ByteBuffer out)        // BINARY_SCHEMA, then writeFieldsTo
+     * public static void readFrom(ByteBuffer in, Entity instance)        // checks BINARY_SCHEMA, then readFieldsFrom
+     * public static int serializedSize(Entity instance)                  // 4 + serializedFieldsSize
+     * public static void writeFieldsTo(Entity instance, ByteBuffer out)  // null bitmap, then the fields
+     * public static void readFieldsFrom(ByteBuffer in, Entity instance)
+     * public static int serializedFieldsSize(Entity instance)
+     * </pre>
+     * The bitmap has a bit per reference field, in declaration order, set when the field is {@code null}; it is
+     * zeroed first and bits are set in place, so every field is read once. Nested {@code @Entity} and
+     * {@code @Embeddable} values are written inline with their own {@code writeFieldsTo}. Reading stores field
+     * values, so like {@code readColumn} it bypasses {@code Mapper} hooks and does not mark fields dirty: a cached
+     * entity is persisted state.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeBinaryMethods(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields
+    ) {
+        int[] nullIndex = new int[fields.size()];
+        int references = 0;
+        int fixedSize = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            TypeKind kind = fields.get(i).kind();
+            nullIndex[i] = kind.isPrimitive() ? -1 : references++;
+            if (kind.isPrimitive()) fixedSize += primitiveWidth(kind);
+        }
+        int bitmapBytes = (references + 7) / 8;
+
+        ListBuffer<JCTree> defs = new ListBuffer<>();
+        Supplier<JCTree.JCVariableDecl> instanceParam = () -> makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name));
+        Supplier<JCTree.JCVariableDecl> outParam = () -> makeParam(treeMaker, round, "out", round.qualifiedType("java.nio.ByteBuffer"));
+        Supplier<JCTree.JCVariableDecl> inParam = () -> makeParam(treeMaker, round, "in", round.qualifiedType("java.nio.ByteBuffer"));
+        Supplier<JCTree.JCVariableDecl> nullsParam = () -> makeParam(treeMaker, round, "nulls", treeMaker.TypeIdent(TypeTag.INT));
+        Supplier<JCTree.JCExpression> codec = () -> round.qualifiedType("dev.w0fv1.mapper.BinaryCodec");
+
+        // out.putInt(BINARY_SCHEMA); writeFieldsTo(instance, out);
+        defs.append(makeStaticMethod(treeMaker, round, Flags.PUBLIC, "writeTo", treeMaker.TypeIdent(TypeTag.VOID),
+                com.sun.tools.javac.util.List.of(instanceParam.get(), outParam.get()),
+                com.sun.tools.javac.util.List.of(
+                        treeMaker.Exec(makeCall(treeMaker, round, "out", "putInt", treeMaker.Ident(round.name("BINARY_SCHEMA")))),
+                        treeMaker.Exec(makeCall(treeMaker, round, null, "writeFieldsTo",
+                                treeMaker.Ident(round.name("instance")), treeMaker.Ident(round.name("out"))))
+                )
+        ));
+        // BinaryCodec.checkSchema(in, BINARY_SCHEMA, Entity.class); readFieldsFrom(in, instance);
+        defs.append(makeStaticMethod(treeMaker, round, Flags.PUBLIC, "readFrom", treeMaker.TypeIdent(TypeTag.VOID),
+                com.sun.tools.javac.util.List.of(inParam.get(), instanceParam.get()),
+                com.sun.tools.javac.util.List.of(
+                        treeMaker.Exec(treeMaker.Apply(
+                                com.sun.tools.javac.util.List.nil(),
+                                treeMaker.Select(codec.get(), round.name("checkSchema")),
+                                com.sun.tools.javac.util.List.of(
+                                        treeMaker.Ident(round.name("in")),
+                                        treeMaker.Ident(round.name("BINARY_SCHEMA")),
+                                        treeMaker.Select(treeMaker.Ident(outerClass.name), round.name("class"))
+                                )
+                        )),
+                        treeMaker.Exec(makeCall(treeMaker, round, null, "readFieldsFrom",
+                                treeMaker.Ident(round.name("in")), treeMaker.Ident(round.name("instance"))))
+                )
+        ));
+        // return 4 + serializedFieldsSize(instance);
+        defs.append(makeStaticMethod(treeMaker, round, Flags.PUBLIC, "serializedSize", treeMaker.TypeIdent(TypeTag.INT),
+                com.sun.tools.javac.util.List.of(instanceParam.get()),
+                com.sun.tools.javac.util.List.of(treeMaker.Return(treeMaker.Binary(
+                        JCTree.Tag.PLUS,
+                        treeMaker.Literal(Integer.BYTES),
+                        makeCall(treeMaker, round, null, "serializedFieldsSize", treeMaker.Ident(round.name("instance")))
+                )))
+        ));
+
+        defs.appendList(makeRangeSplitMethods(
+                treeMaker,
+                round,
+                "writeFieldsTo",
+                () -> treeMaker.TypeIdent(TypeTag.VOID),
+                () -> com.sun.tools.javac.util.List.of(instanceParam.get(), outParam.get()),
+                () -> com.sun.tools.javac.util.List.of(instanceParam.get(), outParam.get(), nullsParam.get()),
+                // int nulls = BinaryCodec.reserveNullBitmap(out, bitmapBytes);
+                () -> com.sun.tools.javac.util.List.of(treeMaker.VarDef(
+                        treeMaker.Modifiers(0),
+                        round.name("nulls"),
+                        treeMaker.TypeIdent(TypeTag.INT),
+                        treeMaker.Apply(
+                                com.sun.tools.javac.util.List.nil(),
+                                treeMaker.Select(codec.get(), round.name("reserveNullBitmap")),
+                                com.sun.tools.javac.util.List.of(treeMaker.Ident(round.name("out")), treeMaker.Literal(bitmapBytes))
+                        )
+                )),
+                fields.size(),
+                i -> {
+                    FieldModel field = fields.get(i);
+                    JCTree.JCExpression value = makeGetterCall(treeMaker, round, options, treeMaker.Ident(round.name("instance")), field);
+                    if (nullIndex[i] < 0) {
+                        return com.sun.tools.javac.util.List.of(treeMaker.Exec(makeBinaryWrite(treeMaker, round, field, value)));
+                    }
+                    // { Type value = get; if (value == null) BinaryCodec.markNull(out, nulls, k); else write(value); }
+                    JCTree.JCStatement markNull = treeMaker.Exec(treeMaker.Apply(
+                            com.sun.tools.javac.util.List.nil(),
+                            treeMaker.Select(codec.get(), round.name("markNull")),
+                            com.sun.tools.javac.util.List.of(
+                                    treeMaker.Ident(round.name("out")), treeMaker.Ident(round.name("nulls")), treeMaker.Literal(nullIndex[i]))
+                    ));
+                    return com.sun.tools.javac.util.List.of(treeMaker.Block(0, com.sun.tools.javac.util.List.of(
+                            treeMaker.VarDef(treeMaker.Modifiers(0), round.name("value"), treeMaker.Type((Type) field.type()), value),
+                            treeMaker.If(
+                                    treeMaker.Binary(JCTree.Tag.EQ, treeMaker.Ident(round.name("value")), treeMaker.Literal(TypeTag.BOT, null)),
+                                    markNull,
+                                    treeMaker.Exec(makeBinaryWrite(treeMaker, round, field, treeMaker.Ident(round.name("value"))))
+                            )
+                    )));
+                },
+                com.sun.tools.javac.util.List::nil
+        ));
+
+        defs.appendList(makeRangeSplitMethods(
+                treeMaker,
+                round,
+                "readFieldsFrom",
+                () -> treeMaker.TypeIdent(TypeTag.VOID),
+                () -> com.sun.tools.javac.util.List.of(inParam.get(), instanceParam.get()),
+                () -> com.sun.tools.javac.util.List.of(inParam.get(), instanceParam.get(), nullsParam.get()),
+                // int nulls = in.position(); in.position(nulls + bitmapBytes);
+                () -> com.sun.tools.javac.util.List.of(
+                        treeMaker.VarDef(treeMaker.Modifiers(0), round.name("nulls"), treeMaker.TypeIdent(TypeTag.INT),
+                                makeCall(treeMaker, round, "in", "position")),
+                        treeMaker.Exec(makeCall(treeMaker, round, "in", "position",
+                                treeMaker.Binary(JCTree.Tag.PLUS, treeMaker.Ident(round.name("nulls")), treeMaker.Literal(bitmapBytes))))
+                ),
+                fields.size(),
+                i -> {
+                    FieldModel field = fields.get(i);
+                    JCTree.JCStatement read = makeBinaryReadStatement(treeMaker, round, options, field);
+                    if (nullIndex[i] < 0) return com.sun.tools.javac.util.List.of(read);
+                    JCTree.JCExpression isNull = treeMaker.Apply(
+                            com.sun.tools.javac.util.List.nil(),
+                            treeMaker.Select(codec.get(), round.name("isNull")),
+                            com.sun.tools.javac.util.List.of(
+                                    treeMaker.Ident(round.name("in")), treeMaker.Ident(round.name("nulls")), treeMaker.Literal(nullIndex[i]))
+                    );
+                    return com.sun.tools.javac.util.List.of(treeMaker.If(isNull, makeNullStore(treeMaker, round, options, field), read));
+                },
+                com.sun.tools.javac.util.List::nil
+        ));
+
+        defs.appendList(makeBinarySizeMethods(treeMaker, round, options, outerClass, fields, bitmapBytes + fixedSize));
+        return defs.toList();
+    }
+
+    /**
+     * Builds {@code serializedFieldsSize(instance)}: the fixed part (bitmap and primitives) plus, per non-null
+     * reference field, its encoded size. Past {@link #SPLIT_THRESHOLD} the fields move into private
+     * {@code serializedFieldsSize$rangeN(instance)} helpers that return their part of the sum.
+     */
+    private static com.sun.tools.javac.util.List<JCTree> makeBinarySizeMethods(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCClassDecl outerClass,
+            List<FieldModel> fields,
+            int fixedSize
+    ) {
+        Supplier<com.sun.tools.javac.util.List<JCTree.JCVariableDecl>> params = () -> com.sun.tools.javac.util.List.of(
+                makeParam(treeMaker, round, "instance", treeMaker.Ident(outerClass.name)));
+        // { Type value = get; if (value != null) size += sizeOf(value); } per reference field.
+        IntFunction<JCTree.JCStatement> sizeOfField = i -> {
+            FieldModel field = fields.get(i);
+            if (field.kind().isPrimitive()) return null;
+            JCTree.JCExpression value = makeGetterCall(treeMaker, round, options, treeMaker.Ident(round.name("instance")), field);
+            return treeMaker.Block(0, com.sun.tools.javac.util.List.of(
+                    treeMaker.VarDef(treeMaker.Modifiers(0), round.name("value"), treeMaker.Type((Type) field.type()), value),
+                    treeMaker.If(
+                            treeMaker.Binary(JCTree.Tag.NE, treeMaker.Ident(round.name("value")), treeMaker.Literal(TypeTag.BOT, null)),
+                            treeMaker.Exec(treeMaker.Assignop(JCTree.Tag.PLUS_ASG, treeMaker.Ident(round.name("size")),
+                                    makeBinarySize(treeMaker, round, field, treeMaker.Ident(round.name("value"))))),
+                            null
+                    )
+            ));
+        };
+        // The whole method for range -1, otherwise the fields [range * chunk, (range + 1) * chunk).
+        BiFunction<Integer, Integer, JCTree.JCMethodDecl> sizeOfRange = (range, chunk) -> {
+            int from = range < 0 ? 0 : range * chunk;
+            int to = range < 0 ? fields.size() : Math.min(fields.size(), from + chunk);
+            ListBuffer<JCTree.JCStatement> stats = new ListBuffer<>();
+            stats.append(treeMaker.VarDef(treeMaker.Modifiers(0), round.name("size"), treeMaker.TypeIdent(TypeTag.INT),
+                    treeMaker.Literal(range < 0 ? fixedSize : 0)));
+            for (int i = from; i < to; i++) {
+                JCTree.JCStatement stat = sizeOfField.apply(i);
+                if (stat != null) stats.append(stat);
+            }
+            stats.append(treeMaker.Return(treeMaker.Ident(round.name("size"))));
+            String name = range < 0 ? "serializedFieldsSize" : "serializedFieldsSize$range" + range;
+            return makeStaticMethod(treeMaker, round, range < 0 ? Flags.PUBLIC : Flags.PRIVATE, name,
+                    treeMaker.TypeIdent(TypeTag.INT), params.get(), stats.toList());
+        };
+
+        JCTree.JCMethodDecl single = sizeOfRange.apply(-1, 0);
+        if (BytecodeSizeEstimator.estimate(single) <= SPLIT_THRESHOLD) {
+            return com.sun.tools.javac.util.List.of(single);
+        }
+        int chunk = chunkSize(fields.size(), i -> {
+            JCTree.JCStatement stat = sizeOfField.apply(i);
+            return stat == null ? 0 : BytecodeSizeEstimator.estimate(com.sun.tools.javac.util.List.of(stat));
+        });
+        ListBuffer<JCTree> helpers = new ListBuffer<>();
+        JCTree.JCExpression sum = treeMaker.Literal(fixedSize);
+        for (int range = 0; range * chunk < fields.size(); range++) {
+            JCTree.JCMethodDecl helper = sizeOfRange.apply(range, chunk);
+            helpers.append(helper);
+            sum = treeMaker.Binary(JCTree.Tag.PLUS, sum, makeHelperCall(treeMaker, round, helper.name.toString(), helper.params));
+        }
+        JCTree.JCMethodDecl dispatcher = makeStaticMethod(treeMaker, round, Flags.PUBLIC, "serializedFieldsSize",
+                treeMaker.TypeIdent(TypeTag.INT), params.get(), com.sun.tools.javac.util.List.of(treeMaker.Return(sum)));
+        return helpers.prepend(dispatcher).toList();
+    }
+
+    /** Writes a non-null value of the field's type to {@code out}; see {@code BinaryCodec} for the encodings. */
+    private static JCTree.JCExpression makeBinaryWrite(TreeMaker treeMaker, InjectionRound round, FieldModel field, JCTree.JCExpression value) {
+        TypeKind kind = field.kind().isPrimitive() ? field.kind() : BOXED_KINDS.get(field.erasedTypeName());
+        if (kind == TypeKind.BOOLEAN) return makeCodecCall(treeMaker, round, "writeBoolean", treeMaker.Ident(round.name("out")), value);
+        if (kind != null) return makeCall(treeMaker, round, "out", "put" + bufferSuffix(kind), value);
+        return switch (binaryEncoding(round, field)) {
+            case STRING -> makeCodecCall(treeMaker, round, "writeString", treeMaker.Ident(round.name("out")), value);
+            case BYTES -> makeCodecCall(treeMaker, round, "writeBytes", treeMaker.Ident(round.name("out")), value);
+            case TEXT -> makeCodecCall(treeMaker, round, "writeString", treeMaker.Ident(round.name("out")), makeNoArgCall(treeMaker, round, value, "toString"));
+            case ENUM -> makeCodecCall(treeMaker, round, "writeVarint", treeMaker.Ident(round.name("out")), makeNoArgCall(treeMaker, round, value, "ordinal"));
+            case NESTED -> treeMaker.Apply(
+                    com.sun.tools.javac.util.List.nil(),
+                    round.qualifiedType(field.erasedTypeName() + ".FieldMapper.writeFieldsTo"),
+                    com.sun.tools.javac.util.List.of(value, treeMaker.Ident(round.name("out")))
+            );
+            case NESTED_LIST -> makeCodecCall(treeMaker, round, "writeList", treeMaker.Ident(round.name("out")), value,
+                    round.qualifiedType(qualifiedName(listElementType(field)) + ".FieldMapper.INSTANCE"));
+            case ENUM_LIST -> makeCodecCall(treeMaker, round, "writeEnumList", treeMaker.Ident(round.name("out")), value);
+            case VALUE -> makeCodecCall(treeMaker, round, "writeValue", treeMaker.Ident(round.name("out")), value);
+        };
+    }
+
+    /** Encoded size of a non-null reference value of the field's type. */
+    private static JCTree.JCExpression makeBinarySize(TreeMaker treeMaker, InjectionRound round, FieldModel field, JCTree.JCExpression value) {
+        TypeKind boxed = BOXED_KINDS.get(field.erasedTypeName());
+        if (boxed != null) return treeMaker.Literal(primitiveWidth(boxed));
+        return switch (binaryEncoding(round, field)) {
+            case STRING -> makeCodecCall(treeMaker, round, "stringSize", value);
+            case BYTES -> makeCodecCall(treeMaker, round, "bytesSize", value);
+            case TEXT -> makeCodecCall(treeMaker, round, "stringSize", makeNoArgCall(treeMaker, round, value, "toString"));
+            case ENUM -> makeCodecCall(treeMaker, round, "varintSize", makeNoArgCall(treeMaker, round, value, "ordinal"));
+            case NESTED -> treeMaker.Apply(
+                    com.sun.tools.javac.util.List.nil(),
+                    round.qualifiedType(field.erasedTypeName() + ".FieldMapper.serializedFieldsSize"),
+                    com.sun.tools.javac.util.List.of(value)
+            );
+            case NESTED_LIST -> makeCodecCall(treeMaker, round, "listSize", value,
+                    round.qualifiedType(qualifiedName(listElementType(field)) + ".FieldMapper.INSTANCE"));
+            case ENUM_LIST -> makeCodecCall(treeMaker, round, "enumListSize", value);
+            case VALUE -> makeCodecCall(treeMaker, round, "valueSize", value);
+        };
+    }
+
+    /** Reads a non-null value of the field's type from {@code in} and stores it with the typed setter. */
+    private static JCTree.JCStatement makeBinaryReadStatement(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            FieldModel field
+    ) {
+        JCTree.JCExpression instanceIdent = treeMaker.Ident(round.name("instance"));
+        TypeKind kind = field.kind().isPrimitive() ? field.kind() : BOXED_KINDS.get(field.erasedTypeName());
+        JCTree.JCExpression value;
+        if (kind != null) {
+            value = kind == TypeKind.BOOLEAN
+                    ? makeCodecCall(treeMaker, round, "readBoolean", treeMaker.Ident(round.name("in")))
+                    : makeCall(treeMaker, round, "in", "get" + bufferSuffix(kind));
+            if (!field.kind().isPrimitive()) value = makeBoxing(treeMaker, round, field.erasedTypeName(), value);
+            return treeMaker.Exec(makeTypedSetterCall(treeMaker, round, options, instanceIdent, value, field));
+        }
+        BinaryEncoding encoding = binaryEncoding(round, field);
+        value = switch (encoding) {
+            case STRING -> makeCodecCall(treeMaker, round, "readString", treeMaker.Ident(round.name("in")));
+            case BYTES -> makeCodecCall(treeMaker, round, "readBytes", treeMaker.Ident(round.name("in")));
+            case TEXT -> treeMaker.Apply(
+                    com.sun.tools.javac.util.List.nil(),
+                    treeMaker.Select(round.qualifiedType("dev.w0fv1.mapper.Coercions"), round.name(COERCIONS.get(field.erasedTypeName()))),
+                    com.sun.tools.javac.util.List.of(makeCodecCall(treeMaker, round, "readString", treeMaker.Ident(round.name("in"))))
+            );
+            case ENUM -> makeCodecCall(treeMaker, round, "readEnum",
+                    treeMaker.Ident(round.name("in")),
+                    treeMaker.Ident(round.name(enumValuesName(field.erasedTypeName()))),
+                    makeCodecCall(treeMaker, round, "readVarint", treeMaker.Ident(round.name("in"))));
+            case NESTED -> makeCodecCall(treeMaker, round, "readObject", treeMaker.Ident(round.name("in")),
+                    round.qualifiedType(field.erasedTypeName() + ".FieldMapper.INSTANCE"));
+            case NESTED_LIST -> makeCodecCall(treeMaker, round, "readList", treeMaker.Ident(round.name("in")),
+                    round.qualifiedType(qualifiedName(listElementType(field)) + ".FieldMapper.INSTANCE"));
+            case ENUM_LIST -> makeCodecCall(treeMaker, round, "readEnumList", treeMaker.Ident(round.name("in")),
+                    treeMaker.Ident(round.name(enumValuesName(qualifiedName(listElementType(field))))));
+            case VALUE -> makeCodecCall(treeMaker, round, "readValue", treeMaker.Ident(round.name("in")));
+        };
+        if (!field.list() && encoding != BinaryEncoding.VALUE) {
+            return treeMaker.Exec(makeTypedSetterCall(treeMaker, round, options, instanceIdent, value, field));
+        }
+        // { Object value = read; store with set's cast and List semantics }
+        return treeMaker.Block(0, com.sun.tools.javac.util.List.of(
+                treeMaker.VarDef(treeMaker.Modifiers(0), round.name("value"), round.qualifiedType("java.lang.Object"), value),
+                makeStoreStatement(treeMaker, round, options, instanceIdent, treeMaker.Ident(round.name("value")), field)
+        ));
+    }
+
+    /**
+     * Stores {@code null} into a reference field: the typed setter, or {@code clear()} for a final List in field
+     * access mode, which cannot be reassigned.
+     */
+    private static JCTree.JCStatement makeNullStore(TreeMaker treeMaker, InjectionRound round, InjectorOptions options, FieldModel field) {
+        JCTree.JCExpression instanceIdent = treeMaker.Ident(round.name("instance"));
+        if (field.list() && writesFinalListInPlace(field)) {
+            return treeMaker.Exec(makeNoArgCall(treeMaker, round, makeGetterCall(treeMaker, round, options, instanceIdent, field), "clear"));
+        }
+        return treeMaker.Exec(makeTypedSetterCall(treeMaker, round, options, instanceIdent, treeMaker.Literal(TypeTag.BOT, null), field));
+    }
+
+    /** How a reference field that is not a wrapper is encoded. */
+    private enum BinaryEncoding {
+        STRING, BYTES, TEXT, ENUM, NESTED, NESTED_LIST, ENUM_LIST, VALUE
+    }
+
+    private static BinaryEncoding binaryEncoding(InjectionRound round, FieldModel field) {
+        String typeName = field.erasedTypeName();
+        if (field.list()) {
+            DeclaredType element = listElementType(field);
+            if (element != null && round.hasFieldMapper(element)) return BinaryEncoding.NESTED_LIST;
+            if (element != null && isEnum(element)) return BinaryEncoding.ENUM_LIST;
+            return BinaryEncoding.VALUE;
+        }
+        if (typeName.equals("java.lang.String")) return BinaryEncoding.STRING;
+        if (typeName.equals("byte[]")) return BinaryEncoding.BYTES;
+        if (COERCIONS.containsKey(typeName)) return BinaryEncoding.TEXT;
+        if (isEnum(field.erasedType())) return BinaryEncoding.ENUM;
+        if (round.hasFieldMapper(field.erasedType())) return BinaryEncoding.NESTED;
+        return BinaryEncoding.VALUE;
+    }
+
+    /** {@code ByteBuffer} accessor suffix of a primitive kind: {@code put}/{@code get} for bytes, else the type name. */
+    private static String bufferSuffix(TypeKind kind) {
+        return kind == TypeKind.BYTE ? "" : capitalize(kind.name().toLowerCase(Locale.ROOT));
+    }
+
+    private static int primitiveWidth(TypeKind kind) {
+        return switch (kind) {
+            case BOOLEAN, BYTE -> 1;
+            case SHORT, CHAR -> 2;
+            case INT, FLOAT -> 4;
+            default -> 8;
+        };
+    }
+
+    /** {@code BinaryCodec.method(args)} */
+    private static JCTree.JCExpression makeCodecCall(TreeMaker treeMaker, InjectionRound round, String method, JCTree.JCExpression... args) {
+        return treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Select(round.qualifiedType("dev.w0fv1.mapper.BinaryCodec"), round.name(method)),
+                com.sun.tools.javac.util.List.from(args)
+        );
+    }
+
+    /** {@code java.util.List<? extends Entity>} */
+    private static JCTree.JCExpression makeEntityListType(TreeMaker treeMaker, InjectionRound round, JCTree.JCClassDecl outerClass) {
+        return treeMaker.TypeApply(
+                round.qualifiedType("java.util.List"),
+                com.sun.tools.javac.util.List.of(treeMaker.Wildcard(
+                        treeMaker.TypeBoundKind(BoundKind.EXTENDS),
+                        treeMaker.Ident(outerClass.name)
+                ))
+        );
+    }
+
+    /** {@code Object[]}, or {@code long[]} etc. for a primitive column. */
+    private static JCTree.JCExpression makeColumnArrayType(TreeMaker treeMaker, InjectionRound round, TypeKind kind) {
+        if (kind == null) return makeObjectArrayType(treeMaker, round);
+        return treeMaker.TypeArray(treeMaker.TypeIdent(TypeTag.valueOf(kind.name())));
+    }
+
+    /** {@code set}'s write: through the field's {@code Mapper} hook if it has one, else {@link #makeStoreStatement}. */
+    private static JCTree.JCStatement makeDynamicSetStatement(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCExpression instanceIdent,
+            JCTree.JCExpression valueIdent,
+            FieldModel field
+    ) {
+        if (field.mapped()) {
+            TypeMirror input = field.mapper().erasedInput();
+            JCTree.JCExpression castValue = makeCoercion(treeMaker, round, options, valueIdent, input);
+            if (castValue == null) {
+                // A Mapper<E, Object> takes value as is; (Object) would be a [cast] lint warning.
+                castValue = input.toString().equals("java.lang.Object")
+                        ? valueIdent
+                        : treeMaker.TypeCast(treeMaker.Type((Type) input), valueIdent);
+            }
+            return treeMaker.Exec(makeMapperAccept(treeMaker, round, instanceIdent, castValue, field));
+        }
+        return makeStoreStatement(treeMaker, round, options, instanceIdent, valueIdent, field);
+    }
+
+    /**
+     * With {@code fmapper.coerce}, converts {@code Object value} to {@code type} for a store: an exact
+     * {@code instanceof} match is cast as before, anything else goes to that type's {@code Coercions} method.
+     * <pre>
+     * value instanceof Long ? (Long) value : Coercions.asLong(value)                            // long
+     * value instanceof Long || value == null ? (Long) value : Long.valueOf(Coercions.asLong(value))  // Long
+     * value instanceof Instant ? (Instant) value : Coercions.asInstant(value)
+     * value instanceof Color ? (Color) value : value instanceof CharSequence ? Color.valueOf(value.toString()) : (Color) value
+     * </pre>
+     * Returns {@code null}, leaving the plain cast, when the option is off or {@code type} has no coercion.
+     */
+    private static JCTree.JCExpression makeCoercion(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCExpression valueIdent,
+            TypeMirror type
+    ) {
+        if (!options.coerce() || !(valueIdent instanceof JCTree.JCIdent ident)) return null;
+        Name value = ident.name;
+        String typeName = type.toString();
+        TypeKind kind = type.getKind();
+        TypeKind boxed = BOXED_KINDS.get(typeName);
+        String method;
+        if (kind.isPrimitive()) {
+            typeName = boxedName(kind);
+            method = "as" + capitalize(kind.name().toLowerCase(Locale.ROOT));
+        } else if (boxed != null) {
+            method = "as" + capitalize(boxed.name().toLowerCase(Locale.ROOT));
+        } else {
+            method = COERCIONS.get(typeName);
+        }
+        boolean isEnum = type instanceof DeclaredType declared && declared.asElement().getKind() == ElementKind.ENUM;
+        if (method == null && !isEnum) return null;
+
+        JCTree.JCExpression exact = treeMaker.TypeTest(treeMaker.Ident(value), round.qualifiedType(typeName));
+        JCTree.JCExpression cast = treeMaker.TypeCast(round.qualifiedType(typeName), treeMaker.Ident(value));
+        JCTree.JCExpression converted;
+        if (isEnum) {
+            converted = treeMaker.Conditional(
+                    treeMaker.TypeTest(treeMaker.Ident(value), round.qualifiedType("java.lang.CharSequence")),
+                    treeMaker.Apply(
+                            com.sun.tools.javac.util.List.nil(),
+                            treeMaker.Select(round.qualifiedType(typeName), round.name("valueOf")),
+                            com.sun.tools.javac.util.List.of(makeNoArgCall(treeMaker, round, treeMaker.Ident(value), "toString"))
+                    ),
+                    treeMaker.TypeCast(round.qualifiedType(typeName), treeMaker.Ident(value))
+            );
+        } else {
+            converted = treeMaker.Apply(
+                    com.sun.tools.javac.util.List.nil(),
+                    treeMaker.Select(round.qualifiedType("dev.w0fv1.mapper.Coercions"), round.name(method)),
+                    com.sun.tools.javac.util.List.of(treeMaker.Ident(value))
+            );
+        }
+        if (boxed != null) {
+            // Keep the conditional a reference expression, so a null value is stored rather than unboxed.
+            exact = treeMaker.Binary(
+                    JCTree.Tag.OR,
+                    exact,
+                    treeMaker.Binary(JCTree.Tag.EQ, treeMaker.Ident(value), treeMaker.Literal(TypeTag.BOT, null))
+            );
+            converted = makeBoxing(treeMaker, round, typeName, converted);
+        }
+        return treeMaker.Conditional(exact, cast, converted);
+    }
+
+    private static String boxedName(TypeKind kind) {
+        for (Map.Entry<String, TypeKind> entry : BOXED_KINDS.entrySet()) {
+            if (entry.getValue() == kind) return entry.getKey();
+        }
+        throw new IllegalArgumentException(kind.toString());
+    }
+
+    /** Stores an {@code Object} holding a field value: cast to the field type, or {@code clear + addAll} for Lists. */
+    private static JCTree.JCStatement makeStoreStatement(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCExpression instanceIdent,
+            JCTree.JCExpression valueIdent,
+            FieldModel field
+    ) {
+        if (field.list()) {
+            return makeListSetStatement(treeMaker, round, options, instanceIdent, valueIdent, field, field.erasedTypeName());
+        }
+        JCTree.JCExpression coerced = makeCoercion(treeMaker, round, options, valueIdent, field.erasedType());
+        if (coerced != null) {
+            return treeMaker.Exec(makeTypedSetterCall(treeMaker, round, options, instanceIdent, coerced, field));
+        }
+        return treeMaker.Exec(makeSetterCall(treeMaker, round, options, instanceIdent, valueIdent, field, field.castTypeName()));
+    }
+
+    /** {@code fmapper$pkg$Mapper.accept(instance, value)} on the field's singleton hook. */
+    private static JCTree.JCExpression makeMapperAccept(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            JCTree.JCExpression instanceIdent,
+            JCTree.JCExpression value,
+            FieldModel field
+    ) {
+        return treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Select(treeMaker.Ident(round.name(field.mapper().constantName())), round.name("accept")),
+                com.sun.tools.javac.util.List.of(instanceIdent, value)
+        );
+    }
+
+    private static JCTree.JCStatement makeListSetStatement(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCExpression instanceIdent,
+            JCTree.JCExpression valueIdent,
+            FieldModel field,
+            String castTypeName
+    ) {
+        JCTree.JCExpression castValue = treeMaker.TypeCast(round.qualifiedType(castTypeName), new TreeCopier<Void>(treeMaker).copy(valueIdent));
+        return makeListStore(treeMaker, round, options, instanceIdent, valueIdent, field, castValue,
+                () -> treeMaker.Exec(makeSetterCall(treeMaker, round, options, instanceIdent, valueIdent, field, castTypeName)));
+    }
+
+    /**
+     * Builds {@code if (field != null) { switch (field) { cases } } fallback}.
+     * <p>
+     * javac lowers a String switch into a {@code hashCode()} lookupswitch with an {@code equals} check
+     * only inside the matching bucket, so dispatch cost does not grow with the number of fields.
+     * The null guard keeps the old behaviour of reporting {@code null} as an unknown field instead of
+     * throwing a NullPointerException from the switch.
+     */
+    private static com.sun.tools.javac.util.List<JCTree.JCStatement> makeFieldSwitch(
+            TreeMaker treeMaker,
+            JCTree.JCExpression fieldIdent,
+            com.sun.tools.javac.util.List<JCTree.JCCase> cases,
+            JCTree.JCStatement fallback
+    ) {
+        JCTree.JCExpression notNull = treeMaker.Binary(
+                JCTree.Tag.NE,
+                fieldIdent,
+                treeMaker.Literal(TypeTag.BOT, null)
+        );
+        JCTree.JCStatement switchStmt = treeMaker.Switch(fieldIdent, cases);
+        JCTree.JCStatement guarded = treeMaker.If(notNull, treeMaker.Block(0, com.sun.tools.javac.util.List.of(switchStmt)), null);
+        return com.sun.tools.javac.util.List.of(guarded, fallback);
+    }
+
+    private static JCTree.JCCase makeStringCase(
+            TreeMaker treeMaker,
+            String label,
+            com.sun.tools.javac.util.List<JCTree.JCStatement> stats
+    ) {
+        return makeStringCase(treeMaker, List.of(label), stats);
+    }
+
+    private static JCTree.JCCase makeStringCase(
+            TreeMaker treeMaker,
+            List<String> labels,
+            com.sun.tools.javac.util.List<JCTree.JCStatement> stats
+    ) {
+        ListBuffer<JCTree.JCCaseLabel> caseLabels = new ListBuffer<>();
+        for (String label : labels) {
+            caseLabels.append(treeMaker.ConstantCaseLabel(treeMaker.Literal(label)));
+        }
+        return treeMaker.Case(JCTree.JCCase.STATEMENT, caseLabels.toList(), null, stats, null);
+    }
+
+    private static JCTree.JCCase makeIntCase(
+            TreeMaker treeMaker,
+            int label,
+            com.sun.tools.javac.util.List<JCTree.JCStatement> stats
+    ) {
+        return treeMaker.Case(
+                JCTree.JCCase.STATEMENT,
+                com.sun.tools.javac.util.List.of(treeMaker.ConstantCaseLabel(treeMaker.Literal(label))),
+                null,
+                stats,
+                null
+        );
+    }
+
+    private static JCTree.JCStatement makeUnknownFieldThrow(TreeMaker treeMaker, InjectionRound round, JCTree.JCExpression fieldIdent) {
+        return makeIllegalArgumentThrow(treeMaker, round, "Unknown field: ", fieldIdent);
+    }
+
+    /** What a by-name write does with a name that is no field: throw, or with {@code fmapper.unknownField} return. */
+    private static JCTree.JCStatement makeUnknownFieldWrite(TreeMaker treeMaker, InjectionRound round, InjectorOptions options) {
+        if (options.unknownField() == InjectorOptions.UnknownField.THROW) {
+            return makeUnknownFieldThrow(treeMaker, round, treeMaker.Ident(round.name("field")));
+        }
+        return treeMaker.Return(null);
+    }
+
+    /** What {@code get(instance, String)} does with a name that is no field: throw, return null or the sentinel. */
+    private static JCTree.JCStatement makeUnknownFieldRead(TreeMaker treeMaker, InjectionRound round, InjectorOptions options) {
+        return switch (options.unknownField()) {
+            case THROW -> makeUnknownFieldThrow(treeMaker, round, treeMaker.Ident(round.name("field")));
+            case IGNORE -> treeMaker.Return(treeMaker.Literal(TypeTag.BOT, null));
+            case RETURN -> treeMaker.Return(makeUnknownFieldSentinel(treeMaker, round));
+        };
+    }
+
+    /** {@code EntityAccessor.UNKNOWN_FIELD} */
+    private static JCTree.JCExpression makeUnknownFieldSentinel(TreeMaker treeMaker, InjectionRound round) {
+        return treeMaker.Select(round.qualifiedType("dev.w0fv1.mapper.EntityAccessor"), round.name("UNKNOWN_FIELD"));
+    }
+
+    private static JCTree.JCStatement makeTypeMismatchThrow(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            JCTree.JCExpression fieldIdent,
+            String messageSuffix
+    ) {
+        JCTree.JCExpression detail = treeMaker.Binary(JCTree.Tag.PLUS, fieldIdent, treeMaker.Literal(messageSuffix));
+        return makeIllegalArgumentThrow(treeMaker, round, "Field ", detail);
+    }
+
+    private static JCTree.JCStatement makeUnknownOrdinalThrow(TreeMaker treeMaker, InjectionRound round, JCTree.JCExpression ordinalIdent) {
+        return makeIllegalArgumentThrow(treeMaker, round, "Unknown field ordinal: ", ordinalIdent);
+    }
+
+    private static JCTree.JCStatement makeIllegalArgumentThrow(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            String messagePrefix,
+            JCTree.JCExpression detail
+    ) {
+        JCTree.JCExpression message = treeMaker.Binary(
+                JCTree.Tag.PLUS,
+                treeMaker.Literal(messagePrefix),
+                detail
+        );
+        JCTree.JCExpression exType = round.qualifiedType("java.lang.IllegalArgumentException");
+        JCTree.JCExpression newEx = treeMaker.NewClass(
+                null,
+                com.sun.tools.javac.util.List.nil(),
+                exType,
+                com.sun.tools.javac.util.List.of(message),
+                null
+        );
+        return treeMaker.Throw(newEx);
+    }
+
+    private static JCTree.JCExpression makeSetterCall(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCExpression instanceIdent,
+            JCTree.JCExpression valueIdent,
+            FieldModel field,
+            String castTypeName
+    ) {
+        // An Object field takes value as is; (Object) would be a [cast] lint warning.
+        JCTree.JCExpression castValue = castTypeName.equals("java.lang.Object")
+                ? valueIdent
+                : treeMaker.TypeCast(round.qualifiedType(castTypeName), valueIdent);
+        return makeTypedSetterCall(treeMaker, round, options, instanceIdent, castValue, field);
+    }
+
+    /** Reads the field: {@code instance.field} in field access mode, otherwise {@code instance.getField()}. */
+    private static JCTree.JCExpression makeGetterCall(
+            TreeMaker treeMaker,
+            InjectionRound round,
+            InjectorOptions options,
+            JCTree.JCExpression instanceIdent,
+            FieldModel field
+    ) {
+        if (field.fieldAccess()) {
+            return treeMaker.Select(instanceIdent, round.name(field.name()));
+        }
+        String getterName = field.getterName();
+        return treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Select(instanceIdent, round.name(getterName)),
+                com.sun.tools.javac.util.List.nil()
+        );
+    }
+
+    private static JCTree.JCExpression makeNoArgCall(TreeMaker treeMaker, InjectionRound round, JCTree.JCExpression target, String methodName) {
+        return treeMaker.Apply(
+                com.sun.tools.javac.util.List.nil(),
+                treeMaker.Select(target, round.name(methodName)),
+                com.sun.tools.javac.util.List.nil()
+        );
+    }
+
+    private static JCTree.JCExpression makeObjectArrayType(TreeMaker treeMaker, InjectionRound round) {
+        return treeMaker.TypeArray(round.qualifiedType("java.lang.Object"));
+    }
+
+    private static JCTree.JCExpression makeStringObjectMapType(TreeMaker treeMaker, InjectionRound round) {
+        return treeMaker.TypeApply(
+                round.qualifiedType("java.util.Map"),
+                com.sun.tools.javac.util.List.of(
+                        treeMaker.Ident(round.name("String")),
+                        round.qualifiedType("java.lang.Object")
+                )
+        );
+    }
+
+    /**
+     * Whether a {@code from} value converts to {@code to} by identity or by a widening primitive conversion
+     * that never loses precision (so {@code int -> float} and {@code long -> double} are excluded).
+     */
+    private static boolean widensLosslessly(TypeKind from, TypeKind to) {
+        if (from == to) return from.isPrimitive();
+        return switch (from) {
+            case BYTE -> to == TypeKind.SHORT || to == TypeKind.INT || to == TypeKind.LONG
+                    || to == TypeKind.FLOAT || to == TypeKind.DOUBLE;
+            case SHORT, CHAR -> to == TypeKind.INT || to == TypeKind.LONG
+                    || to == TypeKind.FLOAT || to == TypeKind.DOUBLE;
+            case INT -> to == TypeKind.LONG || to == TypeKind.DOUBLE;
+            case FLOAT -> to == TypeKind.DOUBLE;
+            default -> false;
+        };
+    }
+
+    /**
+     * A final List field in field access mode cannot be reassigned, so it is always refilled in place
+     * ({@code clear + addAll}) instead of falling back to a setter when the list is null.
+     */
+    private static boolean writesFinalListInPlace(FieldModel field) {
+        return field.fieldAccess() && field.isFinal();
+    }
+
+    private static JCTree.JCVariableDecl makeParam(TreeMaker treeMaker, InjectionRound round, String name, JCTree.JCExpression type) {
+        return treeMaker.VarDef(
+                treeMaker.Modifiers(Flags.PARAMETER),
+                round.name(name),
+                type,
+                null
+        );
+    }
+
+    private static String constantName(String fieldName) {
+        StringBuilder sb = new StringBuilder(fieldName.length() + 4);
+        for (int i = 0; i < fieldName.length(); i++) {
+            char c = fieldName.charAt(i);
+            if (i > 0 && Character.isUpperCase(c) && !Character.isUpperCase(fieldName.charAt(i - 1))) {
+                sb.append('_');
+            }
+            sb.append(Character.toUpperCase(c));
+        }
+        return sb.toString();
     }
 
     private static String capitalize(String str) {
@@ -0,0 +1,29 @@
+package dev.w0fv1.mapper.javac;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * The {@code Mapper} named by a field's {@code @dev.w0fv1.mapper.FieldMapper(setter = ...)}, resolved by
+ * {@link InjectionRound#field}. Its type arguments are {@code null} when the class does not implement
+ * {@code Mapper<V, T>} with arguments; {@link InjectionRound#validate} reports that and the other misuses.
+ *
+ * @param element the mapper class
+ * @param type the mapper class as a type
+ * @param target {@code V}, what the mapper writes into
+ * @param input {@code T}, the value it accepts
+ * @param erasedInput erasure of {@code input}
+ */
+record MapperHook(
+        TypeElement element,
+        TypeMirror type,
+        TypeMirror target,
+        TypeMirror input,
+        TypeMirror erasedInput
+) {
+
+    /** One constant per mapper class and entity, named after the class so that fields can share it. */
+    String constantName() {
+        return "fmapper$" + element.getQualifiedName().toString().replace('.', '$');
+    }
+}
@@ -4,11 +4,23 @@ import com.google.testing.compile.Compilation;
 import com.google.testing.compile.Compiler;
 import com.google.testing.compile.JavaFileObjects;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
 import javax.tools.JavaFileObject;
 
 import java.io.IOException;
@@ -16,11 +28,26 @@ import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
 
 import static com.google.testing.compile.CompilationSubject.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -87,6 +114,39 @@ class FieldMapperProcessorTest {
         assertTrue(compilation.generatedFiles().stream().anyMatch(f -> f.getName().endsWith("TeamEntity$FieldMapper.class")));
     }
 
+    @Test
+    void listStoresCompileWithoutUncheckedWarnings() {
+        JavaFileObject source = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.TaggedEntity",
+                """
+                        package dev.w0fv1.test;
+                        import jakarta.persistence.Entity;
+                        import java.util.ArrayList;
+                        import java.util.List;
+
+                        @Entity
+                        public class TaggedEntity {
+                            private List<String> tags;
+                            private List<Integer> scores = new ArrayList<>();
+
+                            public List<String> getTags() { return tags; }
+                            public void setTags(List<String> tags) { this.tags = tags; }
+                            public List<Integer> getScores() { return scores; }
+                            public void setScores(List<Integer> scores) { this.scores = scores; }
+                        }
+                        """
+        );
+
+        // The raw (java.util.List) value casts of the List stores are suppressed on the methods holding them.
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.accessors=true", "-Afmapper.coerce=true",
+                        "-Afmapper.dirtyTracking=true", "-Xlint:unchecked")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(source);
+
+        assertThat(compilation).succeededWithoutWarnings();
+    }
+
     @Test
     void failsWhenSetterIsMissing() {
         JavaFileObject source = JavaFileObjects.forSourceString(
@@ -446,6 +506,2800 @@ class FieldMapperProcessorTest {
         assertTrue(ex.getCause() instanceof IllegalArgumentException);
     }
 
+    @Test
+    void dynamicDispatchUsesHashSwitchAndKeepsBehavior() throws Exception {
+        // "Aa" and "BB" share the same String.hashCode(), so they land in the same switch bucket.
+        JavaFileObject entity = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.CollidingEntity",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Entity;
+
+                        import java.util.ArrayList;
+                        import java.util.List;
+
+                        @Entity
+                        public class CollidingEntity {
+                            private String Aa;
+                            private String BB;
+                            private int count;
+                            private final List<String> tags = new ArrayList<>();
+
+                            public String getAa() { return Aa; }
+                            public void setAa(String Aa) { this.Aa = Aa; }
+
+                            public String getBB() { return BB; }
+                            public void setBB(String BB) { this.BB = BB; }
+
+                            public int getCount() { return count; }
+                            public void setCount(int count) { this.count = count; }
+
+                            public List<String> getTags() { return tags; }
+                            public void setTags(List<String> tags) {
+                                this.tags.clear();
+                                if (tags != null) {
+                                    this.tags.addAll(tags);
+                                }
+                            }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity);
+
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.CollidingEntity");
+        Object e = entityClass.getConstructor().newInstance();
+
+        Class<?> fieldMapperClass = loader.loadClass("dev.w0fv1.test.CollidingEntity$FieldMapper");
+        Method set = fieldMapperClass.getMethod("set", entityClass, String.class, Object.class);
+        Method get = fieldMapperClass.getMethod("get", entityClass, String.class);
+
+        set.invoke(null, e, "Aa", "first");
+        set.invoke(null, e, "BB", "second");
+        set.invoke(null, e, "count", 7);
+        set.invoke(null, e, "tags", List.of("a", "b"));
+
+        assertEquals("first", get.invoke(null, e, "Aa"));
+        assertEquals("second", get.invoke(null, e, "BB"));
+        assertEquals(7, get.invoke(null, e, "count"));
+        assertEquals(List.of("a", "b"), get.invoke(null, e, "tags"));
+
+        // Same hash bucket as "Aa"/"BB" but not a field: must still be rejected.
+        for (String unknown : new String[]{"C#", "aa", "no_such_field"}) {
+            InvocationTargetException setEx = assertThrows(
+                    InvocationTargetException.class,
+                    () -> set.invoke(null, e, unknown, "x")
+            );
+            assertTrue(setEx.getCause() instanceof IllegalArgumentException);
+            assertEquals("Unknown field: " + unknown, setEx.getCause().getMessage());
+
+            InvocationTargetException getEx = assertThrows(
+                    InvocationTargetException.class,
+                    () -> get.invoke(null, e, unknown)
+            );
+            assertTrue(getEx.getCause() instanceof IllegalArgumentException);
+            assertEquals("Unknown field: " + unknown, getEx.getCause().getMessage());
+        }
+
+        // A null field name is reported as unknown, as before, rather than failing with an NPE.
+        InvocationTargetException nullEx = assertThrows(
+                InvocationTargetException.class,
+                () -> get.invoke(null, e, (Object) null)
+        );
+        assertTrue(nullEx.getCause() instanceof IllegalArgumentException);
+        assertEquals("Unknown field: null", nullEx.getCause().getMessage());
+
+        byte[] classBytes = readGeneratedClass(compilation, "CollidingEntity$FieldMapper.class");
+        Map<String, Boolean> usesLookupSwitch = new HashMap<>();
+        new ClassReader(classBytes).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                boolean byName = descriptor.startsWith("(Ldev/w0fv1/test/CollidingEntity;Ljava/lang/String;");
+                if (!byName || (!name.equals("set") && !name.equals("get"))) {
+                    return null;
+                }
+                usesLookupSwitch.put(name, false);
+                return new MethodVisitor(Opcodes.ASM9) {
+                    @Override
+                    public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+                        usesLookupSwitch.put(name, true);
+                    }
+                };
+            }
+        }, 0);
+
+        assertEquals(Map.of("set", true, "get", true), usesLookupSwitch);
+    }
+
+    @Test
+    void fieldOrdinalApiDispatchesThroughTableSwitch() throws Exception {
+        JavaFileObject entity = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.RowEntity",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Entity;
+
+                        import java.util.ArrayList;
+                        import java.util.List;
+
+                        @Entity
+                        public class RowEntity {
+                            private Long id;
+                            private String displayName;
+                            private int age;
+                            private final List<String> tags = new ArrayList<>();
+
+                            public Long getId() { return id; }
+                            public void setId(Long id) { this.id = id; }
+
+                            public String getDisplayName() { return displayName; }
+                            public void setDisplayName(String displayName) { this.displayName = displayName; }
+
+                            public int getAge() { return age; }
+                            public void setAge(int age) { this.age = age; }
+
+                            public List<String> getTags() { return tags; }
+                            public void setTags(List<String> tags) {
+                                this.tags.clear();
+                                if (tags != null) {
+                                    this.tags.addAll(tags);
+                                }
+                            }
+                        }
+                        """
+        );
+
+        JavaFileObject caller = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.RowEntityCaller",
+                """
+                        package dev.w0fv1.test;
+                        public class RowEntityCaller {
+                            public static String describe(int ordinal) {
+                                switch (ordinal) {
+                                    case RowEntity.FieldMapper.ID: return "id";
+                                    case RowEntity.FieldMapper.DISPLAY_NAME: return "displayName";
+                                    default: return "other";
+                                }
+                            }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity, caller);
+
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.RowEntity");
+        Class<?> fieldMapperClass = loader.loadClass("dev.w0fv1.test.RowEntity$FieldMapper");
+        Object e = entityClass.getConstructor().newInstance();
+
+        assertEquals(4, fieldMapperClass.getField("FIELD_COUNT").getInt(null));
+        assertEquals(0, fieldMapperClass.getField("ID").getInt(null));
+        assertEquals(1, fieldMapperClass.getField("DISPLAY_NAME").getInt(null));
+        assertEquals(2, fieldMapperClass.getField("AGE").getInt(null));
+        assertEquals(3, fieldMapperClass.getField("TAGS").getInt(null));
+
+        Method indexOf = fieldMapperClass.getMethod("indexOf", String.class);
+        assertEquals(0, indexOf.invoke(null, "id"));
+        assertEquals(1, indexOf.invoke(null, "displayName"));
+        assertEquals(3, indexOf.invoke(null, "tags"));
+        assertEquals(-1, indexOf.invoke(null, "no_such_field"));
+        assertEquals(-1, indexOf.invoke(null, (Object) null));
+
+        Method setByOrdinal = fieldMapperClass.getMethod("set", entityClass, int.class, Object.class);
+        Method getByOrdinal = fieldMapperClass.getMethod("get", entityClass, int.class);
+        Method getByName = fieldMapperClass.getMethod("get", entityClass, String.class);
+        assertTrue(Modifier.isStatic(setByOrdinal.getModifiers()));
+        assertTrue(Modifier.isStatic(getByOrdinal.getModifiers()));
+
+        setByOrdinal.invoke(null, e, 0, 5L);
+        setByOrdinal.invoke(null, e, 1, "Alice");
+        setByOrdinal.invoke(null, e, 2, 30);
+        setByOrdinal.invoke(null, e, 3, List.of("x", "y"));
+
+        assertEquals(5L, getByOrdinal.invoke(null, e, 0));
+        assertEquals("Alice", getByName.invoke(null, e, "displayName"));
+        assertEquals(30, getByOrdinal.invoke(null, e, 2));
+        assertEquals(List.of("x", "y"), getByOrdinal.invoke(null, e, 3));
+
+        for (int bad : new int[]{-1, 4}) {
+            InvocationTargetException ex = assertThrows(
+                    InvocationTargetException.class,
+                    () -> getByOrdinal.invoke(null, e, bad)
+            );
+            assertTrue(ex.getCause() instanceof IllegalArgumentException);
+            assertEquals("Unknown field ordinal: " + bad, ex.getCause().getMessage());
+        }
+
+        byte[] classBytes = readGeneratedClass(compilation, "RowEntity$FieldMapper.class");
+        Map<String, Boolean> usesTableSwitch = new HashMap<>();
+        new ClassReader(classBytes).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                boolean byOrdinal = descriptor.startsWith("(Ldev/w0fv1/test/RowEntity;I");
+                if (!byOrdinal || (!name.equals("set") && !name.equals("get"))) {
+                    return null;
+                }
+                usesTableSwitch.put(name, false);
+                return new MethodVisitor(Opcodes.ASM9) {
+                    @Override
+                    public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+                        usesTableSwitch.put(name, min == 0 && max == 3);
+                    }
+                };
+            }
+        }, 0);
+
+        assertEquals(Map.of("set", true, "get", true), usesTableSwitch);
+    }
+
+    @Test
+    void primitiveAccessorsAvoidBoxingAndRejectMismatchedTypes() throws Exception {
+        JavaFileObject entity = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.MetricEntity",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Entity;
+
+                        @Entity
+                        public class MetricEntity {
+                            private int hits;
+                            private long total;
+                            private double ratio;
+                            private boolean active;
+                            private Long id;
+
+                            public int getHits() { return hits; }
+                            public void setHits(int hits) { this.hits = hits; }
+
+                            public long getTotal() { return total; }
+                            public void setTotal(long total) { this.total = total; }
+
+                            public double getRatio() { return ratio; }
+                            public void setRatio(double ratio) { this.ratio = ratio; }
+
+                            public boolean getActive() { return active; }
+                            public void setActive(boolean active) { this.active = active; }
+
+                            public Long getId() { return id; }
+                            public void setId(Long id) { this.id = id; }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity);
+
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.MetricEntity");
+        Class<?> fieldMapperClass = loader.loadClass("dev.w0fv1.test.MetricEntity$FieldMapper");
+        Object e = entityClass.getConstructor().newInstance();
+
+        Method setInt = fieldMapperClass.getMethod("setInt", entityClass, String.class, int.class);
+        Method setLong = fieldMapperClass.getMethod("setLong", entityClass, String.class, long.class);
+        Method setDouble = fieldMapperClass.getMethod("setDouble", entityClass, String.class, double.class);
+        Method setBoolean = fieldMapperClass.getMethod("setBoolean", entityClass, String.class, boolean.class);
+        Method getInt = fieldMapperClass.getMethod("getInt", entityClass, String.class);
+        Method getLong = fieldMapperClass.getMethod("getLong", entityClass, String.class);
+        Method getDouble = fieldMapperClass.getMethod("getDouble", entityClass, String.class);
+        Method getBoolean = fieldMapperClass.getMethod("getBoolean", entityClass, String.class);
+        assertEquals(int.class, getInt.getReturnType());
+        assertEquals(long.class, getLong.getReturnType());
+
+        setInt.invoke(null, e, "hits", 3);
+        setLong.invoke(null, e, "total", 1L << 40);
+        setDouble.invoke(null, e, "ratio", 0.5d);
+        setBoolean.invoke(null, e, "active", true);
+
+        assertEquals(3, getInt.invoke(null, e, "hits"));
+        assertEquals(1L << 40, getLong.invoke(null, e, "total"));
+        assertEquals(0.5d, getDouble.invoke(null, e, "ratio"));
+        assertEquals(true, getBoolean.invoke(null, e, "active"));
+
+        // Lossless widening: int -> long/double on write, int -> long/double on read.
+        setInt.invoke(null, e, "total", 7);
+        setInt.invoke(null, e, "ratio", 2);
+        assertEquals(7L, getLong.invoke(null, e, "total"));
+        assertEquals(2.0d, getDouble.invoke(null, e, "ratio"));
+        assertEquals(3L, getLong.invoke(null, e, "hits"));
+        assertEquals(3.0d, getDouble.invoke(null, e, "hits"));
+
+        // Narrowing, boolean/number mixing and boxed fields are rejected with a clear message.
+        assertMismatch(() -> setLong.invoke(null, e, "hits", 1L), "Field hits cannot be set from long");
+        assertMismatch(() -> setInt.invoke(null, e, "active", 1), "Field active cannot be set from int");
+        assertMismatch(() -> setLong.invoke(null, e, "id", 1L), "Field id cannot be set from long");
+        assertMismatch(() -> getInt.invoke(null, e, "total"), "Field total cannot be read as int");
+        assertMismatch(() -> getLong.invoke(null, e, "ratio"), "Field ratio cannot be read as long");
+        assertMismatch(() -> getInt.invoke(null, e, "no_such_field"), "Unknown field: no_such_field");
+
+        byte[] classBytes = readGeneratedClass(compilation, "MetricEntity$FieldMapper.class");
+        List<String> boxingCalls = new ArrayList<>();
+        new ClassReader(classBytes).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                boolean primitiveAccessor = name.matches("(set|get)(Boolean|Byte|Short|Char|Int|Long|Float|Double)")
+                        && descriptor.startsWith("(Ldev/w0fv1/test/MetricEntity;Ljava/lang/String;");
+                if (!primitiveAccessor) {
+                    return null;
+                }
+                return new MethodVisitor(Opcodes.ASM9) {
+                    @Override
+                    public void visitMethodInsn(int opcode, String owner, String method, String desc, boolean itf) {
+                        if (method.equals("valueOf") || method.endsWith("Value")) {
+                            boxingCalls.add(name + " -> " + owner + "." + method);
+                        }
+                    }
+                };
+            }
+        }, 0);
+
+        assertEquals(List.of(), boxingCalls);
+    }
+
+    @Test
+    void copyTransfersEveryFieldAndKeepsListSemantics() throws Exception {
+        JavaFileObject entity = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.CopyEntity",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Entity;
+
+                        import java.util.ArrayList;
+                        import java.util.List;
+
+                        @Entity
+                        public class CopyEntity {
+                            private Long id;
+                            private String name;
+                            private int age;
+                            private final List<String> tags = new ArrayList<>();
+                            private List<String> labels = new ArrayList<>();
+
+                            public Long getId() { return id; }
+                            public void setId(Long id) { this.id = id; }
+
+                            public String getName() { return name; }
+                            public void setName(String name) { this.name = name; }
+
+                            public int getAge() { return age; }
+                            public void setAge(int age) { this.age = age; }
+
+                            public List<String> getTags() { return tags; }
+                            public void setTags(List<String> tags) {
+                                this.tags.clear();
+                                if (tags != null) {
+                                    this.tags.addAll(tags);
+                                }
+                            }
+
+                            public List<String> getLabels() { return labels; }
+                            public void setLabels(List<String> labels) { this.labels = labels; }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity);
+
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.CopyEntity");
+        Class<?> fieldMapperClass = loader.loadClass("dev.w0fv1.test.CopyEntity$FieldMapper");
+        Method set = fieldMapperClass.getMethod("set", entityClass, String.class, Object.class);
+        Method get = fieldMapperClass.getMethod("get", entityClass, String.class);
+        Method copy = fieldMapperClass.getMethod("copy", entityClass, entityClass);
+        assertTrue(Modifier.isStatic(copy.getModifiers()));
+
+        Object src = entityClass.getConstructor().newInstance();
+        set.invoke(null, src, "id", 9L);
+        set.invoke(null, src, "name", "Alice");
+        set.invoke(null, src, "age", 42);
+        set.invoke(null, src, "tags", List.of("a", "b"));
+
+        Object dst = entityClass.getConstructor().newInstance();
+        set.invoke(null, dst, "tags", List.of("stale"));
+        Object dstTags = get.invoke(null, dst, "tags");
+
+        copy.invoke(null, src, dst);
+
+        assertEquals(9L, get.invoke(null, dst, "id"));
+        assertEquals("Alice", get.invoke(null, dst, "name"));
+        assertEquals(42, get.invoke(null, dst, "age"));
+        assertEquals(List.of("a", "b"), get.invoke(null, dst, "tags"));
+        // The managed list instance is refilled, not replaced or shared with the source.
+        assertSame(dstTags, get.invoke(null, dst, "tags"));
+        assertNotSame(get.invoke(null, src, "tags"), get.invoke(null, dst, "tags"));
+
+        // Copying an instance onto itself must not clear its lists.
+        copy.invoke(null, src, src);
+        assertEquals(List.of("a", "b"), get.invoke(null, src, "tags"));
+
+        // A null source list is stored as null over an initialized one (cleared for the final list), on every
+        // path that refills lists in place.
+        Method copyMasked = fieldMapperClass.getMethod("copyMasked", entityClass, entityClass, long.class);
+        Method fromArray = fieldMapperClass.getMethod("fromArray", entityClass, Object[].class, int.class);
+        Method setAll = fieldMapperClass.getMethod("setAll", entityClass, Map.class);
+        Object empty = entityClass.getConstructor().newInstance();
+        set.invoke(null, empty, "labels", null);
+        set.invoke(null, empty, "tags", null);
+        assertNull(get.invoke(null, empty, "labels"));
+        assertEquals(List.of(), get.invoke(null, empty, "tags"));
+        Object target = entityClass.getConstructor().newInstance();
+        copy.invoke(null, empty, target);
+        assertNull(get.invoke(null, target, "labels"));
+        target = entityClass.getConstructor().newInstance();
+        set.invoke(null, target, "tags", List.of("stale"));
+        copyMasked.invoke(null, empty, target, -1L);
+        assertNull(get.invoke(null, target, "labels"));
+        assertEquals(List.of(), get.invoke(null, target, "tags"));
+        target = entityClass.getConstructor().newInstance();
+        fromArray.invoke(null, target, new Object[]{null, null, 0, null, null}, 0);
+        assertNull(get.invoke(null, target, "labels"));
+        target = entityClass.getConstructor().newInstance();
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("labels", null);
+        setAll.invoke(null, target, patch);
+        assertNull(get.invoke(null, target, "labels"));
+    }
+
+    @Test
+    void setAllAndToMapRoundTripThroughMaps() throws Exception {
+        JavaFileObject entity = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.PatchEntity",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Entity;
+
+                        import java.util.ArrayList;
+                        import java.util.List;
+
+                        @Entity
+                        public class PatchEntity {
+                            private Long id;
+                            private String name;
+                            private int age;
+                            private final List<String> tags = new ArrayList<>();
+
+                            public Long getId() { return id; }
+                            public void setId(Long id) { this.id = id; }
+
+                            public String getName() { return name; }
+                            public void setName(String name) { this.name = name; }
+
+                            public int getAge() { return age; }
+                            public void setAge(int age) { this.age = age; }
+
+                            public List<String> getTags() { return tags; }
+                            public void setTags(List<String> tags) {
+                                this.tags.clear();
+                                if (tags != null) {
+                                    this.tags.addAll(tags);
+                                }
+                            }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity);
+
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.PatchEntity");
+        Class<?> fieldMapperClass = loader.loadClass("dev.w0fv1.test.PatchEntity$FieldMapper");
+        Method setAll = fieldMapperClass.getMethod("setAll", entityClass, Map.class);
+        Method toMap = fieldMapperClass.getMethod("toMap", entityClass);
+        Method toMapInto = fieldMapperClass.getMethod("toMap", entityClass, Map.class);
+        Method get = fieldMapperClass.getMethod("get", entityClass, String.class);
+
+        Object e = entityClass.getConstructor().newInstance();
+        setAll.invoke(null, e, Map.of("name", "Alice", "age", 30, "tags", List.of("a")));
+
+        assertNull(get.invoke(null, e, "id"));
+        assertEquals("Alice", get.invoke(null, e, "name"));
+        assertEquals(30, get.invoke(null, e, "age"));
+        assertEquals(List.of("a"), get.invoke(null, e, "tags"));
+
+        Map<?, ?> exported = (Map<?, ?>) toMap.invoke(null, e);
+        assertEquals(List.of("id", "name", "age", "tags"), new ArrayList<>(exported.keySet()));
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("id", null);
+        expected.put("name", "Alice");
+        expected.put("age", 30);
+        expected.put("tags", List.of("a"));
+        assertEquals(expected, exported);
+
+        Map<String, Object> reused = new HashMap<>();
+        assertSame(reused, toMapInto.invoke(null, e, reused));
+        assertEquals(expected, reused);
+
+        InvocationTargetException ex = assertThrows(
+                InvocationTargetException.class,
+                () -> setAll.invoke(null, e, Map.of("no_such_field", 1))
+        );
+        assertTrue(ex.getCause() instanceof IllegalArgumentException);
+    }
+
+    @Test
+    void toArrayAndFromArrayUseDeclarationOrderAndOffsets() throws Exception {
+        JavaFileObject entity = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.ArrayEntity",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Entity;
+
+                        import java.util.ArrayList;
+                        import java.util.List;
+
+                        @Entity
+                        public class ArrayEntity {
+                            private Long id;
+                            private String name;
+                            private int age;
+                            private final List<String> tags = new ArrayList<>();
+
+                            public Long getId() { return id; }
+                            public void setId(Long id) { this.id = id; }
+
+                            public String getName() { return name; }
+                            public void setName(String name) { this.name = name; }
+
+                            public int getAge() { return age; }
+                            public void setAge(int age) { this.age = age; }
+
+                            public List<String> getTags() { return tags; }
+                            public void setTags(List<String> tags) {
+                                this.tags.clear();
+                                if (tags != null) {
+                                    this.tags.addAll(tags);
+                                }
+                            }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity);
+
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.ArrayEntity");
+        Class<?> fieldMapperClass = loader.loadClass("dev.w0fv1.test.ArrayEntity$FieldMapper");
+        Method toArray = fieldMapperClass.getMethod("toArray", entityClass);
+        Method toArrayInto = fieldMapperClass.getMethod("toArray", entityClass, Object[].class, int.class);
+        Method fromArray = fieldMapperClass.getMethod("fromArray", entityClass, Object[].class, int.class);
+
+        assertArrayEquals(
+                new String[]{"id", "name", "age", "tags"},
+                (String[]) fieldMapperClass.getField("FIELD_NAMES").get(null)
+        );
+
+        Object a = entityClass.getConstructor().newInstance();
+        Object b = entityClass.getConstructor().newInstance();
+
+        // Two rows packed into one flat buffer after a one-slot header.
+        Object[] buffer = new Object[1 + 2 * 4];
+        buffer[0] = "header";
+        System.arraycopy(new Object[]{1L, "Alice", 30, List.of("a")}, 0, buffer, 1, 4);
+        System.arraycopy(new Object[]{2L, "Bob", 40, List.of("b", "c")}, 0, buffer, 5, 4);
+
+        fromArray.invoke(null, a, buffer, 1);
+        fromArray.invoke(null, b, buffer, 5);
+
+        assertArrayEquals(new Object[]{1L, "Alice", 30, List.of("a")}, (Object[]) toArray.invoke(null, a));
+        assertArrayEquals(new Object[]{2L, "Bob", 40, List.of("b", "c")}, (Object[]) toArray.invoke(null, b));
+
+        Object[] out = new Object[9];
+        toArrayInto.invoke(null, b, out, 0);
+        toArrayInto.invoke(null, a, out, 4);
+        assertArrayEquals(new Object[]{2L, "Bob", 40, List.of("b", "c"), 1L, "Alice", 30, List.of("a"), null}, out);
+
+        // Out-of-range offsets fail before any slot is written.
+        Object[] shortRow = new Object[5];
+        InvocationTargetException ex = assertThrows(
+                InvocationTargetException.class,
+                () -> toArrayInto.invoke(null, a, shortRow, 2)
+        );
+        assertTrue(ex.getCause() instanceof IndexOutOfBoundsException);
+        assertArrayEquals(new Object[5], shortRow);
+    }
+
+    @Test
+    void fieldAccessModeBypassesAccessorsUnlessOverridden() throws Exception {
+        JavaFileObject entity = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.FieldModeEntity",
+                """
+                        package dev.w0fv1.test;
+
+                        import dev.w0fv1.mapper.FieldAccess;
+                        import jakarta.persistence.Entity;
+
+                        import java.util.ArrayList;
+                        import java.util.List;
+
+                        @Entity
+                        public class FieldModeEntity {
+                            private long id;
+                            private String name;
+                            private final List<String> tags = new ArrayList<>();
+
+                            @FieldAccess(FieldAccess.Mode.PROPERTY)
+                            private String label;
+
+                            public String getLabel() { return label; }
+                            public void setLabel(String label) { this.label = label.toUpperCase(); }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.access=field")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity);
+
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.FieldModeEntity");
+        Class<?> fieldMapperClass = loader.loadClass("dev.w0fv1.test.FieldModeEntity$FieldMapper");
+        Object e = entityClass.getConstructor().newInstance();
+
+        Method set = fieldMapperClass.getMethod("set", entityClass, String.class, Object.class);
+        Method get = fieldMapperClass.getMethod("get", entityClass, String.class);
+        Method setLong = fieldMapperClass.getMethod("setLong", entityClass, String.class, long.class);
+        Method setTags = fieldMapperClass.getMethod("setTags", entityClass, List.class);
+
+        set.invoke(null, e, "name", "Alice");
+        setLong.invoke(null, e, "id", 7L);
+        assertEquals("Alice", get.invoke(null, e, "name"));
+        assertEquals(7L, get.invoke(null, e, "id"));
+
+        // A final List is refilled in place rather than assigned.
+        Object tags = get.invoke(null, e, "tags");
+        setTags.invoke(null, e, new ArrayList<>(List.of("a", "b")));
+        assertEquals(List.of("a", "b"), get.invoke(null, e, "tags"));
+        assertSame(tags, get.invoke(null, e, "tags"));
+
+        // The PROPERTY override still goes through the setter.
+        set.invoke(null, e, "label", "hot");
+        assertEquals("HOT", get.invoke(null, e, "label"));
+
+        Compilation invalid = Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.access=bean")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity);
+
+        assertThat(invalid).failed();
+        assertThat(invalid).hadErrorContaining("fmapper.access");
+    }
+
+    @Test
+    void diffReportsChangedFieldsAndCopyMaskedAppliesThem() throws Exception {
+        JavaFileObject entity = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.AuditEntity",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Entity;
+
+                        @Entity
+                        public class AuditEntity {
+                            private long version;
+                            private double score;
+                            private String name;
+
+                            public long getVersion() { return version; }
+                            public void setVersion(long version) { this.version = version; }
+
+                            public double getScore() { return score; }
+                            public void setScore(double score) { this.score = score; }
+
+                            public String getName() { return name; }
+                            public void setName(String name) { this.name = name; }
+                        }
+                        """
+        );
+
+        StringBuilder wideSource = new StringBuilder("""
+                package dev.w0fv1.test;
+
+                import jakarta.persistence.Entity;
+
+                @Entity
+                public class WideEntity {
+                """);
+        for (int i = 0; i < 70; i++) {
+            wideSource.append("    private int f").append(i).append(";\n");
+            wideSource.append("    public int getF").append(i).append("() { return f").append(i).append("; }\n");
+            wideSource.append("    public void setF").append(i).append("(int v) { this.f").append(i).append(" = v; }\n");
+        }
+        wideSource.append("}\n");
+        JavaFileObject wide = JavaFileObjects.forSourceString("dev.w0fv1.test.WideEntity", wideSource.toString());
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity, wide);
+
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.AuditEntity");
+        Class<?> fieldMapperClass = loader.loadClass("dev.w0fv1.test.AuditEntity$FieldMapper");
+        Method set = fieldMapperClass.getMethod("set", entityClass, String.class, Object.class);
+        Method get = fieldMapperClass.getMethod("get", entityClass, String.class);
+        Method diff = fieldMapperClass.getMethod("diff", entityClass, entityClass);
+        Method copyMasked = fieldMapperClass.getMethod("copyMasked", entityClass, entityClass, long.class);
+        assertEquals(long.class, diff.getReturnType());
+
+        Object a = entityClass.getConstructor().newInstance();
+        Object b = entityClass.getConstructor().newInstance();
+        assertEquals(0L, diff.invoke(null, a, b));
+
+        set.invoke(null, a, "score", Double.NaN);
+        set.invoke(null, b, "score", Double.NaN);
+        set.invoke(null, a, "name", new String("same"));
+        set.invoke(null, b, "name", new String("same"));
+        // NaN equals NaN and strings compare by value.
+        assertEquals(0L, diff.invoke(null, a, b));
+
+        set.invoke(null, b, "version", 2L);
+        set.invoke(null, b, "name", "changed");
+        long mask = (long) diff.invoke(null, a, b);
+        assertEquals(0b101L, mask);
+
+        set.invoke(null, b, "score", 1.5d);
+        copyMasked.invoke(null, b, a, mask);
+        assertEquals(2L, get.invoke(null, a, "version"));
+        assertEquals("changed", get.invoke(null, a, "name"));
+        assertEquals(Double.NaN, get.invoke(null, a, "score"));
+        assertEquals(0b010L, diff.invoke(null, a, b));
+
+        Class<?> wideClass = loader.loadClass("dev.w0fv1.test.WideEntity");
+        Class<?> wideMapper = loader.loadClass("dev.w0fv1.test.WideEntity$FieldMapper");
+        Method wideSet = wideMapper.getMethod("set", wideClass, String.class, Object.class);
+        Method wideGet = wideMapper.getMethod("get", wideClass, String.class);
+        Method wideDiff = wideMapper.getMethod("diff", wideClass, wideClass);
+        Method wideCopyMasked = wideMapper.getMethod("copyMasked", wideClass, wideClass, long[].class);
+
+        Object w1 = wideClass.getConstructor().newInstance();
+        Object w2 = wideClass.getConstructor().newInstance();
+        wideSet.invoke(null, w2, "f1", 1);
+        wideSet.invoke(null, w2, "f65", 65);
+        long[] wideMask = (long[]) wideDiff.invoke(null, w1, w2);
+        assertArrayEquals(new long[]{1L << 1, 1L << 1}, wideMask);
+
+        wideCopyMasked.invoke(null, w2, w1, new long[]{0L, 1L << 1});
+        assertEquals(0, wideGet.invoke(null, w1, "f1"));
+        assertEquals(65, wideGet.invoke(null, w1, "f65"));
+    }
+
+    @Test
+    void dirtyTrackingMarksEveryGeneratedWritePath() throws Exception {
+        JavaFileObject entity = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.DirtyEntity",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Entity;
+
+                        import java.util.ArrayList;
+                        import java.util.List;
+
+                        @Entity
+                        public class DirtyEntity {
+                            private long id;
+                            private int count;
+                            private String name;
+                            private List<String> tags = new ArrayList<>();
+
+                            public long getId() { return id; }
+                            public void setId(long id) { this.id = id; }
+
+                            public int getCount() { return count; }
+                            public void setCount(int count) { this.count = count; }
+
+                            public String getName() { return name; }
+                            public void setName(String name) { this.name = name; }
+
+                            public List<String> getTags() { return tags; }
+                            public void setTags(List<String> tags) { this.tags = tags; }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.dirtyTracking=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity);
+
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.DirtyEntity");
+        Class<?> fieldMapperClass = loader.loadClass("dev.w0fv1.test.DirtyEntity$FieldMapper");
+
+        int dirtyModifiers = entityClass.getDeclaredField("fmapper$dirty0").getModifiers();
+        assertTrue(Modifier.isTransient(dirtyModifiers));
+        assertTrue(Modifier.isPrivate(dirtyModifiers));
+
+        Method set = fieldMapperClass.getMethod("set", entityClass, String.class, Object.class);
+        Method setByOrdinal = fieldMapperClass.getMethod("set", entityClass, int.class, Object.class);
+        Method setInt = fieldMapperClass.getMethod("setInt", entityClass, String.class, int.class);
+        Method setName = fieldMapperClass.getMethod("setName", entityClass, String.class);
+        Method fromArray = fieldMapperClass.getMethod("fromArray", entityClass, Object[].class, int.class);
+        Method copy = fieldMapperClass.getMethod("copy", entityClass, entityClass);
+        Method dirtyMask = fieldMapperClass.getMethod("dirtyMask", entityClass);
+        Method dirtyFields = fieldMapperClass.getMethod("dirtyFields", entityClass);
+        Method clearDirty = fieldMapperClass.getMethod("clearDirty", entityClass);
+
+        Object e = entityClass.getConstructor().newInstance();
+        assertEquals(0L, dirtyMask.invoke(null, e));
+
+        set.invoke(null, e, "count", 3);
+        assertEquals(0b010L, dirtyMask.invoke(null, e));
+        setName.invoke(null, e, "Alice");
+        assertEquals(0b110L, dirtyMask.invoke(null, e));
+        assertEquals(List.of("count", "name"), dirtyFields.invoke(null, e));
+
+        clearDirty.invoke(null, e);
+        assertEquals(0L, dirtyMask.invoke(null, e));
+        assertEquals(List.of(), dirtyFields.invoke(null, e));
+
+        setInt.invoke(null, e, "id", 5);
+        assertEquals(0b001L, dirtyMask.invoke(null, e));
+        clearDirty.invoke(null, e);
+        setByOrdinal.invoke(null, e, 2, "Bob");
+        assertEquals(0b100L, dirtyMask.invoke(null, e));
+        clearDirty.invoke(null, e);
+        fromArray.invoke(null, e, new Object[]{1L, 2, "Carol", List.of()}, 0);
+        assertEquals(0b111L, dirtyMask.invoke(null, e));
+
+        Object fresh = entityClass.getConstructor().newInstance();
+        copy.invoke(null, e, fresh);
+        assertEquals(0b111L, dirtyMask.invoke(null, fresh));
+        // The source is only read.
+        clearDirty.invoke(null, e);
+        copy.invoke(null, e, fresh);
+        assertEquals(0L, dirtyMask.invoke(null, e));
+
+        // Writing the value a field already holds leaves it clean, so an unchanged entity needs no UPDATE.
+        set.invoke(null, e, "count", 2);
+        setInt.invoke(null, e, "id", 1);
+        setName.invoke(null, e, "Carol");
+        fromArray.invoke(null, e, new Object[]{1L, 2, "Carol", List.of()}, 0);
+        clearDirty.invoke(null, fresh);
+        copy.invoke(null, e, fresh);
+        assertEquals(0L, dirtyMask.invoke(null, e));
+        assertEquals(0L, dirtyMask.invoke(null, fresh));
+        // Lists are refilled in place; their contents are compared with the old ones.
+        set.invoke(null, e, "tags", List.of("a"));
+        assertEquals(0b1000L, dirtyMask.invoke(null, e));
+        clearDirty.invoke(null, e);
+        set.invoke(null, e, "tags", List.of("a"));
+        assertEquals(0L, dirtyMask.invoke(null, e));
+        set.invoke(null, e, "tags", null);
+        assertEquals(0b1000L, dirtyMask.invoke(null, e));
+    }
+
+    @Test
+    void wideEntitySplitsGeneratedMethodsUnderHugeMethodLimit() throws Exception {
+        String[] types = {"int", "String", "long", "double", "List<String>"};
+        StringBuilder source = new StringBuilder("""
+                package dev.w0fv1.test;
+
+                import jakarta.persistence.Entity;
+
+                import java.util.List;
+
+                @Entity
+                public class HugeEntity {
+                """);
+        for (int i = 0; i < 400; i++) {
+            String type = types[i % types.length];
+            source.append("    private ").append(type).append(" f").append(i).append(";\n");
+            source.append("    public ").append(type).append(" getF").append(i).append("() { return f").append(i).append("; }\n");
+            source.append("    public void setF").append(i).append("(").append(type).append(" v) { this.f").append(i).append(" = v; }\n");
+        }
+        source.append("}\n");
+        JavaFileObject entity = JavaFileObjects.forSourceString("dev.w0fv1.test.HugeEntity", source.toString());
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.dirtyTracking=true", "-Afmapper.columns=true",
+                        "-Afmapper.jdbc=true", "-Afmapper.json=true", "-Afmapper.binary=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity);
+
+        assertThat(compilation).succeededWithoutWarnings();
+
+        Map<String, Integer> codeSizes = methodCodeSizes(compilation, "HugeEntity$FieldMapper.class");
+        codeSizes.forEach((method, size) -> assertTrue(size < 8000, method + " is " + size + " bytes"));
+        assertTrue(codeSizes.keySet().stream().anyMatch(m -> m.startsWith("set$bucket")));
+        assertTrue(codeSizes.keySet().stream().anyMatch(m -> m.startsWith("get$range")));
+        assertTrue(codeSizes.keySet().stream().anyMatch(m -> m.startsWith("toArray$range")));
+        assertTrue(codeSizes.keySet().stream().anyMatch(m -> m.startsWith("contentEquals$range")));
+
+        // A coercing, dirty-tracking setColumn case is several times a plain store; 64 of them would pass the limit.
+        Compilation coercing = Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.coerce=true", "-Afmapper.dirtyTracking=true",
+                        "-Afmapper.columns=true", "-Afmapper.jdbc=true", "-Afmapper.json=true", "-Afmapper.binary=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity);
+        assertThat(coercing).succeededWithoutWarnings();
+        Map<String, Integer> coercingSizes = methodCodeSizes(coercing, "HugeEntity$FieldMapper.class");
+        coercingSizes.forEach((method, size) -> assertTrue(size < 8000, method + " is " + size + " bytes"));
+        assertTrue(coercingSizes.keySet().stream().filter(m -> m.startsWith("setColumn$range")).count() > 400 / 64 + 1);
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.HugeEntity");
+        Class<?> fieldMapperClass = loader.loadClass("dev.w0fv1.test.HugeEntity$FieldMapper");
+        Method set = fieldMapperClass.getMethod("set", entityClass, String.class, Object.class);
+        Method get = fieldMapperClass.getMethod("get", entityClass, String.class);
+        Method getByOrdinal = fieldMapperClass.getMethod("get", entityClass, int.class);
+        Method indexOf = fieldMapperClass.getMethod("indexOf", String.class);
+        Method setInt = fieldMapperClass.getMethod("setInt", entityClass, String.class, int.class);
+        Method toArray = fieldMapperClass.getMethod("toArray", entityClass);
+        Method fromArray = fieldMapperClass.getMethod("fromArray", entityClass, Object[].class, int.class);
+        Method diff = fieldMapperClass.getMethod("diff", entityClass, entityClass);
+        Method dirtyFields = fieldMapperClass.getMethod("dirtyFields", entityClass);
+
+        Object e = entityClass.getConstructor().newInstance();
+        set.invoke(null, e, "f0", 1);
+        set.invoke(null, e, "f396", "last string");
+        setInt.invoke(null, e, "f395", 7);
+        assertEquals(1, get.invoke(null, e, "f0"));
+        assertEquals("last string", get.invoke(null, e, "f396"));
+        assertEquals(7, getByOrdinal.invoke(null, e, 395));
+        assertEquals(399, indexOf.invoke(null, "f399"));
+        assertEquals(-1, indexOf.invoke(null, "f400"));
+        assertEquals(-1, indexOf.invoke(null, (Object) null));
+        assertEquals(List.of("f0", "f395", "f396"), dirtyFields.invoke(null, e));
+
+        assertMismatch(() -> setInt.invoke(null, e, "f1", 1), "Field f1 cannot be set from int");
+        InvocationTargetException unknown = assertThrows(InvocationTargetException.class, () -> get.invoke(null, e, "nope"));
+        assertEquals("Unknown field: nope", unknown.getCause().getMessage());
+        InvocationTargetException badOrdinal = assertThrows(InvocationTargetException.class, () -> getByOrdinal.invoke(null, e, -1));
+        assertEquals("Unknown field ordinal: -1", badOrdinal.getCause().getMessage());
+
+        Object copy = entityClass.getConstructor().newInstance();
+        fromArray.invoke(null, copy, toArray.invoke(null, e), 0);
+        assertArrayEquals(new long[7], (long[]) diff.invoke(null, e, copy));
+        set.invoke(null, copy, "f200", 2);
+        long[] mask = (long[]) diff.invoke(null, e, copy);
+        assertEquals(1L << (200 & 63), mask[200 >>> 6]);
+
+        Method contentEquals = fieldMapperClass.getMethod("contentEquals", entityClass, entityClass);
+        Method maskedHash = fieldMapperClass.getMethod("contentHash", entityClass, long[].class);
+        assertFalse((Boolean) contentEquals.invoke(null, e, copy));
+        long[] unchanged = new long[7];
+        Arrays.fill(unchanged, -1L);
+        unchanged[200 >>> 6] &= ~mask[200 >>> 6];
+        assertEquals(maskedHash.invoke(null, e, unchanged), maskedHash.invoke(null, copy, unchanged));
+        assertNotEquals(maskedHash.invoke(null, e, mask), maskedHash.invoke(null, copy, mask));
+    }
+
+    @Test
+    void injectsThroughWrappedProcessingEnvironment() {
+        JavaFileObject entity = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.WrappedEntity",
+                """
+                        package dev.w0fv1.test;
+                        import jakarta.persistence.Entity;
+
+                        @Entity
+                        public class WrappedEntity {
+                            private long id;
+                            public long getId() { return id; }
+                            public void setId(long id) { this.id = id; }
+                        }
+                        """
+        );
+        JavaFileObject caller = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.WrappedEntityCaller",
+                """
+                        package dev.w0fv1.test;
+                        public class WrappedEntityCaller {
+                            public static long run(WrappedEntity e) {
+                                return WrappedEntity.FieldMapper.getId(e);
+                            }
+                        }
+                        """
+        );
+
+        // Gradle's incremental processing hands processors a delegating environment like this one.
+        Compilation wrapped = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new WrappedEnvironmentProcessor(DelegatingProcessingEnvironment::new))
+                .compile(entity, caller);
+        assertThat(wrapped).succeeded();
+
+        // No way back to javac: warn and leave the entity alone instead of failing the processor.
+        Compilation opaque = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new WrappedEnvironmentProcessor(env -> {
+                    Object target = env;
+                    return (ProcessingEnvironment) Proxy.newProxyInstance(
+                            ProcessingEnvironment.class.getClassLoader(),
+                            new Class<?>[]{ProcessingEnvironment.class},
+                            (proxy, method, args) -> method.invoke(target, args)
+                    );
+                }))
+                .compile(entity);
+        assertThat(opaque).succeeded();
+        assertThat(opaque).hadWarningContaining("FieldMapper is not injected");
+        assertTrue(opaque.generatedFiles().stream().noneMatch(f -> f.getName().endsWith("WrappedEntity$FieldMapper.class")));
+    }
+
+    @Test
+    void leavesEntitiesAndEmbeddablesToLaterProcessors() {
+        JavaFileObject entity = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.Customer",
+                """
+                        package dev.w0fv1.test;
+                        import jakarta.persistence.Embeddable;
+                        import jakarta.persistence.Entity;
+
+                        @Entity
+                        public class Customer {
+                            private long id;
+                            private Address address;
+                            public long getId() { return id; }
+                            public void setId(long id) { this.id = id; }
+                            public Address getAddress() { return address; }
+                            public void setAddress(Address address) { this.address = address; }
+
+                            @Embeddable
+                            public static class Address {
+                                private String city;
+                                public String getCity() { return city; }
+                                public void setCity(String city) { this.city = city; }
+                            }
+                        }
+                        """
+        );
+        // A metamodel generator running after fmapper must still be handed both annotations.
+        Set<String> seen = new TreeSet<>();
+        AbstractProcessor later = new AbstractProcessor() {
+            @Override
+            public Set<String> getSupportedAnnotationTypes() {
+                return Set.of("jakarta.persistence.Entity", "jakarta.persistence.Embeddable");
+            }
+
+            @Override
+            public SourceVersion getSupportedSourceVersion() {
+                return SourceVersion.latestSupported();
+            }
+
+            @Override
+            public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+                for (TypeElement annotation : annotations) {
+                    roundEnv.getElementsAnnotatedWith(annotation).forEach(e -> seen.add(e.getSimpleName().toString()));
+                }
+                return false;
+            }
+        };
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new FieldMapperProcessor(), later)
+                .compile(entity);
+        assertThat(compilation).succeeded();
+        assertEquals(Set.of("Address", "Customer"), seen);
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void registryIndexesInjectedEntitiesPerPackage() throws Exception {
+        JavaFileObject order = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.shop.Order",
+                """
+                        package dev.w0fv1.test.shop;
+                        import jakarta.persistence.Entity;
+
+                        @Entity
+                        public class Order {
+                            private long id;
+                            public long getId() { return id; }
+                            public void setId(long id) { this.id = id; }
+                        }
+                        """
+        );
+        JavaFileObject line = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.shop.Line",
+                """
+                        package dev.w0fv1.test.shop;
+                        import jakarta.persistence.Entity;
+
+                        @Entity
+                        class Line {
+                            private String sku;
+                            public String getSku() { return sku; }
+                            public void setSku(String sku) { this.sku = sku; }
+                        }
+                        """
+        );
+        JavaFileObject customer = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.crm.Customer",
+                """
+                        package dev.w0fv1.test.crm;
+                        import jakarta.persistence.Entity;
+
+                        public class Customer {
+                            @Entity
+                            public static class Contact {
+                                private String email;
+                                public String getEmail() { return email; }
+                                public void setEmail(String email) { this.email = email; }
+                            }
+
+                            @Entity
+                            private static class Secret {
+                                private String value;
+                                public String getValue() { return value; }
+                                public void setValue(String value) { this.value = value; }
+                            }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.registry=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(order, line, customer);
+        assertThat(compilation).succeeded();
+        assertThat(compilation).hadWarningContaining("Secret is not registered in FieldMappers");
+
+        JavaFileObject serviceFile = compilation
+                .generatedFile(javax.tools.StandardLocation.CLASS_OUTPUT, "", FieldMapperIndexWriter.SERVICE_FILE)
+                .orElseThrow(() -> new AssertionError("Missing " + FieldMapperIndexWriter.SERVICE_FILE));
+        List<String> indexNames = serviceFile.getCharContent(true).toString().lines().toList();
+        assertEquals(2, indexNames.size());
+        assertTrue(indexNames.get(0).startsWith("dev.w0fv1.test.crm.FieldMapperIndex_"), indexNames.get(0));
+        assertTrue(indexNames.get(1).startsWith("dev.w0fv1.test.shop.FieldMapperIndex_"), indexNames.get(1));
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Map<Class<?>, EntityAccessor<?>> registry = new HashMap<>();
+        for (String indexName : indexNames) {
+            ((FieldMapperIndex) loader.loadClass(indexName).getConstructor().newInstance()).registerAll(registry);
+        }
+        Class<?> orderClass = loader.loadClass("dev.w0fv1.test.shop.Order");
+        Class<?> lineClass = loader.loadClass("dev.w0fv1.test.shop.Line");
+        Class<?> contactClass = loader.loadClass("dev.w0fv1.test.crm.Customer$Contact");
+        assertEquals(Set.of(orderClass, lineClass, contactClass), registry.keySet());
+
+        EntityAccessor accessor = registry.get(orderClass);
+        assertSame(loader.loadClass("dev.w0fv1.test.shop.Order$FieldMapper").getField("INSTANCE").get(null), accessor);
+        assertEquals(orderClass, accessor.entityType());
+        Object o = orderClass.getConstructor().newInstance();
+        accessor.set(o, "id", 42L);
+        assertEquals(42L, accessor.get(o, "id"));
+        assertThrows(IllegalArgumentException.class, () -> accessor.get(o, "nope"));
+
+        // Without the option nothing is generated beyond the injected INSTANCE.
+        Compilation plain = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(order);
+        assertThat(plain).succeeded();
+        assertTrue(plain.generatedSourceFiles().isEmpty());
+        assertTrue(plain.generatedFile(javax.tools.StandardLocation.CLASS_OUTPUT, "", FieldMapperIndexWriter.SERVICE_FILE).isEmpty());
+    }
+
+    @Test
+    void instanceImplementsEntityAccessorByDelegating() throws Exception {
+        JavaFileObject entity = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.AccessorEntity",
+                """
+                        package dev.w0fv1.test;
+                        import jakarta.persistence.Entity;
+
+                        @Entity
+                        public class AccessorEntity {
+                            private long id;
+                            private String name;
+
+                            protected AccessorEntity() {
+                            }
+
+                            public AccessorEntity(long id) { this.id = id; }
+
+                            public long getId() { return id; }
+                            public void setId(long id) { this.id = id; }
+
+                            public String getName() { return name; }
+                            public void setName(String name) { this.name = name; }
+                        }
+                        """
+        );
+        JavaFileObject abstractEntity = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.BaseEntity",
+                """
+                        package dev.w0fv1.test;
+                        import jakarta.persistence.Entity;
+
+                        @Entity
+                        public abstract class BaseEntity {
+                            private long version;
+                            public long getVersion() { return version; }
+                            public void setVersion(long version) { this.version = version; }
+                        }
+                        """
+        );
+        JavaFileObject caller = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.AccessorCaller",
+                """
+                        package dev.w0fv1.test;
+                        import dev.w0fv1.mapper.EntityAccessor;
+
+                        public class AccessorCaller {
+                            public static Object run() {
+                                EntityAccessor<AccessorEntity> accessor = AccessorEntity.FieldMapper.INSTANCE;
+                                AccessorEntity e = accessor.newInstance();
+                                accessor.set(e, AccessorEntity.FieldMapper.NAME, "Alice");
+                                return accessor.get(e, "name");
+                            }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity, abstractEntity, caller);
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        assertEquals("Alice", loader.loadClass("dev.w0fv1.test.AccessorCaller").getMethod("run").invoke(null));
+
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.AccessorEntity");
+        @SuppressWarnings("unchecked")
+        EntityAccessor<Object> accessor = (EntityAccessor<Object>) loader
+                .loadClass("dev.w0fv1.test.AccessorEntity$FieldMapper").getField("INSTANCE").get(null);
+        assertEquals(entityClass, accessor.entityType());
+        assertEquals(2, accessor.fieldCount());
+        Object e = accessor.newInstance();
+        assertEquals(entityClass, e.getClass());
+        accessor.set(e, 0, 7L);
+        assertEquals(7L, accessor.get(e, "id"));
+        assertEquals(7L, accessor.get(e, 0));
+        assertThrows(IllegalArgumentException.class, () -> accessor.get(e, 2));
+
+        @SuppressWarnings("unchecked")
+        EntityAccessor<Object> base = (EntityAccessor<Object>) loader
+                .loadClass("dev.w0fv1.test.BaseEntity$FieldMapper").getField("INSTANCE").get(null);
+        assertThrows(UnsupportedOperationException.class, base::newInstance);
+        // JSON and binary are opt-in; without them the accessor says so instead of failing to link.
+        assertThrows(UnsupportedOperationException.class, () -> accessor.writeJson(e, JsonWriter.of(new StringBuilder())));
+        assertThrows(UnsupportedOperationException.class, () -> accessor.serializedSize(e));
+
+        // Every accessor method is a single static call into FieldMapper.
+        byte[] bytes = readGeneratedClass(compilation, "AccessorEntity$FieldMapper$1.class");
+        Map<String, List<String>> calls = new HashMap<>();
+        new ClassReader(bytes).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+                if ((access & Opcodes.ACC_BRIDGE) != 0 || !Set.of("get", "set").contains(name)) return null;
+                List<String> targets = calls.computeIfAbsent(name + desc, k -> new ArrayList<>());
+                return new MethodVisitor(Opcodes.ASM9) {
+                    @Override
+                    public void visitMethodInsn(int opcode, String owner, String method, String d, boolean itf) {
+                        targets.add(opcode + " " + owner + "." + method);
+                    }
+                };
+            }
+        }, 0);
+        assertEquals(4, calls.size(), calls.toString());
+        calls.forEach((method, targets) -> assertEquals(
+                List.of(Opcodes.INVOKESTATIC + " dev/w0fv1/test/AccessorEntity$FieldMapper." + method.substring(0, 3)),
+                targets,
+                method
+        ));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void fieldAccessorsAreCachedFinalClassesPerField() throws Exception {
+        JavaFileObject entity = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.HandleEntity",
+                """
+                        package dev.w0fv1.test;
+                        import jakarta.persistence.Entity;
+
+                        import java.util.ArrayList;
+                        import java.util.List;
+
+                        @Entity
+                        public class HandleEntity {
+                            private long total;
+                            private int hits;
+                            private String name;
+                            private final List<String> tags = new ArrayList<>();
+
+                            public long getTotal() { return total; }
+                            public void setTotal(long total) { this.total = total; }
+
+                            public int getHits() { return hits; }
+                            public void setHits(int hits) { this.hits = hits; }
+
+                            public String getName() { return name; }
+                            public void setName(String name) { this.name = name; }
+
+                            public List<String> getTags() { return tags; }
+                            public void setTags(List<String> tags) { throw new UnsupportedOperationException(); }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.accessors=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity);
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.HandleEntity");
+        Class<?> fieldMapperClass = loader.loadClass("dev.w0fv1.test.HandleEntity$FieldMapper");
+        Method byName = fieldMapperClass.getMethod("accessor", String.class);
+        Method byOrdinal = fieldMapperClass.getMethod("accessor", int.class);
+
+        FieldAccessor total = (FieldAccessor) byName.invoke(null, "total");
+        FieldAccessor hits = (FieldAccessor) byName.invoke(null, "hits");
+        FieldAccessor name = (FieldAccessor) byName.invoke(null, "name");
+        FieldAccessor tags = (FieldAccessor) byName.invoke(null, "tags");
+        assertSame(total, byName.invoke(null, "total"));
+        assertSame(total, byOrdinal.invoke(null, 0));
+        assertSame(tags, byOrdinal.invoke(null, 3));
+        assertEquals("hits", hits.name());
+        assertEquals(1, hits.ordinal());
+        assertEquals(int.class, hits.type());
+        assertEquals(List.class, tags.type());
+        Set<Class<?>> classes = Set.of(total.getClass(), hits.getClass(), name.getClass(), tags.getClass());
+        assertEquals(4, classes.size());
+        for (Class<?> c : classes) {
+            assertTrue(Modifier.isFinal(c.getModifiers()), c.getName());
+        }
+
+        Object e = entityClass.getConstructor().newInstance();
+        total.setLong(e, 5L);
+        hits.setInt(e, 3);
+        total.setInt(e, total.getLong(e) > 0 ? 7 : 0);
+        assertEquals(7L, total.get(e));
+        assertEquals(3L, hits.getLong(e));
+        assertEquals(3.0, hits.getDouble(e));
+        name.set(e, "Alice");
+        assertEquals("Alice", name.get(e));
+        tags.set(e, List.of("a", "b"));
+        assertEquals(List.of("a", "b"), tags.get(e));
+
+        IllegalArgumentException narrowing = assertThrows(IllegalArgumentException.class, () -> total.getInt(e));
+        assertEquals("Field total cannot be read as int", narrowing.getMessage());
+        IllegalArgumentException wrongKind = assertThrows(IllegalArgumentException.class, () -> name.setLong(e, 1L));
+        assertEquals("Field name cannot be set from long", wrongKind.getMessage());
+        assertMismatch(() -> byName.invoke(null, "nope"), "Unknown field: nope");
+        assertMismatch(() -> byOrdinal.invoke(null, 4), "Unknown field ordinal: 4");
+
+        // Off by default: one class per field is a noticeable share of compile time.
+        Compilation plain = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity);
+        assertThat(plain).succeeded();
+        assertTrue(plain.generatedFiles().stream().noneMatch(f -> f.getName().contains("Accessors")));
+    }
+
+    @Test
+    void declaresGradleCategoryFromRegistryOption() {
+        JavaFileObject source = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.Plain",
+                "package dev.w0fv1.test; class Plain {}"
+        );
+
+        FieldMapperProcessor injectOnly = new FieldMapperProcessor();
+        assertThat(Compiler.javac().withOptions("-Afmapper.inline=true").withProcessors(injectOnly).compile(source))
+                .succeeded();
+        assertTrue(injectOnly.getSupportedOptions().contains("org.gradle.annotation.processing.isolating"));
+
+        FieldMapperProcessor withRegistry = new FieldMapperProcessor();
+        assertThat(Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.registry=true")
+                .withProcessors(withRegistry)
+                .compile(source))
+                .succeeded();
+        assertTrue(withRegistry.getSupportedOptions().contains("org.gradle.annotation.processing.aggregating"));
+        assertFalse(withRegistry.getSupportedOptions().contains("org.gradle.annotation.processing.isolating"));
+    }
+
+    @Test
+    void columnMethodsApplyAndExtractOneFieldAcrossEntities() throws Exception {
+        JavaFileObject entity = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.ColumnEntity",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Entity;
+                        import java.util.List;
+
+                        @Entity
+                        public class ColumnEntity {
+                            private int hits;
+                            private long total;
+                            private String name;
+                            private List<String> tags;
+
+                            public int getHits() { return hits; }
+                            public void setHits(int hits) { this.hits = hits; }
+
+                            public long getTotal() { return total; }
+                            public void setTotal(long total) { this.total = total; }
+
+                            public String getName() { return name; }
+                            public void setName(String name) { this.name = name; }
+
+                            public List<String> getTags() { return tags; }
+                            public void setTags(List<String> tags) { this.tags = tags; }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.columns=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity);
+
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.ColumnEntity");
+        Class<?> fieldMapperClass = loader.loadClass("dev.w0fv1.test.ColumnEntity$FieldMapper");
+        Method get = fieldMapperClass.getMethod("get", entityClass, String.class);
+        Method setColumn = fieldMapperClass.getMethod("setColumn", List.class, String.class, Object[].class);
+        Method getColumn = fieldMapperClass.getMethod("getColumn", List.class, String.class, Object[].class);
+        Method setIntColumn = fieldMapperClass.getMethod("setIntColumn", List.class, String.class, int[].class);
+        Method setLongColumn = fieldMapperClass.getMethod("setLongColumn", List.class, String.class, long[].class);
+        Method getLongColumn = fieldMapperClass.getMethod("getLongColumn", List.class, String.class, long[].class);
+        Method getIntColumn = fieldMapperClass.getMethod("getIntColumn", List.class, String.class, int[].class);
+
+        // A linked list, so the loop has to iterate rather than index.
+        List<Object> entities = new LinkedList<>();
+        for (int i = 0; i < 3; i++) {
+            entities.add(entityClass.getConstructor().newInstance());
+        }
+
+        setColumn.invoke(null, entities, "name", new Object[]{"a", "b", "c"});
+        setColumn.invoke(null, entities, "tags", new Object[]{List.of("x"), null, List.of()});
+        setIntColumn.invoke(null, entities, "hits", new int[]{1, 2, 3});
+        setIntColumn.invoke(null, entities, "total", new int[]{10, 20, 30});
+        setLongColumn.invoke(null, entities, "total", new long[]{1L << 40, 5L, 6L});
+
+        Object[] names = new Object[3];
+        getColumn.invoke(null, entities, "name", names);
+        assertArrayEquals(new Object[]{"a", "b", "c"}, names);
+        Object[] hits = new Object[3];
+        getColumn.invoke(null, entities, "hits", hits);
+        assertArrayEquals(new Object[]{1, 2, 3}, hits);
+        assertEquals(List.of("x"), get.invoke(null, entities.get(0), "tags"));
+
+        long[] totals = new long[3];
+        getLongColumn.invoke(null, entities, "total", totals);
+        assertArrayEquals(new long[]{1L << 40, 5L, 6L}, totals);
+        long[] widened = new long[3];
+        getLongColumn.invoke(null, entities, "hits", widened);
+        assertArrayEquals(new long[]{1L, 2L, 3L}, widened);
+
+        // The array may be longer than the list, but not shorter.
+        int[] roomy = new int[5];
+        getIntColumn.invoke(null, entities, "hits", roomy);
+        assertArrayEquals(new int[]{1, 2, 3, 0, 0}, roomy);
+        InvocationTargetException tooShort = assertThrows(
+                InvocationTargetException.class, () -> setIntColumn.invoke(null, entities, "hits", new int[2]));
+        assertTrue(tooShort.getCause() instanceof IndexOutOfBoundsException);
+
+        assertMismatch(() -> setLongColumn.invoke(null, entities, "hits", new long[3]), "Field hits cannot be set from long");
+        assertMismatch(() -> getIntColumn.invoke(null, entities, "total", new int[3]), "Field total cannot be read as int");
+        assertMismatch(() -> getLongColumn.invoke(null, entities, "name", new long[3]), "Field name cannot be read as long");
+        assertMismatch(() -> getColumn.invoke(null, entities, "no_such_field", new Object[3]), "Unknown field: no_such_field");
+
+        // The by-name overloads resolve the field once and forward to the ordinal ones.
+        Method getLongColumnByOrdinal = fieldMapperClass.getMethod("getLongColumn", List.class, int.class, long[].class);
+        int totalOrdinal = fieldMapperClass.getField("TOTAL").getInt(null);
+        long[] byOrdinal = new long[3];
+        getLongColumnByOrdinal.invoke(null, entities, totalOrdinal, byOrdinal);
+        assertArrayEquals(totals, byOrdinal);
+        assertMismatch(() -> getLongColumnByOrdinal.invoke(null, entities, 2, new long[3]), "Field name cannot be read as long");
+        assertMismatch(() -> getLongColumnByOrdinal.invoke(null, entities, 4, new long[3]), "Unknown field ordinal: 4");
+    }
+
+    @Test
+    void rowReaderMapsColumnsOnceAndReadsWithTypedGetters() throws Exception {
+        JavaFileObject entity = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.ReportRow",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Entity;
+                        import java.math.BigDecimal;
+                        import java.time.LocalDate;
+
+                        @Entity
+                        public class ReportRow {
+                            public enum Status { OPEN, CLOSED }
+
+                            private long id;
+                            private int hits;
+                            private Double ratio;
+                            private String displayName;
+                            private BigDecimal amount;
+                            private Status status;
+                            private char grade;
+                            private LocalDate day;
+
+                            public long getId() { return id; }
+                            public void setId(long id) { this.id = id; }
+                            public int getHits() { return hits; }
+                            public void setHits(int hits) { this.hits = hits; }
+                            public Double getRatio() { return ratio; }
+                            public void setRatio(Double ratio) { this.ratio = ratio; }
+                            public String getDisplayName() { return displayName; }
+                            public void setDisplayName(String displayName) { this.displayName = displayName; }
+                            public BigDecimal getAmount() { return amount; }
+                            public void setAmount(BigDecimal amount) { this.amount = amount; }
+                            public Status getStatus() { return status; }
+                            public void setStatus(Status status) { this.status = status; }
+                            public char getGrade() { return grade; }
+                            public void setGrade(char grade) { this.grade = grade; }
+                            public LocalDate getDay() { return day; }
+                            public void setDay(LocalDate day) { this.day = day; }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.jdbc=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity);
+
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.ReportRow");
+        Class<?> fieldMapperClass = loader.loadClass("dev.w0fv1.test.ReportRow$FieldMapper");
+        Method get = fieldMapperClass.getMethod("get", entityClass, String.class);
+
+        List<String> labels = List.of("ID", "hits", "ratio", "display_name", "AMOUNT", "status", "grade", "day", "extra");
+        List<String> calls = new ArrayList<>();
+        Object[][] rows = {
+                {7L, 3, 0.5d, "Alice", new BigDecimal("1.25"), "CLOSED", "B", LocalDate.of(2024, 1, 2), "x"},
+                {8L, null, null, null, null, null, null, null, null},
+        };
+        int[] current = {0};
+        Object[] lastRead = {null};
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getColumnCount" -> labels.size();
+                    case "getColumnLabel" -> labels.get((Integer) args[0] - 1);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        ResultSet rs = (ResultSet) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("wasNull")) return lastRead[0] == null;
+                    Object value = rows[current[0]][(Integer) args[0] - 1];
+                    lastRead[0] = value;
+                    calls.add(method.getName());
+                    return switch (method.getName()) {
+                        case "getLong" -> value == null ? 0L : ((Number) value).longValue();
+                        case "getInt" -> value == null ? 0 : ((Number) value).intValue();
+                        case "getDouble" -> value == null ? 0d : ((Number) value).doubleValue();
+                        case "getString", "getBigDecimal" -> value;
+                        case "getObject" -> ((Class<?>) args[1]).cast(value);
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                });
+
+        Object reader = fieldMapperClass.getMethod("rowReader", ResultSetMetaData.class).invoke(null, metaData);
+        assertEquals(List.of("extra"), ((RowReader<?>) reader).unmappedColumns());
+        Method read = RowReader.class.getMethod("read", ResultSet.class, Object.class);
+
+        Object e = entityClass.getConstructor().newInstance();
+        read.invoke(reader, rs, e);
+        assertEquals(List.of("getLong", "getInt", "getDouble", "getString", "getBigDecimal", "getString", "getString", "getObject"), calls);
+        assertEquals(7L, get.invoke(null, e, "id"));
+        assertEquals(3, get.invoke(null, e, "hits"));
+        assertEquals(0.5d, get.invoke(null, e, "ratio"));
+        assertEquals("Alice", get.invoke(null, e, "displayName"));
+        assertEquals(new BigDecimal("1.25"), get.invoke(null, e, "amount"));
+        assertEquals("CLOSED", String.valueOf(get.invoke(null, e, "status")));
+        assertEquals('B', get.invoke(null, e, "grade"));
+        assertEquals(LocalDate.of(2024, 1, 2), get.invoke(null, e, "day"));
+
+        // SQL NULL: primitives get the getter's default, wrappers and references null.
+        current[0] = 1;
+        read.invoke(reader, rs, e);
+        assertEquals(8L, get.invoke(null, e, "id"));
+        assertEquals(0, get.invoke(null, e, "hits"));
+        assertNull(get.invoke(null, e, "ratio"));
+        assertNull(get.invoke(null, e, "displayName"));
+        assertNull(get.invoke(null, e, "status"));
+        assertEquals('\0', get.invoke(null, e, "grade"));
+        assertNull(get.invoke(null, e, "day"));
+
+        // The primitive arms go straight from rs.getLong/getInt to the setter.
+        byte[] classBytes = readGeneratedClass(compilation, "ReportRow$FieldMapper.class");
+        List<String> unboxing = new ArrayList<>();
+        new ClassReader(classBytes).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                if (!name.equals("readColumn")) return null;
+                return new MethodVisitor(Opcodes.ASM9) {
+                    @Override
+                    public void visitMethodInsn(int opcode, String owner, String method, String desc, boolean itf) {
+                        if (method.endsWith("Value") || (method.equals("valueOf") && !owner.equals("java/lang/Double")
+                                && !owner.endsWith("ReportRow$Status"))) {
+                            unboxing.add(owner + "." + method);
+                        }
+                    }
+                };
+            }
+        }, 0);
+        assertEquals(List.of(), unboxing);
+
+        // Without fmapper.jdbc the FieldMapper does not link against java.sql.
+        Compilation withoutJdbc = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(entity);
+        assertThat(withoutJdbc).succeeded();
+        byte[] plainBytes = readGeneratedClass(withoutJdbc, "ReportRow$FieldMapper.class");
+        assertFalse(new String(plainBytes, StandardCharsets.ISO_8859_1).contains("java/sql/"));
+    }
+
+    @Test
+    void propertyPathsWalkEntitiesAndEmbeddables() throws Exception {
+        JavaFileObject address = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.Address",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Embeddable;
+
+                        @Embeddable
+                        public class Address {
+                            private String city;
+                            private int zip;
+
+                            public String getCity() { return city; }
+                            public void setCity(String city) { this.city = city; }
+                            public int getZip() { return zip; }
+                            public void setZip(int zip) { this.zip = zip; }
+                        }
+                        """
+        );
+        JavaFileObject customer = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.Customer",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Entity;
+
+                        @Entity
+                        public class Customer {
+                            private String name;
+                            private Address address;
+
+                            public String getName() { return name; }
+                            public void setName(String name) { this.name = name; }
+                            public Address getAddress() { return address; }
+                            public void setAddress(Address address) { this.address = address; }
+                        }
+                        """
+        );
+        JavaFileObject order = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.PurchaseOrder",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Entity;
+
+                        @Entity
+                        public class PurchaseOrder {
+                            private Customer customer;
+                            private String note;
+
+                            public Customer getCustomer() { return customer; }
+                            public void setCustomer(Customer customer) { this.customer = customer; }
+                            public String getNote() { return note; }
+                            public void setNote(String note) { this.note = note; }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(order, customer, address);
+
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> orderClass = loader.loadClass("dev.w0fv1.test.PurchaseOrder");
+        Class<?> orderMapper = loader.loadClass("dev.w0fv1.test.PurchaseOrder$FieldMapper");
+        Class<?> customerMapper = loader.loadClass("dev.w0fv1.test.Customer$FieldMapper");
+        Class<?> addressMapper = loader.loadClass("dev.w0fv1.test.Address$FieldMapper");
+        Object addressInstance = addressMapper.getField("INSTANCE").get(null);
+        Object customerInstance = customerMapper.getField("INSTANCE").get(null);
+
+        // The embeddable got its own FieldMapper, and nested() links each type to the next.
+        Method nested = customerMapper.getMethod("nested", int.class);
+        assertSame(addressInstance, nested.invoke(null, customerMapper.getField("ADDRESS").getInt(null)));
+        assertNull(nested.invoke(null, customerMapper.getField("NAME").getInt(null)));
+        assertSame(customerInstance, ((EntityAccessor<?>) orderMapper.getField("INSTANCE").get(null)).nested(0));
+        assertMismatch(() -> nested.invoke(null, 2), "Unknown field ordinal: 2");
+
+        Method path = orderMapper.getMethod("path", String.class);
+        @SuppressWarnings("unchecked")
+        PropertyPath<Object> city = (PropertyPath<Object>) path.invoke(null, "customer.address.city");
+        assertSame(city, path.invoke(null, "customer.address.city"));
+        assertEquals("customer.address.city", city.toString());
+
+        Object o = orderClass.getConstructor().newInstance();
+        assertNull(city.get(o));
+        NullPointerException npe = assertThrows(NullPointerException.class, () -> city.set(o, "Paris"));
+        assertEquals("customer is null in path customer.address.city", npe.getMessage());
+
+        city.setCreating(o, "Paris");
+        assertEquals("Paris", city.get(o));
+        @SuppressWarnings("unchecked")
+        PropertyPath<Object> zip = (PropertyPath<Object>) path.invoke(null, "customer.address.zip");
+        zip.set(o, 75001);
+        assertEquals(75001, zip.get(o));
+        Object c = orderMapper.getMethod("getCustomer", orderClass).invoke(null, o);
+        assertNotNull(c);
+        @SuppressWarnings("unchecked")
+        EntityAccessor<Object> customerAccessor = (EntityAccessor<Object>) customerInstance;
+        assertEquals("Paris", customerAccessor.path("address.city").get(c));
+
+        InvocationTargetException badSegment = assertThrows(InvocationTargetException.class, () -> path.invoke(null, "customer.phone"));
+        assertEquals("Unknown field phone of Customer in path customer.phone", badSegment.getCause().getMessage());
+        InvocationTargetException notNested = assertThrows(InvocationTargetException.class, () -> path.invoke(null, "note.length"));
+        assertEquals("Field note in path note.length is not an @Entity or @Embeddable with a FieldMapper",
+                notNested.getCause().getMessage());
+    }
+
+    @Test
+    void mapperHooksRouteSettersThroughSingletonConstants() throws Exception {
+        JavaFileObject source = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.Tagged",
+                """
+                        package dev.w0fv1.test;
+
+                        import dev.w0fv1.mapper.FieldMapper;
+                        import dev.w0fv1.mapper.Mapper;
+                        import jakarta.persistence.Entity;
+                        import java.util.ArrayList;
+                        import java.util.List;
+
+                        @Entity
+                        public class Tagged {
+                            @FieldMapper(setter = UpperCase.class)
+                            private String name;
+                            @FieldMapper(setter = SplitTags.class)
+                            private List<String> tags = new ArrayList<>();
+                            private int count;
+
+                            public String getName() { return name; }
+                            public void setName(String name) { this.name = name; }
+                            public List<String> getTags() { return tags; }
+                            public void setTags(List<String> tags) { this.tags = tags; }
+                            public int getCount() { return count; }
+                            public void setCount(int count) { this.count = count; }
+
+                            public static class UpperCase implements Mapper<Tagged, String> {
+                                @Override
+                                public void accept(Tagged tagged, String name) {
+                                    tagged.setName(name == null ? null : name.toUpperCase());
+                                }
+                            }
+
+                            public static class SplitTags implements Mapper<Object, CharSequence> {
+                                @Override
+                                public void accept(Object tagged, CharSequence tags) {
+                                    ((Tagged) tagged).setTags(new ArrayList<>(List.of(tags.toString().split(","))));
+                                }
+                            }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.accessors=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(source);
+
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.Tagged");
+        Class<?> mapperClass = loader.loadClass("dev.w0fv1.test.Tagged$FieldMapper");
+        Object t = entityClass.getConstructor().newInstance();
+
+        // set by name and by ordinal, and the typed setter, all go through the hook.
+        mapperClass.getMethod("set", entityClass, String.class, Object.class).invoke(null, t, "name", "ada");
+        assertEquals("ADA", entityClass.getMethod("getName").invoke(t));
+        mapperClass.getMethod("set", entityClass, int.class, Object.class).invoke(null, t, 1, "a,b");
+        assertEquals(List.of("a", "b"), entityClass.getMethod("getTags").invoke(t));
+        mapperClass.getMethod("setName", entityClass, String.class).invoke(null, t, "grace");
+        assertEquals("GRACE", entityClass.getMethod("getName").invoke(t));
+        mapperClass.getMethod("setTags", entityClass, CharSequence.class).invoke(null, t, new StringBuilder("x,y,z"));
+        assertEquals(List.of("x", "y", "z"), entityClass.getMethod("getTags").invoke(t));
+
+        // Each hook class is instantiated once, as a private static final constant.
+        java.lang.reflect.Field upperCase = mapperClass.getDeclaredField("fmapper$dev$w0fv1$test$Tagged$UpperCase");
+        int mods = upperCase.getModifiers();
+        assertTrue(Modifier.isPrivate(mods) && Modifier.isStatic(mods) && Modifier.isFinal(mods));
+        assertEquals(loader.loadClass("dev.w0fv1.test.Tagged$UpperCase"), upperCase.getType());
+
+        // Restoring field values bypasses the hooks.
+        entityClass.getMethod("setName", String.class).invoke(t, "mixed Case");
+        Object copy = entityClass.getConstructor().newInstance();
+        mapperClass.getMethod("copy", entityClass, entityClass).invoke(null, t, copy);
+        assertEquals("mixed Case", entityClass.getMethod("getName").invoke(copy));
+        assertEquals(List.of("x", "y", "z"), entityClass.getMethod("getTags").invoke(copy));
+        Object restored = entityClass.getConstructor().newInstance();
+        mapperClass.getMethod("fromArray", entityClass, Object[].class, int.class)
+                .invoke(null, restored, new Object[]{"raw", List.of("q"), 3}, 0);
+        assertEquals("raw", entityClass.getMethod("getName").invoke(restored));
+        assertEquals(List.of("q"), entityClass.getMethod("getTags").invoke(restored));
+
+        // FieldAccessor.set uses the hook too.
+        @SuppressWarnings("unchecked")
+        FieldAccessor<Object> name = (FieldAccessor<Object>) mapperClass.getMethod("accessor", String.class).invoke(null, "name");
+        name.set(t, "lin");
+        assertEquals("LIN", name.get(t));
+    }
+
+    @Test
+    void objectValuedStoresCompileWithoutLintWarnings() {
+        JavaFileObject source = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.Envelope",
+                """
+                        package dev.w0fv1.test;
+
+                        import dev.w0fv1.mapper.FieldMapper;
+                        import dev.w0fv1.mapper.Mapper;
+                        import jakarta.persistence.Entity;
+
+                        @Entity
+                        public class Envelope {
+                            @FieldMapper(setter = ParseId.class)
+                            private Long id;
+                            private Object payload;
+
+                            public Long getId() { return id; }
+                            public void setId(Long id) { this.id = id; }
+                            public Object getPayload() { return payload; }
+                            public void setPayload(Object payload) { this.payload = payload; }
+
+                            public static class ParseId implements Mapper<Envelope, Object> {
+                                @Override
+                                public void accept(Envelope envelope, Object id) {
+                                    envelope.setId(id == null ? null : Long.valueOf(id.toString()));
+                                }
+                            }
+                        }
+                        """
+        );
+
+        // set(..., Object) needs no (Object) cast for a Mapper<E, Object> hook or an Object field. The processing
+        // lint is left out: like other non-claiming processors, fmapper leaves @Entity unclaimed.
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.accessors=true", "-Afmapper.columns=true",
+                        "-Afmapper.json=true", "-Afmapper.binary=true", "-Afmapper.dirtyTracking=true", "-Xlint:all,-processing")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(source);
+        assertThat(compilation).succeededWithoutWarnings();
+    }
+
+    @Test
+    void rejectsUnusableMapperHooks() {
+        JavaFileObject source = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.BadHooks",
+                """
+                        package dev.w0fv1.test;
+
+                        import dev.w0fv1.mapper.FieldMapper;
+                        import dev.w0fv1.mapper.Mapper;
+                        import jakarta.persistence.Entity;
+
+                        @Entity
+                        public class BadHooks {
+                            @FieldMapper(setter = NeedsArgument.class)
+                            private String name;
+                            @FieldMapper(setter = OtherEntity.class)
+                            private String note;
+
+                            public String getName() { return name; }
+                            public void setName(String name) { this.name = name; }
+                            public String getNote() { return note; }
+                            public void setNote(String note) { this.note = note; }
+
+                            public static class NeedsArgument implements Mapper<BadHooks, String> {
+                                public NeedsArgument(String prefix) { }
+                                @Override
+                                public void accept(BadHooks hooks, String name) { }
+                            }
+
+                            public static class OtherEntity implements Mapper<String, String> {
+                                @Override
+                                public void accept(String target, String note) { }
+                            }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(source);
+
+        assertThat(compilation).failed();
+        assertThat(compilation).hadErrorContaining("NeedsArgument.class) on name: the mapper needs a non-private no-arg constructor");
+        assertThat(compilation).hadErrorContaining("OtherEntity.class) on note: the mapper writes into java.lang.String, which BadHooks is not");
+    }
+
+    @Test
+    void coerceModeConvertsValuesOfOtherTypesInDynamicSet() throws Exception {
+        JavaFileObject source = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.Payment",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Entity;
+                        import java.math.BigDecimal;
+                        import java.time.Instant;
+
+                        @Entity
+                        public class Payment {
+                            public enum Status { OPEN, PAID }
+
+                            private Long id;
+                            private int attempts;
+                            private boolean refunded;
+                            private String reference;
+                            private BigDecimal amount;
+                            private Instant paidAt;
+                            private Status status;
+
+                            public Long getId() { return id; }
+                            public void setId(Long id) { this.id = id; }
+                            public int getAttempts() { return attempts; }
+                            public void setAttempts(int attempts) { this.attempts = attempts; }
+                            public boolean getRefunded() { return refunded; }
+                            public void setRefunded(boolean refunded) { this.refunded = refunded; }
+                            public String getReference() { return reference; }
+                            public void setReference(String reference) { this.reference = reference; }
+                            public BigDecimal getAmount() { return amount; }
+                            public void setAmount(BigDecimal amount) { this.amount = amount; }
+                            public Instant getPaidAt() { return paidAt; }
+                            public void setPaidAt(Instant paidAt) { this.paidAt = paidAt; }
+                            public Status getStatus() { return status; }
+                            public void setStatus(Status status) { this.status = status; }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.coerce=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(source);
+
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.Payment");
+        Class<?> mapperClass = loader.loadClass("dev.w0fv1.test.Payment$FieldMapper");
+        Method set = mapperClass.getMethod("set", entityClass, String.class, Object.class);
+        Method get = mapperClass.getMethod("get", entityClass, String.class);
+        Object p = entityClass.getConstructor().newInstance();
+
+        set.invoke(null, p, "id", 7);
+        assertEquals(7L, get.invoke(null, p, "id"));
+        set.invoke(null, p, "id", "8");
+        assertEquals(8L, get.invoke(null, p, "id"));
+        set.invoke(null, p, "id", null);
+        assertNull(get.invoke(null, p, "id"));
+        set.invoke(null, p, "attempts", 3.0);
+        assertEquals(3, get.invoke(null, p, "attempts"));
+        set.invoke(null, p, "attempts", new BigDecimal("4"));
+        assertEquals(4, get.invoke(null, p, "attempts"));
+        set.invoke(null, p, "refunded", "TRUE");
+        assertEquals(true, get.invoke(null, p, "refunded"));
+        set.invoke(null, p, "reference", 42L);
+        assertEquals("42", get.invoke(null, p, "reference"));
+        set.invoke(null, p, "amount", "12.50");
+        assertEquals(new BigDecimal("12.50"), get.invoke(null, p, "amount"));
+        set.invoke(null, p, "paidAt", "2024-05-01T10:15:30Z");
+        assertEquals(Instant.parse("2024-05-01T10:15:30Z"), get.invoke(null, p, "paidAt"));
+        set.invoke(null, p, "status", "PAID");
+        assertEquals("PAID", String.valueOf(get.invoke(null, p, "status")));
+
+        // Correctly typed values are stored as is.
+        Instant now = Instant.now();
+        set.invoke(null, p, "paidAt", now);
+        assertSame(now, get.invoke(null, p, "paidAt"));
+
+        assertMismatch(() -> set.invoke(null, p, "attempts", 3.5), "Cannot convert Double 3.5 to int");
+        assertMismatch(() -> set.invoke(null, p, "attempts", 3_000_000_000L), "Cannot convert Long 3000000000 to int");
+        assertMismatch(() -> set.invoke(null, p, "id", "x1"), "Cannot convert String x1 to long");
+        assertMismatch(() -> set.invoke(null, p, "paidAt", "yesterday"), "Cannot convert String yesterday to Instant");
+        InvocationTargetException nullPrimitive = assertThrows(InvocationTargetException.class, () -> set.invoke(null, p, "attempts", null));
+        assertTrue(nullPrimitive.getCause() instanceof NullPointerException);
+        InvocationTargetException unknownConstant = assertThrows(InvocationTargetException.class, () -> set.invoke(null, p, "status", "LOST"));
+        assertTrue(unknownConstant.getCause() instanceof IllegalArgumentException);
+
+        // Without the option the cast stays strict.
+        Compilation strict = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(source);
+        ClassLoader strictLoader = newClassLoaderFromCompilation(strict);
+        Class<?> strictEntity = strictLoader.loadClass("dev.w0fv1.test.Payment");
+        Method strictSet = strictLoader.loadClass("dev.w0fv1.test.Payment$FieldMapper")
+                .getMethod("set", strictEntity, String.class, Object.class);
+        Object q = strictEntity.getConstructor().newInstance();
+        InvocationTargetException cce = assertThrows(InvocationTargetException.class, () -> strictSet.invoke(null, q, "id", 7));
+        assertTrue(cce.getCause() instanceof ClassCastException);
+    }
+
+    @Test
+    void unknownFieldModesAndTryMethodsAvoidTheExceptionPath() throws Exception {
+        JavaFileObject source = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.Hook",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Entity;
+
+                        @Entity
+                        public class Hook {
+                            private String event;
+                            private int retries;
+
+                            public String getEvent() { return event; }
+                            public void setEvent(String event) { this.event = event; }
+                            public int getRetries() { return retries; }
+                            public void setRetries(int retries) { this.retries = retries; }
+                        }
+                        """
+        );
+
+        for (String mode : List.of("throw", "ignore", "return")) {
+            Compilation compilation = Compiler.javac()
+                    .withOptions("-Afmapper.inline=true", "-Afmapper.unknownField=" + mode)
+                    .withProcessors(new FieldMapperProcessor())
+                    .compile(source);
+            assertThat(compilation).succeeded();
+
+            ClassLoader loader = newClassLoaderFromCompilation(compilation);
+            Class<?> entityClass = loader.loadClass("dev.w0fv1.test.Hook");
+            Class<?> mapperClass = loader.loadClass("dev.w0fv1.test.Hook$FieldMapper");
+            Method set = mapperClass.getMethod("set", entityClass, String.class, Object.class);
+            Method get = mapperClass.getMethod("get", entityClass, String.class);
+            Method setInt = mapperClass.getMethod("setInt", entityClass, String.class, int.class);
+            Method setAll = mapperClass.getMethod("setAll", entityClass, Map.class);
+            Method trySet = mapperClass.getMethod("trySet", entityClass, String.class, Object.class);
+            Method tryGet = mapperClass.getMethod("tryGet", entityClass, String.class);
+            Object hook = entityClass.getConstructor().newInstance();
+
+            // trySet/tryGet never throw for unknown names, whatever the mode.
+            assertEquals(true, trySet.invoke(null, hook, "event", "push"));
+            assertEquals(false, trySet.invoke(null, hook, "sender", "octocat"));
+            assertEquals("push", tryGet.invoke(null, hook, "event"));
+            assertSame(EntityAccessor.UNKNOWN_FIELD, tryGet.invoke(null, hook, "sender"));
+            @SuppressWarnings("unchecked")
+            EntityAccessor<Object> accessor = (EntityAccessor<Object>) mapperClass.getField("INSTANCE").get(null);
+            assertFalse(accessor.trySet(hook, null, 1));
+            assertSame(EntityAccessor.UNKNOWN_FIELD, accessor.tryGet(hook, "sender"));
+
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("event", "release");
+            payload.put("sender", "octocat");
+            payload.put("retries", 2);
+            if (mode.equals("throw")) {
+                assertMismatch(() -> set.invoke(null, hook, "sender", "x"), "Unknown field: sender");
+                assertMismatch(() -> get.invoke(null, hook, "sender"), "Unknown field: sender");
+                assertMismatch(() -> setAll.invoke(null, hook, payload), "Unknown field: sender");
+                continue;
+            }
+            set.invoke(null, hook, "sender", "x");
+            setInt.invoke(null, hook, "sender", 1);
+            setAll.invoke(null, hook, payload);
+            assertEquals("release", get.invoke(null, hook, "event"));
+            assertEquals(2, get.invoke(null, hook, "retries"));
+            assertEquals(mode.equals("ignore") ? null : EntityAccessor.UNKNOWN_FIELD, get.invoke(null, hook, "sender"));
+            // Known fields still report type mismatches.
+            assertMismatch(() -> mapperClass.getMethod("setBoolean", entityClass, String.class, boolean.class)
+                    .invoke(null, hook, "retries", true), "Field retries cannot be set from boolean");
+        }
+
+        Compilation invalid = Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.unknownField=skip")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(source);
+        assertThat(invalid).failed();
+        assertThat(invalid).hadErrorContaining("fmapper.unknownField");
+    }
+
+    @Test
+    void jsonWriterAndReaderRoundTripEveryFieldKind() throws Exception {
+        JavaFileObject dimensions = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.Dimensions",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Embeddable;
+
+                        @Embeddable
+                        public class Dimensions {
+                            private int width;
+                            private int height;
+
+                            public int getWidth() { return width; }
+                            public void setWidth(int width) { this.width = width; }
+                            public int getHeight() { return height; }
+                            public void setHeight(int height) { this.height = height; }
+                        }
+                        """
+        );
+        JavaFileObject shipment = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.Shipment",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Entity;
+                        import java.math.BigDecimal;
+                        import java.util.ArrayList;
+                        import java.util.List;
+
+                        @Entity
+                        public class Shipment {
+                            public enum Status { NEW, SHIPPED }
+
+                            private long id;
+                            private int pieces;
+                            private double weight;
+                            private float ratio;
+                            private boolean fragile;
+                            private char grade;
+                            private Integer priority;
+                            private String label;
+                            private Status status;
+                            private BigDecimal price;
+                            private List<String> tags = new ArrayList<>();
+                            private List<Integer> codes;
+                            private Dimensions box;
+                            private List<Dimensions> parcels;
+
+                            public long getId() { return id; }
+                            public void setId(long id) { this.id = id; }
+                            public int getPieces() { return pieces; }
+                            public void setPieces(int pieces) { this.pieces = pieces; }
+                            public double getWeight() { return weight; }
+                            public void setWeight(double weight) { this.weight = weight; }
+                            public float getRatio() { return ratio; }
+                            public void setRatio(float ratio) { this.ratio = ratio; }
+                            public boolean getFragile() { return fragile; }
+                            public void setFragile(boolean fragile) { this.fragile = fragile; }
+                            public char getGrade() { return grade; }
+                            public void setGrade(char grade) { this.grade = grade; }
+                            public Integer getPriority() { return priority; }
+                            public void setPriority(Integer priority) { this.priority = priority; }
+                            public String getLabel() { return label; }
+                            public void setLabel(String label) { this.label = label; }
+                            public Status getStatus() { return status; }
+                            public void setStatus(Status status) { this.status = status; }
+                            public BigDecimal getPrice() { return price; }
+                            public void setPrice(BigDecimal price) { this.price = price; }
+                            public List<String> getTags() { return tags; }
+                            public void setTags(List<String> tags) { this.tags = tags; }
+                            public List<Integer> getCodes() { return codes; }
+                            public void setCodes(List<Integer> codes) { this.codes = codes; }
+                            public Dimensions getBox() { return box; }
+                            public void setBox(Dimensions box) { this.box = box; }
+                            public List<Dimensions> getParcels() { return parcels; }
+                            public void setParcels(List<Dimensions> parcels) { this.parcels = parcels; }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.json=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(shipment, dimensions);
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.Shipment");
+        Class<?> mapperClass = loader.loadClass("dev.w0fv1.test.Shipment$FieldMapper");
+        @SuppressWarnings("unchecked")
+        EntityAccessor<Object> accessor = (EntityAccessor<Object>) mapperClass.getField("INSTANCE").get(null);
+        @SuppressWarnings("unchecked")
+        EntityAccessor<Object> dims = (EntityAccessor<Object>) loader.loadClass("dev.w0fv1.test.Dimensions$FieldMapper")
+                .getField("INSTANCE").get(null);
+        Method writeText = mapperClass.getMethod("writeJson", entityClass, Appendable.class);
+        Method writeBuffer = mapperClass.getMethod("writeJson", entityClass, ByteBuffer.class);
+        Method toBytes = mapperClass.getMethod("toJsonBytes", entityClass);
+        Method read = mapperClass.getMethod("readJson", CharSequence.class, entityClass);
+
+        Object box = dims.newInstance();
+        dims.set(box, "width", 3);
+        dims.set(box, "height", 4);
+        Object parcel = dims.newInstance();
+        dims.set(parcel, "width", 1);
+        Object s = accessor.newInstance();
+        accessor.set(s, "id", Long.MAX_VALUE);
+        accessor.set(s, "pieces", -7);
+        accessor.set(s, "weight", 2.5);
+        accessor.set(s, "ratio", 0.1f);
+        accessor.set(s, "fragile", true);
+        accessor.set(s, "grade", 'A');
+        accessor.set(s, "label", "Fragile \"glass\"\n\u00e9\u4e2d\ud83d\udce6\\");
+        accessor.set(s, "status", loader.loadClass("dev.w0fv1.test.Shipment$Status").getEnumConstants()[1]);
+        accessor.set(s, "price", new BigDecimal("12345678901234567890.01"));
+        accessor.set(s, "tags", List.of("a", "b"));
+        accessor.set(s, "codes", Arrays.asList(1, null, 3));
+        accessor.set(s, "box", box);
+        accessor.set(s, "parcels", List.of(parcel));
+
+        String expected = "{\"id\":9223372036854775807,\"pieces\":-7,\"weight\":2.5,\"ratio\":0.1,\"fragile\":true,"
+                + "\"grade\":\"A\",\"priority\":null,\"label\":\"Fragile \\\"glass\\\"\\n\u00e9\u4e2d\ud83d\udce6\\\\\","
+                + "\"status\":\"SHIPPED\",\"price\":12345678901234567890.01,\"tags\":[\"a\",\"b\"],\"codes\":[1,null,3],"
+                + "\"box\":{\"width\":3,\"height\":4},\"parcels\":[{\"width\":1,\"height\":0}]}";
+        StringBuilder text = new StringBuilder();
+        writeText.invoke(null, s, text);
+        assertEquals(expected, text.toString());
+        // The UTF-8 variants encode the same text, including the supplementary character.
+        byte[] utf8 = expected.getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(utf8, (byte[]) toBytes.invoke(null, s));
+        ByteBuffer buffer = ByteBuffer.allocate(utf8.length);
+        writeBuffer.invoke(null, s, buffer);
+        assertArrayEquals(utf8, buffer.array());
+
+        Object copy = accessor.newInstance();
+        Object tags = accessor.get(copy, "tags");
+        read.invoke(null, expected, copy);
+        StringBuilder again = new StringBuilder();
+        accessor.writeJson(copy, JsonWriter.of(again));
+        assertEquals(expected, again.toString());
+        // Lists are refilled in place, like set(); nested types are read through their own FieldMapper.
+        assertSame(tags, accessor.get(copy, "tags"));
+        assertEquals(Arrays.asList(1, null, 3), accessor.get(copy, "codes"));
+        assertSame(box.getClass(), accessor.get(copy, "box").getClass());
+        assertEquals(4, dims.get(accessor.get(copy, "box"), "height"));
+
+        // readJson reads back a null list written by writeJson, over an initialized one.
+        Object noTags = accessor.newInstance();
+        accessor.set(noTags, "tags", null);
+        String nulls = new String((byte[]) toBytes.invoke(null, noTags), StandardCharsets.UTF_8);
+        assertTrue(nulls.contains("\"tags\":null,\"codes\":null"));
+        Object fresh = accessor.newInstance();
+        assertNotNull(accessor.get(fresh, "tags"));
+        accessor.set(fresh, "parcels", List.of(dims.newInstance()));
+        read.invoke(null, nulls, fresh);
+        assertNull(accessor.get(fresh, "tags"));
+        assertNull(accessor.get(fresh, "parcels"));
+
+        // Unknown members are skipped whatever they hold; whitespace and escapes are accepted.
+        Object other = accessor.newInstance();
+        accessor.readJson(new JsonReader(" { \"extra\" : {\"a\":[1,\"]}\",{}]} , \"pieces\":3e0,\"label\":\"\\u0041\\/b\",\"weight\":\"NaN\"}\n"), other);
+        assertEquals(3, accessor.get(other, "pieces"));
+        assertEquals("A/b", accessor.get(other, "label"));
+        assertTrue(Double.isNaN((Double) accessor.get(other, "weight")));
+
+        assertJsonError(() -> read.invoke(null, "{\"pieces\":1} x", other), "Malformed JSON at 13: unexpected 'x' after the value");
+        assertJsonError(() -> read.invoke(null, "{\"pieces\":1.5}", other), "Malformed JSON at 10: expected a int, got 1.5");
+        assertJsonError(() -> read.invoke(null, "{\"pieces\":1 \"id\":2}", other), "Malformed JSON at 12: expected ','");
+        assertJsonError(() -> read.invoke(null, "{\"status\":\"LOST\"}", other), "Malformed JSON at 10: no Status constant 'LOST'");
+        assertJsonError(() -> read.invoke(null, "[".repeat(600), other), "Malformed JSON at 0: expected '{'");
+        assertJsonError(() -> read.invoke(null, "{\"extra\":" + "[".repeat(600), other), "Malformed JSON at 521: nesting deeper than 512");
+    }
+
+    @Test
+    void binaryCodecRoundTripsEveryFieldKindAndChecksTheSchema() throws Exception {
+        JavaFileObject dimensions = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.Dimensions",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Embeddable;
+
+                        @Embeddable
+                        public class Dimensions {
+                            private int width;
+                            private String unit;
+
+                            public int getWidth() { return width; }
+                            public void setWidth(int width) { this.width = width; }
+                            public String getUnit() { return unit; }
+                            public void setUnit(String unit) { this.unit = unit; }
+                        }
+                        """
+        );
+        JavaFileObject parcel = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.Parcel",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Entity;
+                        import java.math.BigDecimal;
+                        import java.time.Instant;
+                        import java.util.ArrayList;
+                        import java.util.List;
+
+                        @Entity
+                        public class Parcel {
+                            public enum Status { NEW, SHIPPED }
+
+                            private long id;
+                            private short count;
+                            private byte flags;
+                            private double weight;
+                            private float ratio;
+                            private boolean fragile;
+                            private char grade;
+                            private Integer priority;
+                            private Long version;
+                            private String label;
+                            private byte[] payload;
+                            private Status status;
+                            private BigDecimal price;
+                            private Instant sent;
+                            private Object extra;
+                            private List<String> tags = new ArrayList<>();
+                            private List<Status> history;
+                            private Dimensions box;
+                            private List<Dimensions> parts;
+
+                            public long getId() { return id; }
+                            public void setId(long id) { this.id = id; }
+                            public short getCount() { return count; }
+                            public void setCount(short count) { this.count = count; }
+                            public byte getFlags() { return flags; }
+                            public void setFlags(byte flags) { this.flags = flags; }
+                            public double getWeight() { return weight; }
+                            public void setWeight(double weight) { this.weight = weight; }
+                            public float getRatio() { return ratio; }
+                            public void setRatio(float ratio) { this.ratio = ratio; }
+                            public boolean getFragile() { return fragile; }
+                            public void setFragile(boolean fragile) { this.fragile = fragile; }
+                            public char getGrade() { return grade; }
+                            public void setGrade(char grade) { this.grade = grade; }
+                            public Integer getPriority() { return priority; }
+                            public void setPriority(Integer priority) { this.priority = priority; }
+                            public Long getVersion() { return version; }
+                            public void setVersion(Long version) { this.version = version; }
+                            public String getLabel() { return label; }
+                            public void setLabel(String label) { this.label = label; }
+                            public byte[] getPayload() { return payload; }
+                            public void setPayload(byte[] payload) { this.payload = payload; }
+                            public Status getStatus() { return status; }
+                            public void setStatus(Status status) { this.status = status; }
+                            public BigDecimal getPrice() { return price; }
+                            public void setPrice(BigDecimal price) { this.price = price; }
+                            public Instant getSent() { return sent; }
+                            public void setSent(Instant sent) { this.sent = sent; }
+                            public Object getExtra() { return extra; }
+                            public void setExtra(Object extra) { this.extra = extra; }
+                            public List<String> getTags() { return tags; }
+                            public void setTags(List<String> tags) { this.tags = tags; }
+                            public List<Status> getHistory() { return history; }
+                            public void setHistory(List<Status> history) { this.history = history; }
+                            public Dimensions getBox() { return box; }
+                            public void setBox(Dimensions box) { this.box = box; }
+                            public List<Dimensions> getParts() { return parts; }
+                            public void setParts(List<Dimensions> parts) { this.parts = parts; }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.binary=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(parcel, dimensions);
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> mapperClass = loader.loadClass("dev.w0fv1.test.Parcel$FieldMapper");
+        @SuppressWarnings("unchecked")
+        EntityAccessor<Object> accessor = (EntityAccessor<Object>) mapperClass.getField("INSTANCE").get(null);
+        @SuppressWarnings("unchecked")
+        EntityAccessor<Object> dims = (EntityAccessor<Object>) loader.loadClass("dev.w0fv1.test.Dimensions$FieldMapper")
+                .getField("INSTANCE").get(null);
+        Object[] statuses = loader.loadClass("dev.w0fv1.test.Parcel$Status").getEnumConstants();
+
+        Object box = dims.newInstance();
+        dims.set(box, "width", 3);
+        dims.set(box, "unit", "cm");
+        Object part = dims.newInstance();
+        dims.set(part, "width", 1);
+        Object p = accessor.newInstance();
+        accessor.set(p, "id", Long.MIN_VALUE);
+        accessor.set(p, "count", (short) -2);
+        accessor.set(p, "flags", (byte) 0x7f);
+        accessor.set(p, "weight", 2.5);
+        accessor.set(p, "ratio", Float.NaN);
+        accessor.set(p, "fragile", true);
+        accessor.set(p, "grade", '中');
+        accessor.set(p, "priority", 9);
+        accessor.set(p, "label", "café 📦");
+        accessor.set(p, "payload", new byte[]{1, 2, 3});
+        accessor.set(p, "status", statuses[1]);
+        accessor.set(p, "price", new BigDecimal("-12345678901234567890.01"));
+        accessor.set(p, "sent", Instant.parse("2024-05-06T07:08:09.123Z"));
+        accessor.set(p, "extra", List.of(1L, "x", Map.of("k", true)));
+        accessor.set(p, "tags", List.of("a", "b"));
+        accessor.set(p, "history", Arrays.asList(statuses[0], null, statuses[1]));
+        accessor.set(p, "box", box);
+        accessor.set(p, "parts", Arrays.asList(part, null));
+
+        for (ByteBuffer buffer : List.of(ByteBuffer.allocate(512), ByteBuffer.allocateDirect(512))) {
+            accessor.writeTo(p, buffer);
+            // The size is exact, so callers can allocate once.
+            assertEquals(accessor.serializedSize(p), buffer.position());
+            buffer.flip();
+            Object copy = accessor.newInstance();
+            Object tags = accessor.get(copy, "tags");
+            accessor.readFrom(buffer, copy);
+            assertFalse(buffer.hasRemaining());
+
+            for (String field : List.of("id", "count", "flags", "weight", "ratio", "fragile", "grade", "priority", "label",
+                    "status", "price", "sent", "extra", "tags", "history")) {
+                assertEquals(accessor.get(p, field), accessor.get(copy, field), field);
+            }
+            assertNull(accessor.get(copy, "version"));
+            assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) accessor.get(copy, "payload"));
+            // Lists are refilled in place, like set().
+            assertSame(tags, accessor.get(copy, "tags"));
+            assertEquals("cm", dims.get(accessor.get(copy, "box"), "unit"));
+            List<?> parts = (List<?>) accessor.get(copy, "parts");
+            assertEquals(2, parts.size());
+            assertEquals(1, dims.get(parts.get(0), "width"));
+            assertNull(dims.get(parts.get(0), "unit"));
+            assertNull(parts.get(1));
+        }
+
+        // Nulls are a bit each and read back over existing values.
+        Object empty = accessor.newInstance();
+        ByteBuffer buffer = ByteBuffer.allocate(accessor.serializedSize(empty));
+        accessor.writeTo(empty, buffer);
+        assertFalse(buffer.hasRemaining());
+        accessor.readFrom(buffer.flip(), p);
+        assertNull(accessor.get(p, "label"));
+        assertNull(accessor.get(p, "box"));
+        assertNull(accessor.get(p, "history"));
+        assertEquals(List.of(), accessor.get(p, "tags"));
+        assertEquals(0L, accessor.get(p, "id"));
+
+        // The header rejects data written with another layout and leaves the buffer where it was.
+        int schema = mapperClass.getField("BINARY_SCHEMA").getInt(null);
+        ByteBuffer foreign = ByteBuffer.allocate(8).putInt(schema + 1).putInt(0).flip();
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> accessor.readFrom(foreign, accessor.newInstance()));
+        assertEquals(String.format(Locale.ROOT, "Buffer was written with a different field layout of Parcel (schema %08x, expected %08x)",
+                schema + 1, schema), ex.getMessage());
+        assertEquals(0, foreign.position());
+
+        // The schema covers field names, types, enum constants and nested layouts.
+        Compilation renamed = Compiler.javac()
+                .withOptions("-Afmapper.inline=true", "-Afmapper.binary=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(parcel, JavaFileObjects.forSourceString(
+                        "dev.w0fv1.test.Dimensions",
+                        """
+                                package dev.w0fv1.test;
+
+                                @jakarta.persistence.Embeddable
+                                public class Dimensions {
+                                    private long width;
+                                    private String unit;
+
+                                    public long getWidth() { return width; }
+                                    public void setWidth(long width) { this.width = width; }
+                                    public String getUnit() { return unit; }
+                                    public void setUnit(String unit) { this.unit = unit; }
+                                }
+                                """
+                ));
+        assertThat(renamed).succeeded();
+        assertNotEquals(schema, newClassLoaderFromCompilation(renamed).loadClass("dev.w0fv1.test.Parcel$FieldMapper")
+                .getField("BINARY_SCHEMA").getInt(null));
+    }
+
+    @Test
+    void contentHashAndContentEqualsCompareFieldValues() throws Exception {
+        JavaFileObject dimensions = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.Dimensions",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Embeddable;
+
+                        @Embeddable
+                        public class Dimensions {
+                            private int width;
+                            private String unit;
+
+                            public int getWidth() { return width; }
+                            public void setWidth(int width) { this.width = width; }
+                            public String getUnit() { return unit; }
+                            public void setUnit(String unit) { this.unit = unit; }
+                        }
+                        """
+        );
+        JavaFileObject item = JavaFileObjects.forSourceString(
+                "dev.w0fv1.test.Item",
+                """
+                        package dev.w0fv1.test;
+
+                        import jakarta.persistence.Entity;
+                        import java.util.List;
+
+                        @Entity
+                        public class Item {
+                            private long id;
+                            private double weight;
+                            private boolean active;
+                            private String name;
+                            private byte[] digest;
+                            private String[] aliases;
+                            private List<String> tags;
+                            private Dimensions box;
+                            private List<Dimensions> parts;
+
+                            public long getId() { return id; }
+                            public void setId(long id) { this.id = id; }
+                            public double getWeight() { return weight; }
+                            public void setWeight(double weight) { this.weight = weight; }
+                            public boolean getActive() { return active; }
+                            public void setActive(boolean active) { this.active = active; }
+                            public String getName() { return name; }
+                            public void setName(String name) { this.name = name; }
+                            public byte[] getDigest() { return digest; }
+                            public void setDigest(byte[] digest) { this.digest = digest; }
+                            public String[] getAliases() { return aliases; }
+                            public void setAliases(String[] aliases) { this.aliases = aliases; }
+                            public List<String> getTags() { return tags; }
+                            public void setTags(List<String> tags) { this.tags = tags; }
+                            public Dimensions getBox() { return box; }
+                            public void setBox(Dimensions box) { this.box = box; }
+                            public List<Dimensions> getParts() { return parts; }
+                            public void setParts(List<Dimensions> parts) { this.parts = parts; }
+                        }
+                        """
+        );
+
+        Compilation compilation = Compiler.javac()
+                .withOptions("-Afmapper.inline=true")
+                .withProcessors(new FieldMapperProcessor())
+                .compile(item, dimensions);
+        assertThat(compilation).succeeded();
+
+        ClassLoader loader = newClassLoaderFromCompilation(compilation);
+        Class<?> entityClass = loader.loadClass("dev.w0fv1.test.Item");
+        Class<?> mapperClass = loader.loadClass("dev.w0fv1.test.Item$FieldMapper");
+        @SuppressWarnings("unchecked")
+        EntityAccessor<Object> accessor = (EntityAccessor<Object>) mapperClass.getField("INSTANCE").get(null);
+        @SuppressWarnings("unchecked")
+        EntityAccessor<Object> dims = (EntityAccessor<Object>) loader.loadClass("dev.w0fv1.test.Dimensions$FieldMapper")
+                .getField("INSTANCE").get(null);
+        Method maskedHash = mapperClass.getMethod("contentHash", entityClass, long.class);
+
+        // The hash is the List.hashCode-style fold of the field hashes, in declaration order.
+        Object box = dims.newInstance();
+        dims.set(box, "width", 3);
+        dims.set(box, "unit", "cm");
+        assertEquals(31 * (31 + Integer.hashCode(3)) + "cm".hashCode(), dims.contentHash(box));
+        assertEquals(0, dims.contentHash(null));
+
+        Object[] items = new Object[2];
+        for (int i = 0; i < items.length; i++) {
+            Object b = dims.newInstance();
+            dims.set(b, "width", 3);
+            dims.set(b, "unit", "cm");
+            Object part = dims.newInstance();
+            dims.set(part, "width", 1);
+            Object it = accessor.newInstance();
+            accessor.set(it, "id", 42L);
+            accessor.set(it, "weight", Double.NaN);
+            accessor.set(it, "active", true);
+            accessor.set(it, "name", "bolt");
+            accessor.set(it, "digest", new byte[]{1, 2});
+            accessor.set(it, "aliases", new String[]{"screw"});
+            accessor.set(it, "tags", List.of("m4"));
+            accessor.set(it, "box", b);
+            accessor.set(it, "parts", Arrays.asList(part, null));
+            items[i] = it;
+        }
+        Object a = items[0];
+        Object b = items[1];
+        // Arrays and nested embeddables compare by content, and NaN equals itself.
+        assertTrue(accessor.contentEquals(a, b));
+        assertEquals(accessor.contentHash(a), accessor.contentHash(b));
+        assertTrue(accessor.contentEquals(null, null));
+        assertFalse(accessor.contentEquals(a, null));
+
+        dims.set(((List<?>) accessor.get(b, "parts")).get(0), "unit", "mm");
+        assertFalse(accessor.contentEquals(a, b));
+        assertNotEquals(accessor.contentHash(a), accessor.contentHash(b));
+        dims.set(((List<?>) accessor.get(b, "parts")).get(0), "unit", null);
+        dims.set(accessor.get(b, "box"), "width", 4);
+        assertFalse(accessor.contentEquals(a, b));
+        dims.set(accessor.get(b, "box"), "width", 3);
+        accessor.set(b, "digest", new byte[]{1, 3});
+        assertFalse(accessor.contentEquals(a, b));
+
+        // The masked hash covers the selected fields only; all bits give contentHash.
+        long digest = 1L << accessor.indexOf("digest");
+        assertEquals(maskedHash.invoke(null, a, ~digest), maskedHash.invoke(null, b, ~digest));
+        assertNotEquals(maskedHash.invoke(null, a, digest), maskedHash.invoke(null, b, digest));
+        assertEquals(accessor.contentHash(a), maskedHash.invoke(null, a, -1L));
+        assertEquals(1, maskedHash.invoke(null, a, 0L));
+        assertEquals(0, maskedHash.invoke(null, null, -1L));
+    }
+
+    private static void assertJsonError(Executable call, String message) {
+        InvocationTargetException ex = assertThrows(InvocationTargetException.class, call);
+        assertTrue(ex.getCause() instanceof IllegalArgumentException);
+        assertEquals(message, ex.getCause().getMessage());
+    }
+
+    private static void assertMismatch(Executable call, String message) {
+        InvocationTargetException ex = assertThrows(InvocationTargetException.class, call);
+        assertTrue(ex.getCause() instanceof IllegalArgumentException);
+        assertEquals(message, ex.getCause().getMessage());
+    }
+
+    /** Runs {@link FieldMapperProcessor} against a wrapped environment. */
+    private static final class WrappedEnvironmentProcessor extends AbstractProcessor {
+
+        private final FieldMapperProcessor delegate = new FieldMapperProcessor();
+        private final UnaryOperator<ProcessingEnvironment> wrapper;
+
+        WrappedEnvironmentProcessor(UnaryOperator<ProcessingEnvironment> wrapper) {
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public Set<String> getSupportedAnnotationTypes() {
+            return delegate.getSupportedAnnotationTypes();
+        }
+
+        @Override
+        public Set<String> getSupportedOptions() {
+            return delegate.getSupportedOptions();
+        }
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return delegate.getSupportedSourceVersion();
+        }
+
+        @Override
+        public synchronized void init(ProcessingEnvironment env) {
+            super.init(env);
+            delegate.init(wrapper.apply(env));
+        }
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            return delegate.process(annotations, roundEnv);
+        }
+    }
+
+    /** Forwards everything, keeping javac's environment in a private field the way build tools do. */
+    private static final class DelegatingProcessingEnvironment implements ProcessingEnvironment {
+
+        private final ProcessingEnvironment delegate;
+
+        DelegatingProcessingEnvironment(ProcessingEnvironment delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Map<String, String> getOptions() {
+            return delegate.getOptions();
+        }
+
+        @Override
+        public Messager getMessager() {
+            return delegate.getMessager();
+        }
+
+        @Override
+        public Filer getFiler() {
+            return delegate.getFiler();
+        }
+
+        @Override
+        public Elements getElementUtils() {
+            return delegate.getElementUtils();
+        }
+
+        @Override
+        public Types getTypeUtils() {
+            return delegate.getTypeUtils();
+        }
+
+        @Override
+        public SourceVersion getSourceVersion() {
+            return delegate.getSourceVersion();
+        }
+
+        @Override
+        public Locale getLocale() {
+            return delegate.getLocale();
+        }
+    }
+
+    /** Bytecode length of every method, keyed by name and descriptor. */
+    private static Map<String, Integer> methodCodeSizes(Compilation compilation, String fileSuffix) throws IOException {
+        // Re-emit each method through a ClassWriter; a label placed after the last instruction sits at the code length.
+        Map<String, Integer> codeSizes = new HashMap<>();
+        ClassWriter writer = new ClassWriter(0);
+        new ClassReader(readGeneratedClass(compilation, fileSuffix)).accept(new ClassVisitor(Opcodes.ASM9, writer) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                return new MethodVisitor(Opcodes.ASM9, super.visitMethod(access, name, descriptor, signature, exceptions)) {
+                    @Override
+                    public void visitMaxs(int maxStack, int maxLocals) {
+                        Label end = new Label();
+                        super.visitLabel(end);
+                        codeSizes.put(name + descriptor, end.getOffset());
+                        super.visitMaxs(maxStack, maxLocals);
+                    }
+                };
+            }
+        }, 0);
+        return codeSizes;
+    }
+
+    private static byte[] readGeneratedClass(Compilation compilation, String fileSuffix) throws IOException {
+        JavaFileObject classFile = compilation.generatedFiles().stream()
+                .filter(f -> f.getName().endsWith(fileSuffix))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Missing injected class file: " + fileSuffix));
+
+        try (InputStream in = classFile.openInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
     private static ClassLoader newClassLoaderFromCompilation(Compilation compilation) throws IOException {
         Map<String, byte[]> classes = new HashMap<>();
 
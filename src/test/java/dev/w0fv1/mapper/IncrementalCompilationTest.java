@@ -0,0 +1,161 @@
+package dev.w0fv1.mapper;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs a real Gradle build with fmapper on the processor path, which is registered as dynamic: isolating, or
+ * aggregating with {@code fmapper.registry}.
+ */
+class IncrementalCompilationTest {
+
+    /** fmapper classes plus its runtime classpath, set by the {@code test} task. */
+    private static final String CLASSPATH_PROPERTY = "fmapper.testkit.classpath";
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    void touchingOneEntityRecompilesOnlyThatEntityAndItsDependents() throws IOException {
+        String classpath = System.getProperty(CLASSPATH_PROPERTY);
+        assumeTrue(classpath != null, CLASSPATH_PROPERTY + " is only set when running under Gradle");
+
+        writeBuild(classpath, "");
+        writeEntity("Order");
+        writeEntity("Customer");
+        write("src/main/java/demo/OrderReader.java", """
+                package demo;
+
+                public class OrderReader {
+                    public static long id(Order order) {
+                        return Order.FieldMapper.getId(order);
+                    }
+                }
+                """);
+
+        BuildResult first = gradle("compileJava");
+        assertEquals(TaskOutcome.SUCCESS, first.task(":compileJava").getOutcome());
+        Path classes = projectDir.resolve("build/classes/java/main/demo");
+        assertTrue(Files.exists(classes.resolve("Order$FieldMapper.class")));
+        assertTrue(Files.exists(classes.resolve("Customer$FieldMapper.class")));
+
+        // Backdate every class file so any rewrite is visible regardless of timestamp resolution.
+        FileTime past = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+        try (var files = Files.list(classes)) {
+            for (Path file : files.toList()) {
+                Files.setLastModifiedTime(file, past);
+            }
+        }
+
+        Path order = projectDir.resolve("src/main/java/demo/Order.java");
+        Files.writeString(order, Files.readString(order).replace("private long id;", "private long id; // touched"));
+
+        BuildResult second = gradle("compileJava", "--info");
+        assertEquals(TaskOutcome.SUCCESS, second.task(":compileJava").getOutcome());
+        assertFalse(second.getOutput().contains("Full recompilation is required"), second.getOutput());
+
+        assertNotEquals(past, Files.getLastModifiedTime(classes.resolve("Order.class")));
+        assertNotEquals(past, Files.getLastModifiedTime(classes.resolve("Order$FieldMapper.class")));
+        assertNotEquals(past, Files.getLastModifiedTime(classes.resolve("OrderReader.class")));
+        assertEquals(past, Files.getLastModifiedTime(classes.resolve("Customer.class")));
+        assertEquals(past, Files.getLastModifiedTime(classes.resolve("Customer$FieldMapper.class")));
+    }
+
+    @Test
+    void registryIsRegeneratedWithEveryEntityOnIncrementalBuilds() throws IOException {
+        String classpath = System.getProperty(CLASSPATH_PROPERTY);
+        assumeTrue(classpath != null, CLASSPATH_PROPERTY + " is only set when running under Gradle");
+
+        writeBuild(classpath, "-Afmapper.registry=true");
+        writeEntity("Order");
+        writeEntity("Customer");
+
+        assertEquals(TaskOutcome.SUCCESS, gradle("compileJava").task(":compileJava").getOutcome());
+        Path serviceFile = projectDir.resolve("build/classes/java/main/META-INF/services/dev.w0fv1.mapper.FieldMapperIndex");
+        List<String> before = Files.readAllLines(serviceFile);
+        assertEquals(1, before.size());
+        Path index = projectDir.resolve("build/generated/sources/annotationProcessor/java/main/"
+                + before.get(0).replace('.', '/') + ".java");
+        assertTrue(Files.readString(index).contains("demo.Customer.FieldMapper.INSTANCE"));
+
+        Path order = projectDir.resolve("src/main/java/demo/Order.java");
+        Files.writeString(order, Files.readString(order).replace("private long id;", "private long id; // touched"));
+
+        BuildResult second = gradle("compileJava", "--info");
+        assertEquals(TaskOutcome.SUCCESS, second.task(":compileJava").getOutcome());
+        assertFalse(second.getOutput().contains("Full recompilation is required"), second.getOutput());
+        assertEquals(before, Files.readAllLines(serviceFile));
+        String regenerated = Files.readString(index);
+        assertTrue(regenerated.contains("demo.Order.FieldMapper.INSTANCE"), regenerated);
+        assertTrue(regenerated.contains("demo.Customer.FieldMapper.INSTANCE"), regenerated);
+    }
+
+    private BuildResult gradle(String... arguments) {
+        return GradleRunner.create()
+                .withProjectDir(projectDir.toFile())
+                .withArguments(arguments)
+                .build();
+    }
+
+    private void writeBuild(String classpath, String extraCompilerArg) throws IOException {
+        String files = Arrays.stream(classpath.split(File.pathSeparator))
+                .map(path -> "\"" + path.replace("\\", "/") + "\"")
+                .collect(Collectors.joining(", "));
+        write("settings.gradle.kts", "rootProject.name = \"incremental\"\n");
+        write("build.gradle.kts", """
+                plugins {
+                    java
+                }
+
+                dependencies {
+                    compileOnly(files(%1$s))
+                    annotationProcessor(files(%1$s))
+                }
+
+                tasks.withType<JavaCompile>().configureEach {
+                    options.compilerArgs.addAll(listOf("-Afmapper.inline=true", "%2$s").filter { it.isNotEmpty() })
+                    options.isFork = true
+                    options.forkOptions.jvmArgs = listOf("api", "code", "processing", "tree", "util")
+                        .map { "--add-exports=jdk.compiler/com.sun.tools.javac.$it=ALL-UNNAMED" }
+                        .toMutableList()
+                }
+                """.formatted(files, extraCompilerArg));
+    }
+
+    private void writeEntity(String name) throws IOException {
+        write("src/main/java/demo/" + name + ".java", """
+                package demo;
+
+                import jakarta.persistence.Entity;
+
+                @Entity
+                public class %1$s {
+                    private long id;
+
+                    public long getId() { return id; }
+                    public void setId(long id) { this.id = id; }
+                }
+                """.formatted(name));
+    }
+
+    private void write(String relativePath, String content) throws IOException {
+        Path file = projectDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}